@@ -0,0 +1,273 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+
+import java.util.*;
+
+/**
+ * Optimización de Saltos sobre las instrucciones MIPS generadas
+ *
+ * TRANSFORMACIONES:
+ * - Comparación con cero:  beq $r, $zero, L      -> beqz $r, L
+ * - Jump threading:        j L ... L: j M        -> j M
+ * - Inversión:             blt a, b, L1 ; j L2 ; L1:  -> bge a, b, L2 ; L1:
+ * - Salto al siguiente:    b.. L ; L:            -> L:
+ *
+ * Las condiciones de los branches no tienen efectos, así que un branch
+ * cuyo destino es la instrucción siguiente se elimina completo. Se repite
+ * hasta que ninguna transformación aplica.
+ */
+public class BranchOptimizer {
+
+    /** Límite de pasadas por seguridad */
+    private static final int MAX_PASSES = 20;
+
+    private static final String ZERO = "$zero";
+
+    private int zeroCompares;
+    private int threaded;
+    private int inverted;
+    private int removed;
+
+    // ============================================
+    // OPTIMIZACIÓN
+    // ============================================
+    public List<MIPSInstruction> optimize(List<MIPSInstruction> code) {
+        zeroCompares = 0;
+        threaded = 0;
+        inverted = 0;
+        removed = 0;
+
+        List<MIPSInstruction> current = useZeroBranches(code);
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            int before = threaded + inverted + removed;
+            current = threadJumps(current);
+            current = invertBranches(current);
+            current = removeBranchesToNext(current);
+            if (threaded + inverted + removed == before) break;
+        }
+        return current;
+    }
+
+    // ============================================
+    // COMPARACIÓN CON CERO
+    // ============================================
+    private List<MIPSInstruction> useZeroBranches(List<MIPSInstruction> code) {
+        List<MIPSInstruction> result = new ArrayList<>(code.size());
+        for (MIPSInstruction instr : code) {
+            OpCode op = instr.getOpcode();
+            if ((op == OpCode.BEQ || op == OpCode.BNE)
+                    && ZERO.equals(instr.getRs()) != ZERO.equals(instr.getRt())) {
+                String reg = ZERO.equals(instr.getRt()) ? instr.getRs() : instr.getRt();
+                MIPSInstruction unary = MIPSInstruction.branchUnary(
+                        op == OpCode.BEQ ? OpCode.BEQZ : OpCode.BNEZ, reg, instr.getLabel());
+                unary.setComment(instr.getComment());
+                result.add(unary);
+                zeroCompares++;
+            } else {
+                result.add(instr);
+            }
+        }
+        return result;
+    }
+
+    // ============================================
+    // JUMP THREADING
+    // ============================================
+    /**
+     * Redirige cada salto cuyo destino es una etiqueta seguida de j M
+     */
+    private List<MIPSInstruction> threadJumps(List<MIPSInstruction> code) {
+        Map<String, Integer> labels = labelPositions(code);
+        List<MIPSInstruction> result = new ArrayList<>(code.size());
+
+        for (MIPSInstruction instr : code) {
+            if (!isJump(instr.getOpcode())) {
+                result.add(instr);
+                continue;
+            }
+            String target = instr.getLabel();
+            String finalTarget = finalTarget(code, labels, target);
+            if (finalTarget.equals(target)) {
+                result.add(instr);
+            } else {
+                result.add(retarget(instr, finalTarget));
+                threaded++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sigue la cadena L: j M ; M: j N ... hasta una etiqueta que no salta
+     */
+    private String finalTarget(List<MIPSInstruction> code, Map<String, Integer> labels, String label) {
+        Set<String> visited = new HashSet<>();
+        String current = label;
+        while (true) {
+            if (!visited.add(current)) {
+                // Ciclo de saltos: se deja como está
+                return label;
+            }
+            Integer position = labels.get(current);
+            if (position == null) {
+                return current;
+            }
+            MIPSInstruction next = nextInstruction(code, position);
+            if (next == null || next.getOpcode() != OpCode.J) {
+                return current;
+            }
+            current = next.getLabel();
+        }
+    }
+
+    // ============================================
+    // INVERSIÓN DE BRANCHES
+    // ============================================
+    /**
+     * b.. L1 ; j L2 ; L1:  ->  b!.. L2 ; L1:
+     */
+    private List<MIPSInstruction> invertBranches(List<MIPSInstruction> code) {
+        List<MIPSInstruction> result = new ArrayList<>(code.size());
+        int i = 0;
+        while (i < code.size()) {
+            MIPSInstruction instr = code.get(i);
+            OpCode inverse = inverse(instr.getOpcode());
+            if (inverse != null && i + 1 < code.size()) {
+                MIPSInstruction jump = code.get(i + 1);
+                if (jump.getOpcode() == OpCode.J && labelFollows(code, i + 1, instr.getLabel())) {
+                    MIPSInstruction branch = isUnary(inverse)
+                            ? MIPSInstruction.branchUnary(inverse, instr.getRs(), jump.getLabel())
+                            : MIPSInstruction.branch(inverse, instr.getRs(), instr.getRt(), jump.getLabel());
+                    branch.setComment(instr.getComment());
+                    result.add(branch);
+                    inverted++;
+                    i += 2;
+                    continue;
+                }
+            }
+            result.add(instr);
+            i++;
+        }
+        return result;
+    }
+
+    // ============================================
+    // SALTO A LA SIGUIENTE INSTRUCCIÓN
+    // ============================================
+    private List<MIPSInstruction> removeBranchesToNext(List<MIPSInstruction> code) {
+        List<MIPSInstruction> result = new ArrayList<>(code.size());
+        for (int i = 0; i < code.size(); i++) {
+            MIPSInstruction instr = code.get(i);
+            if (isJump(instr.getOpcode()) && labelFollows(code, i, instr.getLabel())) {
+                removed++;
+                continue;
+            }
+            result.add(instr);
+        }
+        return result;
+    }
+
+    // ============================================
+    // UTILIDADES
+    // ============================================
+    private static Map<String, Integer> labelPositions(List<MIPSInstruction> code) {
+        Map<String, Integer> labels = new HashMap<>();
+        for (int i = 0; i < code.size(); i++) {
+            if (code.get(i).getOpcode() == OpCode.LABEL) {
+                labels.putIfAbsent(code.get(i).getLabel(), i);
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Primera instrucción ejecutable después de la posición (saltando
+     * etiquetas y comentarios)
+     */
+    private static MIPSInstruction nextInstruction(List<MIPSInstruction> code, int position) {
+        for (int k = position + 1; k < code.size(); k++) {
+            OpCode op = code.get(k).getOpcode();
+            if (op != OpCode.LABEL && op != OpCode.COMMENT) {
+                return code.get(k);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Verifica si la etiqueta está entre las que siguen inmediatamente a la posición
+     */
+    private static boolean labelFollows(List<MIPSInstruction> code, int position, String label) {
+        for (int k = position + 1; k < code.size(); k++) {
+            MIPSInstruction next = code.get(k);
+            if (next.getOpcode() == OpCode.LABEL) {
+                if (next.getLabel().equals(label)) return true;
+            } else if (next.getOpcode() != OpCode.COMMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Saltos con etiqueta de destino: j y branches condicionales
+     */
+    private static boolean isJump(OpCode op) {
+        return op == OpCode.J || inverse(op) != null;
+    }
+
+    private static boolean isUnary(OpCode op) {
+        return op == OpCode.BEQZ || op == OpCode.BNEZ;
+    }
+
+    /**
+     * Branch con la condición contraria (null si no es un branch condicional)
+     */
+    static OpCode inverse(OpCode op) {
+        switch (op) {
+            case BEQ: return OpCode.BNE;
+            case BNE: return OpCode.BEQ;
+            case BLT: return OpCode.BGE;
+            case BGE: return OpCode.BLT;
+            case BGT: return OpCode.BLE;
+            case BLE: return OpCode.BGT;
+            case BEQZ: return OpCode.BNEZ;
+            case BNEZ: return OpCode.BEQZ;
+            default: return null;
+        }
+    }
+
+    private static MIPSInstruction retarget(MIPSInstruction instr, String label) {
+        MIPSInstruction copy;
+        if (instr.getOpcode() == OpCode.J) {
+            copy = MIPSInstruction.jump(OpCode.J, label);
+        } else if (isUnary(instr.getOpcode())) {
+            copy = MIPSInstruction.branchUnary(instr.getOpcode(), instr.getRs(), label);
+        } else {
+            copy = MIPSInstruction.branch(instr.getOpcode(), instr.getRs(), instr.getRt(), label);
+        }
+        copy.setComment(instr.getComment());
+        return copy;
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getZeroComparesCount() {
+        return zeroCompares;
+    }
+
+    public int getThreadedCount() {
+        return threaded;
+    }
+
+    public int getInvertedCount() {
+        return inverted;
+    }
+
+    public int getRemovedCount() {
+        return removed;
+    }
+}
@@ -0,0 +1,393 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+
+/**
+ * Propagación y Plegado de Constantes sobre TAC
+ *
+ * Análisis hacia adelante sobre el CFG con el retículo de Kildall:
+ *   UNDEF (sin definir aún) > CONST c > NAC (no es constante)
+ * En cada bloque IN[B] = meet de OUT[P] para todo predecesor P.
+ *
+ * Con el resultado:
+ * - Los usos de variables constantes se reemplazan por el valor
+ * - BINARY_OP / UNARY_OP con operandos constantes se pliegan a ASSIGN
+ * - IF_GOTO con condición constante se vuelve GOTO o se elimina
+ *
+ * Las variables del programa no son constantes al entrar a una función
+ * ni después de una llamada (la función llamada puede modificarlas).
+ *
+ * BASADO EN: Dragon Book, Section 9.4 - Constant Propagation
+ */
+public class ConstantPropagation implements TACPass {
+
+    private static final byte UNDEF = 0;
+    private static final byte CONST = 1;
+    private static final byte NAC = 2;
+
+    private Map<String, Integer> ids;
+    private List<String> names;
+
+    private int replaced;
+    private int folded;
+    private int branchesResolved;
+
+    @Override
+    public String getName() {
+        return "constant-propagation";
+    }
+
+    @Override
+    public List<TACInstruction> apply(List<TACInstruction> input) {
+        List<TACInstruction> code = TACUtils.copyAll(input);
+        replaced = 0;
+        folded = 0;
+        branchesResolved = 0;
+
+        numberVariables(code);
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+        State[] in = solve(code, cfg);
+        return rewrite(code, cfg, in);
+    }
+
+    // ============================================
+    // VARIABLES
+    // ============================================
+    private void numberVariables(List<TACInstruction> code) {
+        ids = new HashMap<>();
+        names = new ArrayList<>();
+        for (TACInstruction tac : code) {
+            for (String v : TACUtils.getUses(tac)) idOf(v);
+            String d = TACUtils.getDefinition(tac);
+            if (d != null) idOf(d);
+        }
+    }
+
+    private int idOf(String variable) {
+        Integer id = ids.get(variable);
+        if (id == null) {
+            id = names.size();
+            ids.put(variable, id);
+            names.add(variable);
+        }
+        return id;
+    }
+
+    // ============================================
+    // ANÁLISIS
+    // ============================================
+    private State[] solve(List<TACInstruction> code, ControlFlowGraph cfg) {
+        int blocks = cfg.getBlockCount();
+        int n = names.size();
+        State[] in = new State[blocks];
+        State[] out = new State[blocks];
+        BitSet entries = new BitSet();
+        for (int b : cfg.getEntryBlocks()) entries.set(b);
+
+        for (int b = 0; b < blocks; b++) {
+            in[b] = new State(n);
+            out[b] = new State(n);
+        }
+
+        // Al entrar a una función las variables del programa son desconocidas
+        State entryState = new State(n);
+        for (int v = 0; v < n; v++) {
+            if (!TACUtils.isTemporary(names.get(v))) entryState.kind[v] = NAC;
+        }
+
+        boolean changed = true;
+        int[] rpo = cfg.getReversePostOrder();
+        while (changed) {
+            changed = false;
+            for (int b : rpo) {
+                State state = entries.get(b) ? entryState.copy() : new State(n);
+                for (int k = 0; k < cfg.predecessorCount(b); k++) {
+                    state.meet(out[cfg.predecessor(b, k)]);
+                }
+                in[b] = state;
+
+                State result = state.copy();
+                for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                    transfer(code.get(i), result);
+                }
+                if (!result.equals(out[b])) {
+                    out[b] = result;
+                    changed = true;
+                }
+            }
+        }
+        return in;
+    }
+
+    /**
+     * Efecto de una instrucción sobre el estado
+     */
+    private void transfer(TACInstruction tac, State state) {
+        if (TACUtils.isCall(tac)) {
+            for (int v = 0; v < names.size(); v++) {
+                if (!TACUtils.isTemporary(names.get(v))) state.kind[v] = NAC;
+            }
+        }
+
+        String def = TACUtils.getDefinition(tac);
+        if (def == null) {
+            return;
+        }
+        int d = ids.get(def);
+
+        switch (tac.getOp()) {
+            case ASSIGN: {
+                state.set(d, valueOf(tac.getArg1(), state));
+                break;
+            }
+            case BINARY_OP: {
+                long a = valueOf(tac.getArg1(), state);
+                long b = valueOf(tac.getArg2(), state);
+                state.set(d, combine(a, b, (x, y) -> evalBinary(tac.getOperator(), x, y)));
+                break;
+            }
+            case UNARY_OP: {
+                long a = valueOf(tac.getArg1(), state);
+                state.set(d, combine(a, constant(0), (x, y) -> evalUnary(tac.getOperator(), x)));
+                break;
+            }
+            default:
+                state.kind[d] = NAC;
+                break;
+        }
+    }
+
+    // ============================================
+    // VALORES DEL RETÍCULO
+    // ============================================
+    // Un valor se codifica en un long: kind en los bits altos, entero en los bajos
+
+    private static long constant(int value) {
+        return ((long) CONST << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    private static long of(byte kind) {
+        return (long) kind << 32;
+    }
+
+    private static byte kindOf(long value) {
+        return (byte) (value >>> 32);
+    }
+
+    private static int intOf(long value) {
+        return (int) value;
+    }
+
+    /**
+     * Valor de un operando en el estado actual
+     */
+    private long valueOf(String operand, State state) {
+        Integer literal = literal(operand);
+        if (literal != null) {
+            return constant(literal);
+        }
+        Integer id = TACUtils.isVariable(operand) ? ids.get(operand) : null;
+        if (id == null) {
+            return of(NAC);
+        }
+        return state.kind[id] == CONST ? constant(state.value[id]) : of(state.kind[id]);
+    }
+
+    private long combine(long a, long b, Evaluator eval) {
+        if (kindOf(a) == NAC || kindOf(b) == NAC) return of(NAC);
+        if (kindOf(a) == UNDEF || kindOf(b) == UNDEF) return of(UNDEF);
+        Integer result = eval.apply(intOf(a), intOf(b));
+        return result != null ? constant(result) : of(NAC);
+    }
+
+    @FunctionalInterface
+    private interface Evaluator {
+        Integer apply(int a, int b);
+    }
+
+    /**
+     * Literal numérico o booleano (null si no es constante)
+     */
+    private static Integer literal(String operand) {
+        if (TACUtils.isImmediate(operand)) return Integer.parseInt(operand);
+        if ("true".equals(operand)) return 1;
+        if ("false".equals(operand)) return 0;
+        return null;
+    }
+
+    // ============================================
+    // EVALUACIÓN
+    // ============================================
+    /**
+     * Evalúa un operador binario con aritmética de 32 bits (null si no se puede)
+     */
+    static Integer evalBinary(String op, int a, int b) {
+        switch (op) {
+            case "+": return a + b;
+            case "-": return a - b;
+            case "*": return a * b;
+            case "/": return b == 0 ? null : a / b;
+            case "%": return b == 0 ? null : a % b;
+            case "<": return a < b ? 1 : 0;
+            case ">": return a > b ? 1 : 0;
+            case "<=": return a <= b ? 1 : 0;
+            case ">=": return a >= b ? 1 : 0;
+            case "==": return a == b ? 1 : 0;
+            case "!=": return a != b ? 1 : 0;
+            case "&&": return a != 0 && b != 0 ? 1 : 0;
+            case "||": return a != 0 || b != 0 ? 1 : 0;
+            default: return null;
+        }
+    }
+
+    static Integer evalUnary(String op, int a) {
+        switch (op) {
+            case "-": return -a;
+            case "!": return a == 0 ? 1 : 0;
+            default: return null;
+        }
+    }
+
+    // ============================================
+    // REESCRITURA
+    // ============================================
+    private List<TACInstruction> rewrite(List<TACInstruction> code, ControlFlowGraph cfg, State[] in) {
+        TACInstruction[] rewritten = code.toArray(new TACInstruction[0]);
+        boolean[] drop = new boolean[code.size()];
+
+        for (int b = 0; b < cfg.getBlockCount(); b++) {
+            if (!cfg.isReachable(b)) continue;
+            State state = in[b].copy();
+
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                TACInstruction tac = code.get(i);
+
+                int[] count = {0};
+                TACUtils.renameUses(tac, v -> {
+                    Integer id = ids.get(v);
+                    if (id == null || state.kind[id] != CONST) return null;
+                    count[0]++;
+                    return String.valueOf(state.value[id]);
+                });
+                replaced += count[0];
+
+                transfer(tac, state);
+
+                switch (tac.getOp()) {
+                    case BINARY_OP: {
+                        Integer a = literal(tac.getArg1());
+                        Integer c = literal(tac.getArg2());
+                        Integer value = a != null && c != null ? evalBinary(tac.getOperator(), a, c) : null;
+                        if (value != null) {
+                            rewritten[i] = TACUtils.assign(tac.getResult(), String.valueOf(value));
+                            folded++;
+                        }
+                        break;
+                    }
+                    case UNARY_OP: {
+                        Integer a = literal(tac.getArg1());
+                        Integer value = a != null ? evalUnary(tac.getOperator(), a) : null;
+                        if (value != null) {
+                            rewritten[i] = TACUtils.assign(tac.getResult(), String.valueOf(value));
+                            folded++;
+                        }
+                        break;
+                    }
+                    case IF_GOTO: {
+                        Integer a = literal(tac.getArg1());
+                        Integer c = literal(tac.getArg2());
+                        Integer taken = a != null && c != null ? evalBinary(tac.getRelop(), a, c) : null;
+                        if (taken != null) {
+                            if (taken != 0) {
+                                rewritten[i] = TACUtils.gotoLabel(tac.getLabel());
+                            } else {
+                                drop[i] = true;
+                            }
+                            branchesResolved++;
+                        }
+                        break;
+                    }
+                    default:
+                        break;
+                }
+            }
+        }
+
+        List<TACInstruction> result = new ArrayList<>(code.size());
+        for (int i = 0; i < rewritten.length; i++) {
+            if (!drop[i]) result.add(rewritten[i]);
+        }
+        return result;
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getReplacedCount() {
+        return replaced;
+    }
+
+    public int getFoldedCount() {
+        return folded;
+    }
+
+    public int getBranchesResolvedCount() {
+        return branchesResolved;
+    }
+
+    // ============================================
+    // ESTADO POR BLOQUE
+    // ============================================
+    private static class State {
+        final byte[] kind;
+        final int[] value;
+
+        State(int n) {
+            kind = new byte[n];
+            value = new int[n];
+        }
+
+        State copy() {
+            State s = new State(kind.length);
+            System.arraycopy(kind, 0, s.kind, 0, kind.length);
+            System.arraycopy(value, 0, s.value, 0, value.length);
+            return s;
+        }
+
+        void set(int v, long encoded) {
+            kind[v] = kindOf(encoded);
+            value[v] = kind[v] == CONST ? intOf(encoded) : 0;
+        }
+
+        /**
+         * Meet del retículo, variable por variable
+         */
+        void meet(State other) {
+            for (int v = 0; v < kind.length; v++) {
+                byte k = other.kind[v];
+                if (k == UNDEF || kind[v] == NAC) continue;
+                if (kind[v] == UNDEF) {
+                    kind[v] = k;
+                    value[v] = other.value[v];
+                } else if (k == NAC || other.value[v] != value[v]) {
+                    kind[v] = NAC;
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) return false;
+            State s = (State) o;
+            return Arrays.equals(kind, s.kind) && Arrays.equals(value, s.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(kind);
+        }
+    }
+}
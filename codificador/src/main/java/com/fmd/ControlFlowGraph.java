@@ -0,0 +1,646 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+
+/**
+ * Grafo de Flujo de Control (CFG) sobre código TAC
+ *
+ * RESPONSABILIDADES:
+ * - Dividir la lista TAC en bloques básicos
+ * - Construir aristas de predecesores y sucesores
+ * - Calcular dominadores (algoritmo de Cooper, Harvey y Kennedy)
+ * - Detectar lazos naturales y su profundidad de anidamiento
+ *
+ * Los bloques se representan por rangos [inicio, fin) sobre la lista TAC y
+ * las aristas se guardan en arreglos compactos (formato CSR), de modo que
+ * el grafo escala a funciones muy grandes sin crear objetos por bloque.
+ *
+ * BASADO EN: Dragon Book, Section 8.4 - Basic Blocks and Flow Graphs
+ */
+public class ControlFlowGraph {
+
+    private static final int[] EMPTY = new int[0];
+
+    // ============================================
+    // BLOQUES
+    // ============================================
+    private final List<TACInstruction> code;
+    private int blockCount;
+    private int[] blockStart;                   // primer índice TAC del bloque
+    private int[] blockEnd;                     // índice TAC exclusivo
+    private int[] blockOf;                      // instrucción -> bloque
+    private String[] functionOf;                // bloque -> función (null = global)
+    private Map<String, Integer> labelToBlock;  // etiqueta -> bloque
+    private int[] entries;                      // entrada global + entradas de funciones
+    private boolean[] isEntry;
+
+    // ============================================
+    // ARISTAS (CSR)
+    // ============================================
+    private int[] succOffset;
+    private int[] succList;
+    private int[] predOffset;
+    private int[] predList;
+
+    // ============================================
+    // DOMINADORES
+    // ============================================
+    private int[] reversePostOrder;             // bloques alcanzables en RPO
+    private int[] rpoIndex;                     // bloque -> posición en RPO (-1 = inalcanzable)
+    private int[] idom;                         // dominador inmediato (-1 = raíz o inalcanzable)
+    private int[] domPre;                       // numeración pre-orden del árbol de dominadores
+    private int[] domPost;                      // numeración post-orden del árbol de dominadores
+
+    // ============================================
+    // LAZOS
+    // ============================================
+    private List<Loop> loops;
+    private int[] loopDepth;                    // bloque -> profundidad de anidamiento
+    private Loop[] innermostLoop;               // bloque -> lazo más interno
+
+    // ============================================
+    // CONSTRUCTOR
+    // ============================================
+    public ControlFlowGraph(List<TACInstruction> code) {
+        this.code = code;
+        buildBlocks();
+        buildEdges();
+        computeDominators();
+        findLoops();
+    }
+
+    // ============================================
+    // CONSTRUCCIÓN DE BLOQUES
+    // ============================================
+    /**
+     * Identifica líderes: primera instrucción, cada LABEL, cada END (el
+     * epílogo al que fluyen los RETURN) y toda instrucción que sigue a un
+     * GOTO, IF_GOTO, CALL, RETURN o END
+     */
+    private void buildBlocks() {
+        int n = code.size();
+        boolean[] leader = new boolean[n + 1];
+        if (n > 0) {
+            leader[0] = true;
+        }
+
+        for (int i = 0; i < n; i++) {
+            TACInstruction tac = code.get(i);
+            if (tac.getOp() == OpType.LABEL || tac.getOp() == OpType.END) {
+                leader[i] = true;
+            }
+            if (TACUtils.endsBlock(tac)) {
+                leader[i + 1] = true;
+            }
+        }
+
+        blockCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (leader[i]) blockCount++;
+        }
+
+        blockStart = new int[blockCount];
+        blockEnd = new int[blockCount];
+        blockOf = new int[n];
+        int b = -1;
+        for (int i = 0; i < n; i++) {
+            if (leader[i]) {
+                b++;
+                blockStart[b] = i;
+                if (b > 0) blockEnd[b - 1] = i;
+            }
+            blockOf[i] = b;
+        }
+        if (blockCount > 0) {
+            blockEnd[blockCount - 1] = n;
+        }
+
+        labelToBlock = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            TACInstruction tac = code.get(i);
+            if (tac.getOp() == OpType.LABEL && tac.getLabel() != null) {
+                labelToBlock.putIfAbsent(tac.getLabel(), blockOf[i]);
+            }
+        }
+    }
+
+    // ============================================
+    // CONSTRUCCIÓN DE ARISTAS
+    // ============================================
+    /**
+     * Construye sucesores y predecesores.
+     *
+     * Las funciones están delimitadas por LABEL f ... END f. El código global
+     * no cae dentro de una función: el fall-through salta por encima de ella.
+     * Un RETURN fluye al bloque del END de su función (el epílogo).
+     */
+    private void buildEdges() {
+        int n = code.size();
+
+        // Nombres de función: los que cierran con END
+        Set<String> functionNames = new HashSet<>();
+        for (TACInstruction tac : code) {
+            if (tac.getOp() == OpType.END && tac.getLabel() != null) {
+                functionNames.add(tac.getLabel());
+            }
+        }
+
+        // Emparejar LABEL f con su END f y asignar función a cada bloque
+        int[] skipTo = new int[n];            // inicio de función -> instrucción después de END
+        int[] endOfFunction = new int[n];     // instrucción -> índice del END de su función
+        Arrays.fill(skipTo, -1);
+        Arrays.fill(endOfFunction, -1);
+        functionOf = new String[blockCount];
+
+        Deque<Integer> open = new ArrayDeque<>();
+        List<Integer> entryList = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            TACInstruction tac = code.get(i);
+            if (tac.getOp() == OpType.LABEL && functionNames.contains(tac.getLabel())) {
+                open.push(i);
+                entryList.add(blockOf[i]);
+            }
+            if (!open.isEmpty()) {
+                functionOf[blockOf[i]] = code.get(open.peek()).getLabel();
+            }
+            if (tac.getOp() == OpType.END && !open.isEmpty()
+                    && tac.getLabel() != null
+                    && tac.getLabel().equals(code.get(open.peek()).getLabel())) {
+                int start = open.pop();
+                skipTo[start] = i + 1;
+                for (int k = start; k <= i; k++) {
+                    if (endOfFunction[k] < 0) endOfFunction[k] = i;
+                }
+            }
+        }
+        // El código global empieza después de las funciones definidas al inicio
+        int globalStart = 0;
+        while (globalStart < n && skipTo[globalStart] >= 0) {
+            globalStart = skipTo[globalStart];
+        }
+        if (globalStart < n) {
+            entryList.add(0, blockOf[globalStart]);
+        }
+        entries = entryList.stream().mapToInt(Integer::intValue).distinct().toArray();
+        isEntry = new boolean[blockCount];
+        for (int e : entries) isEntry[e] = true;
+
+        // Cada bloque tiene a lo sumo dos sucesores
+        int[] succA = new int[blockCount];
+        int[] succB = new int[blockCount];
+        int[] succCount = new int[blockCount];
+
+        for (int b = 0; b < blockCount; b++) {
+            TACInstruction last = code.get(blockEnd[b] - 1);
+            int target = -1;
+            int fall = -1;
+
+            switch (last.getOp()) {
+                case GOTO:
+                    target = blockOfLabel(last.getLabel());
+                    break;
+                case IF_GOTO:
+                case TRY_BEGIN:
+                    target = blockOfLabel(last.getLabel());
+                    fall = fallThrough(b, skipTo);
+                    break;
+                case RETURN:
+                    int end = endOfFunction[blockEnd[b] - 1];
+                    target = end >= 0 ? blockOf[end] : -1;
+                    break;
+                case END:
+                    break;
+                default:
+                    fall = fallThrough(b, skipTo);
+                    break;
+            }
+
+            if (target >= 0) {
+                succA[b] = target;
+                succCount[b]++;
+            }
+            if (fall >= 0 && fall != target) {
+                if (succCount[b] == 0) succA[b] = fall;
+                else succB[b] = fall;
+                succCount[b]++;
+            }
+        }
+
+        // Sucesores en CSR
+        succOffset = new int[blockCount + 1];
+        for (int b = 0; b < blockCount; b++) {
+            succOffset[b + 1] = succOffset[b] + succCount[b];
+        }
+        succList = new int[succOffset[blockCount]];
+        int[] predCount = new int[blockCount];
+        for (int b = 0; b < blockCount; b++) {
+            int at = succOffset[b];
+            if (succCount[b] > 0) { succList[at] = succA[b]; predCount[succA[b]]++; }
+            if (succCount[b] > 1) { succList[at + 1] = succB[b]; predCount[succB[b]]++; }
+        }
+
+        // Predecesores en CSR
+        predOffset = new int[blockCount + 1];
+        for (int b = 0; b < blockCount; b++) {
+            predOffset[b + 1] = predOffset[b] + predCount[b];
+        }
+        predList = new int[predOffset[blockCount]];
+        int[] fill = Arrays.copyOf(predOffset, blockCount);
+        for (int b = 0; b < blockCount; b++) {
+            for (int k = succOffset[b]; k < succOffset[b + 1]; k++) {
+                predList[fill[succList[k]]++] = b;
+            }
+        }
+    }
+
+    /**
+     * Bloque que sigue por fall-through, saltando definiciones de función
+     */
+    private int fallThrough(int b, int[] skipTo) {
+        int next = blockEnd[b];
+        while (next < code.size() && skipTo[next] >= 0) {
+            next = skipTo[next];
+        }
+        return next < code.size() ? blockOf[next] : -1;
+    }
+
+    private int blockOfLabel(String label) {
+        Integer b = label != null ? labelToBlock.get(label) : null;
+        return b != null ? b : -1;
+    }
+
+    // ============================================
+    // DOMINADORES
+    // ============================================
+    /**
+     * Algoritmo iterativo de Cooper, Harvey y Kennedy.
+     * Se usa una raíz virtual (índice blockCount) conectada a todas las
+     * entradas para soportar el código global y las funciones a la vez.
+     */
+    private void computeDominators() {
+        int root = blockCount;
+        computeReversePostOrder(root);
+
+        idom = new int[blockCount + 1];
+        Arrays.fill(idom, -1);
+        idom[root] = root;
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b : reversePostOrder) {
+                int newIdom = -1;
+                if (isEntry[b]) {
+                    newIdom = root;
+                }
+                for (int k = predOffset[b]; k < predOffset[b + 1]; k++) {
+                    int p = predList[k];
+                    if (idom[p] < 0) continue;
+                    newIdom = newIdom < 0 ? p : intersect(p, newIdom);
+                }
+                if (newIdom >= 0 && idom[b] != newIdom) {
+                    idom[b] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+
+        // Numeración del árbol de dominadores para consultas O(1)
+        int[] childCount = new int[blockCount + 1];
+        for (int b : reversePostOrder) childCount[idom[b]]++;
+        int[] childOffset = new int[blockCount + 2];
+        for (int b = 0; b <= blockCount; b++) childOffset[b + 1] = childOffset[b] + childCount[b];
+        int[] children = new int[childOffset[blockCount + 1]];
+        int[] fill = Arrays.copyOf(childOffset, blockCount + 1);
+        for (int b : reversePostOrder) children[fill[idom[b]]++] = b;
+
+        domPre = new int[blockCount + 1];
+        domPost = new int[blockCount + 1];
+        Arrays.fill(domPre, -1);
+        int[] stack = new int[blockCount + 1];
+        int[] next = new int[blockCount + 1];
+        int sp = 0;
+        int pre = 0;
+        int post = 0;
+        stack[sp++] = root;
+        domPre[root] = pre++;
+        next[root] = childOffset[root];
+        while (sp > 0) {
+            int v = stack[sp - 1];
+            if (next[v] < childOffset[v + 1]) {
+                int c = children[next[v]++];
+                domPre[c] = pre++;
+                next[c] = childOffset[c];
+                stack[sp++] = c;
+            } else {
+                domPost[v] = post++;
+                sp--;
+            }
+        }
+
+        // La raíz virtual no es visible hacia afuera
+        for (int b = 0; b < blockCount; b++) {
+            if (idom[b] == root) idom[b] = -1;
+        }
+    }
+
+    private int intersect(int a, int b) {
+        while (a != b) {
+            while (rpoIndex[a] > rpoIndex[b]) a = idom[a];
+            while (rpoIndex[b] > rpoIndex[a]) b = idom[b];
+        }
+        return a;
+    }
+
+    /**
+     * DFS iterativo desde la raíz virtual
+     */
+    private void computeReversePostOrder(int root) {
+        rpoIndex = new int[blockCount + 1];
+        Arrays.fill(rpoIndex, -1);
+        boolean[] visited = new boolean[blockCount + 1];
+        int[] postOrder = new int[blockCount];
+        int count = 0;
+
+        int[] stack = new int[blockCount + 1];
+        int[] next = new int[blockCount + 1];
+        int sp = 0;
+        for (int e = entries.length - 1; e >= 0; e--) {
+            int entry = entries[e];
+            if (visited[entry]) continue;
+            visited[entry] = true;
+            stack[sp] = entry;
+            next[sp] = succOffset[entry];
+            sp++;
+            while (sp > 0) {
+                int v = stack[sp - 1];
+                if (next[sp - 1] < succOffset[v + 1]) {
+                    int s = succList[next[sp - 1]++];
+                    if (!visited[s]) {
+                        visited[s] = true;
+                        stack[sp] = s;
+                        next[sp] = succOffset[s];
+                        sp++;
+                    }
+                } else {
+                    postOrder[count++] = v;
+                    sp--;
+                }
+            }
+        }
+
+        reversePostOrder = new int[count];
+        for (int i = 0; i < count; i++) {
+            reversePostOrder[i] = postOrder[count - 1 - i];
+            rpoIndex[reversePostOrder[i]] = i + 1;
+        }
+        rpoIndex[root] = 0;
+    }
+
+    // ============================================
+    // LAZOS NATURALES
+    // ============================================
+    /**
+     * Una arista u -> h es de retroceso si h domina a u.
+     * El cuerpo del lazo son los bloques que alcanzan u sin pasar por h.
+     * Los lazos con la misma cabecera se fusionan.
+     */
+    private void findLoops() {
+        Map<Integer, Loop> byHeader = new LinkedHashMap<>();
+        int[] work = new int[blockCount];
+
+        for (int u : reversePostOrder) {
+            for (int k = succOffset[u]; k < succOffset[u + 1]; k++) {
+                int h = succList[k];
+                if (!dominates(h, u)) continue;
+
+                Loop loop = byHeader.computeIfAbsent(h, Loop::new);
+                loop.latches.add(u);
+                loop.blocks.set(h);
+
+                int sp = 0;
+                if (!loop.blocks.get(u)) {
+                    loop.blocks.set(u);
+                    work[sp++] = u;
+                }
+                while (sp > 0) {
+                    int v = work[--sp];
+                    for (int j = predOffset[v]; j < predOffset[v + 1]; j++) {
+                        int p = predList[j];
+                        if (rpoIndex[p] >= 0 && !loop.blocks.get(p)) {
+                            loop.blocks.set(p);
+                            work[sp++] = p;
+                        }
+                    }
+                }
+            }
+        }
+
+        // Anidamiento: el padre es el lazo más pequeño que contiene al actual
+        loops = new ArrayList<>(byHeader.values());
+        loops.sort(Comparator.comparingInt((Loop l) -> l.blocks.cardinality()).reversed());
+        for (int i = 0; i < loops.size(); i++) {
+            Loop inner = loops.get(i);
+            for (int j = i - 1; j >= 0; j--) {
+                Loop outer = loops.get(j);
+                if (outer.blocks.get(inner.header)) {
+                    inner.parent = outer;
+                    break;
+                }
+            }
+            inner.depth = inner.parent != null ? inner.parent.depth + 1 : 1;
+        }
+
+        loopDepth = new int[blockCount];
+        innermostLoop = new Loop[blockCount];
+        for (Loop loop : loops) {
+            for (int b = loop.blocks.nextSetBit(0); b >= 0; b = loop.blocks.nextSetBit(b + 1)) {
+                if (loop.depth > loopDepth[b]) {
+                    loopDepth[b] = loop.depth;
+                    innermostLoop[b] = loop;
+                }
+            }
+        }
+    }
+
+    // ============================================
+    // CONSULTAS
+    // ============================================
+    public List<TACInstruction> getCode() {
+        return code;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Primer índice TAC del bloque
+     */
+    public int getBlockStart(int block) {
+        return blockStart[block];
+    }
+
+    /**
+     * Índice TAC exclusivo de fin del bloque
+     */
+    public int getBlockEnd(int block) {
+        return blockEnd[block];
+    }
+
+    /**
+     * Bloque al que pertenece una instrucción TAC
+     */
+    public int getBlockOf(int instructionIndex) {
+        return blockOf[instructionIndex];
+    }
+
+    /**
+     * Instrucciones del bloque (vista sobre la lista TAC)
+     */
+    public List<TACInstruction> getBlockInstructions(int block) {
+        return code.subList(blockStart[block], blockEnd[block]);
+    }
+
+    /**
+     * Bloque que comienza con la etiqueta dada (-1 si no existe)
+     */
+    public int getBlockByLabel(String label) {
+        return blockOfLabel(label);
+    }
+
+    /**
+     * Nombre de la función que contiene al bloque (null si es código global)
+     */
+    public String getFunctionOf(int block) {
+        return functionOf[block];
+    }
+
+    public int[] getEntryBlocks() {
+        return entries.clone();
+    }
+
+    public int successorCount(int block) {
+        return succOffset[block + 1] - succOffset[block];
+    }
+
+    public int successor(int block, int k) {
+        return succList[succOffset[block] + k];
+    }
+
+    public int[] getSuccessors(int block) {
+        int from = succOffset[block];
+        int to = succOffset[block + 1];
+        return from == to ? EMPTY : Arrays.copyOfRange(succList, from, to);
+    }
+
+    public int predecessorCount(int block) {
+        return predOffset[block + 1] - predOffset[block];
+    }
+
+    public int predecessor(int block, int k) {
+        return predList[predOffset[block] + k];
+    }
+
+    public int[] getPredecessors(int block) {
+        int from = predOffset[block];
+        int to = predOffset[block + 1];
+        return from == to ? EMPTY : Arrays.copyOfRange(predList, from, to);
+    }
+
+    /**
+     * Bloques alcanzables en orden post-orden inverso
+     */
+    public int[] getReversePostOrder() {
+        return reversePostOrder.clone();
+    }
+
+    public boolean isReachable(int block) {
+        return rpoIndex[block] >= 0;
+    }
+
+    /**
+     * Dominador inmediato (-1 para entradas y bloques inalcanzables)
+     */
+    public int getIdom(int block) {
+        return idom[block];
+    }
+
+    /**
+     * Verifica si a domina a b (todo bloque se domina a sí mismo)
+     */
+    public boolean dominates(int a, int b) {
+        if (domPre[a] < 0 || domPre[b] < 0) {
+            return false;
+        }
+        return domPre[a] <= domPre[b] && domPost[b] <= domPost[a];
+    }
+
+    public List<Loop> getLoops() {
+        return Collections.unmodifiableList(loops);
+    }
+
+    /**
+     * Profundidad de anidamiento de lazos (0 = fuera de todo lazo)
+     */
+    public int getLoopDepth(int block) {
+        return loopDepth[block];
+    }
+
+    /**
+     * Lazo más interno que contiene al bloque (null si no está en un lazo)
+     */
+    public Loop getInnermostLoop(int block) {
+        return innermostLoop[block];
+    }
+
+    /**
+     * Debug: imprime bloques, aristas y lazos
+     */
+    public void printGraph() {
+        System.out.println("\n=== CFG ===");
+        for (int b = 0; b < blockCount; b++) {
+            System.out.println("B" + b + " [" + blockStart[b] + ", " + blockEnd[b] + ")"
+                    + " succ=" + Arrays.toString(getSuccessors(b))
+                    + " pred=" + Arrays.toString(getPredecessors(b))
+                    + " idom=" + idom[b]
+                    + " depth=" + loopDepth[b]);
+        }
+        for (Loop loop : loops) {
+            System.out.println(loop);
+        }
+    }
+
+    // ============================================
+    // LAZO NATURAL
+    // ============================================
+    /**
+     * Lazo natural: cabecera, conjunto de bloques y lazo padre
+     */
+    public static class Loop {
+        private final int header;
+        private final BitSet blocks = new BitSet();
+        private final List<Integer> latches = new ArrayList<>();
+        private Loop parent;
+        private int depth;
+
+        Loop(int header) {
+            this.header = header;
+        }
+
+        public int getHeader() { return header; }
+        public BitSet getBlocks() { return (BitSet) blocks.clone(); }
+        public boolean contains(int block) { return blocks.get(block); }
+        public List<Integer> getLatches() { return Collections.unmodifiableList(latches); }
+        public Loop getParent() { return parent; }
+        public int getDepth() { return depth; }
+
+        @Override
+        public String toString() {
+            return "Loop{header=B" + header + ", blocks=" + blocks + ", depth=" + depth + "}";
+        }
+    }
+}
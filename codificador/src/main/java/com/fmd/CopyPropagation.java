@@ -0,0 +1,251 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+
+/**
+ * Propagación de Copias sobre TAC
+ *
+ * 1. Propagación: si la copia x = y está disponible (ni x ni y se
+ *    redefinieron en ningún camino), los usos de x se reescriben como y.
+ *    Copias disponibles es un análisis hacia adelante sobre el CFG:
+ *      IN[B]  = ∩ OUT[P]  para todo predecesor P
+ *      OUT[B] = GEN[B] ∪ (IN[B] - KILL[B])
+ * 2. Las copias a temporales que quedan muertas se eliminan.
+ * 3. Coalescing: t = expr ; x = t  ->  x = expr  cuando t muere en la copia.
+ *
+ * Las llamadas matan las copias con variables del programa, porque la
+ * función llamada puede modificarlas.
+ *
+ * BASADO EN: Dragon Book, Section 9.1.5 - Copy Propagation
+ */
+public class CopyPropagation implements TACPass {
+
+    /** Límite de rondas de propagación */
+    private static final int MAX_ROUNDS = 10;
+
+    private int propagated;
+    private int removed;
+    private int coalesced;
+
+    @Override
+    public String getName() {
+        return "copy-propagation";
+    }
+
+    @Override
+    public List<TACInstruction> apply(List<TACInstruction> input) {
+        List<TACInstruction> code = TACUtils.copyAll(input);
+        propagated = 0;
+        removed = 0;
+        coalesced = 0;
+
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            if (!propagate(code)) break;
+        }
+        code = removeDeadCopies(code);
+        code = coalesce(code);
+        return code;
+    }
+
+    // ============================================
+    // COPIAS DISPONIBLES
+    // ============================================
+    /**
+     * Una ronda de propagación
+     *
+     * @return true si se reescribió algún operando
+     */
+    private boolean propagate(List<TACInstruction> code) {
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+
+        // Universo de copias x = y
+        List<Integer> copies = new ArrayList<>();
+        for (int i = 0; i < code.size(); i++) {
+            if (isCopy(code.get(i))) copies.add(i);
+        }
+        if (copies.isEmpty()) return false;
+
+        int blocks = cfg.getBlockCount();
+        BitSet[] out = new BitSet[blocks];
+        BitSet[] in = new BitSet[blocks];
+        BitSet universe = new BitSet();
+        universe.set(0, copies.size());
+        BitSet entries = new BitSet();
+        for (int b : cfg.getEntryBlocks()) entries.set(b);
+
+        for (int b = 0; b < blocks; b++) {
+            in[b] = new BitSet();
+            out[b] = entries.get(b) ? transfer(code, cfg, b, new BitSet(), copies) : (BitSet) universe.clone();
+        }
+
+        boolean changed = true;
+        int[] rpo = cfg.getReversePostOrder();
+        while (changed) {
+            changed = false;
+            for (int b : rpo) {
+                BitSet set = new BitSet();
+                if (!entries.get(b)) {
+                    set.or(universe);
+                    for (int k = 0; k < cfg.predecessorCount(b); k++) {
+                        set.and(out[cfg.predecessor(b, k)]);
+                    }
+                    if (cfg.predecessorCount(b) == 0) set.clear();
+                }
+                in[b] = set;
+                BitSet newOut = transfer(code, cfg, b, (BitSet) set.clone(), copies);
+                if (!newOut.equals(out[b])) {
+                    out[b] = newOut;
+                    changed = true;
+                }
+            }
+        }
+
+        // Reescritura de usos
+        boolean rewritten = false;
+        for (int b = 0; b < blocks; b++) {
+            if (!cfg.isReachable(b)) continue;
+            BitSet available = (BitSet) in[b].clone();
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                Map<String, String> sources = new HashMap<>();
+                for (int c = available.nextSetBit(0); c >= 0; c = available.nextSetBit(c + 1)) {
+                    TACInstruction copy = code.get(copies.get(c));
+                    sources.put(copy.getResult(), copy.getArg1());
+                }
+                if (!sources.isEmpty()) {
+                    TACInstruction tac = code.get(i);
+                    int[] count = {0};
+                    boolean changedHere = TACUtils.renameUses(tac, v -> {
+                        String s = sources.get(v);
+                        if (s != null) count[0]++;
+                        return s;
+                    });
+                    if (changedHere) {
+                        propagated += count[0];
+                        rewritten = true;
+                    }
+                }
+                step(code, i, available, copies);
+            }
+        }
+        return rewritten;
+    }
+
+    private BitSet transfer(List<TACInstruction> code, ControlFlowGraph cfg, int b, BitSet set, List<Integer> copies) {
+        for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+            step(code, i, set, copies);
+        }
+        return set;
+    }
+
+    /**
+     * Efecto de la instrucción i sobre las copias disponibles
+     */
+    private void step(List<TACInstruction> code, int i, BitSet set, List<Integer> copies) {
+        TACInstruction tac = code.get(i);
+        String def = TACUtils.getDefinition(tac);
+        boolean call = TACUtils.isCall(tac);
+
+        for (int c = set.nextSetBit(0); c >= 0; c = set.nextSetBit(c + 1)) {
+            TACInstruction copy = code.get(copies.get(c));
+            String x = copy.getResult();
+            String y = copy.getArg1();
+            boolean killed = x.equals(def) || y.equals(def)
+                    || (call && (!TACUtils.isTemporary(x) || !TACUtils.isTemporary(y)));
+            if (killed) set.clear(c);
+        }
+
+        int index = Collections.binarySearch(copies, i);
+        if (index >= 0) set.set(index);
+    }
+
+    /**
+     * x = y con ambos variables simples y distintas
+     */
+    private static boolean isCopy(TACInstruction tac) {
+        return tac.getOp() == OpType.ASSIGN
+                && TACUtils.isVariable(tac.getResult())
+                && TACUtils.isVariable(tac.getArg1())
+                && !tac.getResult().equals(tac.getArg1());
+    }
+
+    // ============================================
+    // COPIAS MUERTAS
+    // ============================================
+    /**
+     * Elimina copias a temporales cuyo valor ya no se lee y copias x = x
+     */
+    private List<TACInstruction> removeDeadCopies(List<TACInstruction> code) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            LivenessAnalysis liveness = new LivenessAnalysis(new ControlFlowGraph(code));
+            List<TACInstruction> kept = new ArrayList<>(code.size());
+            for (int i = 0; i < code.size(); i++) {
+                TACInstruction tac = code.get(i);
+                boolean selfCopy = tac.getOp() == OpType.ASSIGN
+                        && TACUtils.isVariable(tac.getResult())
+                        && tac.getResult().equals(tac.getArg1());
+                if (selfCopy || (tac.getOp() == OpType.ASSIGN
+                        && TACUtils.isTemporary(tac.getResult())
+                        && !liveness.isLiveOut(i, tac.getResult()))) {
+                    removed++;
+                    changed = true;
+                    continue;
+                }
+                kept.add(tac);
+            }
+            code = kept;
+        }
+        return code;
+    }
+
+    // ============================================
+    // COALESCING
+    // ============================================
+    /**
+     * t = expr ; x = t  ->  x = expr  (t temporal que muere en la copia)
+     */
+    private List<TACInstruction> coalesce(List<TACInstruction> code) {
+        LivenessAnalysis liveness = new LivenessAnalysis(new ControlFlowGraph(code));
+        List<TACInstruction> result = new ArrayList<>(code.size());
+
+        for (int i = 0; i < code.size(); i++) {
+            TACInstruction tac = code.get(i);
+            if (i + 1 < code.size()) {
+                TACInstruction next = code.get(i + 1);
+                String t = TACUtils.getDefinition(tac);
+                if (t != null && TACUtils.isTemporary(t)
+                        && next.getOp() == OpType.ASSIGN
+                        && t.equals(next.getArg1())
+                        && TACUtils.isVariable(next.getResult())
+                        && !liveness.isLiveOut(i + 1, t)) {
+                    tac.setResult(next.getResult());
+                    result.add(tac);
+                    coalesced++;
+                    i++;
+                    continue;
+                }
+            }
+            result.add(tac);
+        }
+        return result;
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getPropagatedCount() {
+        return propagated;
+    }
+
+    public int getRemovedCount() {
+        return removed;
+    }
+
+    public int getCoalescedCount() {
+        return coalesced;
+    }
+}
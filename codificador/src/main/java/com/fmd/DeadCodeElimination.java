@@ -0,0 +1,145 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+
+/**
+ * Eliminación de Código Muerto sobre TAC
+ *
+ * 1. Bloques inalcanzables: los bloques a los que no llega ningún camino
+ *    desde una entrada (código global o función) se eliminan. Los END y
+ *    TRY_END se conservan porque delimitan funciones y regiones.
+ * 2. Definiciones muertas: ASSIGN, BINARY_OP y UNARY_OP cuyo resultado no
+ *    está vivo a la salida no tienen efecto y se eliminan. Como el análisis
+ *    de variables vivas considera vivas las variables del programa en las
+ *    llamadas y a la salida, esto también elimina las escrituras a memoria
+ *    que se sobrescriben antes de leerse.
+ * 3. x = call f() con x muerta se vuelve call f(): la llamada se mantiene.
+ *
+ * Se repite hasta que no cambia nada, porque eliminar un uso puede dejar
+ * muerta la definición que lo alimentaba.
+ *
+ * BASADO EN: Dragon Book, Section 8.5.4 / 9.2.5 - Dead-Code Elimination
+ */
+public class DeadCodeElimination implements TACPass {
+
+    private int unreachableRemoved;
+    private int deadRemoved;
+    private int callResultsDropped;
+
+    @Override
+    public String getName() {
+        return "dead-code-elimination";
+    }
+
+    @Override
+    public List<TACInstruction> apply(List<TACInstruction> input) {
+        List<TACInstruction> code = TACUtils.copyAll(input);
+        unreachableRemoved = 0;
+        deadRemoved = 0;
+        callResultsDropped = 0;
+
+        boolean changed = true;
+        while (changed) {
+            ControlFlowGraph cfg = new ControlFlowGraph(code);
+            List<TACInstruction> reachable = removeUnreachable(code, cfg);
+            changed = reachable.size() != code.size();
+            if (changed) {
+                cfg = new ControlFlowGraph(reachable);
+            }
+            List<TACInstruction> live = removeDeadDefinitions(reachable, new LivenessAnalysis(cfg));
+            changed |= live != reachable;
+            code = live;
+        }
+        return code;
+    }
+
+    // ============================================
+    // BLOQUES INALCANZABLES
+    // ============================================
+    private List<TACInstruction> removeUnreachable(List<TACInstruction> code, ControlFlowGraph cfg) {
+        List<TACInstruction> result = new ArrayList<>(code.size());
+        for (int b = 0; b < cfg.getBlockCount(); b++) {
+            boolean reachable = cfg.isReachable(b);
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                TACInstruction tac = code.get(i);
+                if (reachable || isStructural(tac)) {
+                    result.add(tac);
+                } else {
+                    unreachableRemoved++;
+                }
+            }
+        }
+        return result.size() == code.size() ? code : result;
+    }
+
+    /**
+     * Instrucciones que delimitan funciones o regiones y no se eliminan
+     */
+    private static boolean isStructural(TACInstruction tac) {
+        return tac.getOp() == OpType.END || tac.getOp() == OpType.TRY_END;
+    }
+
+    // ============================================
+    // DEFINICIONES MUERTAS
+    // ============================================
+    /**
+     * @return la misma lista si no se eliminó nada
+     */
+    private List<TACInstruction> removeDeadDefinitions(List<TACInstruction> code, LivenessAnalysis liveness) {
+        List<TACInstruction> result = new ArrayList<>(code.size());
+        boolean changed = false;
+
+        for (int i = 0; i < code.size(); i++) {
+            TACInstruction tac = code.get(i);
+            String def = TACUtils.getDefinition(tac);
+            boolean dead = def != null && !liveness.isLiveOut(i, def);
+
+            if (dead && isPure(tac)) {
+                deadRemoved++;
+                changed = true;
+                continue;
+            }
+            if (dead && tac.getOp() == OpType.ASSIGN_CALL) {
+                TACInstruction call = TACUtils.call(tac.getArg1(), tac.getParams());
+                result.add(call);
+                callResultsDropped++;
+                changed = true;
+                continue;
+            }
+            result.add(tac);
+        }
+        return changed ? result : code;
+    }
+
+    /**
+     * Instrucciones sin efectos además de escribir su resultado
+     */
+    private static boolean isPure(TACInstruction tac) {
+        switch (tac.getOp()) {
+            case ASSIGN:
+            case BINARY_OP:
+            case UNARY_OP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getUnreachableRemovedCount() {
+        return unreachableRemoved;
+    }
+
+    public int getDeadRemovedCount() {
+        return deadRemoved;
+    }
+
+    public int getCallResultsDroppedCount() {
+        return callResultsDropped;
+    }
+}
@@ -0,0 +1,523 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+
+import java.util.*;
+
+/**
+ * Asignador de Registros por Coloreo de Grafos (Chaitin-Briggs)
+ *
+ * RESPONSABILIDADES:
+ * - Construir el grafo de interferencia a partir de liveness
+ * - Coalescer las copias x = y (los move que genera generateAssignment)
+ *   cuando el criterio conservador de Briggs garantiza que sigue siendo
+ *   coloreable
+ * - Simplificar/congelar/elegir spill hasta vaciar el grafo y luego
+ *   asignar colores en orden inverso: $t0-$t7, o $s0-$s7 para los valores
+ *   que se leen después de una llamada (los $t no se preservan)
+ * - Elegir como spill el nodo de menor costo: usos y definiciones
+ *   ponderados por profundidad de lazo, divididos entre el grado
+ *
+ * Los $t y los $s son paletas disjuntas: solo se agregan aristas y se
+ * coalescen copias entre nodos de la misma paleta. Las globales leídas
+ * después de una llamada quedan fuera del grafo, en memoria.
+ *
+ * Los valores desalojados viven en memoria y se leen/escriben con los
+ * registros de scratch $t8/$t9, así que basta una sola pasada.
+ *
+ * BASADO EN: George & Appel, "Iterated Register Coalescing" (1996)
+ */
+public class GraphColoringAllocator extends StaticAssignmentAllocator {
+
+    // Las dos paletas ($t y $s) tienen el mismo tamaño
+    private static final int K = REGISTERS.length;
+
+    // Estado de cada nodo
+    private static final int INITIAL = 0;
+    private static final int SIMPLIFY = 1;
+    private static final int FREEZE = 2;
+    private static final int SPILL = 3;
+    private static final int SPILLED = 4;
+    private static final int COALESCED = 5;
+    private static final int COLORED = 6;
+    private static final int SELECTED = 7;
+
+    // Estado de cada copia
+    private static final int MOVE_WORKLIST = 0;
+    private static final int MOVE_ACTIVE = 1;
+    private static final int MOVE_COALESCED = 2;
+    private static final int MOVE_CONSTRAINED = 3;
+    private static final int MOVE_FROZEN = 4;
+
+    private InterferenceGraph graph;
+    private int[] state;
+    private int[] degree;
+    private int[] alias;
+    private int[] color;
+    private double[] spillCost;
+    private boolean[] crossesCall;                // se lee después de una llamada: $s
+    private boolean[] inMemory;                   // global leída después de una llamada
+
+    // Copias: moves[m] = {destino, fuente}
+    private List<int[]> moves;
+    private int[] moveState;
+    private List<List<Integer>> moveList;         // nodo -> copias en las que participa
+
+    private Deque<Integer> simplifyWorklist;
+    private Set<Integer> freezeWorklist;
+    private Set<Integer> spillWorklist;
+    private Deque<Integer> moveWorklist;
+    private Deque<Integer> selectStack;
+    private int coalescedMoves;
+
+    // ============================================
+    // CONSTRUCTOR
+    // ============================================
+    public GraphColoringAllocator(TACGenerator tacGenerator) {
+        super(tacGenerator);
+    }
+
+    @Override
+    protected void assign(List<TACInstruction> code, LivenessAnalysis liveness) {
+        int n = liveness.getVariableCount();
+        state = new int[n];
+        degree = new int[n];
+        alias = new int[n];
+        color = new int[n];
+        spillCost = new double[n];
+        crossesCall = new boolean[n];
+        inMemory = new boolean[n];
+        moves = new ArrayList<>();
+        moveList = new ArrayList<>(n);
+        for (int v = 0; v < n; v++) {
+            alias[v] = v;
+            color[v] = -1;
+            moveList.add(new ArrayList<>(2));
+        }
+        simplifyWorklist = new ArrayDeque<>();
+        freezeWorklist = new LinkedHashSet<>();
+        spillWorklist = new LinkedHashSet<>();
+        moveWorklist = new ArrayDeque<>();
+        selectStack = new ArrayDeque<>();
+        coalescedMoves = 0;
+
+        build(code, liveness);
+        makeWorklist();
+
+        while (!simplifyWorklist.isEmpty() || !moveWorklist.isEmpty()
+                || !freezeWorklist.isEmpty() || !spillWorklist.isEmpty()) {
+            if (!simplifyWorklist.isEmpty()) simplify();
+            else if (!moveWorklist.isEmpty()) coalesce();
+            else if (!freezeWorklist.isEmpty()) freeze();
+            else selectSpill();
+        }
+
+        assignColors();
+    }
+
+    // ============================================
+    // CONSTRUCCIÓN DEL GRAFO
+    // ============================================
+    private void build(List<TACInstruction> code, LivenessAnalysis liveness) {
+        ControlFlowGraph cfg = liveness.getCfg();
+        int n = liveness.getVariableCount();
+
+        // Valores leídos después de una llamada: $s ($t no se preserva);
+        // las globales a memoria (la función llamada puede modificarlas)
+        BitSet across = readAfterCalls(code, liveness);
+        for (int id = across.nextSetBit(0); id >= 0; id = across.nextSetBit(id + 1)) {
+            if (isGlobal(liveness.getVariable(id))) {
+                inMemory[id] = true;
+            } else {
+                crossesCall[id] = true;
+            }
+        }
+
+        graph = new InterferenceGraph(n);
+
+        // Lo vivo a la entrada de una función se "define" a la vez
+        for (int b : cfg.getEntryBlocks()) {
+            BitSet live = liveness.getBlockLiveIn(b);
+            for (int u = live.nextSetBit(0); u >= 0; u = live.nextSetBit(u + 1)) {
+                for (int v = live.nextSetBit(u + 1); v >= 0; v = live.nextSetBit(v + 1)) {
+                    addEdge(u, v);
+                }
+            }
+        }
+
+        for (int i = 0; i < code.size(); i++) {
+            double w = Math.pow(10, Math.min(cfg.getLoopDepth(cfg.getBlockOf(i)), 6));
+            for (int id : liveness.getUseIds(i)) {
+                spillCost[id] += w;
+            }
+
+            int def = liveness.getDefId(i);
+            if (def < 0) {
+                continue;
+            }
+            spillCost[def] += w;
+
+            BitSet live = liveness.getLiveOut(i);
+            TACInstruction tac = code.get(i);
+
+            // x = y: x y y no interfieren por esta copia
+            if (tac.getOp() == TACInstruction.OpType.ASSIGN && TACUtils.isVariable(tac.getArg1())) {
+                int src = liveness.getVariableId(tac.getArg1());
+                if (src != def) {
+                    live.clear(src);
+                    if (samePalette(src, def)) {
+                        int m = moves.size();
+                        moves.add(new int[]{def, src});
+                        moveList.get(def).add(m);
+                        moveList.get(src).add(m);
+                        moveWorklist.add(m);
+                    }
+                }
+            }
+
+            for (int v = live.nextSetBit(0); v >= 0; v = live.nextSetBit(v + 1)) {
+                addEdge(def, v);
+            }
+        }
+
+        moveState = new int[moves.size()];
+    }
+
+    /**
+     * Nodos que compiten por los mismos registros
+     */
+    private boolean samePalette(int u, int v) {
+        return !inMemory[u] && !inMemory[v] && crossesCall[u] == crossesCall[v];
+    }
+
+    private void addEdge(int u, int v) {
+        if (!samePalette(u, v)) {
+            return;
+        }
+        if (graph.addEdge(u, v)) {
+            degree[u]++;
+            degree[v]++;
+        }
+    }
+
+    private void makeWorklist() {
+        for (int v = 0; v < state.length; v++) {
+            if (inMemory[v]) {
+                state[v] = SPILLED;
+            } else if (degree[v] >= K) {
+                state[v] = SPILL;
+                spillWorklist.add(v);
+            } else if (moveRelated(v)) {
+                state[v] = FREEZE;
+                freezeWorklist.add(v);
+            } else {
+                state[v] = SIMPLIFY;
+                simplifyWorklist.add(v);
+            }
+        }
+    }
+
+    // ============================================
+    // CONSULTAS SOBRE NODOS Y COPIAS
+    // ============================================
+    /**
+     * Vecinos que siguen en el grafo (sin apilados ni coalescidos)
+     */
+    private List<Integer> adjacent(int v) {
+        List<Integer> result = new ArrayList<>();
+        for (int k = 0; k < graph.degree(v); k++) {
+            int w = graph.neighbor(v, k);
+            if (state[w] != SELECTED && state[w] != COALESCED) {
+                result.add(w);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copias pendientes en las que participa el nodo
+     */
+    private List<Integer> nodeMoves(int v) {
+        List<Integer> result = new ArrayList<>();
+        for (int m : moveList.get(v)) {
+            if (moveState[m] == MOVE_ACTIVE || moveState[m] == MOVE_WORKLIST) {
+                result.add(m);
+            }
+        }
+        return result;
+    }
+
+    private boolean moveRelated(int v) {
+        return !nodeMoves(v).isEmpty();
+    }
+
+    private int getAlias(int v) {
+        while (state[v] == COALESCED) {
+            v = alias[v];
+        }
+        return v;
+    }
+
+    // ============================================
+    // SIMPLIFY
+    // ============================================
+    private void simplify() {
+        int v = simplifyWorklist.pop();
+        state[v] = SELECTED;
+        selectStack.push(v);
+        for (int w : adjacent(v)) {
+            decrementDegree(w);
+        }
+    }
+
+    private void decrementDegree(int v) {
+        int d = degree[v]--;
+        if (d == K && state[v] == SPILL) {
+            List<Integer> nodes = adjacent(v);
+            nodes.add(v);
+            enableMoves(nodes);
+            spillWorklist.remove(v);
+            if (moveRelated(v)) {
+                state[v] = FREEZE;
+                freezeWorklist.add(v);
+            } else {
+                state[v] = SIMPLIFY;
+                simplifyWorklist.add(v);
+            }
+        }
+    }
+
+    private void enableMoves(List<Integer> nodes) {
+        for (int v : nodes) {
+            for (int m : nodeMoves(v)) {
+                if (moveState[m] == MOVE_ACTIVE) {
+                    moveState[m] = MOVE_WORKLIST;
+                    moveWorklist.add(m);
+                }
+            }
+        }
+    }
+
+    // ============================================
+    // COALESCE
+    // ============================================
+    private void coalesce() {
+        int m = moveWorklist.pop();
+        if (moveState[m] != MOVE_WORKLIST) {
+            return;
+        }
+        int u = getAlias(moves.get(m)[0]);
+        int v = getAlias(moves.get(m)[1]);
+
+        if (u == v) {
+            moveState[m] = MOVE_COALESCED;
+            coalescedMoves++;
+            addWorklist(u);
+        } else if (graph.interferes(u, v)) {
+            moveState[m] = MOVE_CONSTRAINED;
+            addWorklist(u);
+            addWorklist(v);
+        } else if (conservative(u, v)) {
+            moveState[m] = MOVE_COALESCED;
+            coalescedMoves++;
+            combine(u, v);
+            addWorklist(u);
+        } else {
+            moveState[m] = MOVE_ACTIVE;
+        }
+    }
+
+    /**
+     * Nodo listo para simplificar tras resolver sus copias
+     */
+    private void addWorklist(int v) {
+        if (state[v] == FREEZE && !moveRelated(v) && degree[v] < K) {
+            freezeWorklist.remove(v);
+            state[v] = SIMPLIFY;
+            simplifyWorklist.add(v);
+        }
+    }
+
+    /**
+     * Criterio de Briggs: el nodo combinado tiene menos de K vecinos de grado
+     * significativo, así que sigue siendo coloreable
+     */
+    private boolean conservative(int u, int v) {
+        Set<Integer> nodes = new HashSet<>(adjacent(u));
+        nodes.addAll(adjacent(v));
+        int significant = 0;
+        for (int w : nodes) {
+            if (degree[w] >= K) significant++;
+        }
+        return significant < K;
+    }
+
+    private void combine(int u, int v) {
+        if (state[v] == FREEZE) {
+            freezeWorklist.remove(v);
+        } else {
+            spillWorklist.remove(v);
+        }
+        state[v] = COALESCED;
+        alias[v] = u;
+        spillCost[u] += spillCost[v];
+        moveList.get(u).addAll(moveList.get(v));
+        enableMoves(List.of(v));
+
+        for (int t : adjacent(v)) {
+            addEdge(t, u);
+            decrementDegree(t);
+        }
+        if (degree[u] >= K && state[u] == FREEZE) {
+            freezeWorklist.remove(u);
+            state[u] = SPILL;
+            spillWorklist.add(u);
+        }
+    }
+
+    // ============================================
+    // FREEZE
+    // ============================================
+    private void freeze() {
+        int v = freezeWorklist.iterator().next();
+        freezeWorklist.remove(v);
+        state[v] = SIMPLIFY;
+        simplifyWorklist.add(v);
+        freezeMoves(v);
+    }
+
+    private void freezeMoves(int u) {
+        for (int m : nodeMoves(u)) {
+            int x = getAlias(moves.get(m)[0]);
+            int y = getAlias(moves.get(m)[1]);
+            int v = y == getAlias(u) ? x : y;
+            moveState[m] = MOVE_FROZEN;
+            if (state[v] == FREEZE && nodeMoves(v).isEmpty()) {
+                freezeWorklist.remove(v);
+                state[v] = SIMPLIFY;
+                simplifyWorklist.add(v);
+            }
+        }
+    }
+
+    // ============================================
+    // SELECT SPILL
+    // ============================================
+    /**
+     * Candidato a spill: menor costo (usos ponderados) por grado
+     */
+    private void selectSpill() {
+        int best = -1;
+        double bestCost = Double.MAX_VALUE;
+        for (int v : spillWorklist) {
+            double cost = spillCost[v] / Math.max(degree[v], 1);
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = v;
+            }
+        }
+        spillWorklist.remove(best);
+        state[best] = SIMPLIFY;
+        simplifyWorklist.add(best);
+        freezeMoves(best);
+    }
+
+    // ============================================
+    // ASIGNACIÓN DE COLORES
+    // ============================================
+    private void assignColors() {
+        while (!selectStack.isEmpty()) {
+            int v = selectStack.pop();
+            boolean[] used = new boolean[K];
+            for (int k = 0; k < graph.degree(v); k++) {
+                int w = getAlias(graph.neighbor(v, k));
+                if (state[w] == COLORED) {
+                    used[color[w]] = true;
+                }
+            }
+            int c = 0;
+            while (c < K && used[c]) c++;
+            if (c == K) {
+                state[v] = SPILLED;
+            } else {
+                state[v] = COLORED;
+                color[v] = c;
+            }
+        }
+        for (int v = 0; v < state.length; v++) {
+            if (state[v] == COALESCED) {
+                color[v] = color[getAlias(v)];
+            }
+        }
+    }
+
+    // ============================================
+    // UBICACIÓN
+    // ============================================
+    @Override
+    protected boolean isAllocated(String variable) {
+        return liveness != null && liveness.tracks(variable);
+    }
+
+    @Override
+    protected String registerOf(String variable, int position) {
+        return getRegister(variable);
+    }
+
+    @Override
+    protected boolean storesOnDefinition(String variable) {
+        return false;
+    }
+
+    // ============================================
+    // UTILIDADES
+    // ============================================
+    /**
+     * Registro asignado a la variable (null si vive en memoria)
+     */
+    public String getRegister(String variable) {
+        int id = liveness.getVariableId(variable);
+        if (id < 0 || color[id] < 0) {
+            return null;
+        }
+        return palette(id)[color[id]];
+    }
+
+    private String[] palette(int v) {
+        return crossesCall[v] ? SAVED_REGISTERS : REGISTERS;
+    }
+
+    /**
+     * Variables que quedaron en memoria
+     */
+    public Set<String> getSpilledVariables() {
+        Set<String> spilled = new LinkedHashSet<>();
+        for (int v = 0; v < color.length; v++) {
+            if (color[v] < 0) spilled.add(liveness.getVariable(v));
+        }
+        return spilled;
+    }
+
+    /**
+     * Cantidad de copias eliminadas por coalescing
+     */
+    public int getCoalescedMoveCount() {
+        return coalescedMoves;
+    }
+
+    public InterferenceGraph getInterferenceGraph() {
+        return graph;
+    }
+
+    @Override
+    public void printState() {
+        System.out.println("\n=== GRAPH COLORING ===");
+        System.out.println("Nodos: " + graph.size() + ", aristas: " + graph.getEdgeCount()
+                + ", copias coalescidas: " + coalescedMoves);
+        for (int v = 0; v < color.length; v++) {
+            String where = color[v] >= 0 ? palette(v)[color[v]] : "[MEM]";
+            String note = getAlias(v) != v ? " (= " + liveness.getVariable(getAlias(v)) + ")" : "";
+            System.out.println(liveness.getVariable(v) + " -> " + where + note);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+
+/**
+ * Variables de Inducción y Reducción de Fuerza en lazos (TAC)
+ *
+ * 1. Variables de inducción básicas: i con una sola definición en el lazo
+ *    de la forma i = i + c, i = c + i o i = i - c (c constante).
+ * 2. Variables derivadas: j = i * c, o k = j + d con j = i * c en el
+ *    mismo bloque y d invariante. Su valor es siempre a * i + b.
+ * 3. Reducción: por cada derivada se crea un temporal s que vale a * i + b
+ *    en todo punto del lazo:
+ *
+ *      preheader:  s = i * a ; s = s + b
+ *      después de i = i + c:  s = s + a * c
+ *      j = i * a   ->  j = s
+ *
+ *    Así base + i * 4 pasa a ser un puntero que avanza de 4 en 4.
+ * 4. Reemplazo de la prueba de salida: si i solo se usa en su incremento
+ *    y en la comparación con un límite invariante n, y no está viva a la
+ *    salida del lazo, la prueba se reescribe como s relop a * n + b
+ *    (a > 0) y el incremento de i se elimina.
+ *
+ * Las copias j = s las limpia la propagación de copias. Los lazos con
+ * llamadas no se tocan, porque la función llamada puede modificar i.
+ *
+ * BASADO EN: Dragon Book, Section 9.1.8 - Induction Variables and Reduction in Strength
+ */
+public class InductionVariables implements TACPass {
+
+    private int reduced;
+    private int testsReplaced;
+    private int nextTemp;
+
+    @Override
+    public String getName() {
+        return "induction-variables";
+    }
+
+    @Override
+    public List<TACInstruction> apply(List<TACInstruction> input) {
+        List<TACInstruction> code = TACUtils.copyAll(input);
+        reduced = 0;
+        testsReplaced = 0;
+        nextTemp = TACUtils.firstFreeTemporary(code);
+
+        // Mismo recorrido que LICM: del lazo más interno al más externo,
+        // reconstruyendo el CFG después de cada lazo modificado
+        Set<String> done = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            ControlFlowGraph cfg = new ControlFlowGraph(code);
+            List<ControlFlowGraph.Loop> loops = new ArrayList<>(cfg.getLoops());
+            loops.sort(Comparator.comparingInt(ControlFlowGraph.Loop::getDepth).reversed());
+
+            for (ControlFlowGraph.Loop loop : loops) {
+                TACInstruction first = code.get(cfg.getBlockStart(loop.getHeader()));
+                if (first.getOp() != OpType.LABEL || !done.add(first.getLabel())) {
+                    continue;
+                }
+                List<TACInstruction> result = reduce(code, cfg, loop);
+                if (result != code) {
+                    code = result;
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return code;
+    }
+
+    // ============================================
+    // FAMILIAS DE INDUCCIÓN
+    // ============================================
+    /**
+     * Variable de inducción básica: i = i + step en la instrucción index
+     */
+    private static class BasicIV {
+        final String name;
+        final int index;
+        final int step;
+
+        BasicIV(String name, int index, int step) {
+            this.name = name;
+            this.index = index;
+            this.step = step;
+        }
+    }
+
+    /**
+     * Variable derivada: valor = factor * basic + offset (offset null = 0)
+     */
+    private static class DerivedIV {
+        final int index;
+        final BasicIV basic;
+        final int factor;
+        final String offset;
+        String reduced;
+
+        DerivedIV(int index, BasicIV basic, int factor, String offset) {
+            this.index = index;
+            this.basic = basic;
+            this.factor = factor;
+            this.offset = offset;
+        }
+    }
+
+    // ============================================
+    // REDUCCIÓN
+    // ============================================
+    /**
+     * @return la misma lista si el lazo no tiene variables derivadas
+     */
+    private List<TACInstruction> reduce(List<TACInstruction> code, ControlFlowGraph cfg,
+                                        ControlFlowGraph.Loop loop) {
+        if (!LoopInvariantCodeMotion.canInsertPreheader(code, cfg, loop)) {
+            return code;
+        }
+        List<Integer> body = instructions(cfg, loop);
+        Map<String, Integer> definitions = new HashMap<>();   // variable -> definiciones en el lazo
+        for (int i : body) {
+            if (TACUtils.isCall(code.get(i))) return code;
+            String def = TACUtils.getDefinition(code.get(i));
+            if (def != null) definitions.merge(def, 1, Integer::sum);
+        }
+
+        Map<String, BasicIV> basics = findBasic(code, body, definitions);
+        if (basics.isEmpty()) {
+            return code;
+        }
+        List<DerivedIV> derived = findDerived(code, cfg, body, definitions, basics);
+        if (derived.isEmpty()) {
+            return code;
+        }
+
+        // Temporales reducidos, inicialización e incrementos
+        List<TACInstruction> preheader = new ArrayList<>();
+        Map<Integer, List<TACInstruction>> increments = new HashMap<>();
+        Map<Integer, TACInstruction> replaced = new HashMap<>();
+        for (DerivedIV iv : derived) {
+            iv.reduced = newTemp();
+            preheader.add(TACUtils.binary(iv.reduced, iv.basic.name, "*", String.valueOf(iv.factor)));
+            if (iv.offset != null) {
+                preheader.add(TACUtils.binary(iv.reduced, iv.reduced, "+", iv.offset));
+            }
+            increments.computeIfAbsent(iv.basic.index, k -> new ArrayList<>())
+                    .add(TACUtils.binary(iv.reduced, iv.reduced, "+",
+                            String.valueOf(iv.factor * iv.basic.step)));
+            replaced.put(iv.index, TACUtils.assign(code.get(iv.index).getResult(), iv.reduced));
+            reduced++;
+        }
+
+        Set<Integer> removed = new HashSet<>();
+        replaceExitTest(code, cfg, loop, body, definitions, derived, preheader, replaced, removed);
+
+        // Reconstrucción con el preheader antes de la cabecera
+        int headerStart = cfg.getBlockStart(loop.getHeader());
+        String headerLabel = code.get(headerStart).getLabel();
+        String preheaderLabel = LoopInvariantCodeMotion.freshLabel(code, headerLabel + "_pre");
+        LoopInvariantCodeMotion.redirectOutsideJumps(code, cfg, loop, headerLabel, preheaderLabel);
+
+        List<TACInstruction> result = new ArrayList<>(code.size() + preheader.size() + 1);
+        for (int i = 0; i < code.size(); i++) {
+            if (i == headerStart) {
+                result.add(TACUtils.label(preheaderLabel));
+                result.addAll(preheader);
+            }
+            if (!removed.contains(i)) {
+                result.add(replaced.getOrDefault(i, code.get(i)));
+            }
+            result.addAll(increments.getOrDefault(i, Collections.emptyList()));
+        }
+        return result;
+    }
+
+    /**
+     * i = i + c, i = c + i, i = i - c con una sola definición de i en el lazo
+     */
+    private static Map<String, BasicIV> findBasic(List<TACInstruction> code, List<Integer> body,
+                                                  Map<String, Integer> definitions) {
+        Map<String, BasicIV> basics = new LinkedHashMap<>();
+        for (int i : body) {
+            TACInstruction tac = code.get(i);
+            String name = TACUtils.getDefinition(tac);
+            if (tac.getOp() != OpType.BINARY_OP || name == null || definitions.get(name) != 1) continue;
+
+            String a1 = tac.getArg1();
+            String a2 = tac.getArg2();
+            String op = tac.getOperator();
+            if ("+".equals(op) && name.equals(a1) && TACUtils.isImmediate(a2)) {
+                basics.put(name, new BasicIV(name, i, Integer.parseInt(a2)));
+            } else if ("+".equals(op) && name.equals(a2) && TACUtils.isImmediate(a1)) {
+                basics.put(name, new BasicIV(name, i, Integer.parseInt(a1)));
+            } else if ("-".equals(op) && name.equals(a1) && TACUtils.isImmediate(a2)
+                    && Integer.parseInt(a2) != Integer.MIN_VALUE) {
+                basics.put(name, new BasicIV(name, i, -Integer.parseInt(a2)));
+            }
+        }
+        return basics;
+    }
+
+    /**
+     * j = i * c, y k = j + d con j = i * c antes en el mismo bloque sin
+     * que i cambie entre ambas
+     */
+    private static List<DerivedIV> findDerived(List<TACInstruction> code, ControlFlowGraph cfg,
+                                               List<Integer> body, Map<String, Integer> definitions,
+                                               Map<String, BasicIV> basics) {
+        List<DerivedIV> derived = new ArrayList<>();
+        Map<String, DerivedIV> byName = new HashMap<>();
+        for (int i : body) {
+            TACInstruction tac = code.get(i);
+            String name = TACUtils.getDefinition(tac);
+            if (tac.getOp() != OpType.BINARY_OP || name == null
+                    || definitions.get(name) != 1 || basics.containsKey(name)) continue;
+
+            String a1 = tac.getArg1();
+            String a2 = tac.getArg2();
+            DerivedIV iv = null;
+            if ("*".equals(tac.getOperator())) {
+                if (basics.containsKey(a1) && TACUtils.isImmediate(a2)) {
+                    iv = new DerivedIV(i, basics.get(a1), Integer.parseInt(a2), null);
+                } else if (basics.containsKey(a2) && TACUtils.isImmediate(a1)) {
+                    iv = new DerivedIV(i, basics.get(a2), Integer.parseInt(a1), null);
+                }
+            } else if ("+".equals(tac.getOperator())) {
+                DerivedIV j = byName.get(a1);
+                String d = a2;
+                if (j == null || !isInvariant(d, definitions)) {
+                    j = byName.get(a2);
+                    d = a1;
+                }
+                if (j != null && j.offset == null && isInvariant(d, definitions)
+                        && sameBlockWithoutDefinition(cfg, j.index, i, j.basic.index)) {
+                    iv = new DerivedIV(i, j.basic, j.factor, d);
+                }
+            }
+            if (iv != null) {
+                derived.add(iv);
+                byName.put(name, iv);
+            }
+        }
+        return derived;
+    }
+
+    // ============================================
+    // PRUEBA DE SALIDA
+    // ============================================
+    /**
+     * Reescribe la comparación de i contra un límite invariante en términos
+     * de la derivada, si i queda sin otros usos y muerta a la salida
+     */
+    private void replaceExitTest(List<TACInstruction> code, ControlFlowGraph cfg,
+                                 ControlFlowGraph.Loop loop, List<Integer> body,
+                                 Map<String, Integer> definitions, List<DerivedIV> derived,
+                                 List<TACInstruction> preheader,
+                                 Map<Integer, TACInstruction> replaced, Set<Integer> removed) {
+        for (DerivedIV iv : derived) {
+            if (iv.factor <= 0) continue;
+            BasicIV basic = iv.basic;
+
+            int test = -1;
+            for (int i : body) {
+                if (i == basic.index || replaced.containsKey(i)) continue;
+                TACInstruction tac = code.get(i);
+                if (!TACUtils.getUses(tac).contains(basic.name)) continue;
+                if (test >= 0 || limitOf(tac, basic.name, definitions) == null) {
+                    test = -1;
+                    break;
+                }
+                test = i;
+            }
+            if (test < 0 || isLiveAtExit(cfg, loop, basic.name)) continue;
+
+            TACInstruction original = code.get(test);
+            String limit = scaledLimit(limitOf(original, basic.name, definitions), iv, preheader);
+            if (limit == null) continue;
+
+            TACInstruction rewritten = TACUtils.copy(original);
+            boolean left = basic.name.equals(original.getArg1());
+            rewritten.setArg1(left ? iv.reduced : limit);
+            rewritten.setArg2(left ? limit : iv.reduced);
+            replaced.put(test, rewritten);
+            removed.add(basic.index);
+            testsReplaced++;
+            return;
+        }
+    }
+
+    /**
+     * Límite invariante de una comparación i relop n (null si no es una)
+     */
+    private static String limitOf(TACInstruction tac, String variable, Map<String, Integer> definitions) {
+        boolean comparison;
+        if (tac.getOp() == OpType.IF_GOTO) {
+            comparison = tac.getRelop() != null;
+        } else if (tac.getOp() == OpType.BINARY_OP) {
+            comparison = isRelational(tac.getOperator());
+        } else {
+            return null;
+        }
+        if (!comparison) return null;
+
+        String other;
+        if (variable.equals(tac.getArg1())) {
+            other = tac.getArg2();
+        } else if (variable.equals(tac.getArg2())) {
+            other = tac.getArg1();
+        } else {
+            return null;
+        }
+        return !variable.equals(other) && isInvariant(other, definitions) ? other : null;
+    }
+
+    /**
+     * a * n + b: constante si se puede, si no un temporal calculado en el preheader
+     */
+    private String scaledLimit(String n, DerivedIV iv, List<TACInstruction> preheader) {
+        if (TACUtils.isImmediate(n) && (iv.offset == null || TACUtils.isImmediate(iv.offset))) {
+            long value = (long) iv.factor * Integer.parseInt(n)
+                    + (iv.offset != null ? Integer.parseInt(iv.offset) : 0);
+            return value == (int) value ? String.valueOf(value) : null;
+        }
+        String limit = newTemp();
+        preheader.add(TACUtils.binary(limit, n, "*", String.valueOf(iv.factor)));
+        if (iv.offset != null) {
+            preheader.add(TACUtils.binary(limit, limit, "+", iv.offset));
+        }
+        return limit;
+    }
+
+    private static boolean isLiveAtExit(ControlFlowGraph cfg, ControlFlowGraph.Loop loop, String variable) {
+        LivenessAnalysis liveness = new LivenessAnalysis(cfg);
+        BitSet blocks = loop.getBlocks();
+        for (int b = blocks.nextSetBit(0); b >= 0; b = blocks.nextSetBit(b + 1)) {
+            for (int k = 0; k < cfg.successorCount(b); k++) {
+                int s = cfg.successor(b, k);
+                if (!loop.contains(s) && liveness.isLiveIn(cfg.getBlockStart(s), variable)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // ============================================
+    // UTILIDADES
+    // ============================================
+    private static boolean isRelational(String op) {
+        switch (op) {
+            case "<": case "<=": case ">": case ">=": case "==": case "!=":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Constante o variable sin definiciones dentro del lazo
+     */
+    private static boolean isInvariant(String operand, Map<String, Integer> definitions) {
+        if (TACUtils.isImmediate(operand)) return true;
+        return TACUtils.isVariable(operand) && !definitions.containsKey(operand);
+    }
+
+    /**
+     * from y to en el mismo bloque, from antes, y la instrucción excluded
+     * no queda entre ambas
+     */
+    private static boolean sameBlockWithoutDefinition(ControlFlowGraph cfg, int from, int to, int excluded) {
+        return cfg.getBlockOf(from) == cfg.getBlockOf(to) && from < to
+                && !(from < excluded && excluded < to);
+    }
+
+    private static List<Integer> instructions(ControlFlowGraph cfg, ControlFlowGraph.Loop loop) {
+        List<Integer> indices = new ArrayList<>();
+        BitSet blocks = loop.getBlocks();
+        for (int b = blocks.nextSetBit(0); b >= 0; b = blocks.nextSetBit(b + 1)) {
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    private String newTemp() {
+        return "t" + nextTemp++;
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getReducedCount() {
+        return reduced;
+    }
+
+    public int getTestsReplacedCount() {
+        return testsReplaced;
+    }
+}
@@ -0,0 +1,403 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+
+/**
+ * Inlining de funciones pequeñas sobre TAC
+ *
+ * Una llamada f(a, b) o x = f(a, b) se reemplaza por una copia del cuerpo
+ * de f:
+ *
+ *   tP1 = a ; tP2 = b            parámetros en temporales nuevos
+ *   ...cuerpo renombrado...      temporales, locales y etiquetas nuevas
+ *   x = v ; goto f_inl1_exit     cada return v
+ *   f_inl1_exit:
+ *
+ * Se expanden las funciones con a lo sumo sizeLimit instrucciones, o
+ * hasta 4 * sizeLimit si tienen una sola llamada. El crecimiento total
+ * del TAC no supera growthLimit % del tamaño original, o sizeLimit
+ * instrucciones si es mayor: así un programa pequeño admite al menos una
+ * expansión aunque el porcentaje no alcance. Las funciones
+ * recursivas, con try o con funciones anidadas no se expanden, y una
+ * función que queda sin referencias se elimina.
+ *
+ * Los parámetros se toman del mapa del constructor. Sin mapa se infieren
+ * solo para funciones de un parámetro: la única variable del programa que
+ * se lee antes de definirse y no aparece fuera de la función.
+ *
+ * Debe correr antes de la propagación de constantes, para que las
+ * llamadas con argumentos constantes se plieguen.
+ *
+ * BASADO EN: Cooper & Torczon, "Engineering a Compiler", Section 8.7.1
+ */
+public class Inliner implements TACPass {
+
+    /** Multiplicador del límite de tamaño para funciones con una sola llamada */
+    private static final int SINGLE_CALL_FACTOR = 4;
+
+    private final Map<String, List<String>> parameters;
+    private final int sizeLimit;
+    private final int growthLimit;
+
+    private int inlined;
+    private int functionsRemoved;
+    private int nextTemp;
+    private int nextSite;
+
+    public Inliner() {
+        this(Collections.emptyMap(), 12, 50);
+    }
+
+    /**
+     * @param parameters  función -> nombres de sus parámetros en orden
+     * @param sizeLimit   máximo de instrucciones de una función expandida
+     * @param growthLimit crecimiento máximo en porcentaje del código original
+     */
+    public Inliner(Map<String, List<String>> parameters, int sizeLimit, int growthLimit) {
+        this.parameters = parameters;
+        this.sizeLimit = sizeLimit;
+        this.growthLimit = growthLimit;
+    }
+
+    @Override
+    public String getName() {
+        return "inliner";
+    }
+
+    // ============================================
+    // FUNCIONES
+    // ============================================
+    /**
+     * Definición de función: LABEL f en start, END f en end
+     */
+    private static class Function {
+        final String name;
+        final int start;
+        final int end;
+        List<String> params;
+        Set<String> locals;
+        int calls;
+
+        Function(String name, int start, int end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+
+        List<TACInstruction> body(List<TACInstruction> code) {
+            return code.subList(start + 1, end);
+        }
+
+        int size() {
+            return end - start - 1;
+        }
+
+        boolean contains(int index) {
+            return index > start && index < end;
+        }
+    }
+
+    @Override
+    public List<TACInstruction> apply(List<TACInstruction> input) {
+        List<TACInstruction> code = TACUtils.copyAll(input);
+        inlined = 0;
+        functionsRemoved = 0;
+        nextTemp = TACUtils.firstFreeTemporary(code);
+        nextSite = 1;
+
+        Map<String, Function> functions = findFunctions(code);
+        if (functions.isEmpty()) {
+            return code;
+        }
+        for (TACInstruction tac : code) {
+            Function callee = calleeOf(tac, functions);
+            if (callee != null) callee.calls++;
+        }
+        for (Function f : functions.values()) {
+            f.params = parametersOf(code, f);
+            f.locals = localsOf(code, f, functions);
+        }
+
+        // Llamadas a expandir: primero las de funciones más pequeñas
+        List<Integer> sites = new ArrayList<>();
+        for (int i = 0; i < code.size(); i++) {
+            Function callee = calleeOf(code.get(i), functions);
+            if (callee != null && isInlinable(code, callee, i)
+                    && callee.params.size() == code.get(i).getParams().size()) {
+                sites.add(i);
+            }
+        }
+        sites.sort(Comparator.comparingInt((Integer i) -> calleeOf(code.get(i), functions).size())
+                .thenComparingInt(i -> i));
+
+        int budget = Math.max(sizeLimit, code.size() * growthLimit / 100);
+        Map<Integer, List<TACInstruction>> expansions = new HashMap<>();
+        Set<String> expanded = new HashSet<>();
+        for (int i : sites) {
+            Function callee = calleeOf(code.get(i), functions);
+            List<TACInstruction> expansion = expand(code, callee, code.get(i));
+            int growth = expansion.size() - 1;
+            if (callee.calls == 1) {
+                // La definición original desaparece con la única llamada
+                growth -= callee.size() + 2;
+            }
+            if (growth > budget) continue;
+            budget -= Math.max(growth, 0);
+            expansions.put(i, expansion);
+            callee.calls--;
+            expanded.add(callee.name);
+            inlined++;
+        }
+        if (expansions.isEmpty()) {
+            return code;
+        }
+
+        // Candidatas a eliminar: expandidas en todas sus llamadas
+        expanded.removeIf(name -> functions.get(name).calls > 0);
+
+        List<TACInstruction> result = new ArrayList<>(code.size());
+        for (int i = 0; i < code.size(); i++) {
+            List<TACInstruction> expansion = expansions.get(i);
+            if (expansion != null) {
+                result.addAll(expansion);
+            } else {
+                result.add(code.get(i));
+            }
+        }
+        return removeUnreferenced(result, expanded);
+    }
+
+    /**
+     * Definiciones de funciones: LABEL f ... END f
+     */
+    private static Map<String, Function> findFunctions(List<TACInstruction> code) {
+        Map<String, Integer> starts = new HashMap<>();
+        Map<String, Function> functions = new LinkedHashMap<>();
+        for (int i = 0; i < code.size(); i++) {
+            TACInstruction tac = code.get(i);
+            if (tac.getOp() == OpType.LABEL) {
+                starts.putIfAbsent(tac.getLabel(), i);
+            } else if (tac.getOp() == OpType.END && starts.containsKey(tac.getLabel())) {
+                functions.put(tac.getLabel(), new Function(tac.getLabel(), starts.get(tac.getLabel()), i));
+            }
+        }
+        return functions;
+    }
+
+    private static Function calleeOf(TACInstruction tac, Map<String, Function> functions) {
+        if (tac.getOp() != OpType.CALL && tac.getOp() != OpType.ASSIGN_CALL) {
+            return null;
+        }
+        return functions.get(tac.getArg1());
+    }
+
+    /**
+     * Tamaño dentro del límite, sin recursión, try ni funciones anidadas,
+     * y la llamada no está dentro de la propia función
+     */
+    private boolean isInlinable(List<TACInstruction> code, Function f, int site) {
+        if (f.params == null || f.contains(site)) {
+            return false;
+        }
+        int limit = f.calls == 1 ? sizeLimit * SINGLE_CALL_FACTOR : sizeLimit;
+        if (f.size() > limit) {
+            return false;
+        }
+        for (TACInstruction tac : f.body(code)) {
+            switch (tac.getOp()) {
+                case END:
+                case TRY_BEGIN:
+                case TRY_END:
+                    return false;
+                case CALL:
+                case ASSIGN_CALL:
+                    if (f.name.equals(tac.getArg1())) return false;
+                    break;
+                default:
+                    break;
+            }
+        }
+        return true;
+    }
+
+    // ============================================
+    // PARÁMETROS Y LOCALES
+    // ============================================
+    /**
+     * Parámetros del mapa o inferidos (null si no se pueden determinar)
+     */
+    private List<String> parametersOf(List<TACInstruction> code, Function f) {
+        List<String> known = parameters.get(f.name);
+        if (known != null) {
+            return known;
+        }
+        Set<String> outside = namesOutside(code, f);
+        Set<String> defined = new HashSet<>();
+        Set<String> candidates = new LinkedHashSet<>();
+        for (TACInstruction tac : f.body(code)) {
+            for (String use : TACUtils.getUses(tac)) {
+                if (!TACUtils.isTemporary(use) && !defined.contains(use) && !outside.contains(use)) {
+                    candidates.add(use);
+                }
+            }
+            String def = TACUtils.getDefinition(tac);
+            if (def != null) defined.add(def);
+        }
+        // Con dos o más el orden de los parámetros no se puede deducir
+        return candidates.size() <= 1 ? new ArrayList<>(candidates) : null;
+    }
+
+    /**
+     * Variables del programa que solo aparecen en la función y no son
+     * parámetros: se renombran a temporales en cada copia
+     */
+    private static Set<String> localsOf(List<TACInstruction> code, Function f, Map<String, Function> functions) {
+        if (f.params == null) {
+            return Collections.emptySet();
+        }
+        Set<String> outside = namesOutside(code, f);
+        Set<String> locals = new HashSet<>();
+        Set<String> defined = new HashSet<>();
+        Set<String> readFirst = new HashSet<>();
+        for (TACInstruction tac : f.body(code)) {
+            for (String use : TACUtils.getUses(tac)) {
+                if (!defined.contains(use)) readFirst.add(use);
+            }
+            String def = TACUtils.getDefinition(tac);
+            if (def != null) defined.add(def);
+        }
+        for (String name : defined) {
+            // Lo que se lee antes de escribirse puede ser una global
+            if (!TACUtils.isTemporary(name) && !outside.contains(name)
+                    && !readFirst.contains(name) && !f.params.contains(name)
+                    && !functions.containsKey(name)) {
+                locals.add(name);
+            }
+        }
+        return locals;
+    }
+
+    /**
+     * Variables leídas o escritas fuera del cuerpo de la función
+     */
+    private static Set<String> namesOutside(List<TACInstruction> code, Function f) {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < code.size(); i++) {
+            if (f.contains(i)) continue;
+            names.addAll(TACUtils.getUses(code.get(i)));
+            String def = TACUtils.getDefinition(code.get(i));
+            if (def != null) names.add(def);
+        }
+        return names;
+    }
+
+    // ============================================
+    // EXPANSIÓN
+    // ============================================
+    /**
+     * Copia del cuerpo con parámetros, temporales, locales y etiquetas nuevos
+     */
+    private List<TACInstruction> expand(List<TACInstruction> code, Function f, TACInstruction call) {
+        String prefix = f.name + "_inl" + nextSite++ + "_";
+        String exit = prefix + "exit";
+        Map<String, String> renames = new HashMap<>();
+        List<TACInstruction> expansion = new ArrayList<>();
+
+        for (int p = 0; p < f.params.size(); p++) {
+            String temp = newTemp();
+            renames.put(f.params.get(p), temp);
+            expansion.add(TACUtils.assign(temp, call.getParams().get(p)));
+        }
+
+        List<TACInstruction> body = f.body(code);
+        for (int k = 0; k < body.size(); k++) {
+            TACInstruction tac = TACUtils.copy(body.get(k));
+            TACUtils.renameUses(tac, name -> rename(name, f, renames));
+            String def = TACUtils.getDefinition(tac);
+            if (def != null) {
+                tac.setResult(rename(def, f, renames));
+            }
+            if (tac.getOp() == OpType.LABEL || tac.getOp() == OpType.GOTO || tac.getOp() == OpType.IF_GOTO) {
+                tac.setLabel(prefix + tac.getLabel());
+            }
+
+            if (tac.getOp() == OpType.RETURN) {
+                if (call.getOp() == OpType.ASSIGN_CALL && tac.getArg1() != null && !tac.getArg1().isEmpty()) {
+                    expansion.add(TACUtils.assign(call.getResult(), tac.getArg1()));
+                }
+                if (k < body.size() - 1) {
+                    expansion.add(TACUtils.gotoLabel(exit));
+                }
+                continue;
+            }
+            expansion.add(tac);
+        }
+        expansion.add(TACUtils.label(exit));
+        return expansion;
+    }
+
+    /**
+     * Parámetros, locales y temporales de la función reciben nombres nuevos
+     */
+    private String rename(String name, Function f, Map<String, String> renames) {
+        String renamed = renames.get(name);
+        if (renamed == null && (TACUtils.isTemporary(name) || f.locals.contains(name))) {
+            renamed = newTemp();
+            renames.put(name, renamed);
+        }
+        return renamed != null ? renamed : name;
+    }
+
+    private String newTemp() {
+        return "t" + nextTemp++;
+    }
+
+    // ============================================
+    // FUNCIONES SIN USO
+    // ============================================
+    /**
+     * Elimina las funciones expandidas en todas sus llamadas que ya nadie
+     * llama ni menciona
+     */
+    private List<TACInstruction> removeUnreferenced(List<TACInstruction> code, Set<String> candidates) {
+        Map<String, Function> functions = findFunctions(code);
+        Set<String> referenced = new HashSet<>();
+        for (int i = 0; i < code.size(); i++) {
+            TACInstruction tac = code.get(i);
+            if (tac.getOp() == OpType.LABEL || tac.getOp() == OpType.END) continue;
+            if (TACUtils.isCall(tac)) {
+                referenced.add(tac.getArg1());
+                referenced.add(tac.getArg1() + "_constructor");
+            }
+            referenced.addAll(TACUtils.getUses(tac));
+            if (tac.getLabel() != null) referenced.add(tac.getLabel());
+        }
+
+        boolean[] remove = new boolean[code.size()];
+        for (Function f : functions.values()) {
+            if (!candidates.contains(f.name) || referenced.contains(f.name)) continue;
+            for (int i = f.start; i <= f.end; i++) remove[i] = true;
+            functionsRemoved++;
+        }
+
+        List<TACInstruction> result = new ArrayList<>(code.size());
+        for (int i = 0; i < code.size(); i++) {
+            if (!remove[i]) result.add(code.get(i));
+        }
+        return result;
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getInlinedCount() {
+        return inlined;
+    }
+
+    public int getFunctionsRemovedCount() {
+        return functionsRemoved;
+    }
+}
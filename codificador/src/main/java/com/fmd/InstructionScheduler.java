@@ -0,0 +1,440 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+
+import java.util.*;
+
+/**
+ * Scheduler de listas sobre los bloques básicos del código MIPS
+ *
+ * Cada región (instrucciones entre etiquetas, saltos, syscalls y
+ * comentarios) se reordena con un grafo de dependencias:
+ * - RAW: espera la latencia del productor según el PipelineModel.
+ * - WAR, WAW y memoria: solo conservan el orden.
+ * Se emite cada ciclo la instrucción lista con el camino crítico más
+ * largo (empate: el orden original), así un lw se aleja de su consumidor.
+ *
+ * MODOS:
+ * - .set reorder: el ensamblador llena los delay slots.
+ * - .set noreorder: cada branch/jump lleva su delay slot explícito, con
+ *   una instrucción del mismo bloque que no afecte al salto, o nop.
+ *
+ * Dos accesos a memoria son independientes si usan la misma base con
+ * distinto offset, o si uno es estático ($gp) y el otro del stack.
+ *
+ * BASADO EN: Cooper & Torczon, "Engineering a Compiler", Section 12.3
+ */
+public class InstructionScheduler {
+
+    private static final Set<String> STACK_BASES = Set.of("$sp", "$fp");
+    private static final String STATIC_BASE = "$gp";
+    private static final String ZERO = "$zero";
+
+    private final PipelineModel model;
+    private final boolean noReorder;
+
+    private int moved;
+    private int filledSlots;
+    private int nops;
+
+    public InstructionScheduler(PipelineModel model, boolean noReorder) {
+        this.model = model;
+        this.noReorder = noReorder;
+    }
+
+    /**
+     * Directiva que debe preceder al código generado
+     */
+    public String getDirective() {
+        return noReorder ? ".set noreorder" : ".set reorder";
+    }
+
+    // ============================================
+    // SCHEDULING
+    // ============================================
+    public List<MIPSInstruction> schedule(List<MIPSInstruction> code) {
+        moved = 0;
+        filledSlots = 0;
+        nops = 0;
+
+        List<MIPSInstruction> result = new ArrayList<>(code.size());
+        int i = 0;
+        while (i < code.size()) {
+            if (!isSchedulable(code.get(i)) && !isControl(code.get(i).getOpcode())) {
+                result.add(code.get(i));
+                i++;
+                continue;
+            }
+
+            int end = i;
+            while (end < code.size() && isSchedulable(code.get(end))) {
+                end++;
+            }
+            MIPSInstruction control = end < code.size() && isControl(code.get(end).getOpcode())
+                    ? code.get(end) : null;
+
+            List<MIPSInstruction> body = scheduleRegion(code.subList(i, end), control);
+            if (control == null) {
+                result.addAll(body);
+                i = end;
+                continue;
+            }
+
+            if (noReorder) {
+                MIPSInstruction filler = takeFiller(body, control);
+                result.addAll(body);
+                result.add(control);
+                if (filler != null) {
+                    result.add(filler);
+                    filledSlots++;
+                } else {
+                    result.add(MIPSInstruction.nop());
+                    nops++;
+                }
+            } else {
+                result.addAll(body);
+                result.add(control);
+            }
+            i = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Scheduling de listas de una región; el salto que la cierra (si hay)
+     * cuenta como consumidor final
+     */
+    private List<MIPSInstruction> scheduleRegion(List<MIPSInstruction> region, MIPSInstruction control) {
+        int n = region.size();
+        if (n <= 1) {
+            return new ArrayList<>(region);
+        }
+
+        // latency[a][b] > 0: b depende de a
+        int[][] latency = new int[n][n];
+        int[] predecessors = new int[n];
+        for (int b = 0; b < n; b++) {
+            for (int a = 0; a < b; a++) {
+                latency[a][b] = dependence(region.get(a), region.get(b));
+                if (latency[a][b] > 0) predecessors[b]++;
+            }
+        }
+
+        // Altura: camino crítico hasta el final de la región
+        int[] height = new int[n];
+        for (int a = n - 1; a >= 0; a--) {
+            height[a] = model.latencyOf(region.get(a));
+            if (control != null && dependence(region.get(a), control) > 0) {
+                height[a] = Math.max(height[a], dependence(region.get(a), control));
+            }
+            for (int b = a + 1; b < n; b++) {
+                if (latency[a][b] > 0) {
+                    height[a] = Math.max(height[a], latency[a][b] + height[b]);
+                }
+            }
+        }
+
+        int[] earliest = new int[n];
+        boolean[] done = new boolean[n];
+        List<MIPSInstruction> order = new ArrayList<>(n);
+        int cycle = 0;
+        while (order.size() < n) {
+            int best = -1;
+            for (int k = 0; k < n; k++) {
+                if (done[k] || predecessors[k] > 0 || earliest[k] > cycle) continue;
+                if (best < 0 || height[k] > height[best]) best = k;
+            }
+            if (best < 0) {
+                // Ninguna lista: el pipeline espera un ciclo
+                cycle++;
+                continue;
+            }
+            if (best != order.size()) {
+                moved++;
+            }
+            done[best] = true;
+            order.add(region.get(best));
+            for (int b = best + 1; b < n; b++) {
+                if (latency[best][b] > 0) {
+                    predecessors[b]--;
+                    earliest[b] = Math.max(earliest[b], cycle + latency[best][b]);
+                }
+            }
+            cycle++;
+        }
+        return order;
+    }
+
+    // ============================================
+    // DELAY SLOTS
+    // ============================================
+    /**
+     * Saca del bloque la última instrucción que puede ir en el delay slot:
+     * nada posterior depende de ella y no afecta al salto
+     */
+    private MIPSInstruction takeFiller(List<MIPSInstruction> body, MIPSInstruction control) {
+        for (int k = body.size() - 1; k >= 0; k--) {
+            MIPSInstruction candidate = body.get(k);
+            if (!fitsDelaySlot(candidate) || dependence(candidate, control) > 0
+                    || dependence(control, candidate) > 0) {
+                continue;
+            }
+            boolean free = true;
+            for (int later = k + 1; later < body.size() && free; later++) {
+                free = dependence(candidate, body.get(later)) == 0;
+            }
+            if (free) {
+                return body.remove(k);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Solo instrucciones que el ensamblador no expande a varias
+     */
+    private static boolean fitsDelaySlot(MIPSInstruction instr) {
+        switch (instr.getOpcode()) {
+            case ADD: case SUB: case MUL: case DIV: case AND: case OR: case XOR: case NOR: case NOT:
+            case SLT: case MOVE: case MFHI: case MFLO: case SLL: case SRL: case SRA:
+                return true;
+            case ADDI: case SLTI: case LI: case LUI:
+                return fitsSigned16(instr.getImmediate());
+            case ANDI: case ORI: case XORI:
+                return fitsUnsigned16(instr.getImmediate());
+            case LW: case SW: {
+                String address = instr.getImmediate();
+                int open = address.indexOf('(');
+                return open >= 0 && (open == 0 || fitsSigned16(address.substring(0, open)));
+            }
+            default:
+                return false;
+        }
+    }
+
+    private static boolean fitsSigned16(String value) {
+        try {
+            int v = Integer.parseInt(value);
+            return v >= -32768 && v <= 32767;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean fitsUnsigned16(String value) {
+        try {
+            int v = Integer.parseInt(value);
+            return v >= 0 && v <= 65535;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // ============================================
+    // DEPENDENCIAS
+    // ============================================
+    /**
+     * Ciclos que b debe esperar a a (0: independientes)
+     */
+    private int dependence(MIPSInstruction a, MIPSInstruction b) {
+        Set<String> defsA = defs(a);
+        Set<String> usesB = uses(b);
+        for (String reg : defsA) {
+            if (usesB.contains(reg)) {
+                return model.latencyOf(a);
+            }
+        }
+        Set<String> defsB = defs(b);
+        for (String reg : defsB) {
+            if (defsA.contains(reg) || uses(a).contains(reg)) {
+                return 1;
+            }
+        }
+        if (mayAlias(a, b) || movesFrame(a, b) || movesFrame(b, a)) {
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * a mueve $sp o $fp y b accede al stack: el acceso no cruza el ajuste
+     * aunque use la otra base (sw $s0, -4($fp) después de addi $sp, ...)
+     */
+    private static boolean movesFrame(MIPSInstruction a, MIPSInstruction b) {
+        if (!isMemory(b.getOpcode()) || !STACK_BASES.contains(baseOf(b.getImmediate()))) {
+            return false;
+        }
+        for (String reg : defs(a)) {
+            if (STACK_BASES.contains(reg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dos accesos a memoria (al menos uno escribe) que pueden tocar la
+     * misma palabra
+     */
+    private static boolean mayAlias(MIPSInstruction a, MIPSInstruction b) {
+        boolean memA = isMemory(a.getOpcode());
+        boolean memB = isMemory(b.getOpcode());
+        if (!memA || !memB || (a.getOpcode() == OpCode.LW && b.getOpcode() == OpCode.LW)) {
+            return false;
+        }
+        String addressA = a.getImmediate();
+        String addressB = b.getImmediate();
+        String baseA = baseOf(addressA);
+        String baseB = baseOf(addressB);
+        if (baseA.isEmpty() || baseB.isEmpty()) {
+            return true;
+        }
+        if (baseA.equals(baseB)) {
+            return addressA.equals(addressB);
+        }
+        boolean staticA = baseA.equals(STATIC_BASE);
+        boolean staticB = baseB.equals(STATIC_BASE);
+        if (staticA && STACK_BASES.contains(baseB) || staticB && STACK_BASES.contains(baseA)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Registros que escribe la instrucción (HI/LO como "hi" y "lo")
+     */
+    static Set<String> defs(MIPSInstruction instr) {
+        Set<String> defs = new HashSet<>();
+        switch (instr.getOpcode()) {
+            case LW:
+                defs.add(instr.getRt());
+                break;
+            case DIV:
+                defs.add("hi");
+                defs.add("lo");
+                break;
+            case JAL:
+                defs.add("$ra");
+                break;
+            case SW: case J: case JR: case SYSCALL: case NOP: case LABEL: case COMMENT:
+            case BEQ: case BNE: case BGT: case BGE: case BLT: case BLE: case BEQZ: case BNEZ:
+                break;
+            default:
+                if (instr.getRd() != null) defs.add(instr.getRd());
+        }
+        defs.remove(ZERO);
+        return defs;
+    }
+
+    /**
+     * Registros que lee la instrucción
+     */
+    static Set<String> uses(MIPSInstruction instr) {
+        Set<String> uses = new HashSet<>();
+        switch (instr.getOpcode()) {
+            case LW:
+                uses.add(baseOf(instr.getImmediate()));
+                break;
+            case SW:
+                uses.add(instr.getRt());
+                uses.add(baseOf(instr.getImmediate()));
+                break;
+            case SLL: case SRL: case SRA:
+                uses.add(instr.getRt());
+                break;
+            case MFHI:
+                uses.add("hi");
+                break;
+            case MFLO:
+                uses.add("lo");
+                break;
+            case LI: case LA: case LUI: case J: case JAL: case LABEL: case COMMENT: case NOP:
+                break;
+            default:
+                if (instr.getRs() != null) uses.add(instr.getRs());
+                if (instr.getRt() != null) uses.add(instr.getRt());
+        }
+        uses.remove("");
+        uses.remove(ZERO);
+        return uses;
+    }
+
+    // ============================================
+    // UTILIDADES
+    // ============================================
+    /**
+     * Instrucciones que se pueden mover dentro de su región
+     */
+    private static boolean isSchedulable(MIPSInstruction instr) {
+        switch (instr.getOpcode()) {
+            case LABEL: case COMMENT: case SYSCALL: case NOP: case PUSH: case POP:
+                return false;
+            default:
+                return !isControl(instr.getOpcode());
+        }
+    }
+
+    /**
+     * Saltos con delay slot
+     */
+    static boolean isControl(OpCode op) {
+        switch (op) {
+            case BEQ: case BNE: case BGT: case BGE: case BLT: case BLE: case BEQZ: case BNEZ:
+            case J: case JAL: case JR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isMemory(OpCode op) {
+        return op == OpCode.LW || op == OpCode.SW;
+    }
+
+    /**
+     * Registro base de una dirección: "4($sp)" -> "$sp"
+     */
+    private static String baseOf(String address) {
+        int open = address.indexOf('(');
+        return open >= 0 ? address.substring(open + 1, address.length() - 1) : "";
+    }
+
+    /**
+     * Ciclos de espera de una secuencia sin saltos según el modelo
+     */
+    public static int countStalls(List<MIPSInstruction> code, PipelineModel model) {
+        Map<String, Integer> ready = new HashMap<>();
+        int cycle = 0;
+        int stalls = 0;
+        for (MIPSInstruction instr : code) {
+            OpCode op = instr.getOpcode();
+            if (op == OpCode.LABEL || op == OpCode.COMMENT) continue;
+            int start = cycle;
+            for (String reg : uses(instr)) {
+                start = Math.max(start, ready.getOrDefault(reg, 0));
+            }
+            stalls += start - cycle;
+            for (String reg : defs(instr)) {
+                ready.put(reg, start + model.latencyOf(instr));
+            }
+            cycle = start + 1;
+        }
+        return stalls;
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getMovedCount() {
+        return moved;
+    }
+
+    public int getFilledSlotsCount() {
+        return filledSlots;
+    }
+
+    public int getNopCount() {
+        return nops;
+    }
+}
@@ -0,0 +1,136 @@
+package com.fmd;
+
+import java.util.*;
+
+/**
+ * Grafo de interferencia entre variables
+ *
+ * Dos variables interfieren si una está viva donde la otra se define:
+ * no pueden compartir registro.
+ *
+ * REPRESENTACIÓN (Chaitin/Briggs):
+ * - Matriz de bits triangular para consultar "¿interfieren u y v?" en O(1)
+ *   (con muchos nodos se usa un conjunto de aristas para no gastar n² bits)
+ * - Arreglos de adyacencia para recorrer los vecinos de un nodo
+ */
+public class InterferenceGraph {
+
+    /** Máximo de nodos para usar la matriz de bits */
+    private static final int MATRIX_LIMIT = 4096;
+
+    private final int size;
+    private final BitSet matrix;               // arista (u, v) con u < v
+    private final Set<Long> edges;             // alternativa dispersa
+    private final int[][] adjacency;
+    private final int[] degree;
+    private int edgeCount;
+
+    // ============================================
+    // CONSTRUCTOR
+    // ============================================
+    public InterferenceGraph(int size) {
+        this.size = size;
+        if (size <= MATRIX_LIMIT) {
+            this.matrix = new BitSet(size * (size - 1) / 2 + 1);
+            this.edges = null;
+        } else {
+            this.matrix = null;
+            this.edges = new HashSet<>();
+        }
+        this.adjacency = new int[size][];
+        this.degree = new int[size];
+    }
+
+    // ============================================
+    // ARISTAS
+    // ============================================
+    /**
+     * Agrega la arista u - v
+     *
+     * @return true si la arista es nueva
+     */
+    public boolean addEdge(int u, int v) {
+        if (u == v || interferes(u, v)) {
+            return false;
+        }
+        if (matrix != null) {
+            matrix.set(index(u, v));
+        } else {
+            edges.add(key(u, v));
+        }
+        append(u, v);
+        append(v, u);
+        edgeCount++;
+        return true;
+    }
+
+    /**
+     * Verifica si u y v interfieren
+     */
+    public boolean interferes(int u, int v) {
+        if (u == v) {
+            return false;
+        }
+        if (matrix != null) {
+            return matrix.get(index(u, v));
+        }
+        return edges.contains(key(u, v));
+    }
+
+    private void append(int node, int neighbor) {
+        int[] list = adjacency[node];
+        if (list == null) {
+            list = new int[4];
+            adjacency[node] = list;
+        } else if (degree[node] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            adjacency[node] = list;
+        }
+        list[degree[node]++] = neighbor;
+    }
+
+    /**
+     * Posición en la matriz triangular inferior
+     */
+    private static int index(int u, int v) {
+        int hi = Math.max(u, v);
+        int lo = Math.min(u, v);
+        return hi * (hi - 1) / 2 + lo;
+    }
+
+    private static long key(int u, int v) {
+        return ((long) Math.min(u, v) << 32) | Math.max(u, v);
+    }
+
+    // ============================================
+    // CONSULTAS
+    // ============================================
+    public int size() {
+        return size;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    public int degree(int node) {
+        return degree[node];
+    }
+
+    /**
+     * Vecino k-ésimo del nodo
+     */
+    public int neighbor(int node, int k) {
+        return adjacency[node][k];
+    }
+
+    /**
+     * Vecinos del nodo (copia)
+     */
+    public int[] neighbors(int node) {
+        if (adjacency[node] == null) {
+            return new int[0];
+        }
+        return Arrays.copyOf(adjacency[node], degree[node]);
+    }
+}
@@ -0,0 +1,281 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+
+import java.util.*;
+
+/**
+ * Asignador de Registros por Linear Scan
+ *
+ * RESPONSABILIDADES:
+ * - Calcular intervalos de vida [inicio, fin] sobre el orden lineal del TAC
+ * - Recorrer los intervalos por inicio manteniendo la lista de activos
+ * - Al faltar registros, desalojar el intervalo de menor peso de spill
+ *   (usos ponderados por profundidad de lazo / longitud del intervalo)
+ * - Partir intervalos: el valor vive en registro hasta el punto de corte
+ *   y en memoria después
+ *
+ * Los valores que se leen después de una llamada se asignan aparte, sobre
+ * los registros $s, porque los $t no se preservan en la llamada. Las
+ * globales leídas después de una llamada van a memoria: la función
+ * llamada puede modificarlas.
+ *
+ * BASADO EN: Poletto & Sarkar, "Linear Scan Register Allocation" (1999)
+ */
+public class LinearScanAllocator extends StaticAssignmentAllocator {
+
+    private Map<String, Interval> intervals;         // variable -> intervalo
+
+    // ============================================
+    // CONSTRUCTOR
+    // ============================================
+    public LinearScanAllocator(TACGenerator tacGenerator) {
+        super(tacGenerator);
+        this.intervals = new HashMap<>();
+    }
+
+    // ============================================
+    // CONSTRUCCIÓN DE INTERVALOS
+    // ============================================
+    @Override
+    protected void assign(List<TACInstruction> code, LivenessAnalysis liveness) {
+        ControlFlowGraph cfg = liveness.getCfg();
+        int n = code.size();
+        int vars = liveness.getVariableCount();
+
+        int[] start = new int[vars];
+        int[] end = new int[vars];
+        double[] weight = new double[vars];
+        Arrays.fill(start, Integer.MAX_VALUE);
+        Arrays.fill(end, -1);
+
+        for (int i = 0; i < n; i++) {
+            double w = Math.pow(10, Math.min(cfg.getLoopDepth(cfg.getBlockOf(i)), 6));
+
+            BitSet touched = liveness.getLiveIn(i);
+            touched.or(liveness.getLiveOut(i));
+            for (int id : liveness.getUseIds(i)) {
+                touched.set(id);
+                weight[id] += w;
+            }
+            int def = liveness.getDefId(i);
+            if (def >= 0) {
+                touched.set(def);
+                weight[def] += w;
+            }
+            for (int id = touched.nextSetBit(0); id >= 0; id = touched.nextSetBit(id + 1)) {
+                if (i < start[id]) start[id] = i;
+                if (i > end[id]) end[id] = i;
+            }
+        }
+
+        // Valores leídos después de una llamada: aparte, sobre los $s
+        BitSet across = readAfterCalls(code, liveness);
+        List<Interval> callerSaved = new ArrayList<>();
+        List<Interval> calleeSaved = new ArrayList<>();
+        intervals = new HashMap<>();
+        for (int id = 0; id < vars; id++) {
+            if (end[id] < 0) continue;
+            Interval iv = new Interval(liveness.getVariable(id), start[id], end[id]);
+            iv.spillWeight = weight[id] / (end[id] - start[id] + 1);
+            iv.crossesCall = across.get(id);
+            intervals.put(iv.variable, iv);
+            if (!iv.crossesCall) {
+                callerSaved.add(iv);
+            } else if (isGlobal(iv.variable)) {
+                iv.spilled = true;
+            } else {
+                calleeSaved.add(iv);
+            }
+        }
+
+        List<int[]> loops = loopRanges(cfg);
+        allocate(callerSaved, REGISTERS, loops);
+        allocate(calleeSaved, SAVED_REGISTERS, loops);
+    }
+
+    /**
+     * Rango lineal [inicio, fin) de cada lazo natural
+     */
+    private List<int[]> loopRanges(ControlFlowGraph cfg) {
+        List<int[]> ranges = new ArrayList<>();
+        for (ControlFlowGraph.Loop loop : cfg.getLoops()) {
+            BitSet blocks = loop.getBlocks();
+            int from = Integer.MAX_VALUE;
+            int to = -1;
+            for (int b = blocks.nextSetBit(0); b >= 0; b = blocks.nextSetBit(b + 1)) {
+                from = Math.min(from, cfg.getBlockStart(b));
+                to = Math.max(to, cfg.getBlockEnd(b));
+            }
+            ranges.add(new int[]{from, to});
+        }
+        return ranges;
+    }
+
+    // ============================================
+    // LINEAR SCAN
+    // ============================================
+    /**
+     * Recorre por inicio los intervalos que comparten un conjunto de registros
+     */
+    private void allocate(List<Interval> group, String[] registers, List<int[]> loops) {
+        group.sort(Comparator.comparingInt((Interval iv) -> iv.start).thenComparingInt(iv -> iv.end));
+        Deque<String> free = new ArrayDeque<>(Arrays.asList(registers));
+        List<Interval> active = new ArrayList<>();
+
+        for (Interval current : group) {
+            // Expirar intervalos que terminaron antes del inicio actual
+            Iterator<Interval> it = active.iterator();
+            while (it.hasNext()) {
+                Interval old = it.next();
+                if (old.end < current.start) {
+                    free.push(old.register);
+                    it.remove();
+                }
+            }
+
+            if (!free.isEmpty()) {
+                current.register = free.pop();
+                active.add(current);
+                continue;
+            }
+
+            // Sin registros: desalojar el de menor peso (activo o actual)
+            Interval cheapest = active.get(0);
+            for (Interval iv : active) {
+                if (iv.spillWeight < cheapest.spillWeight) cheapest = iv;
+            }
+
+            if (cheapest.spillWeight < current.spillWeight) {
+                splitAt(cheapest, current.start, loops);
+                current.register = cheapest.register;
+                active.remove(cheapest);
+                active.add(current);
+            } else {
+                current.spilled = true;
+            }
+        }
+    }
+
+    /**
+     * Parte el intervalo: registro antes del corte, memoria desde el corte.
+     * Si el corte cae dentro de un lazo que empieza dentro del intervalo,
+     * se adelanta a la cabecera del lazo para que la arista de retroceso no
+     * vuelva a la parte en registro con un valor viejo.
+     */
+    private void splitAt(Interval iv, int position, List<int[]> loops) {
+        int split = position;
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            for (int[] range : loops) {
+                if (range[0] < split && split < range[1] && range[0] >= iv.start) {
+                    split = range[0];
+                    moved = true;
+                }
+            }
+        }
+
+        if (split <= iv.start) {
+            iv.spilled = true;
+        } else {
+            iv.splitPosition = split;
+        }
+    }
+
+    // ============================================
+    // UBICACIÓN
+    // ============================================
+    @Override
+    protected boolean isAllocated(String variable) {
+        return intervals.containsKey(variable);
+    }
+
+    /**
+     * Registro en la posición dada (null si vive en memoria)
+     */
+    @Override
+    protected String registerOf(String variable, int position) {
+        Interval iv = intervals.get(variable);
+        if (iv.spilled) return null;
+        if (iv.splitPosition >= 0 && position >= iv.splitPosition) return null;
+        return iv.register;
+    }
+
+    /**
+     * Un intervalo partido mantiene la memoria al día en cada definición
+     */
+    @Override
+    protected boolean storesOnDefinition(String variable) {
+        return intervals.get(variable).splitPosition >= 0;
+    }
+
+    // ============================================
+    // UTILIDADES
+    // ============================================
+    /**
+     * Intervalo de una variable (null si no aparece en el TAC)
+     */
+    public Interval getInterval(String variable) {
+        return intervals.get(variable);
+    }
+
+    /**
+     * Cantidad de intervalos desalojados o partidos
+     */
+    public int getSpillCount() {
+        int count = 0;
+        for (Interval iv : intervals.values()) {
+            if (iv.spilled || iv.splitPosition >= 0) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void printState() {
+        System.out.println("\n=== LINEAR SCAN ===");
+        intervals.values().stream()
+                .sorted(Comparator.comparingInt(Interval::getStart))
+                .forEach(System.out::println);
+    }
+
+    // ============================================
+    // INTERVALO DE VIDA
+    // ============================================
+    /**
+     * Intervalo de vida de una variable y su ubicación
+     */
+    public static class Interval {
+        private final String variable;
+        private final int start;
+        private final int end;
+        private double spillWeight;
+        private boolean crossesCall;
+        private String register;
+        private boolean spilled;
+        private int splitPosition = -1;
+
+        Interval(String variable, int start, int end) {
+            this.variable = variable;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getVariable() { return variable; }
+        public int getStart() { return start; }
+        public int getEnd() { return end; }
+        public double getSpillWeight() { return spillWeight; }
+        public boolean crossesCall() { return crossesCall; }
+        public String getRegister() { return spilled ? null : register; }
+        public boolean isSpilled() { return spilled; }
+        public int getSplitPosition() { return splitPosition; }
+
+        @Override
+        public String toString() {
+            String where = spilled ? "[MEM]" : register
+                    + (splitPosition >= 0 ? " -> [MEM]@" + splitPosition : "");
+            return variable + " [" + start + ", " + end + "] " + where
+                    + String.format(" w=%.2f", spillWeight);
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+
+import java.util.*;
+
+/**
+ * Análisis de Variables Vivas (liveness) sobre el CFG
+ *
+ * Flujo de datos hacia atrás, iterativo:
+ *   OUT[B] = U IN[S]  para todo sucesor S
+ *   IN[B]  = USE[B] U (OUT[B] - DEF[B])
+ *
+ * Los conjuntos son bitsets densos indexados por ID de variable.
+ * Las variables del programa (no temporales) viven en memoria y pueden
+ * ser leídas por otras funciones, así que se consideran vivas a la salida
+ * de cada función y en cada llamada. Los temporales solo viven mientras
+ * el TAC los use.
+ *
+ * Sin lectura de memoria en las llamadas (callsReadMemory = false) una
+ * llamada solo lee sus argumentos: lo vivo después de ella es lo que el
+ * código vuelve a leer o lo que queda en memoria al salir.
+ *
+ * BASADO EN: Dragon Book, Section 9.2.5 - Live-Variable Analysis
+ */
+public class LivenessAnalysis {
+
+    private final ControlFlowGraph cfg;
+    private final List<TACInstruction> code;
+
+    // ============================================
+    // VARIABLES
+    // ============================================
+    private final Map<String, Integer> variableIds;   // variable -> ID
+    private final List<String> variables;             // ID -> variable
+    private final BitSet memoryVariables;             // variables no temporales
+    private final boolean callsReadMemory;            // las llamadas leen memoryVariables
+
+    // ============================================
+    // CONJUNTOS POR BLOQUE
+    // ============================================
+    private BitSet[] use;
+    private BitSet[] def;
+    private BitSet[] liveIn;
+    private BitSet[] liveOut;
+
+    // ============================================
+    // CONJUNTOS POR INSTRUCCIÓN
+    // ============================================
+    private BitSet[] instrLiveIn;
+    private BitSet[] instrLiveOut;
+    private int[][] instrUses;                        // IDs leídos por instrucción
+    private int[] instrDef;                           // ID definido (-1 si ninguno)
+
+    private int iterations;
+
+    // ============================================
+    // CONSTRUCTOR
+    // ============================================
+    public LivenessAnalysis(ControlFlowGraph cfg) {
+        this(cfg, true);
+    }
+
+    /**
+     * @param callsReadMemory false si la función llamada no puede leer las
+     *                        variables del programa (quien llama las deja en
+     *                        memoria antes de la llamada)
+     */
+    public LivenessAnalysis(ControlFlowGraph cfg, boolean callsReadMemory) {
+        this.cfg = cfg;
+        this.callsReadMemory = callsReadMemory;
+        this.code = cfg.getCode();
+        this.variableIds = new HashMap<>();
+        this.variables = new ArrayList<>();
+        this.memoryVariables = new BitSet();
+
+        numberVariables();
+        computeLocalSets();
+        solve();
+        computeInstructionSets();
+    }
+
+    // ============================================
+    // NUMERACIÓN DE VARIABLES
+    // ============================================
+    private void numberVariables() {
+        int n = code.size();
+        instrUses = new int[n][];
+        instrDef = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            TACInstruction tac = code.get(i);
+            List<String> uses = TACUtils.getUses(tac);
+            int[] ids = new int[uses.size()];
+            for (int k = 0; k < ids.length; k++) {
+                ids[k] = idOf(uses.get(k));
+            }
+            instrUses[i] = ids;
+
+            String d = TACUtils.getDefinition(tac);
+            instrDef[i] = d != null ? idOf(d) : -1;
+        }
+    }
+
+    private int idOf(String variable) {
+        Integer id = variableIds.get(variable);
+        if (id == null) {
+            id = variables.size();
+            variableIds.put(variable, id);
+            variables.add(variable);
+            if (!TACUtils.isTemporary(variable)) {
+                memoryVariables.set(id);
+            }
+        }
+        return id;
+    }
+
+    // ============================================
+    // USE / DEF POR BLOQUE
+    // ============================================
+    private void computeLocalSets() {
+        int blocks = cfg.getBlockCount();
+        use = new BitSet[blocks];
+        def = new BitSet[blocks];
+
+        for (int b = 0; b < blocks; b++) {
+            BitSet u = new BitSet();
+            BitSet d = new BitSet();
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                for (int id : instrUses[i]) {
+                    if (!d.get(id)) u.set(id);
+                }
+                if (callsReadMemory && TACUtils.isCall(code.get(i))) {
+                    // La función llamada puede leer cualquier variable en memoria
+                    BitSet mem = (BitSet) memoryVariables.clone();
+                    mem.andNot(d);
+                    u.or(mem);
+                }
+                if (instrDef[i] >= 0) {
+                    d.set(instrDef[i]);
+                }
+            }
+            use[b] = u;
+            def[b] = d;
+        }
+    }
+
+    // ============================================
+    // ITERACIÓN HASTA PUNTO FIJO
+    // ============================================
+    private void solve() {
+        int blocks = cfg.getBlockCount();
+        liveIn = new BitSet[blocks];
+        liveOut = new BitSet[blocks];
+        for (int b = 0; b < blocks; b++) {
+            liveIn[b] = new BitSet();
+            liveOut[b] = new BitSet();
+        }
+
+        // Orden: post-orden (RPO invertido) converge más rápido hacia atrás;
+        // los bloques inalcanzables se procesan al final
+        int[] rpo = cfg.getReversePostOrder();
+        int[] order = new int[blocks];
+        int count = 0;
+        for (int k = rpo.length - 1; k >= 0; k--) order[count++] = rpo[k];
+        for (int b = 0; b < blocks; b++) {
+            if (!cfg.isReachable(b)) order[count++] = b;
+        }
+
+        boolean changed = true;
+        iterations = 0;
+        while (changed) {
+            changed = false;
+            iterations++;
+            for (int b : order) {
+                BitSet out = new BitSet();
+                int succs = cfg.successorCount(b);
+                if (succs == 0) {
+                    // Salida de función o del programa
+                    out.or(memoryVariables);
+                }
+                for (int k = 0; k < succs; k++) {
+                    out.or(liveIn[cfg.successor(b, k)]);
+                }
+
+                BitSet in = (BitSet) out.clone();
+                in.andNot(def[b]);
+                in.or(use[b]);
+
+                liveOut[b] = out;
+                if (!in.equals(liveIn[b])) {
+                    liveIn[b] = in;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Recorre cada bloque hacia atrás para obtener los conjuntos por instrucción
+     */
+    private void computeInstructionSets() {
+        int n = code.size();
+        instrLiveIn = new BitSet[n];
+        instrLiveOut = new BitSet[n];
+
+        for (int b = 0; b < cfg.getBlockCount(); b++) {
+            BitSet live = (BitSet) liveOut[b].clone();
+            for (int i = cfg.getBlockEnd(b) - 1; i >= cfg.getBlockStart(b); i--) {
+                instrLiveOut[i] = (BitSet) live.clone();
+                if (instrDef[i] >= 0) {
+                    live.clear(instrDef[i]);
+                }
+                if (callsReadMemory && TACUtils.isCall(code.get(i))) {
+                    live.or(memoryVariables);
+                }
+                for (int id : instrUses[i]) {
+                    live.set(id);
+                }
+                instrLiveIn[i] = (BitSet) live.clone();
+            }
+        }
+    }
+
+    // ============================================
+    // CONSULTAS
+    // ============================================
+    public ControlFlowGraph getCfg() {
+        return cfg;
+    }
+
+    /**
+     * ID de la variable (-1 si no aparece en el TAC)
+     */
+    public int getVariableId(String variable) {
+        Integer id = variableIds.get(variable);
+        return id != null ? id : -1;
+    }
+
+    public String getVariable(int id) {
+        return variables.get(id);
+    }
+
+    public int getVariableCount() {
+        return variables.size();
+    }
+
+    /**
+     * Verifica si el análisis conoce la variable
+     */
+    public boolean tracks(String variable) {
+        return variableIds.containsKey(variable);
+    }
+
+    /**
+     * Verifica si la variable sigue viva después de la instrucción
+     * (las variables desconocidas se consideran vivas)
+     */
+    public boolean isLiveOut(int instructionIndex, String variable) {
+        Integer id = variableIds.get(variable);
+        return id == null || instrLiveOut[instructionIndex].get(id);
+    }
+
+    /**
+     * Verifica si la variable está viva antes de la instrucción
+     */
+    public boolean isLiveIn(int instructionIndex, String variable) {
+        Integer id = variableIds.get(variable);
+        return id == null || instrLiveIn[instructionIndex].get(id);
+    }
+
+    public BitSet getLiveIn(int instructionIndex) {
+        return (BitSet) instrLiveIn[instructionIndex].clone();
+    }
+
+    public BitSet getLiveOut(int instructionIndex) {
+        return (BitSet) instrLiveOut[instructionIndex].clone();
+    }
+
+    public BitSet getBlockLiveIn(int block) {
+        return (BitSet) liveIn[block].clone();
+    }
+
+    public BitSet getBlockLiveOut(int block) {
+        return (BitSet) liveOut[block].clone();
+    }
+
+    /**
+     * IDs de las variables leídas por la instrucción
+     */
+    public int[] getUseIds(int instructionIndex) {
+        return instrUses[instructionIndex];
+    }
+
+    /**
+     * ID de la variable definida por la instrucción (-1 si ninguna)
+     */
+    public int getDefId(int instructionIndex) {
+        return instrDef[instructionIndex];
+    }
+
+    /**
+     * Verifica si algún camino desde la línea indicada lee la variable
+     * antes de redefinirla (las llamadas no cuentan como lectura)
+     */
+    public boolean isReadFrom(int start, String variable) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        BitSet visited = new BitSet();
+        if (start < code.size()) {
+            pending.push(start);
+        }
+        while (!pending.isEmpty()) {
+            int from = pending.pop();
+            int block = cfg.getBlockOf(from);
+            boolean killed = false;
+            for (int i = from; i < cfg.getBlockEnd(block) && !killed; i++) {
+                TACInstruction tac = code.get(i);
+                if (TACUtils.getUses(tac).contains(variable)) {
+                    return true;
+                }
+                killed = variable.equals(TACUtils.getDefinition(tac));
+            }
+            if (killed) {
+                continue;
+            }
+            for (int succ : cfg.getSuccessors(block)) {
+                if (!visited.get(succ)) {
+                    visited.set(succ);
+                    pending.push(cfg.getBlockStart(succ));
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Variables que viven en memoria (no temporales)
+     */
+    public BitSet getMemoryVariables() {
+        return (BitSet) memoryVariables.clone();
+    }
+
+    /**
+     * Número de pasadas hasta alcanzar el punto fijo
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Nombres de las variables de un bitset (para debugging)
+     */
+    public Set<String> namesOf(BitSet set) {
+        Set<String> names = new LinkedHashSet<>();
+        for (int id = set.nextSetBit(0); id >= 0; id = set.nextSetBit(id + 1)) {
+            names.add(variables.get(id));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,241 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+
+/**
+ * Numeración de Valores Local (LVN) sobre bloques básicos del TAC
+ *
+ * Cada valor distinto del bloque recibe un número. Una expresión se
+ * identifica por (operador, VN(arg1), VN(arg2)); si ya se calculó y alguna
+ * variable todavía guarda ese valor, la instrucción se reemplaza por una
+ * copia de esa variable.
+ *
+ * - Operadores conmutativos (+ * == != && ||) ordenan sus operandos, y
+ *   a > b se normaliza como b < a (igual con >=), así a + b y b + a
+ *   reciben el mismo número.
+ * - Las lecturas de arreglos y miembros (a[i], this.name) también se
+ *   numeran, y se invalidan con cualquier escritura a arreglo o miembro.
+ * - Una asignación a x le da un número nuevo; las expresiones guardadas
+ *   en x dejan de estar disponibles a través de x.
+ * - Las llamadas invalidan las variables del programa y todas las lecturas
+ *   de memoria, porque la función llamada puede modificarlas.
+ *
+ * Las copias que quedan las limpia la propagación de copias.
+ *
+ * BASADO EN: Cooper & Torczon, "Engineering a Compiler", Section 8.4.1
+ */
+public class LocalValueNumbering implements TACPass {
+
+    private int reused;
+
+    // ============================================
+    // ESTADO DEL BLOQUE
+    // ============================================
+    private Map<String, Integer> variableNumbers;      // variable -> VN actual
+    private Map<String, Integer> expressionNumbers;    // clave de expresión -> VN
+    private Map<Integer, List<String>> holders;        // VN -> variables que lo guardaron
+    private int nextNumber;
+
+    @Override
+    public String getName() {
+        return "local-value-numbering";
+    }
+
+    @Override
+    public List<TACInstruction> apply(List<TACInstruction> input) {
+        List<TACInstruction> code = TACUtils.copyAll(input);
+        reused = 0;
+
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+        for (int b = 0; b < cfg.getBlockCount(); b++) {
+            startBlock();
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                code.set(i, number(code.get(i)));
+            }
+        }
+        return code;
+    }
+
+    private void startBlock() {
+        variableNumbers = new HashMap<>();
+        expressionNumbers = new HashMap<>();
+        holders = new HashMap<>();
+        nextNumber = 0;
+    }
+
+    // ============================================
+    // NUMERACIÓN
+    // ============================================
+    /**
+     * Numera una instrucción y devuelve su reemplazo (o la misma)
+     */
+    private TACInstruction number(TACInstruction tac) {
+        String result = tac.getResult();
+
+        switch (tac.getOp()) {
+            case BINARY_OP: {
+                if (!TACUtils.isVariable(result)) {
+                    killLoads();
+                    return tac;
+                }
+                String key = binaryKey(tac.getOperator(), valueOf(tac.getArg1()), valueOf(tac.getArg2()));
+                return define(tac, key);
+            }
+            case UNARY_OP: {
+                if (!TACUtils.isVariable(result)) {
+                    killLoads();
+                    return tac;
+                }
+                String key = tac.getOperator() + " " + valueOf(tac.getArg1());
+                return define(tac, key);
+            }
+            case ASSIGN: {
+                String src = tac.getArg1();
+                if (!TACUtils.isVariable(result)) {
+                    // Escritura a arreglo o miembro: cualquier lectura puede cambiar
+                    killLoads();
+                    return tac;
+                }
+                if (isLoad(src)) {
+                    return define(tac, loadKey(src));
+                }
+                // Copia: x toma el número de la fuente
+                assign(result, valueOf(src));
+                return tac;
+            }
+            default:
+                break;
+        }
+
+        if (TACUtils.isCall(tac)) {
+            killMemory();
+        }
+        String def = TACUtils.getDefinition(tac);
+        if (def != null) {
+            assign(def, nextNumber++);
+        }
+        return tac;
+    }
+
+    /**
+     * result = expresión con la clave dada: reutiliza o crea el número
+     */
+    private TACInstruction define(TACInstruction tac, String key) {
+        String result = tac.getResult();
+        Integer vn = expressionNumbers.get(key);
+        if (vn != null) {
+            String holder = holderOf(vn);
+            if (holder != null) {
+                reused++;
+                assign(result, vn);
+                return holder.equals(result) ? tac : TACUtils.assign(result, holder);
+            }
+        } else {
+            vn = nextNumber++;
+            expressionNumbers.put(key, vn);
+        }
+        assign(result, vn);
+        return tac;
+    }
+
+    private void assign(String variable, int vn) {
+        variableNumbers.put(variable, vn);
+        holders.computeIfAbsent(vn, k -> new ArrayList<>()).add(variable);
+    }
+
+    /**
+     * Variable que todavía guarda el número (null si ninguna)
+     */
+    private String holderOf(int vn) {
+        List<String> candidates = holders.get(vn);
+        if (candidates == null) return null;
+        for (String variable : candidates) {
+            Integer current = variableNumbers.get(variable);
+            if (current != null && current == vn) return variable;
+        }
+        return null;
+    }
+
+    /**
+     * Número de un operando: constantes por su texto, variables por su VN
+     */
+    private int valueOf(String operand) {
+        String key = TACUtils.isVariable(operand) ? operand : "#" + operand;
+        Integer vn = variableNumbers.get(key);
+        if (vn == null) {
+            vn = nextNumber++;
+            variableNumbers.put(key, vn);
+            holders.computeIfAbsent(vn, k -> new ArrayList<>()).add(key);
+        }
+        return vn;
+    }
+
+    // ============================================
+    // CLAVES DE EXPRESIÓN
+    // ============================================
+    private static String binaryKey(String op, int a, int b) {
+        switch (op) {
+            case "+": case "*": case "==": case "!=": case "&&": case "||":
+                return op + " " + Math.min(a, b) + " " + Math.max(a, b);
+            case ">":
+                return "< " + b + " " + a;
+            case ">=":
+                return "<= " + b + " " + a;
+            default:
+                return op + " " + a + " " + b;
+        }
+    }
+
+    /**
+     * Lectura de memoria: a[i] o this.name
+     */
+    private static boolean isLoad(String operand) {
+        return operand != null && !operand.startsWith("\"")
+                && (operand.endsWith("]") && operand.indexOf('[') > 0 || operand.indexOf('.') > 0)
+                && !TACUtils.isImmediate(operand);
+    }
+
+    /**
+     * Clave de una lectura con la base e índice numerados
+     */
+    private String loadKey(String operand) {
+        int bracket = operand.indexOf('[');
+        if (bracket > 0 && operand.endsWith("]")) {
+            String base = operand.substring(0, bracket);
+            String index = operand.substring(bracket + 1, operand.length() - 1);
+            return "load " + valueOf(base) + "[" + valueOf(index) + "]";
+        }
+        int dot = operand.indexOf('.');
+        return "load " + valueOf(operand.substring(0, dot)) + operand.substring(dot);
+    }
+
+    // ============================================
+    // INVALIDACIÓN
+    // ============================================
+    private void killLoads() {
+        expressionNumbers.keySet().removeIf(key -> key.startsWith("load "));
+    }
+
+    /**
+     * Efecto de una llamada: variables del programa y memoria cambian
+     */
+    private void killMemory() {
+        killLoads();
+        for (Map.Entry<String, Integer> entry : variableNumbers.entrySet()) {
+            String variable = entry.getKey();
+            if (!variable.startsWith("#") && !TACUtils.isTemporary(variable)) {
+                entry.setValue(nextNumber++);
+            }
+        }
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getReusedCount() {
+        return reused;
+    }
+}
@@ -0,0 +1,372 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+
+/**
+ * Movimiento de Código Invariante de Lazos (LICM) sobre TAC
+ *
+ * Usa los lazos naturales del CFG (aristas de retroceso por dominancia).
+ * Para cada lazo, del más interno al más externo:
+ *
+ * 1. Marca como invariantes las instrucciones ASSIGN, BINARY_OP y
+ *    UNARY_OP cuyos operandos son constantes, variables sin definición
+ *    dentro del lazo, o variables definidas por otra instrucción
+ *    invariante. Se repite hasta que no hay nuevas.
+ * 2. Una invariante se mueve si además:
+ *    - su resultado se define una sola vez en el lazo,
+ *    - su resultado no está vivo a la entrada de la cabecera,
+ *    - su bloque domina todas las salidas del lazo o el resultado no
+ *      está vivo en ninguna salida.
+ * 3. Inserta un preheader (etiqueta nueva antes de la cabecera) con las
+ *    instrucciones movidas y redirige a él los saltos desde fuera del lazo.
+ *
+ * No se mueven lecturas de arreglos o miembros, ni divisiones cuyo
+ * divisor no es una constante distinta de cero. Si el lazo contiene una
+ * llamada, las variables del programa no se consideran invariantes.
+ *
+ * BASADO EN: Dragon Book, Section 9.5.2 - Loop-Invariant Computations
+ */
+public class LoopInvariantCodeMotion implements TACPass {
+
+    /** Sufijo de la etiqueta del preheader */
+    private static final String PREHEADER_SUFFIX = "_pre";
+
+    private int hoisted;
+    private int preheaders;
+
+    @Override
+    public String getName() {
+        return "loop-invariant-code-motion";
+    }
+
+    @Override
+    public List<TACInstruction> apply(List<TACInstruction> input) {
+        List<TACInstruction> code = TACUtils.copyAll(input);
+        hoisted = 0;
+        preheaders = 0;
+
+        // Cada lazo se procesa una vez; los índices cambian al mover código,
+        // así que el CFG se reconstruye después de cada lazo modificado
+        Set<String> done = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            ControlFlowGraph cfg = new ControlFlowGraph(code);
+            List<ControlFlowGraph.Loop> loops = new ArrayList<>(cfg.getLoops());
+            loops.sort(Comparator.comparingInt(ControlFlowGraph.Loop::getDepth).reversed());
+
+            for (ControlFlowGraph.Loop loop : loops) {
+                TACInstruction first = code.get(cfg.getBlockStart(loop.getHeader()));
+                if (first.getOp() != OpType.LABEL || !done.add(first.getLabel())) {
+                    continue;
+                }
+                List<TACInstruction> result = hoist(code, cfg, loop);
+                if (result != code) {
+                    code = result;
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return code;
+    }
+
+    // ============================================
+    // MOVIMIENTO
+    // ============================================
+    /**
+     * @return la misma lista si el lazo no tiene nada que mover
+     */
+    private List<TACInstruction> hoist(List<TACInstruction> code, ControlFlowGraph cfg,
+                                       ControlFlowGraph.Loop loop) {
+        int header = loop.getHeader();
+        if (!canInsertPreheader(code, cfg, loop)) {
+            return code;
+        }
+
+        List<Integer> invariant = findInvariants(code, cfg, loop);
+        if (invariant.isEmpty()) {
+            return code;
+        }
+
+        LivenessAnalysis liveness = new LivenessAnalysis(cfg);
+        int headerStart = cfg.getBlockStart(header);
+        List<int[]> exits = exitEdges(cfg, loop);
+
+        Set<Integer> moved = new LinkedHashSet<>();
+        Set<String> movedResults = new HashSet<>();
+        for (int i : invariant) {
+            TACInstruction tac = code.get(i);
+            // Los operandos definidos en el lazo deben haberse movido antes
+            boolean operandsReady = true;
+            for (String use : TACUtils.getUses(tac)) {
+                if (definedInLoop(code, cfg, loop, use) && !movedResults.contains(use)) {
+                    operandsReady = false;
+                }
+            }
+            if (!operandsReady) continue;
+
+            String result = tac.getResult();
+            if (liveness.isLiveIn(headerStart, result)) continue;
+            if (!dominatesExits(cfg, cfg.getBlockOf(i), exits, liveness, result)) continue;
+
+            moved.add(i);
+            movedResults.add(result);
+        }
+        if (moved.isEmpty()) {
+            return code;
+        }
+
+        // Preheader: etiqueta nueva + instrucciones movidas antes de la cabecera
+        String headerLabel = code.get(headerStart).getLabel();
+        String preheaderLabel = freshLabel(code, headerLabel + PREHEADER_SUFFIX);
+        redirectOutsideJumps(code, cfg, loop, headerLabel, preheaderLabel);
+
+        List<TACInstruction> result = new ArrayList<>(code.size() + 1);
+        for (int i = 0; i < code.size(); i++) {
+            if (i == headerStart) {
+                result.add(TACUtils.label(preheaderLabel));
+                for (int m : moved) {
+                    result.add(code.get(m));
+                }
+            }
+            if (!moved.contains(i)) {
+                result.add(code.get(i));
+            }
+        }
+        hoisted += moved.size();
+        preheaders++;
+        return result;
+    }
+
+    // ============================================
+    // INVARIANTES
+    // ============================================
+    /**
+     * Índices de las instrucciones invariantes, en el orden en que se
+     * descubren (cada una después de las que alimentan sus operandos)
+     */
+    private List<Integer> findInvariants(List<TACInstruction> code, ControlFlowGraph cfg,
+                                         ControlFlowGraph.Loop loop) {
+        Map<String, Integer> definitions = new HashMap<>();   // variable -> definiciones en el lazo
+        boolean hasCall = false;
+        for (int i : instructions(cfg, loop)) {
+            String def = TACUtils.getDefinition(code.get(i));
+            if (def != null) definitions.merge(def, 1, Integer::sum);
+            hasCall |= TACUtils.isCall(code.get(i));
+        }
+
+        List<Integer> order = new ArrayList<>();
+        Set<String> invariantResults = new HashSet<>();
+        Set<Integer> marked = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i : instructions(cfg, loop)) {
+                if (marked.contains(i)) continue;
+                TACInstruction tac = code.get(i);
+                if (!isCandidate(tac) || definitions.getOrDefault(tac.getResult(), 0) != 1) continue;
+
+                boolean invariant = true;
+                for (String operand : operands(tac)) {
+                    if (!isInvariantOperand(operand, definitions, invariantResults, hasCall)) {
+                        invariant = false;
+                        break;
+                    }
+                }
+                if (invariant) {
+                    marked.add(i);
+                    order.add(i);
+                    invariantResults.add(tac.getResult());
+                    changed = true;
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Instrucciones sin efectos que se pueden ejecutar de más sin riesgo
+     */
+    private static boolean isCandidate(TACInstruction tac) {
+        switch (tac.getOp()) {
+            case ASSIGN:
+            case UNARY_OP:
+                return TACUtils.isVariable(tac.getResult());
+            case BINARY_OP:
+                if (!TACUtils.isVariable(tac.getResult())) return false;
+                String op = tac.getOperator();
+                if ("/".equals(op) || "%".equals(op)) {
+                    return TACUtils.isImmediate(tac.getArg2()) && Integer.parseInt(tac.getArg2()) != 0;
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static List<String> operands(TACInstruction tac) {
+        return tac.getOp() == OpType.BINARY_OP
+                ? Arrays.asList(tac.getArg1(), tac.getArg2())
+                : Collections.singletonList(tac.getArg1());
+    }
+
+    private static boolean isInvariantOperand(String operand, Map<String, Integer> definitions,
+                                              Set<String> invariantResults, boolean hasCall) {
+        if (operand == null) {
+            return false;
+        }
+        if (!TACUtils.isVariable(operand)) {
+            // Constantes y literales sí; lecturas de arreglo o miembro no
+            List<String> reads = new ArrayList<>();
+            TACUtils.collectOperandVariables(operand, reads);
+            return reads.isEmpty();
+        }
+        if (definitions.containsKey(operand)) {
+            return invariantResults.contains(operand);
+        }
+        // Una llamada puede modificar las variables del programa
+        return !hasCall || TACUtils.isTemporary(operand);
+    }
+
+    // ============================================
+    // CONDICIONES DE MOVIMIENTO
+    // ============================================
+    /**
+     * Aristas (bloque del lazo, sucesor fuera del lazo)
+     */
+    private static List<int[]> exitEdges(ControlFlowGraph cfg, ControlFlowGraph.Loop loop) {
+        List<int[]> exits = new ArrayList<>();
+        BitSet blocks = loop.getBlocks();
+        for (int b = blocks.nextSetBit(0); b >= 0; b = blocks.nextSetBit(b + 1)) {
+            for (int k = 0; k < cfg.successorCount(b); k++) {
+                int s = cfg.successor(b, k);
+                if (!loop.contains(s)) exits.add(new int[]{b, s});
+            }
+        }
+        return exits;
+    }
+
+    /**
+     * El bloque domina cada salida, o el resultado está muerto en ella
+     */
+    private static boolean dominatesExits(ControlFlowGraph cfg, int block, List<int[]> exits,
+                                          LivenessAnalysis liveness, String result) {
+        for (int[] exit : exits) {
+            if (!cfg.dominates(block, exit[0])
+                    && liveness.isLiveIn(cfg.getBlockStart(exit[1]), result)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean definedInLoop(List<TACInstruction> code, ControlFlowGraph cfg,
+                                         ControlFlowGraph.Loop loop, String variable) {
+        for (int i : instructions(cfg, loop)) {
+            if (variable.equals(TACUtils.getDefinition(code.get(i)))) return true;
+        }
+        return false;
+    }
+
+    // ============================================
+    // PREHEADER
+    // ============================================
+    /**
+     * El preheader se inserta justo antes de la etiqueta de la cabecera:
+     * no puede haber un bloque del lazo que caiga a la cabecera por
+     * fall-through, ni la cabecera puede ser la entrada de una función o
+     * un manejador de excepciones
+     */
+    static boolean canInsertPreheader(List<TACInstruction> code, ControlFlowGraph cfg,
+                                              ControlFlowGraph.Loop loop) {
+        int header = loop.getHeader();
+        for (int entry : cfg.getEntryBlocks()) {
+            if (entry == header) return false;
+        }
+        int headerStart = cfg.getBlockStart(header);
+        String headerLabel = code.get(headerStart).getLabel();
+        for (int k = 0; k < cfg.predecessorCount(header); k++) {
+            int p = cfg.predecessor(header, k);
+            TACInstruction last = code.get(cfg.getBlockEnd(p) - 1);
+            if (last.getOp() == OpType.TRY_BEGIN && headerLabel.equals(last.getLabel())) {
+                return false;
+            }
+            if (loop.contains(p) && !jumpsTo(last, headerLabel)) {
+                return false;
+            }
+        }
+        for (int i : instructions(cfg, loop)) {
+            OpType op = code.get(i).getOp();
+            if (op == OpType.TRY_BEGIN || op == OpType.TRY_END) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Los saltos desde fuera del lazo a la cabecera pasan por el preheader
+     */
+    static void redirectOutsideJumps(List<TACInstruction> code, ControlFlowGraph cfg,
+                                             ControlFlowGraph.Loop loop,
+                                             String headerLabel, String preheaderLabel) {
+        int header = loop.getHeader();
+        for (int k = 0; k < cfg.predecessorCount(header); k++) {
+            int p = cfg.predecessor(header, k);
+            if (loop.contains(p)) continue;
+            int last = cfg.getBlockEnd(p) - 1;
+            if (jumpsTo(code.get(last), headerLabel)) {
+                TACInstruction jump = TACUtils.copy(code.get(last));
+                jump.setLabel(preheaderLabel);
+                code.set(last, jump);
+            }
+        }
+    }
+
+    private static boolean jumpsTo(TACInstruction tac, String label) {
+        return (tac.getOp() == OpType.GOTO || tac.getOp() == OpType.IF_GOTO)
+                && label.equals(tac.getLabel());
+    }
+
+    static String freshLabel(List<TACInstruction> code, String base) {
+        Set<String> used = new HashSet<>();
+        for (TACInstruction tac : code) {
+            if (tac.getOp() == OpType.LABEL) used.add(tac.getLabel());
+        }
+        String label = base;
+        for (int n = 1; used.contains(label); n++) {
+            label = base + n;
+        }
+        return label;
+    }
+
+    // ============================================
+    // UTILIDADES
+    // ============================================
+    /**
+     * Índices TAC del lazo en orden de bloques
+     */
+    private static List<Integer> instructions(ControlFlowGraph cfg, ControlFlowGraph.Loop loop) {
+        List<Integer> indices = new ArrayList<>();
+        BitSet blocks = loop.getBlocks();
+        for (int b = blocks.nextSetBit(0); b >= 0; b = blocks.nextSetBit(b + 1)) {
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getHoistedCount() {
+        return hoisted;
+    }
+
+    public int getPreheaderCount() {
+        return preheaders;
+    }
+}
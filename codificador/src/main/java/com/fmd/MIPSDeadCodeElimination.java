@@ -0,0 +1,189 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+
+import java.util.*;
+
+/**
+ * Eliminación de Código Muerto sobre las instrucciones MIPS generadas
+ *
+ * 1. Código inalcanzable: lo que sigue a un j o jr hasta la próxima
+ *    etiqueta no se ejecuta nunca.
+ * 2. Escrituras muertas: dentro de un bloque, una instrucción sin efectos
+ *    cuyo registro destino se sobrescribe antes de leerse.
+ * 3. Stores muertos: dentro de un bloque, un sw a una dirección que se
+ *    vuelve a escribir antes de cualquier lw.
+ *
+ * Al final de cada bloque (etiqueta, salto, llamada o syscall) todos los
+ * registros y todas las direcciones se consideran vivos, así que el
+ * análisis no depende de la asignación de registros.
+ *
+ * Requiere que el código de las funciones no quede intercalado con el
+ * código global: el generador solo lo usa con las funciones ubicadas
+ * después de main.
+ */
+public class MIPSDeadCodeElimination {
+
+    /** Registros que nunca se consideran muertos */
+    private static final Set<String> RESERVED = Set.of("$sp", "$fp", "$ra", "$gp", "$zero");
+
+    private int unreachableRemoved;
+    private int deadWritesRemoved;
+    private int deadStoresRemoved;
+
+    // ============================================
+    // OPTIMIZACIÓN
+    // ============================================
+    public List<MIPSInstruction> optimize(List<MIPSInstruction> code) {
+        unreachableRemoved = 0;
+        deadWritesRemoved = 0;
+        deadStoresRemoved = 0;
+
+        List<MIPSInstruction> reachable = removeUnreachable(code);
+        return removeDeadWrites(reachable);
+    }
+
+    /**
+     * Elimina todo lo que sigue a un salto incondicional hasta la próxima etiqueta
+     */
+    private List<MIPSInstruction> removeUnreachable(List<MIPSInstruction> code) {
+        List<MIPSInstruction> result = new ArrayList<>(code.size());
+        boolean dead = false;
+        for (MIPSInstruction instr : code) {
+            OpCode op = instr.getOpcode();
+            if (op == OpCode.LABEL) {
+                dead = false;
+            }
+            if (dead && op != OpCode.COMMENT) {
+                unreachableRemoved++;
+                continue;
+            }
+            result.add(instr);
+            if (op == OpCode.J || op == OpCode.JR) {
+                dead = true;
+            }
+        }
+        return result;
+    }
+
+    // ============================================
+    // ESCRITURAS Y STORES MUERTOS
+    // ============================================
+    /**
+     * Recorre cada bloque hacia atrás con los registros vivos y las
+     * direcciones que se sobrescriben más adelante
+     */
+    private List<MIPSInstruction> removeDeadWrites(List<MIPSInstruction> code) {
+        boolean[] remove = new boolean[code.size()];
+        Set<String> dead = new HashSet<>();          // registros sobrescritos antes de leerse
+        Set<String> overwritten = new HashSet<>();   // direcciones sobrescritas antes de leerse
+
+        for (int i = code.size() - 1; i >= 0; i--) {
+            MIPSInstruction instr = code.get(i);
+            OpCode op = instr.getOpcode();
+
+            if (endsBlock(op)) {
+                dead.clear();
+                overwritten.clear();
+                continue;
+            }
+            if (op == OpCode.COMMENT) {
+                continue;
+            }
+
+            if (op == OpCode.SW) {
+                String address = instr.getImmediate();
+                if (overwritten.contains(address)) {
+                    remove[i] = true;
+                    deadStoresRemoved++;
+                    continue;
+                }
+                overwritten.add(address);
+                dead.remove(instr.getRt());
+                dead.remove(baseOf(address));
+                continue;
+            }
+
+            String reg = PeepholeOptimizer.written(instr);
+            if (reg != null && isPure(op) && !RESERVED.contains(reg) && dead.contains(reg)) {
+                remove[i] = true;
+                deadWritesRemoved++;
+                continue;
+            }
+
+            if (op == OpCode.LW) {
+                // Cualquier dirección puede coincidir con la leída
+                overwritten.clear();
+            }
+            if (op == OpCode.DIV || op == OpCode.PUSH || op == OpCode.POP) {
+                // Efectos fuera de los registros de propósito general
+                dead.clear();
+                overwritten.clear();
+                continue;
+            }
+            if (reg != null) {
+                dead.add(reg);
+                final String base = reg;
+                overwritten.removeIf(address -> baseOf(address).equals(base));
+            }
+            dead.removeIf(r -> PeepholeOptimizer.reads(instr, r));
+        }
+
+        List<MIPSInstruction> result = new ArrayList<>(code.size());
+        for (int i = 0; i < code.size(); i++) {
+            if (!remove[i]) result.add(code.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Instrucciones que cortan el bloque: el análisis no cruza por ellas
+     */
+    private static boolean endsBlock(OpCode op) {
+        switch (op) {
+            case LABEL:
+            case BEQ: case BNE: case BGT: case BGE: case BLT: case BLE: case BEQZ: case BNEZ:
+            case J: case JAL: case JR:
+            case SYSCALL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Instrucciones cuyo único efecto es escribir su registro destino
+     */
+    private static boolean isPure(OpCode op) {
+        switch (op) {
+            case DIV: case SW: case PUSH: case POP: case NOP:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Registro base de una dirección: "4($sp)" -> "$sp"
+     */
+    private static String baseOf(String address) {
+        int open = address.indexOf('(');
+        return open >= 0 ? address.substring(open + 1, address.length() - 1) : "";
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    public int getUnreachableRemovedCount() {
+        return unreachableRemoved;
+    }
+
+    public int getDeadWritesRemovedCount() {
+        return deadWritesRemoved;
+    }
+
+    public int getDeadStoresRemovedCount() {
+        return deadStoresRemoved;
+    }
+}
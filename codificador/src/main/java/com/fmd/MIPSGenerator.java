@@ -11,18 +11,68 @@ import com.fmd.modules.Register;
  * Actualizado para usar objetos Register
  */
 public class MIPSGenerator {
-    private RegisterAllocator allocator;
+    private RegisterAllocationStrategy allocator;
+    private OptimizationOptions options;
     private List<MIPSInstruction> instructions;
     private Map<String, String> dataSegment;
     private int labelCounter;
     private String currentFunction;
+    private int prologIndex;         // posición donde se inserta el prólogo al cerrar la función
+    private List<MIPSInstruction> tailJumps;   // j a otras funciones: el epílogo inserta antes la liberación del frame
+    private boolean selfTailCall;    // la función salta a su propio cuerpo
+    private List<String> immediateRegs;   // registros auxiliares de la instrucción actual
+
+    // Convenio de llamadas
+    private static final Register[] ARG_REGS = {Register.A0, Register.A1, Register.A2, Register.A3};
+    private Map<String, List<String>> functionParameters;   // función -> parámetros en orden
+    private List<TACInstruction> code;                      // TAC que se está traduciendo
+    private int currentIndex;                               // línea TAC actual
+    private Map<Integer, String> resultHints;               // línea TAC -> $a/$v0 donde va su resultado
+    private Map<String, String> hintedValues;               // temporal -> $a/$v0 que ya lo tiene
+    private Map<String, String> incomingParams;             // parámetro -> $a en que llegó
+    private Map<MIPSInstruction, Integer> incomingLoads;    // lw de parámetros del stack -> posición
+    private int outgoingSpace;        // área de argumentos salientes de la función
+    private int mainOutgoingSpace;    // área de argumentos salientes del código global
+    private Map<String, Integer> useCounts;   // lecturas de cada variable en el TAC
+    private int switchCounter;
 
     public MIPSGenerator(TACGenerator tacGenerator) {
-        this.allocator = new RegisterAllocator(tacGenerator);
+        this(tacGenerator, RegisterAllocationStrategy.Kind.LOCAL);
+    }
+
+    /**
+     * Crea el generador con la estrategia de asignación de registros indicada
+     */
+    public MIPSGenerator(TACGenerator tacGenerator, RegisterAllocationStrategy.Kind allocatorKind) {
+        this(tacGenerator, allocatorKind, OptimizationOptions.defaults());
+    }
+
+    /**
+     * Crea el generador con la estrategia de registros y las optimizaciones indicadas
+     */
+    public MIPSGenerator(TACGenerator tacGenerator, RegisterAllocationStrategy.Kind allocatorKind,
+                         OptimizationOptions options) {
+        this.allocator = RegisterAllocationStrategy.create(allocatorKind, tacGenerator);
+        this.options = options;
+        this.immediateRegs = new ArrayList<>();
         this.instructions = new ArrayList<>();
         this.dataSegment = new HashMap<>();
         this.labelCounter = 0;
         this.currentFunction = null;
+        this.tailJumps = new ArrayList<>();
+        this.functionParameters = Collections.emptyMap();
+        this.resultHints = Collections.emptyMap();
+        this.hintedValues = new HashMap<>();
+        this.incomingParams = new HashMap<>();
+        this.incomingLoads = new IdentityHashMap<>();
+    }
+
+    /**
+     * Parámetros de cada función, en orden. Sin ellos la función llamada
+     * no puede leer sus argumentos y el inliner los infiere.
+     */
+    public void setFunctionParameters(Map<String, List<String>> functionParameters) {
+        this.functionParameters = functionParameters;
     }
 
     /**
@@ -31,16 +81,63 @@ public class MIPSGenerator {
     public String generate(List<TACInstruction> tacList) {
         StringBuilder code = new StringBuilder();
 
+        // Optimizaciones sobre el TAC antes de seleccionar instrucciones
+        tacList = optimizeTAC(tacList);
+
+        // El texto va primero: define qué variables globales se usan
+        String text = generateTextSegment(tacList);
+        if (options.isDeadCodeElimination()) {
+            removeUnusedData();
+        }
+
         // Generar segmento de datos
         code.append(generateDataSegment());
         code.append("\n");
 
         // Generar segmento de texto
-        code.append(generateTextSegment(tacList));
+        code.append(text);
 
         return code.toString();
     }
 
+    /**
+     * Aplica en orden las pasadas TAC activas en las opciones
+     */
+    private List<TACInstruction> optimizeTAC(List<TACInstruction> tacList) {
+        List<TACPass> passes = new ArrayList<>();
+        if (options.isInlining()) {
+            passes.add(new Inliner(functionParameters,
+                    options.getInlineSizeLimit(), options.getInlineGrowthLimit()));
+        }
+        if (options.isConstantPropagation()) {
+            passes.add(new ConstantPropagation());
+        }
+        if (options.isLocalValueNumbering()) {
+            passes.add(new LocalValueNumbering());
+        }
+        if (options.isCopyPropagation()) {
+            passes.add(new CopyPropagation());
+        }
+        if (options.isLoopInvariantCodeMotion()) {
+            passes.add(new LoopInvariantCodeMotion());
+        }
+        if (options.isInductionVariables()) {
+            passes.add(new InductionVariables());
+            if (options.isCopyPropagation()) {
+                // Limpia las copias j = s que deja la reducción
+                passes.add(new CopyPropagation());
+            }
+        }
+        if (options.isDeadCodeElimination()) {
+            passes.add(new DeadCodeElimination());
+        }
+
+        for (TACPass pass : passes) {
+            tacList = pass.apply(tacList);
+        }
+        return tacList;
+    }
+
     /**
      * Genera el segmento de datos (.data)
      */
@@ -63,9 +160,93 @@ public class MIPSGenerator {
         text.append(".text\n");
         text.append(".globl main\n\n");
 
-        for (TACInstruction tac : tacList) {
+        // Con eliminación de código muerto las funciones van después de main,
+        // así lo que sigue a un jr es realmente inalcanzable
+        boolean separateFunctions = options.isDeadCodeElimination();
+        int globalEnd = tacList.size();
+        if (separateFunctions) {
+            tacList = placeFunctionsAfterMain(tacList);
+            globalEnd = countGlobalInstructions(tacList);
+            emit(MIPSInstruction.label("main"));
+        }
+        int mainIndex = instructions.size();
+
+        // Análisis de variables vivas para descartar valores muertos
+        ControlFlowGraph cfg = new ControlFlowGraph(tacList);
+        allocator.setFunctionParameters(functionParameters);
+        allocator.prepare(tacList, new LivenessAnalysis(cfg));
+        code = tacList;
+        useCounts = TACUtils.useCounts(tacList);
+        if (options.isRegisterHints()) {
+            resultHints = conventionHints(tacList);
+        }
+
+        // Etiquetas que inician una función: llevan prólogo
+        BitSet functionStarts = new BitSet();
+        for (int b : cfg.getEntryBlocks()) {
+            if (cfg.getFunctionOf(b) != null) {
+                functionStarts.set(cfg.getBlockStart(b));
+            }
+        }
+
+        SwitchDispatch dispatch;
+        for (int i = 0; i < tacList.size(); i++) {
+            TACInstruction tac = tacList.get(i);
+            if (separateFunctions && i == globalEnd) {
+                generateExit();
+            }
             allocator.advanceLine(); // Avanzar contador de línea
-            generateInstruction(tac);
+            currentIndex = i;
+            if (!incomingParams.isEmpty() && !isStraightLine(tac)) {
+                // Los saltos y llamadas pueden pisar los $a: cada parámetro a su registro
+                releaseIncoming(null);
+            }
+            if (functionStarts.get(i) && tac.getOp() == TACInstruction.OpType.LABEL) {
+                generateFunctionProlog(tac);
+            } else if ((dispatch = matchSwitch(tacList, i)) != null) {
+                generateSwitch(dispatch);
+                // El resto de la cadena ya quedó despachado
+                for (int k = 1; k < dispatch.getLength(); k++) {
+                    i++;
+                    allocator.advanceLine();
+                }
+            } else if (isTailCall(tacList, i)) {
+                generateTailCall(tac);
+                // El RETURN que sigue ya no se alcanza: solo avanza la línea
+                i++;
+                allocator.advanceLine();
+            } else {
+                generateInstruction(tac);
+            }
+            allocator.releaseDeadRegisters();
+        }
+        if (separateFunctions && globalEnd == tacList.size()) {
+            generateExit();
+        }
+        emitPending();
+        generateMainFrame(mainIndex);
+
+        // Código inalcanzable, escrituras y stores muertos
+        if (options.isDeadCodeElimination()) {
+            instructions = new MIPSDeadCodeElimination().optimize(instructions);
+        }
+
+        // beqz/bnez, jump threading e inversión de branches
+        if (options.isBranchOptimization()) {
+            instructions = new BranchOptimizer().optimize(instructions);
+        }
+
+        // Optimización peephole antes de imprimir
+        if (options.isPeephole()) {
+            instructions = new PeepholeOptimizer(options.getPeepholeWindow()).optimize(instructions);
+        }
+
+        // Scheduling al final: las pasadas anteriores no conocen los delay slots
+        if (options.isScheduling()) {
+            InstructionScheduler scheduler = new InstructionScheduler(
+                    options.getPipelineModel(), options.isNoReorder());
+            instructions = scheduler.schedule(instructions);
+            text.append(scheduler.getDirective()).append("\n\n");
         }
 
         // Agregar todas las instrucciones generadas
@@ -76,6 +257,101 @@ public class MIPSGenerator {
         return text.toString();
     }
 
+    // ============================================
+    // UBICACIÓN DE FUNCIONES
+    // ============================================
+    /**
+     * Reordena el TAC: primero el código global y después las funciones,
+     * en su orden original
+     */
+    private List<TACInstruction> placeFunctionsAfterMain(List<TACInstruction> tacList) {
+        ControlFlowGraph cfg = new ControlFlowGraph(tacList);
+        List<TACInstruction> global = new ArrayList<>(tacList.size());
+        List<TACInstruction> functions = new ArrayList<>();
+        for (int i = 0; i < tacList.size(); i++) {
+            if (cfg.getFunctionOf(cfg.getBlockOf(i)) == null) {
+                global.add(tacList.get(i));
+            } else {
+                functions.add(tacList.get(i));
+            }
+        }
+        global.addAll(functions);
+        return global;
+    }
+
+    private int countGlobalInstructions(List<TACInstruction> tacList) {
+        ControlFlowGraph cfg = new ControlFlowGraph(tacList);
+        int count = 0;
+        while (count < tacList.size() && cfg.getFunctionOf(cfg.getBlockOf(count)) == null) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Frame del código global: solo si desalojó temporales o pasa argumentos
+     * por el stack. No se libera
+     * porque el programa termina con syscall exit.
+     */
+    private void generateMainFrame(int mainIndex) {
+        int frameSpace = allocator.getFrameSize() + mainOutgoingSpace;
+        if (frameSpace == 0) {
+            return;
+        }
+        String sp = Register.SP.getName();
+        String fp = Register.FP.getName();
+        instructions.addAll(mainIndex, List.of(
+                MIPSInstruction.move(fp, sp),
+                MIPSInstruction.typeI(OpCode.ADDI, sp, sp, -frameSpace)));
+    }
+
+    /**
+     * Fin del programa: syscall exit
+     */
+    private void generateExit() {
+        emit(MIPSInstruction.li(Register.V0.getName(), 10));
+        emit(MIPSInstruction.syscall());
+        allocator.reset();
+    }
+
+    /**
+     * Elimina del segmento de datos las variables que el texto no referencia
+     */
+    private void removeUnusedData() {
+        Set<String> referenced = new HashSet<>();
+        for (MIPSInstruction instr : instructions) {
+            if (instr.getOpcode() == OpCode.LABEL) {
+                continue;
+            }
+            if (instr.getLabel() != null) {
+                referenced.add(instr.getLabel());
+            }
+            if (instr.getOpcode() == OpCode.LW || instr.getOpcode() == OpCode.SW) {
+                String address = instr.getImmediate();
+                int end = 0;
+                while (end < address.length()
+                        && (Character.isLetterOrDigit(address.charAt(end)) || address.charAt(end) == '_')) {
+                    end++;
+                }
+                referenced.add(address.substring(0, end));
+            }
+        }
+        dataSegment.keySet().retainAll(referenced);
+    }
+
+    /**
+     * Agrega una instrucción, intercalando antes los spills/loads
+     * que el allocator haya producido
+     */
+    private void emit(MIPSInstruction instr) {
+        emitPending();
+        instructions.add(instr);
+    }
+
+    private void emitPending() {
+        instructions.addAll(allocator.drainInstructions());
+    }
+
     /**
      * Genera instrucciones MIPS para un TAC
      */
@@ -136,9 +412,56 @@ public class MIPSGenerator {
                 break;
 
             default:
-                instructions.add(MIPSInstruction.comment("Unsupported OpType: " + opType));
+                emit(MIPSInstruction.comment("Unsupported OpType: " + opType));
                 break;
         }
+
+        // Liberar los registros auxiliares de la instrucción
+        for (String reg : immediateRegs) {
+            allocator.freeRegister(reg);
+        }
+        immediateRegs.clear();
+    }
+
+    /**
+     * Registro con el valor de un operando. Las constantes se cargan con li
+     * en un registro que se libera al terminar la instrucción.
+     */
+    private String operandReg(String operand) {
+        if (!isImmediate(operand)) {
+            String incoming = incomingParams.get(operand);
+            return incoming != null ? incoming : allocator.getReg(operand);
+        }
+        int value = immediateValue(operand);
+        if (value == 0 && options.isImmediateSelection()) {
+            return Register.ZERO.getName();
+        }
+        String reg = scratchReg();
+        emitConstant(reg, value);
+        return reg;
+    }
+
+    /**
+     * Carga una constante: li si cabe en 16 bits, lui/ori si no
+     */
+    private void emitConstant(String reg, int value) {
+        if (!options.isImmediateSelection() || fitsImmediate(value)) {
+            emit(MIPSInstruction.li(reg, value));
+            return;
+        }
+        emit(MIPSInstruction.typeI(OpCode.LUI, reg, null, value >>> 16));
+        if ((value & 0xFFFF) != 0) {
+            emit(MIPSInstruction.typeI(OpCode.ORI, reg, reg, value & 0xFFFF));
+        }
+    }
+
+    /**
+     * Registro auxiliar que se libera al terminar la instrucción
+     */
+    private String scratchReg() {
+        String reg = allocator.getReg("imm_" + immediateRegs.size());
+        immediateRegs.add(reg);
+        return reg;
     }
 
     /**
@@ -148,23 +471,25 @@ public class MIPSGenerator {
         String dest = tac.getResult();
         String src = tac.getArg1();
 
-        String destReg = allocator.getReg(dest);
-
         if (isImmediate(src)) {
             // li $dest, immediate
-            int value = Integer.parseInt(src);
-            instructions.add(MIPSInstruction.li(destReg, value));
+            String destReg = resultReg(dest);
+            emitConstant(destReg, immediateValue(src));
+            allocator.markDirty(destReg);
         } else {
-            String srcReg = allocator.getReg(src);
-            // move $dest, $src
-            instructions.add(MIPSInstruction.move(destReg, srcReg));
+            // Leer la fuente antes de asignar el destino
+            String srcReg = operandReg(src);
+            String destReg = resultReg(dest);
+            // move $dest, $src (copia coalescida: mismo registro, sin move)
+            if (!destReg.equals(srcReg)) {
+                emit(MIPSInstruction.move(destReg, srcReg));
+            }
+            allocator.markDirty(destReg);
         }
-
-        allocator.markDirty(destReg);
     }
 
     /**
-     * Genera operaciones aritméticas: x = y op z
+     * Genera operaciones aritméticas, de comparación y lógicas: x = y op z
      */
     private void generateArithmetic(TACInstruction tac) {
         String result = tac.getResult();
@@ -172,36 +497,152 @@ public class MIPSGenerator {
         String arg2 = tac.getArg2();
         String op = tac.getOperator();
 
-        String resultReg = allocator.getReg(result);
-        String arg1Reg = allocator.getReg(arg1);
+        // Constante a la izquierda: pasarla a la derecha si el operador lo permite
+        if (isImmediate(arg1) && !isImmediate(arg2) && mirror(op) != null) {
+            String swap = arg1;
+            arg1 = arg2;
+            arg2 = swap;
+            op = mirror(op);
+        }
 
-        OpCode opCode = getMipsArithmeticOp(op);
+        boolean immediateForm = isImmediate(arg2) && hasImmediateForm(op, immediateValue(arg2));
 
-        if (isImmediate(arg2)) {
-            // Operación inmediata: addi, subi, etc.
-            int immediate = Integer.parseInt(arg2);
+        String arg1Reg = operandReg(arg1);
+        String arg2Reg = immediateForm ? null : operandReg(arg2);
+        String resultReg = resultReg(result);
 
-            if (op.equals("+")) {
-                instructions.add(MIPSInstruction.typeI(OpCode.ADDI, resultReg, arg1Reg, immediate));
-            } else if (op.equals("-")) {
-                // subi es pseudo-instrucción, usar addi con negativo
-                instructions.add(MIPSInstruction.typeI(OpCode.ADDI, resultReg, arg1Reg, -immediate));
-            } else {
-                // mul/div con inmediato requiere cargar a registro primero
-                String tempReg = allocator.getReg("temp_imm");
-                instructions.add(MIPSInstruction.li(tempReg, immediate));
-                instructions.add(MIPSInstruction.typeR(opCode, resultReg, arg1Reg, tempReg));
-                allocator.freeRegister(tempReg);
-            }
+        if (immediateForm) {
+            generateImmediateOp(op, resultReg, arg1Reg, immediateValue(arg2));
         } else {
-            String arg2Reg = allocator.getReg(arg2);
-            // Operación entre registros
-            instructions.add(MIPSInstruction.typeR(opCode, resultReg, arg1Reg, arg2Reg));
+            generateRegisterOp(op, resultReg, arg1Reg, arg2Reg);
         }
 
         allocator.markDirty(resultReg);
     }
 
+    /**
+     * Verifica si result = x op c se puede emitir sin cargar c en un registro
+     */
+    private boolean hasImmediateForm(String op, int c) {
+        boolean selection = options.isImmediateSelection();
+        switch (op) {
+            case "+": return fitsImmediate(c);
+            case "-": return c != Integer.MIN_VALUE && fitsImmediate(-c);
+            case "*": return options.isStrengthReduction() && StrengthReduction.canMultiply(c);
+            case "/": return options.isStrengthReduction() && StrengthReduction.canDivide(c);
+            case "<": case ">=": return selection && fitsImmediate(c);
+            case "<=": case ">": return selection && c != Integer.MAX_VALUE && fitsImmediate(c + 1);
+            case "==": case "!=": return selection && c == 0;
+            case "&&": case "||": return selection;
+            default: return false;
+        }
+    }
+
+    /**
+     * result = x op c con formas inmediatas (addi, slti, andi, ori, xori)
+     */
+    private void generateImmediateOp(String op, String resultReg, String arg1Reg, int c) {
+        String zero = Register.ZERO.getName();
+        switch (op) {
+            case "+":
+                emit(MIPSInstruction.typeI(OpCode.ADDI, resultReg, arg1Reg, c));
+                break;
+            case "-":
+                // subi es pseudo-instrucción, usar addi con negativo
+                emit(MIPSInstruction.typeI(OpCode.ADDI, resultReg, arg1Reg, -c));
+                break;
+            case "*":
+            case "/":
+                emitAll(op.equals("*")
+                        ? StrengthReduction.multiply(resultReg, arg1Reg, c, this::scratchReg)
+                        : StrengthReduction.divide(resultReg, arg1Reg, c, this::scratchReg));
+                break;
+            case "<":
+                emit(MIPSInstruction.typeI(OpCode.SLTI, resultReg, arg1Reg, c));
+                break;
+            case "<=":
+                // x <= c  <=>  x < c + 1
+                emit(MIPSInstruction.typeI(OpCode.SLTI, resultReg, arg1Reg, c + 1));
+                break;
+            case ">":
+                // x > c  <=>  !(x < c + 1)
+                emit(MIPSInstruction.typeI(OpCode.SLTI, resultReg, arg1Reg, c + 1));
+                emit(MIPSInstruction.typeI(OpCode.XORI, resultReg, resultReg, 1));
+                break;
+            case ">=":
+                emit(MIPSInstruction.typeI(OpCode.SLTI, resultReg, arg1Reg, c));
+                emit(MIPSInstruction.typeI(OpCode.XORI, resultReg, resultReg, 1));
+                break;
+            case "==":
+                emit(MIPSInstruction.typeR(OpCode.SEQ, resultReg, arg1Reg, zero));
+                break;
+            case "!=":
+                emit(MIPSInstruction.typeR(OpCode.SNE, resultReg, arg1Reg, zero));
+                break;
+            case "&&":
+                emit(MIPSInstruction.typeI(OpCode.ANDI, resultReg, arg1Reg, c != 0 ? 1 : 0));
+                break;
+            case "||":
+                emit(MIPSInstruction.typeI(OpCode.ORI, resultReg, arg1Reg, c != 0 ? 1 : 0));
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * result = x op y con ambos operandos en registros
+     */
+    private void generateRegisterOp(String op, String resultReg, String arg1Reg, String arg2Reg) {
+        switch (op) {
+            case "<": case ">": case "<=": case ">=": case "==": case "!=":
+                emit(MIPSInstruction.typeR(getMipsComparisonSetOp(op), resultReg, arg1Reg, arg2Reg));
+                break;
+            case "&&":
+                emit(MIPSInstruction.typeR(OpCode.AND, resultReg, arg1Reg, arg2Reg));
+                break;
+            case "||":
+                emit(MIPSInstruction.typeR(OpCode.OR, resultReg, arg1Reg, arg2Reg));
+                break;
+            case "/":
+            case "%":
+                // div deja el cociente en LO y el residuo en HI
+                emit(MIPSInstruction.typeR(OpCode.DIV, null, arg1Reg, arg2Reg));
+                emit(MIPSInstruction.typeR(op.equals("/") ? OpCode.MFLO : OpCode.MFHI, resultReg, null, null));
+                break;
+            default:
+                emit(MIPSInstruction.typeR(getMipsArithmeticOp(op), resultReg, arg1Reg, arg2Reg));
+                break;
+        }
+    }
+
+    private void emitAll(List<MIPSInstruction> sequence) {
+        for (MIPSInstruction instr : sequence) {
+            emit(instr);
+        }
+    }
+
+    /**
+     * Operador equivalente con los operandos intercambiados (null si no existe)
+     */
+    private static String mirror(String op) {
+        switch (op) {
+            case "+": case "*": case "==": case "!=": case "&&": case "||": return op;
+            case "<": return ">";
+            case ">": return "<";
+            case "<=": return ">=";
+            case ">=": return "<=";
+            default: return null;
+        }
+    }
+
+    /**
+     * Inmediato con signo de 16 bits
+     */
+    private static boolean fitsImmediate(int value) {
+        return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+    }
+
     /**
      * Genera operaciones unarias usando Register.ZERO
      */
@@ -210,17 +651,17 @@ public class MIPSGenerator {
         String arg = tac.getArg1();
         String op = tac.getOperator();
 
-        String resultReg = allocator.getReg(result);
-        String argReg = allocator.getReg(arg);
+        String argReg = operandReg(arg);
+        String resultReg = resultReg(result);
 
         if (op.equals("-")) {
             // Negación: sub $result, $zero, $arg usando Register.ZERO
-            instructions.add(MIPSInstruction.typeR(OpCode.SUB, resultReg, Register.ZERO.getName(), argReg));
+            emit(MIPSInstruction.typeR(OpCode.SUB, resultReg, Register.ZERO.getName(), argReg));
         } else if (op.equals("!")) {
             // NOT lógico: seq $result, $arg, $zero usando Register.ZERO
-            instructions.add(MIPSInstruction.typeR(OpCode.SEQ, resultReg, argReg, Register.ZERO.getName()));
+            emit(MIPSInstruction.typeR(OpCode.SEQ, resultReg, argReg, Register.ZERO.getName()));
         } else {
-            instructions.add(MIPSInstruction.comment("Unknown unary operator: " + op));
+            emit(MIPSInstruction.comment("Unknown unary operator: " + op));
         }
 
         allocator.markDirty(resultReg);
@@ -231,7 +672,8 @@ public class MIPSGenerator {
      */
     private void generateGoto(TACInstruction tac) {
         String label = tac.getLabel();
-        instructions.add(MIPSInstruction.jump(OpCode.J, label));
+        allocator.endBlock();
+        emit(MIPSInstruction.jump(OpCode.J, label));
     }
 
     /**
@@ -243,14 +685,37 @@ public class MIPSGenerator {
         String relop = tac.getRelop();
         String label = tac.getLabel();
 
-        String arg1Reg = allocator.getReg(arg1);
-        String arg2Reg = allocator.getReg(arg2);
+        // Constante a la izquierda: invertir la comparación
+        if (isImmediate(arg1) && !isImmediate(arg2)) {
+            String swap = arg1;
+            arg1 = arg2;
+            arg2 = swap;
+            relop = mirror(relop);
+        }
+
+        // x < c, x >= c, x <= c, x > c: slti y branch contra $zero
+        if (isImmediate(arg2) && immediateValue(arg2) != 0
+                && hasImmediateForm(relop, immediateValue(arg2))) {
+            int c = immediateValue(arg2);
+            boolean inclusive = relop.equals("<=") || relop.equals(">");
+            boolean whenLess = relop.equals("<") || relop.equals("<=");
+            String arg1Reg = operandReg(arg1);
+            String flag = scratchReg();
+            emit(MIPSInstruction.typeI(OpCode.SLTI, flag, arg1Reg, inclusive ? c + 1 : c));
+            allocator.endBlock();
+            emit(MIPSInstruction.branch(whenLess ? OpCode.BNE : OpCode.BEQ, flag, Register.ZERO.getName(), label));
+            return;
+        }
+
+        String arg1Reg = operandReg(arg1);
+        String arg2Reg = operandReg(arg2);
 
         // Obtener operación de branch correspondiente
         OpCode branchOp = getMipsComparisonBranchOp(relop);
 
         // if arg1 relop arg2 goto label
-        instructions.add(MIPSInstruction.branch(branchOp, arg1Reg, arg2Reg, label));
+        allocator.endBlock();
+        emit(MIPSInstruction.branch(branchOp, arg1Reg, arg2Reg, label));
     }
 
     /**
@@ -263,11 +728,11 @@ public class MIPSGenerator {
         // Generar código para pasar parámetros
         generateParameters(params);
 
-        // Guardar registros temporales antes de llamada
+        // Guardar los $t vivos después de la llamada (se recargan al usarse)
         allocator.saveTemporaries();
 
         // jal function
-        instructions.add(MIPSInstruction.jump(OpCode.JAL, functionName));
+        emit(MIPSInstruction.jump(OpCode.JAL, functionName));
     }
 
     /**
@@ -281,38 +746,396 @@ public class MIPSGenerator {
         // Generar código para pasar parámetros
         generateParameters(params);
 
-        // Guardar registros temporales antes de llamada
+        // Guardar los $t vivos después de la llamada (se recargan al usarse)
         allocator.saveTemporaries();
 
         // jal function
-        instructions.add(MIPSInstruction.jump(OpCode.JAL, functionName));
+        emit(MIPSInstruction.jump(OpCode.JAL, functionName));
 
         // Mover resultado de $v0 a variable destino
-        String resultReg = allocator.getReg(result);
-        instructions.add(MIPSInstruction.move(resultReg, Register.V0.getName()));
+        String resultReg = resultReg(result);
+        if (!resultReg.equals(Register.V0.getName())) {
+            emit(MIPSInstruction.move(resultReg, Register.V0.getName()));
+        }
         allocator.markDirty(resultReg);
     }
 
+    // ============================================
+    // LLAMADAS EN POSICIÓN DE COLA
+    // ============================================
+    /**
+     * t = call f(...) seguido de return t, dentro de una función. Con más
+     * de 4 argumentos no aplica: los del stack viven en el frame que se libera.
+     */
+    private boolean isTailCall(List<TACInstruction> code, int i) {
+        if (!options.isTailCalls() || currentFunction == null || i + 1 >= code.size()) {
+            return false;
+        }
+        TACInstruction call = code.get(i);
+        TACInstruction next = code.get(i + 1);
+        List<String> params = call.getParams();
+        return call.getOp() == TACInstruction.OpType.ASSIGN_CALL
+                && TACUtils.isTemporary(call.getResult())
+                && next.getOp() == TACInstruction.OpType.RETURN
+                && call.getResult().equals(next.getArg1())
+                && (params == null || params.size() <= 4);
+    }
+
+    /**
+     * Llamada en posición de cola: el resultado de f ya está en $v0
+     *
+     * - Recursión propia: salta al cuerpo, después del prólogo (lazo).
+     * - Otra función: el epílogo inserta la liberación del frame antes del
+     *   j, así f regresa directamente a quien nos llamó con $ra intacto.
+     */
+    private void generateTailCall(TACInstruction tac) {
+        String functionName = tac.getArg1();
+        generateParameters(tac.getParams());
+
+        // Lo modificado en registros vuelve a memoria antes de salir
+        allocator.flushAll();
+
+        MIPSInstruction jump;
+        if (functionName.equals(currentFunction)) {
+            jump = MIPSInstruction.jump(OpCode.J, bodyLabel(currentFunction));
+            selfTailCall = true;
+        } else {
+            jump = MIPSInstruction.jump(OpCode.J, functionName);
+            tailJumps.add(jump);
+        }
+        jump.setComment("tail call " + functionName);
+        emit(jump);
+    }
+
+    /**
+     * Etiqueta del cuerpo de la función, justo después del prólogo
+     */
+    private static String bodyLabel(String functionName) {
+        return functionName + "_body";
+    }
+
     /**
      * Genera parámetros usando objetos Register
+     *
+     * Los primeros 4 van en $a0-$a3 (los que ya se calcularon ahí no
+     * necesitan move); el resto en el área de argumentos salientes, al
+     * fondo del frame, que el prólogo reserva con el tamaño de la llamada
+     * más grande.
      */
     private void generateParameters(List<String> params) {
-        // Array de registros de argumentos
-        Register[] argRegs = {Register.A0, Register.A1, Register.A2, Register.A3};
+        if (params.size() > 4) {
+            int area = 4 * (params.size() - 4);
+            if (currentFunction != null) {
+                outgoingSpace = Math.max(outgoingSpace, area);
+            } else {
+                mainOutgoingSpace = Math.max(mainOutgoingSpace, area);
+            }
+        }
 
         for (int i = 0; i < params.size(); i++) {
             String param = params.get(i);
-            String paramReg = allocator.getReg(param);
+
+            if (i < 4 && ARG_REGS[i].getName().equals(hintedValues.get(param))) {
+                // Calculado directamente en su registro de argumento
+                hintedValues.remove(param);
+                continue;
+            }
+            if (i < 4 && isImmediate(param)) {
+                // Constante: directo al registro de argumento
+                emitConstant(ARG_REGS[i].getName(), immediateValue(param));
+                continue;
+            }
+            String paramReg = operandReg(param);
 
             if (i < 4) {
                 // Primeros 4 parámetros en $a0-$a3
-                instructions.add(MIPSInstruction.move(argRegs[i].getName(), paramReg));
+                emit(MIPSInstruction.move(ARG_REGS[i].getName(), paramReg));
             } else {
-                // Parámetros adicionales en stack
+                // Parámetros adicionales en el área de argumentos salientes
                 int offset = (i - 4) * 4;
-                instructions.add(MIPSInstruction.loadStore(OpCode.SW, paramReg, offset + "($sp)"));
+                emit(MIPSInstruction.loadStore(OpCode.SW, paramReg, offset + "($sp)"));
+            }
+        }
+    }
+
+    // ============================================
+    // SWITCH
+    // ============================================
+    /**
+     * Cadena de comparaciones de un switch que empieza en la línea (null si no hay)
+     */
+    private SwitchDispatch matchSwitch(List<TACInstruction> tacList, int i) {
+        TACInstruction.OpType op = tacList.get(i).getOp();
+        if (!options.isSwitchLowering()
+                || (op != TACInstruction.OpType.ASSIGN && op != TACInstruction.OpType.IF_GOTO)) {
+            return null;
+        }
+        return SwitchDispatch.match(tacList, i, useCounts);
+    }
+
+    /**
+     * Reemplaza la cadena de comparaciones por una tabla de saltos o un
+     * árbol de comparaciones. Los cuerpos de los casos no cambian, así que
+     * el fall-through entre casos se conserva.
+     */
+    private void generateSwitch(SwitchDispatch dispatch) {
+        // Hay saltos: los parámetros dejan los $a antes de despachar
+        releaseIncoming(null);
+
+        int id = switchCounter++;
+        String value = operandReg(dispatch.getScrutinee());
+        allocator.endBlock();
+        if (dispatch.isDense()) {
+            generateJumpTable(dispatch, value, id);
+        } else {
+            List<Map.Entry<Integer, String>> cases = new ArrayList<>(dispatch.getCases().entrySet());
+            generateDecisionTree(dispatch, cases, 0, cases.size() - 1, value, id, new int[1]);
+        }
+
+        for (String reg : immediateRegs) {
+            allocator.freeRegister(reg);
+        }
+        immediateRegs.clear();
+    }
+
+    /**
+     * Tabla de saltos: índice = valor - mínimo (sin resta si el mínimo es 0),
+     * fuera de rango al default
+     *
+     *     addi  $t, $x, -min
+     *     blt   $t, $zero, default
+     *     slti  $f, $t, n
+     *     beq   $f, $zero, default
+     *     sll   $t, $t, 2
+     *     lw    $t, switch_table($t)
+     *     jr    $t
+     */
+    private void generateJumpTable(SwitchDispatch dispatch, String value, int id) {
+        String zero = Register.ZERO.getName();
+        String table = "switch_table_" + id;
+        String defaultLabel = dispatch.getDefaultLabel();
+        dataSegment.put(table, ".word " + String.join(", ", dispatch.tableLabels()));
+
+        int min = dispatch.getCases().firstKey();
+        String target = scratchReg();
+        String index = value;
+        if (min != 0) {
+            index = target;
+            if (fitsImmediate(-min)) {
+                emit(MIPSInstruction.typeI(OpCode.ADDI, index, value, -min));
+            } else {
+                emitConstant(index, min);
+                emit(MIPSInstruction.typeR(OpCode.SUB, index, value, index));
+            }
+        }
+
+        // Con min == 0 el índice es el propio valor: la comparación va en
+        // target, que recién se pisa con el desplazamiento (con solo dos
+        // scratch otro auxiliar puede ser el registro del valor)
+        String flag = min == 0 ? target : scratchReg();
+        emit(MIPSInstruction.branch(OpCode.BLT, index, zero, defaultLabel));
+        emit(MIPSInstruction.typeI(OpCode.SLTI, flag, index, (int) dispatch.range()));
+        emit(MIPSInstruction.branch(OpCode.BEQ, flag, zero, defaultLabel));
+
+        emit(MIPSInstruction.shift(OpCode.SLL, target, index, 2));
+        emit(MIPSInstruction.loadStore(OpCode.LW, target, table + "(" + target + ")"));
+        MIPSInstruction jump = MIPSInstruction.jumpReg(target);
+        jump.setComment("switch " + dispatch.getScrutinee());
+        emit(jump);
+    }
+
+    /**
+     * Árbol binario sobre los casos [lo, hi] ordenados: menor que el del
+     * medio a la izquierda, el resto a la derecha. Con 3 casos o menos se
+     * compara uno por uno y, si ninguno coincide, se salta al default.
+     */
+    private void generateDecisionTree(SwitchDispatch dispatch, List<Map.Entry<Integer, String>> cases,
+                                      int lo, int hi, String value, int id, int[] labels) {
+        String zero = Register.ZERO.getName();
+        if (hi - lo < 3) {
+            for (int k = lo; k <= hi; k++) {
+                int c = cases.get(k).getKey();
+                String reg = c == 0 ? zero : scratchConstant(c);
+                emit(MIPSInstruction.branch(OpCode.BEQ, value, reg, cases.get(k).getValue()));
+            }
+            emit(MIPSInstruction.jump(OpCode.J, dispatch.getDefaultLabel()));
+            return;
+        }
+
+        int mid = (lo + hi + 1) / 2;
+        int pivot = cases.get(mid).getKey();
+        String left = "switch_" + id + "_" + (labels[0]++);
+        if (fitsImmediate(pivot)) {
+            String flag = scratchConstant(null);
+            emit(MIPSInstruction.typeI(OpCode.SLTI, flag, value, pivot));
+            emit(MIPSInstruction.branch(OpCode.BNE, flag, zero, left));
+        } else {
+            emit(MIPSInstruction.branch(OpCode.BLT, value, scratchConstant(pivot), left));
+        }
+
+        generateDecisionTree(dispatch, cases, mid, hi, value, id, labels);
+        emit(MIPSInstruction.label(left));
+        generateDecisionTree(dispatch, cases, lo, mid - 1, value, id, labels);
+    }
+
+    /**
+     * Registro auxiliar del switch (uno solo para todo el árbol), con la
+     * constante cargada si se indica
+     */
+    private String scratchConstant(Integer value) {
+        String reg = immediateRegs.isEmpty() ? scratchReg() : immediateRegs.get(0);
+        if (value != null) {
+            emitConstant(reg, value);
+        }
+        return reg;
+    }
+
+    // ============================================
+    // CONVENIO DE LLAMADAS
+    // ============================================
+    /**
+     * Temporales que se pueden calcular directamente en el registro del
+     * convenio: el argumento k de una llamada ($ak) o el valor de un return
+     * ($v0). Se definen una vez, se usan solo ahí y entre la definición y
+     * el uso no hay saltos, etiquetas ni llamadas que pisen el registro.
+     */
+    private Map<Integer, String> conventionHints(List<TACInstruction> tacList) {
+        Map<String, Integer> uses = TACUtils.useCounts(tacList);
+        Map<String, Integer> defs = new HashMap<>();
+        for (TACInstruction tac : tacList) {
+            String def = TACUtils.getDefinition(tac);
+            if (def != null) {
+                defs.merge(def, 1, Integer::sum);
+            }
+        }
+
+        Map<Integer, String> hints = new HashMap<>();
+        for (int i = 0; i < tacList.size(); i++) {
+            TACInstruction tac = tacList.get(i);
+            if (TACUtils.isCall(tac) && tac.getParams() != null) {
+                List<String> params = tac.getParams();
+                for (int k = 0; k < Math.min(params.size(), ARG_REGS.length); k++) {
+                    hintDefinition(tacList, i, params.get(k), ARG_REGS[k].getName(), uses, defs, hints);
+                }
+            } else if (tac.getOp() == TACInstruction.OpType.RETURN && tac.getArg1() != null) {
+                hintDefinition(tacList, i, tac.getArg1(), Register.V0.getName(), uses, defs, hints);
+            }
+        }
+        return hints;
+    }
+
+    private static void hintDefinition(List<TACInstruction> tacList, int use, String value, String reg,
+                                       Map<String, Integer> uses, Map<String, Integer> defs,
+                                       Map<Integer, String> hints) {
+        if (!TACUtils.isTemporary(value)
+                || uses.getOrDefault(value, 0) != 1 || defs.getOrDefault(value, 0) != 1) {
+            return;
+        }
+        for (int d = use - 1; d >= 0; d--) {
+            TACInstruction tac = tacList.get(d);
+            if (value.equals(TACUtils.getDefinition(tac))) {
+                hints.put(d, reg);
+                return;
+            }
+            if (!isStraightLine(tac)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Instrucción que no salta, no llama y no es destino de saltos
+     */
+    private static boolean isStraightLine(TACInstruction tac) {
+        TACInstruction.OpType op = tac.getOp();
+        return op == TACInstruction.OpType.ASSIGN
+                || op == TACInstruction.OpType.BINARY_OP
+                || op == TACInstruction.OpType.UNARY_OP;
+    }
+
+    /**
+     * Registro para el resultado de la instrucción actual: el del convenio
+     * si tiene pista, si no el que asigne el allocator
+     */
+    private String resultReg(String result) {
+        incomingParams.remove(result);
+        String hint = resultHints.get(currentIndex);
+        if (hint == null) {
+            return allocator.getRegForResult(result);
+        }
+        releaseIncoming(hint);
+        hintedValues.put(result, hint);
+        return hint;
+    }
+
+    /**
+     * Parámetros de la función: los primeros 4 se leen desde el $a en que
+     * llegaron; los demás se cargan del área de argumentos del llamador,
+     * justo arriba del frame (el offset se completa en el epílogo).
+     * Los parámetros que el cuerpo no lee no se tocan.
+     */
+    private void bindParameters(String functionName) {
+        incomingParams.clear();
+        List<String> params = functionParameters.get(functionName);
+        if (params == null) {
+            return;
+        }
+        for (int k = 0; k < params.size(); k++) {
+            String param = params.get(k);
+            if (!usedFrom(param, currentIndex + 1)) {
+                continue;
+            }
+            if (k < ARG_REGS.length) {
+                incomingParams.put(param, ARG_REGS[k].getName());
+                continue;
+            }
+            String reg = allocator.getRegForResult(param);
+            MIPSInstruction load = MIPSInstruction.loadStore(OpCode.LW, reg, "0(" + Register.FP.getName() + ")");
+            incomingLoads.put(load, k);
+            emit(load);
+            allocator.markDirty(reg);
+        }
+        if (!options.isRegisterHints()) {
+            releaseIncoming(null);
+        }
+    }
+
+    /**
+     * Pasa al allocator los parámetros que siguen en el $a indicado (null:
+     * todos) y que todavía se leen; el $a queda libre para otro valor
+     */
+    private void releaseIncoming(String reg) {
+        Iterator<Map.Entry<String, String>> it = incomingParams.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            if (reg != null && !reg.equals(entry.getValue())) {
+                continue;
+            }
+            it.remove();
+            // La instrucción actual ya leyó sus operandos (salvo al cerrar la región)
+            int from = reg != null ? currentIndex + 1 : currentIndex;
+            if (usedFrom(entry.getKey(), from)) {
+                String dest = allocator.getRegForResult(entry.getKey());
+                emit(MIPSInstruction.move(dest, entry.getValue()));
+                allocator.markDirty(dest);
+            }
+        }
+    }
+
+    /**
+     * Verifica si la función actual lee la variable desde la línea indicada
+     */
+    private boolean usedFrom(String variable, int from) {
+        for (int i = from; i < code.size(); i++) {
+            TACInstruction tac = code.get(i);
+            if (tac.getOp() == TACInstruction.OpType.END) {
+                return false;
+            }
+            if (TACUtils.getUses(tac).contains(variable)) {
+                return true;
             }
         }
+        return false;
     }
 
     /**
@@ -324,17 +1147,22 @@ public class MIPSGenerator {
         List<String> params = tac.getParams();
 
         // Simplificado: llamar a función constructora
-        instructions.add(MIPSInstruction.comment("new " + className));
+        emit(MIPSInstruction.comment("new " + className));
 
         // Generar parámetros
         generateParameters(params);
 
+        // Guardar los $t vivos después de la llamada (se recargan al usarse)
+        allocator.saveTemporaries();
+
         // Llamar al constructor
-        instructions.add(MIPSInstruction.jump(OpCode.JAL, className + "_constructor"));
+        emit(MIPSInstruction.jump(OpCode.JAL, className + "_constructor"));
 
         // Guardar resultado usando Register.V0
-        String resultReg = allocator.getReg(result);
-        instructions.add(MIPSInstruction.move(resultReg, Register.V0.getName()));
+        String resultReg = resultReg(result);
+        if (!resultReg.equals(Register.V0.getName())) {
+            emit(MIPSInstruction.move(resultReg, Register.V0.getName()));
+        }
         allocator.markDirty(resultReg);
     }
 
@@ -344,17 +1172,21 @@ public class MIPSGenerator {
     private void generateReturn(TACInstruction tac) {
         String returnValue = tac.getArg1();
 
-        if (returnValue != null && !returnValue.isEmpty()) {
-            String returnReg = allocator.getReg(returnValue);
+        if (isImmediate(returnValue)) {
+            emitConstant(Register.V0.getName(), immediateValue(returnValue));
+        } else if (returnValue != null && !returnValue.isEmpty()
+                && !Register.V0.getName().equals(hintedValues.remove(returnValue))) {
+            String returnReg = operandReg(returnValue);
             // Mover valor de retorno a $v0 usando constante Register.V0
-            instructions.add(MIPSInstruction.move(Register.V0.getName(), returnReg));
+            emit(MIPSInstruction.move(Register.V0.getName(), returnReg));
         }
 
         // Saltar al epílogo de la función
+        allocator.endBlock();
         if (currentFunction != null) {
-            instructions.add(MIPSInstruction.jump(OpCode.J, currentFunction + "_epilog"));
+            emit(MIPSInstruction.jump(OpCode.J, currentFunction + "_epilog"));
         } else {
-            instructions.add(MIPSInstruction.jump(OpCode.J, "epilog"));
+            emit(MIPSInstruction.jump(OpCode.J, "epilog"));
         }
     }
 
@@ -364,7 +1196,7 @@ public class MIPSGenerator {
     private void generateParam(TACInstruction tac) {
         // Este método ya no se usa con la nueva estructura
         // Los parámetros se manejan en generateParameters()
-        instructions.add(MIPSInstruction.comment("param (deprecated)"));
+        emit(MIPSInstruction.comment("param (deprecated)"));
     }
 
     /**
@@ -372,57 +1204,184 @@ public class MIPSGenerator {
      */
     private void generateLabel(TACInstruction tac) {
         String label = tac.getLabel();
-        instructions.add(MIPSInstruction.label(label));
+        // Se puede llegar saltando: los valores vivos quedan en memoria
+        allocator.beginBlock();
+        emit(MIPSInstruction.label(label));
     }
 
     /**
-     * Genera prólogo de función usando Register constantes
+     * Genera prólogo de función
+     *
+     * Solo se emite la etiqueta: el prólogo se inserta en el epílogo, cuando
+     * ya se sabe si la función llama a otras, si usa el stack y qué $s usa.
      */
     private void generateFunctionProlog(TACInstruction tac) {
-        // Este método puede no ser necesario si usas LABEL para marcar funciones
         String functionName = tac.getLabel();
         currentFunction = functionName;
 
-        instructions.add(MIPSInstruction.label(functionName));
+        // Lo que el código anterior dejó en registros vuelve a memoria
+        allocator.flushAll();
 
-        // Guardar $ra y $fp usando Register constantes
-        instructions.add(MIPSInstruction.typeI(OpCode.ADDI, Register.SP.getName(), Register.SP.getName(), -8));
-        instructions.add(MIPSInstruction.loadStore(OpCode.SW, Register.RA.getName(), "4(" + Register.SP.getName() + ")"));
-        instructions.add(MIPSInstruction.loadStore(OpCode.SW, Register.FP.getName(), "0(" + Register.SP.getName() + ")"));
-        instructions.add(MIPSInstruction.move(Register.FP.getName(), Register.SP.getName()));
+        emit(MIPSInstruction.label(functionName));
+        prologIndex = instructions.size();
 
-        // Reservar espacio para variables locales
-        int localSpace = calculateLocalSpace();
-        if (localSpace > 0) {
-            instructions.add(MIPSInstruction.typeI(OpCode.ADDI, Register.SP.getName(), Register.SP.getName(), -localSpace));
-        }
+        tailJumps.clear();
+        selfTailCall = false;
+        outgoingSpace = 0;
+        incomingLoads.clear();
 
         // Reiniciar allocator para nueva función
         allocator.reset();
+        allocator.beginFrame(functionName);
+        bindParameters(functionName);
     }
 
     /**
-     * Genera epílogo de función usando Register constantes
+     * Genera epílogo de función e inserta el prólogo correspondiente
+     *
+     * - Con llamadas: frame completo, guarda $ra y $fp.
+     * - Hoja (sin jal) que usa el stack o registros $s: guarda solo $fp.
+     * - Hoja sin stack ni $s: sin frame, solo jr $ra.
+     *
+     * El frame reserva exactamente los slots de spill que usó la función
+     * (relativos a $fp), el área de los $s y la de argumentos salientes
+     * (relativa a $sp). Las llamadas en cola a otras
+     * funciones liberan el frame igual que el epílogo antes de su j.
      */
     private void generateFunctionEpilog(TACInstruction tac) {
         String functionName = tac.getLabel();
         String epilogLabel = functionName + "_epilog";
 
-        instructions.add(MIPSInstruction.label(epilogLabel));
-
-        // Sincronizar registros dirty antes de salir
+        // Sincronizar registros dirty antes de salir. Va antes de la
+        // etiqueta: los return ya guardaron lo suyo antes de saltar aquí
         allocator.flushAll();
+        emit(MIPSInstruction.label(epilogLabel));
+
+        String sp = Register.SP.getName();
+        String fp = Register.FP.getName();
+        String ra = Register.RA.getName();
+
+        List<String> saved = allocator.getUsedSavedRegisters();
+        boolean usesStack = usesStack(prologIndex, instructions.size());
+        boolean leaf = options.isFrameElimination() && !callsFunctions(prologIndex, instructions.size());
+        boolean needsFrame = !leaf || usesStack || !saved.isEmpty();
+
+        if (selfTailCall) {
+            // Queda después del prólogo: el lazo conserva el frame
+            instructions.add(prologIndex, MIPSInstruction.label(bodyLabel(functionName)));
+        }
 
-        // Liberar espacio de variables locales usando Register constantes
-        instructions.add(MIPSInstruction.move(Register.SP.getName(), Register.FP.getName()));
+        if (needsFrame) {
+            // Hoja: no hace jal, así que $ra no cambia
+            int frameSize = leaf ? 4 : 8;
+            List<MIPSInstruction> prolog = new ArrayList<>();
+            prolog.add(MIPSInstruction.typeI(OpCode.ADDI, sp, sp, -frameSize));
+            if (!leaf) {
+                prolog.add(MIPSInstruction.loadStore(OpCode.SW, ra, "4(" + sp + ")"));
+            }
+            prolog.add(MIPSInstruction.loadStore(OpCode.SW, fp, "0(" + sp + ")"));
+            prolog.add(MIPSInstruction.move(fp, sp));
+
+            // Los argumentos del stack quedan arriba del frame de esta función
+            for (Map.Entry<MIPSInstruction, Integer> entry : incomingLoads.entrySet()) {
+                String address = (frameSize + 4 * (entry.getValue() - 4)) + "(" + fp + ")";
+                instructions.set(indexOf(entry.getKey(), prologIndex),
+                        MIPSInstruction.loadStore(OpCode.LW, entry.getKey().getRt(), address));
+            }
 
-        // Restaurar $fp y $ra
-        instructions.add(MIPSInstruction.loadStore(OpCode.LW, Register.FP.getName(), "0(" + Register.SP.getName() + ")"));
-        instructions.add(MIPSInstruction.loadStore(OpCode.LW, Register.RA.getName(), "4(" + Register.SP.getName() + ")"));
-        instructions.add(MIPSInstruction.typeI(OpCode.ADDI, Register.SP.getName(), Register.SP.getName(), 8));
+            // Reservar los slots de spill, debajo el área de los $s usados y
+            // al fondo el área de argumentos salientes
+            int localSpace = allocator.getFrameSize();
+            int reserved = localSpace + 4 * saved.size() + outgoingSpace;
+            if (reserved > 0) {
+                prolog.add(MIPSInstruction.typeI(OpCode.ADDI, sp, sp, -reserved));
+            }
+
+            // Guardar en el prólogo solo los $s usados
+            for (int k = 0; k < saved.size(); k++) {
+                String slot = (-localSpace - 4 * (k + 1)) + "(" + fp + ")";
+                prolog.add(MIPSInstruction.loadStore(OpCode.SW, saved.get(k), slot));
+            }
+            instructions.addAll(prologIndex, prolog);
+
+            // Cada salida libera el frame: el epílogo y las llamadas en cola
+            for (MIPSInstruction jump : tailJumps) {
+                instructions.addAll(indexOf(jump, prologIndex),
+                        frameTeardown(saved, localSpace, leaf, frameSize));
+            }
+            instructions.addAll(frameTeardown(saved, localSpace, leaf, frameSize));
+        }
 
         // Retornar usando Register.RA
-        instructions.add(MIPSInstruction.jumpReg(Register.RA.getName()));
+        emit(MIPSInstruction.jumpReg(ra));
+
+        // El código que sigue no comparte registros ni slots con la función
+        allocator.reset();
+        allocator.beginFrame(null);
+        currentFunction = null;
+    }
+
+    /**
+     * Restaura los $s usados, libera el frame y restaura $fp (y $ra)
+     */
+    private List<MIPSInstruction> frameTeardown(List<String> saved, int localSpace,
+                                                boolean leaf, int frameSize) {
+        String sp = Register.SP.getName();
+        String fp = Register.FP.getName();
+        List<MIPSInstruction> teardown = new ArrayList<>();
+        for (int k = 0; k < saved.size(); k++) {
+            String slot = (-localSpace - 4 * (k + 1)) + "(" + fp + ")";
+            teardown.add(MIPSInstruction.loadStore(OpCode.LW, saved.get(k), slot));
+        }
+        teardown.add(MIPSInstruction.move(sp, fp));
+        teardown.add(MIPSInstruction.loadStore(OpCode.LW, fp, "0(" + sp + ")"));
+        if (!leaf) {
+            teardown.add(MIPSInstruction.loadStore(OpCode.LW, Register.RA.getName(), "4(" + sp + ")"));
+        }
+        teardown.add(MIPSInstruction.typeI(OpCode.ADDI, sp, sp, frameSize));
+        return teardown;
+    }
+
+    /**
+     * Posición de una instrucción ya emitida (por identidad)
+     */
+    private int indexOf(MIPSInstruction instr, int from) {
+        for (int k = from; k < instructions.size(); k++) {
+            if (instructions.get(k) == instr) {
+                return k;
+            }
+        }
+        throw new IllegalStateException("Instrucción no emitida: " + instr);
+    }
+
+    /**
+     * Verifica si alguna instrucción del rango hace jal
+     */
+    private boolean callsFunctions(int from, int to) {
+        for (int k = from; k < to; k++) {
+            if (instructions.get(k).getOpcode() == OpCode.JAL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica si alguna instrucción del rango lee o escribe $sp o $fp,
+     * directamente o como base de una dirección
+     */
+    private boolean usesStack(int from, int to) {
+        String sp = Register.SP.getName();
+        String fp = Register.FP.getName();
+        for (int k = from; k < to; k++) {
+            MIPSInstruction instr = instructions.get(k);
+            for (String operand : new String[]{instr.getRd(), instr.getRs(), instr.getRt(), instr.getImmediate()}) {
+                if (operand != null && (operand.contains(sp) || operand.contains(fp))) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     /**
@@ -430,7 +1389,7 @@ public class MIPSGenerator {
      */
     private void generateTryBegin(TACInstruction tac) {
         String catchLabel = tac.getLabel();
-        instructions.add(MIPSInstruction.comment("try_begin -> catch: " + catchLabel));
+        emit(MIPSInstruction.comment("try_begin -> catch: " + catchLabel));
         // En una implementación completa, aquí se configurarían manejadores de excepciones
     }
 
@@ -438,16 +1397,19 @@ public class MIPSGenerator {
      * Genera fin de bloque try
      */
     private void generateTryEnd(TACInstruction tac) {
-        instructions.add(MIPSInstruction.comment("try_end"));
+        emit(MIPSInstruction.comment("try_end"));
     }
 
     /**
-     * Determina si un valor es inmediato (constante numérica)
+     * Determina si un valor es inmediato (constante numérica o booleana)
      */
     private boolean isImmediate(String value) {
         if (value == null || value.isEmpty()) {
             return false;
         }
+        if (value.equals("true") || value.equals("false")) {
+            return true;
+        }
         try {
             Integer.parseInt(value);
             return true;
@@ -456,6 +1418,15 @@ public class MIPSGenerator {
         }
     }
 
+    /**
+     * Valor de un inmediato: true = 1, false = 0
+     */
+    private int immediateValue(String value) {
+        if (value.equals("true")) return 1;
+        if (value.equals("false")) return 0;
+        return Integer.parseInt(value);
+    }
+
     /**
      * Obtiene la operación MIPS para operaciones aritméticas
      */
@@ -506,14 +1477,6 @@ public class MIPSGenerator {
         return "L" + (labelCounter++);
     }
 
-    /**
-     * Calcula espacio necesario para variables locales
-     */
-    private int calculateLocalSpace() {
-        // Simplificado: 16 palabras (64 bytes) para variables locales
-        return 64;
-    }
-
     /**
      * Agrega una variable al segmento de datos
      */
@@ -534,10 +1497,14 @@ public class MIPSGenerator {
     /**
      * Obtiene el allocator de registros
      */
-    public RegisterAllocator getAllocator() {
+    public RegisterAllocationStrategy getAllocator() {
         return allocator;
     }
 
+    public OptimizationOptions getOptions() {
+        return options;
+    }
+
     /**
      * Obtiene contador de registros usados
      */
@@ -79,6 +79,12 @@ public class Main {
 
         MIPSGenerator mipsGenerator = new MIPSGenerator(visitor_tac.getGenerator());
 
+        // PENDIENTE: falta mipsGenerator.setFunctionParameters(función -> parámetros
+        // en orden) desde la tabla de símbolos del analizador. Ese módulo
+        // (com.fmd:analizador) no está en este árbol y no se sabe cómo expone
+        // los parámetros de una función. Sin esa lista el callee no liga sus
+        // parámetros a $a0-$a3: los lee de una dirección que nadie escribió.
+
         // Agregar variables globales al segmento de datos si las hay
         mipsGenerator.addGlobalVariables();
 
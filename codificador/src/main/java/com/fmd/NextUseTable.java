@@ -0,0 +1,220 @@
+package com.fmd;
+
+import java.util.*;
+
+/**
+ * Tabla de Próximo Uso por bloque básico
+ *
+ * Recorre cada bloque de atrás hacia adelante (Dragon Book 8.4.2).
+ * Para cada instrucción i: x = y op z
+ *   1. Adjunta a i la información actual de x, y, z
+ *   2. Marca x como "no vivo, sin próximo uso"
+ *   3. Marca y, z como "vivos, próximo uso en i"
+ * La tabla se inicializa con las variables vivas a la salida del bloque.
+ *
+ * Además guarda, por variable, los eventos (uso/definición) ordenados,
+ * para responder en O(log n) cuál es el próximo uso de cualquier variable
+ * desde cualquier posición. Es lo que necesita selectVictim (Belady).
+ */
+public class NextUseTable {
+
+    /** Distancia para valores muertos: se desalojan primero y sin store */
+    public static final int DEAD = Integer.MAX_VALUE;
+
+    /** Marcador de "sin próximo uso dentro del bloque" */
+    public static final int NO_USE = -1;
+
+    private final LivenessAnalysis liveness;
+    private final ControlFlowGraph cfg;
+
+    // Información adjunta por instrucción (resultado del recorrido hacia atrás)
+    private int[] defNextUse;           // próximo uso del valor definido en i
+    private boolean[] defLiveOut;       // el valor definido en i sale vivo del bloque
+    private int[][] useNextUse;         // próximo uso de cada operando leído en i
+
+    // Eventos por variable: posición codificada (uso = pos, definición = -(pos + 1))
+    private int[][] events;
+
+    // ============================================
+    // CONSTRUCTOR
+    // ============================================
+    public NextUseTable(LivenessAnalysis liveness) {
+        this.liveness = liveness;
+        this.cfg = liveness.getCfg();
+        build();
+    }
+
+    // ============================================
+    // RECORRIDO HACIA ATRÁS
+    // ============================================
+    private void build() {
+        int n = cfg.getCode().size();
+        int vars = liveness.getVariableCount();
+
+        defNextUse = new int[n];
+        defLiveOut = new boolean[n];
+        useNextUse = new int[n][];
+
+        int[] next = new int[vars];         // próximo uso actual de cada variable
+        boolean[] live = new boolean[vars]; // vivo actual de cada variable
+        int[] eventCount = new int[vars];
+        int[][] reversed = new int[vars][];
+
+        // Bloques en orden inverso: los eventos quedan en orden descendente global
+        for (int b = cfg.getBlockCount() - 1; b >= 0; b--) {
+            int start = cfg.getBlockStart(b);
+            int end = cfg.getBlockEnd(b);
+
+            // Estado inicial: variables vivas a la salida, sin uso en el bloque
+            BitSet out = liveness.getBlockLiveOut(b);
+            Arrays.fill(next, NO_USE);
+            Arrays.fill(live, false);
+            for (int id = out.nextSetBit(0); id >= 0; id = out.nextSetBit(id + 1)) {
+                live[id] = true;
+            }
+
+            for (int i = end - 1; i >= start; i--) {
+                int d = liveness.getDefId(i);
+                int[] uses = liveness.getUseIds(i);
+
+                // 1. Adjuntar información actual
+                if (d >= 0) {
+                    defNextUse[i] = next[d];
+                    defLiveOut[i] = live[d] && next[d] == NO_USE;
+                } else {
+                    defNextUse[i] = NO_USE;
+                }
+                int[] info = new int[uses.length];
+                for (int k = 0; k < uses.length; k++) {
+                    info[k] = next[uses[k]];
+                }
+                useNextUse[i] = info;
+
+                // 2. La definición mata el valor anterior
+                if (d >= 0) {
+                    next[d] = NO_USE;
+                    live[d] = false;
+                    addEvent(reversed, eventCount, d, -(i + 1));
+                }
+
+                // 3. Los operandos quedan vivos con próximo uso en i
+                for (int id : uses) {
+                    next[id] = i;
+                    live[id] = true;
+                    addEvent(reversed, eventCount, id, i);
+                }
+            }
+        }
+
+        // Los eventos se agregaron de atrás hacia adelante: invertir
+        events = new int[vars][];
+        for (int v = 0; v < vars; v++) {
+            int count = eventCount[v];
+            int[] ordered = new int[count];
+            for (int k = 0; k < count; k++) {
+                ordered[k] = reversed[v][count - 1 - k];
+            }
+            events[v] = ordered;
+        }
+    }
+
+    /**
+     * Agrega un evento. Un uso y una definición en la misma instrucción
+     * (i = i + 1) se registran como uso.
+     */
+    private static void addEvent(int[][] reversed, int[] count, int var, int event) {
+        int[] list = reversed[var];
+        if (list == null) {
+            list = new int[4];
+            reversed[var] = list;
+        }
+        if (count[var] > 0 && event >= 0 && list[count[var] - 1] == -(event + 1)) {
+            list[count[var] - 1] = event;
+            return;
+        }
+        if (count[var] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            reversed[var] = list;
+        }
+        list[count[var]++] = event;
+    }
+
+    // ============================================
+    // CONSULTAS POR INSTRUCCIÓN
+    // ============================================
+    /**
+     * Próximo uso (índice TAC) del valor definido por la instrucción,
+     * NO_USE si no se vuelve a leer dentro del bloque
+     */
+    public int getDefNextUse(int instructionIndex) {
+        return defNextUse[instructionIndex];
+    }
+
+    /**
+     * Verifica si el valor definido por la instrucción es necesario más adelante
+     */
+    public boolean isDefLive(int instructionIndex) {
+        return defNextUse[instructionIndex] != NO_USE || defLiveOut[instructionIndex];
+    }
+
+    /**
+     * Próximo uso de cada operando leído por la instrucción
+     * (mismo orden que LivenessAnalysis.getUseIds)
+     */
+    public int[] getUseNextUses(int instructionIndex) {
+        return useNextUse[instructionIndex];
+    }
+
+    // ============================================
+    // CONSULTA POR VARIABLE
+    // ============================================
+    /**
+     * Distancia desde la posición dada hasta el próximo uso de la variable.
+     *
+     * @return distancia en instrucciones; si el valor sale vivo del bloque sin
+     *         usarse en él, una distancia mayor que cualquier uso del bloque;
+     *         DEAD si el valor ya no se necesita
+     */
+    public int distance(String variable, int position) {
+        int id = liveness.getVariableId(variable);
+        int block = cfg.getBlockOf(position);
+        int blockEnd = cfg.getBlockEnd(block);
+        int beyondBlock = blockEnd - position + 1;
+
+        if (id < 0) {
+            // Variable desconocida para el análisis: se asume viva
+            return beyondBlock;
+        }
+
+        int[] ev = events[id];
+        int k = firstEventAfter(ev, position);
+        if (k < ev.length) {
+            int event = ev[k];
+            int at = event >= 0 ? event : -event - 1;
+            if (at < blockEnd) {
+                return event >= 0 ? at - position : DEAD;
+            }
+        }
+
+        return liveness.isLiveOut(blockEnd - 1, variable) ? beyondBlock : DEAD;
+    }
+
+    /**
+     * Búsqueda binaria del primer evento con posición mayor a la dada
+     */
+    private static int firstEventAfter(int[] ev, int position) {
+        int lo = 0;
+        int hi = ev.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int at = ev[mid] >= 0 ? ev[mid] : -ev[mid] - 1;
+            if (at <= position) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    public LivenessAnalysis getLiveness() {
+        return liveness;
+    }
+}
@@ -0,0 +1,323 @@
+package com.fmd;
+
+/**
+ * Opciones de optimización del generador de código
+ *
+ * Cada pasada se puede activar por separado. Por defecto están activas
+ * las mejoras de selección de instrucciones (strength reduction,
+ * inmediatos, saltos, frames, tail calls, hints de registros, switch) y
+ * el peephole, por lo que la salida por defecto ya no es la del generador
+ * original: para obtenerla se usa none(). Las pasadas sobre TAC y el
+ * scheduling quedan apagadas salvo con all().
+ */
+public class OptimizationOptions {
+
+    // ============================================
+    // PASADAS SOBRE TAC
+    // ============================================
+    private boolean inlining = false;
+    private int inlineSizeLimit = 12;
+    private int inlineGrowthLimit = 50;
+    private boolean constantPropagation = false;
+    private boolean localValueNumbering = false;
+    private boolean copyPropagation = false;
+    private boolean loopInvariantCodeMotion = false;
+    private boolean inductionVariables = false;
+    private boolean deadCodeElimination = false;
+
+    // ============================================
+    // SELECCIÓN DE INSTRUCCIONES
+    // ============================================
+    private boolean strengthReduction = true;
+    private boolean immediateSelection = true;
+    private boolean branchOptimization = true;
+    private boolean frameElimination = true;
+    private boolean tailCalls = true;
+    private boolean registerHints = true;
+    private boolean switchLowering = true;
+
+    // ============================================
+    // PEEPHOLE (sobre MIPS)
+    // ============================================
+    private boolean peephole = true;
+    private int peepholeWindow = 3;
+
+    // ============================================
+    // SCHEDULING (sobre MIPS)
+    // ============================================
+    private boolean scheduling = false;
+    private boolean noReorder = false;
+    private PipelineModel pipelineModel = PipelineModel.fiveStage();
+
+    /**
+     * Opciones por defecto: selección de instrucciones y peephole activos,
+     * pasadas sobre TAC y scheduling apagados
+     */
+    public static OptimizationOptions defaults() {
+        return new OptimizationOptions();
+    }
+
+    /**
+     * Todas las optimizaciones activas
+     */
+    public static OptimizationOptions all() {
+        OptimizationOptions options = new OptimizationOptions();
+        options.setInlining(true);
+        options.setConstantPropagation(true);
+        options.setLocalValueNumbering(true);
+        options.setCopyPropagation(true);
+        options.setLoopInvariantCodeMotion(true);
+        options.setInductionVariables(true);
+        options.setDeadCodeElimination(true);
+        options.setScheduling(true);
+        return options;
+    }
+
+    /**
+     * Sin ninguna optimización: la salida del generador original
+     */
+    public static OptimizationOptions none() {
+        OptimizationOptions options = new OptimizationOptions();
+        options.setStrengthReduction(false);
+        options.setImmediateSelection(false);
+        options.setBranchOptimization(false);
+        options.setFrameElimination(false);
+        options.setTailCalls(false);
+        options.setRegisterHints(false);
+        options.setSwitchLowering(false);
+        options.setPeephole(false);
+        return options;
+    }
+
+    /**
+     * Reemplaza llamadas a funciones pequeñas por su cuerpo
+     */
+    public boolean isInlining() {
+        return inlining;
+    }
+
+    public void setInlining(boolean inlining) {
+        this.inlining = inlining;
+    }
+
+    /**
+     * Máximo de instrucciones TAC de una función que se expande en cada
+     * llamada (una función con una sola llamada admite el cuádruple)
+     */
+    public int getInlineSizeLimit() {
+        return inlineSizeLimit;
+    }
+
+    public void setInlineSizeLimit(int inlineSizeLimit) {
+        if (inlineSizeLimit < 1) {
+            throw new IllegalArgumentException("El límite de inlining debe ser al menos 1");
+        }
+        this.inlineSizeLimit = inlineSizeLimit;
+    }
+
+    /**
+     * Crecimiento máximo del TAC por inlining, en porcentaje del original
+     */
+    public int getInlineGrowthLimit() {
+        return inlineGrowthLimit;
+    }
+
+    public void setInlineGrowthLimit(int inlineGrowthLimit) {
+        if (inlineGrowthLimit < 0) {
+            throw new IllegalArgumentException("El crecimiento por inlining no puede ser negativo");
+        }
+        this.inlineGrowthLimit = inlineGrowthLimit;
+    }
+
+    public boolean isConstantPropagation() {
+        return constantPropagation;
+    }
+
+    public void setConstantPropagation(boolean constantPropagation) {
+        this.constantPropagation = constantPropagation;
+    }
+
+    public boolean isLocalValueNumbering() {
+        return localValueNumbering;
+    }
+
+    public void setLocalValueNumbering(boolean localValueNumbering) {
+        this.localValueNumbering = localValueNumbering;
+    }
+
+    public boolean isCopyPropagation() {
+        return copyPropagation;
+    }
+
+    public void setCopyPropagation(boolean copyPropagation) {
+        this.copyPropagation = copyPropagation;
+    }
+
+    public boolean isLoopInvariantCodeMotion() {
+        return loopInvariantCodeMotion;
+    }
+
+    public void setLoopInvariantCodeMotion(boolean loopInvariantCodeMotion) {
+        this.loopInvariantCodeMotion = loopInvariantCodeMotion;
+    }
+
+    public boolean isInductionVariables() {
+        return inductionVariables;
+    }
+
+    public void setInductionVariables(boolean inductionVariables) {
+        this.inductionVariables = inductionVariables;
+    }
+
+    /**
+     * Elimina código muerto en TAC y MIPS, y variables globales sin uso.
+     * Ubica las funciones después del código global.
+     */
+    public boolean isDeadCodeElimination() {
+        return deadCodeElimination;
+    }
+
+    public void setDeadCodeElimination(boolean deadCodeElimination) {
+        this.deadCodeElimination = deadCodeElimination;
+    }
+
+    /**
+     * Multiplicación y división por constantes con desplazamientos
+     */
+    public boolean isStrengthReduction() {
+        return strengthReduction;
+    }
+
+    public void setStrengthReduction(boolean strengthReduction) {
+        this.strengthReduction = strengthReduction;
+    }
+
+    /**
+     * Formas inmediatas (slti, andi, ori, xori), comparaciones contra $zero
+     * y lui/ori para constantes de 32 bits
+     */
+    public boolean isImmediateSelection() {
+        return immediateSelection;
+    }
+
+    public void setImmediateSelection(boolean immediateSelection) {
+        this.immediateSelection = immediateSelection;
+    }
+
+    /**
+     * beqz/bnez, jump threading, inversión de branches y saltos al siguiente
+     */
+    public boolean isBranchOptimization() {
+        return branchOptimization;
+    }
+
+    public void setBranchOptimization(boolean branchOptimization) {
+        this.branchOptimization = branchOptimization;
+    }
+
+    /**
+     * Funciones hoja sin frame, o con solo $fp guardado si usan el stack
+     */
+    public boolean isFrameElimination() {
+        return frameElimination;
+    }
+
+    public void setFrameElimination(boolean frameElimination) {
+        this.frameElimination = frameElimination;
+    }
+
+    /**
+     * return f(x): recursión propia como lazo, otras llamadas con j después
+     * de liberar el frame
+     */
+    public boolean isTailCalls() {
+        return tailCalls;
+    }
+
+    public void setTailCalls(boolean tailCalls) {
+        this.tailCalls = tailCalls;
+    }
+
+    /**
+     * Argumentos calculados directamente en $a0-$a3, valores de retorno en
+     * $v0 y parámetros leídos desde el $a en que llegan
+     */
+    public boolean isRegisterHints() {
+        return registerHints;
+    }
+
+    public void setRegisterHints(boolean registerHints) {
+        this.registerHints = registerHints;
+    }
+
+    /**
+     * Cadenas de comparaciones de un switch como tabla de saltos (casos
+     * densos) o árbol binario de comparaciones (casos dispersos)
+     */
+    public boolean isSwitchLowering() {
+        return switchLowering;
+    }
+
+    public void setSwitchLowering(boolean switchLowering) {
+        this.switchLowering = switchLowering;
+    }
+
+    public boolean isPeephole() {
+        return peephole;
+    }
+
+    public void setPeephole(boolean peephole) {
+        this.peephole = peephole;
+    }
+
+    /**
+     * Máximo de instrucciones consecutivas que examina una regla peephole
+     */
+    public int getPeepholeWindow() {
+        return peepholeWindow;
+    }
+
+    public void setPeepholeWindow(int peepholeWindow) {
+        if (peepholeWindow < 1) {
+            throw new IllegalArgumentException("La ventana peephole debe ser al menos 1");
+        }
+        this.peepholeWindow = peepholeWindow;
+    }
+
+    /**
+     * Reordena cada bloque para esconder la latencia de lw, mul y div
+     */
+    public boolean isScheduling() {
+        return scheduling;
+    }
+
+    public void setScheduling(boolean scheduling) {
+        this.scheduling = scheduling;
+    }
+
+    /**
+     * .set noreorder: el scheduler llena los delay slots (o pone nop);
+     * con .set reorder los llena el ensamblador
+     */
+    public boolean isNoReorder() {
+        return noReorder;
+    }
+
+    public void setNoReorder(boolean noReorder) {
+        this.noReorder = noReorder;
+    }
+
+    /**
+     * Latencias que usa el scheduler
+     */
+    public PipelineModel getPipelineModel() {
+        return pipelineModel;
+    }
+
+    public void setPipelineModel(PipelineModel pipelineModel) {
+        if (pipelineModel == null) {
+            throw new IllegalArgumentException("El modelo de pipeline no puede ser null");
+        }
+        this.pipelineModel = pipelineModel;
+    }
+}
@@ -0,0 +1,236 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+
+import java.util.*;
+
+/**
+ * Optimizador Peephole sobre las instrucciones MIPS generadas
+ *
+ * Recorre el código con una ventana de tamaño configurable. En cada
+ * posición solo prueba las reglas ancladas en el opcode de la instrucción
+ * actual, así cada pasada es lineal. Repite pasadas hasta que ninguna
+ * regla aplica (punto fijo).
+ *
+ * REGLAS POR DEFECTO:
+ * - move $r, $r                       -> (nada)
+ * - li/la/move $r, ... ; X $r, ...    -> X $r, ...   (X no lee $r)
+ * - j L ; L:                          -> L:
+ * - sw $r, k($sp) ; lw $q, k($sp)     -> sw $r, k($sp) ; move $q, $r
+ * - lw $r, k($sp) ; sw $r, k($sp)     -> lw $r, k($sp)
+ *
+ * Una etiqueta dentro de la ventana corta el patrón: puede llegar control
+ * desde otro punto, así que ninguna regla cruza etiquetas (salvo j L ; L:).
+ */
+public class PeepholeOptimizer {
+
+    /** Límite de pasadas por seguridad */
+    private static final int MAX_PASSES = 100;
+
+    private final int window;
+    private final Map<OpCode, List<PeepholeRule>> rulesByOpcode;
+    private final Map<String, Integer> applied;
+    private int passes;
+
+    // ============================================
+    // CONSTRUCTORES
+    // ============================================
+    public PeepholeOptimizer(int window) {
+        this(window, defaultRules());
+    }
+
+    public PeepholeOptimizer(int window, List<PeepholeRule> rules) {
+        this.window = window;
+        this.rulesByOpcode = new EnumMap<>(OpCode.class);
+        this.applied = new LinkedHashMap<>();
+        for (PeepholeRule rule : rules) {
+            addRule(rule);
+        }
+    }
+
+    /**
+     * Registra una regla bajo el opcode de su ancla
+     */
+    public void addRule(PeepholeRule rule) {
+        rulesByOpcode.computeIfAbsent(rule.getAnchor(), k -> new ArrayList<>()).add(rule);
+    }
+
+    // ============================================
+    // OPTIMIZACIÓN
+    // ============================================
+    /**
+     * Aplica las reglas hasta el punto fijo
+     */
+    public List<MIPSInstruction> optimize(List<MIPSInstruction> code) {
+        List<MIPSInstruction> current = new ArrayList<>(code);
+        passes = 0;
+        boolean changed = true;
+
+        while (changed && passes < MAX_PASSES) {
+            passes++;
+            changed = false;
+            List<MIPSInstruction> out = new ArrayList<>(current.size());
+            List<MIPSInstruction> replacement = new ArrayList<>();
+            int i = 0;
+
+            while (i < current.size()) {
+                int consumed = 0;
+                List<PeepholeRule> rules = rulesByOpcode.get(current.get(i).getOpcode());
+                if (rules != null) {
+                    for (PeepholeRule rule : rules) {
+                        int length = Math.min(Math.min(rule.getLength(), window), current.size() - i);
+                        replacement.clear();
+                        consumed = rule.apply(current.subList(i, i + length), replacement);
+                        if (consumed > 0) {
+                            applied.merge(rule.getName(), 1, Integer::sum);
+                            break;
+                        }
+                    }
+                }
+
+                if (consumed > 0) {
+                    out.addAll(replacement);
+                    i += consumed;
+                    changed = true;
+                } else {
+                    out.add(current.get(i));
+                    i++;
+                }
+            }
+            current = out;
+        }
+        return current;
+    }
+
+    // ============================================
+    // REGLAS POR DEFECTO
+    // ============================================
+    public static List<PeepholeRule> defaultRules() {
+        List<PeepholeRule> rules = new ArrayList<>();
+
+        // move $r, $r
+        rules.add(new PeepholeRule("self-move", OpCode.MOVE, 1, (w, out) ->
+                w.get(0).getRd().equals(w.get(0).getRs()) ? 1 : 0));
+
+        // Valor sobrescrito antes de leerse
+        for (OpCode op : new OpCode[]{OpCode.LI, OpCode.LA, OpCode.MOVE}) {
+            rules.add(new PeepholeRule("dead-write", op, 2, (w, out) -> {
+                if (w.size() < 2) return 0;
+                String reg = written(w.get(0));
+                MIPSInstruction next = w.get(1);
+                if (reg == null || !reg.equals(written(next)) || reads(next, reg)) return 0;
+                out.add(next);
+                return 2;
+            }));
+        }
+
+        // j L seguido (a través de etiquetas) de L:
+        rules.add(new PeepholeRule("jump-to-next", OpCode.J, Integer.MAX_VALUE, (w, out) -> {
+            String target = w.get(0).getLabel();
+            for (int k = 1; k < w.size() && w.get(k).getOpcode() == OpCode.LABEL; k++) {
+                if (target.equals(w.get(k).getLabel())) return 1;
+            }
+            return 0;
+        }));
+
+        // sw $r, k($b) ; lw $q, k($b)
+        rules.add(new PeepholeRule("store-load", OpCode.SW, 2, (w, out) -> {
+            if (w.size() < 2) return 0;
+            MIPSInstruction store = w.get(0);
+            MIPSInstruction load = w.get(1);
+            if (load.getOpcode() != OpCode.LW || !sameSlot(store, load)) return 0;
+            out.add(store);
+            if (!load.getRt().equals(store.getRt())) {
+                MIPSInstruction move = MIPSInstruction.move(load.getRt(), store.getRt());
+                move.setComment(load.getComment());
+                out.add(move);
+            }
+            return 2;
+        }));
+
+        // lw $r, k($b) ; sw $r, k($b)
+        rules.add(new PeepholeRule("load-store", OpCode.LW, 2, (w, out) -> {
+            if (w.size() < 2) return 0;
+            MIPSInstruction load = w.get(0);
+            MIPSInstruction store = w.get(1);
+            if (store.getOpcode() != OpCode.SW || !sameSlot(load, store)
+                    || !load.getRt().equals(store.getRt())
+                    || baseOf(load).equals(load.getRt())) return 0;
+            out.add(load);
+            return 2;
+        }));
+
+        return rules;
+    }
+
+    // ============================================
+    // REGISTROS LEÍDOS Y ESCRITOS
+    // ============================================
+    /**
+     * Registro que escribe la instrucción (null si ninguno o si es un salto)
+     */
+    static String written(MIPSInstruction instr) {
+        switch (instr.getOpcode()) {
+            case LW:
+                return instr.getRt();
+            case SW: case DIV:
+            case BEQ: case BNE: case BGT: case BGE: case BLT: case BLE: case BEQZ: case BNEZ:
+            case J: case JAL: case JR:
+            case PUSH: case POP: case SYSCALL: case NOP: case LABEL: case COMMENT:
+                return null;
+            default:
+                return instr.getRd();
+        }
+    }
+
+    /**
+     * Verifica si la instrucción lee el registro
+     */
+    static boolean reads(MIPSInstruction instr, String reg) {
+        switch (instr.getOpcode()) {
+            case LW:
+                return baseOf(instr).equals(reg);
+            case SW:
+                return reg.equals(instr.getRt()) || baseOf(instr).equals(reg);
+            case LI: case LA:
+                return false;
+            default:
+                return reg.equals(instr.getRs()) || reg.equals(instr.getRt());
+        }
+    }
+
+    /**
+     * Registro base de un acceso a memoria: "4($sp)" -> "$sp"
+     */
+    private static String baseOf(MIPSInstruction instr) {
+        String address = instr.getImmediate();
+        int open = address.indexOf('(');
+        return open >= 0 ? address.substring(open + 1, address.length() - 1) : "";
+    }
+
+    private static boolean sameSlot(MIPSInstruction a, MIPSInstruction b) {
+        return a.getImmediate() != null && a.getImmediate().equals(b.getImmediate());
+    }
+
+    // ============================================
+    // ESTADÍSTICAS
+    // ============================================
+    /**
+     * Veces que aplicó cada regla
+     */
+    public Map<String, Integer> getAppliedCounts() {
+        return Collections.unmodifiableMap(applied);
+    }
+
+    /**
+     * Pasadas de la última optimización
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+
+import java.util.List;
+
+/**
+ * Regla peephole declarativa
+ *
+ * Una regla se ancla en el opcode de la primera instrucción de la ventana,
+ * así el optimizador solo prueba las reglas que pueden aplicar.
+ */
+public class PeepholeRule {
+
+    /**
+     * Reescritura de una ventana de instrucciones
+     */
+    @FunctionalInterface
+    public interface Rewrite {
+        /**
+         * @param window      instrucciones a partir de la ancla
+         * @param replacement donde se agregan las instrucciones que reemplazan
+         *                    a las consumidas
+         * @return instrucciones consumidas desde el inicio (0 = no aplica)
+         */
+        int apply(List<MIPSInstruction> window, List<MIPSInstruction> replacement);
+    }
+
+    private final String name;
+    private final OpCode anchor;
+    private final int length;
+    private final Rewrite rewrite;
+
+    public PeepholeRule(String name, OpCode anchor, int length, Rewrite rewrite) {
+        this.name = name;
+        this.anchor = anchor;
+        this.length = length;
+        this.rewrite = rewrite;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public OpCode getAnchor() {
+        return anchor;
+    }
+
+    /**
+     * Máximo de instrucciones que examina la regla
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public int apply(List<MIPSInstruction> window, List<MIPSInstruction> replacement) {
+        return rewrite.apply(window, replacement);
+    }
+
+    @Override
+    public String toString() {
+        return name + " [" + anchor + "]";
+    }
+}
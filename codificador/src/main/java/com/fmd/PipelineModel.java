@@ -0,0 +1,61 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+
+/**
+ * Modelo del pipeline para el scheduler de instrucciones
+ *
+ * Latencia = ciclos desde que se emite una instrucción hasta que su
+ * resultado se puede usar sin detener el pipeline. Las instrucciones de
+ * la ALU tienen latencia 1 (forwarding); lw, mul y div se configuran.
+ */
+public class PipelineModel {
+
+    private final int loadLatency;
+    private final int multiplyLatency;
+    private final int divideLatency;
+
+    public PipelineModel(int loadLatency, int multiplyLatency, int divideLatency) {
+        if (loadLatency < 1 || multiplyLatency < 1 || divideLatency < 1) {
+            throw new IllegalArgumentException("Las latencias deben ser al menos 1");
+        }
+        this.loadLatency = loadLatency;
+        this.multiplyLatency = multiplyLatency;
+        this.divideLatency = divideLatency;
+    }
+
+    /**
+     * Pipeline clásico de 5 etapas: un ciclo de espera después de lw
+     */
+    public static PipelineModel fiveStage() {
+        return new PipelineModel(2, 4, 12);
+    }
+
+    /**
+     * Ciclos hasta que el resultado de la instrucción está disponible
+     */
+    public int latencyOf(MIPSInstruction instr) {
+        switch (instr.getOpcode()) {
+            case LW:
+                return loadLatency;
+            case MUL:
+                return multiplyLatency;
+            case DIV:
+                return divideLatency;
+            default:
+                return 1;
+        }
+    }
+
+    public int getLoadLatency() {
+        return loadLatency;
+    }
+
+    public int getMultiplyLatency() {
+        return multiplyLatency;
+    }
+
+    public int getDivideLatency() {
+        return divideLatency;
+    }
+}
@@ -0,0 +1,145 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.TACInstruction;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estrategia de asignación de registros
+ *
+ * MIPSGenerator solo conoce esta interfaz, así que la estrategia se puede
+ * elegir en cada compilación:
+ * - LOCAL: getReg() sobre la marcha (RegisterAllocator, Dragon Book 8.6)
+ * - LINEAR_SCAN: intervalos de vida (LinearScanAllocator, Poletto/Sarkar)
+ * - GRAPH_COLORING: grafo de interferencia con coalescing
+ *   (GraphColoringAllocator, Chaitin-Briggs / George-Appel)
+ *
+ * Las instrucciones de spill/load que produce la estrategia quedan
+ * pendientes hasta que el generador las recoge con drainInstructions().
+ */
+public interface RegisterAllocationStrategy {
+
+    /**
+     * Estrategias disponibles
+     */
+    enum Kind {
+        LOCAL,
+        LINEAR_SCAN,
+        GRAPH_COLORING
+    }
+
+    /**
+     * Crea la estrategia indicada
+     */
+    static RegisterAllocationStrategy create(Kind kind, TACGenerator tacGenerator) {
+        switch (kind) {
+            case LINEAR_SCAN:
+                return new LinearScanAllocator(tacGenerator);
+            case GRAPH_COLORING:
+                return new GraphColoringAllocator(tacGenerator);
+            case LOCAL:
+            default:
+                return new RegisterAllocator(tacGenerator);
+        }
+    }
+
+    /**
+     * Parámetros de cada función, en orden (antes de prepare): viven en el
+     * frame de su función
+     */
+    void setFunctionParameters(Map<String, List<String>> parameters);
+
+    /**
+     * Analiza el código antes de traducirlo
+     */
+    void prepare(List<TACInstruction> code, LivenessAnalysis liveness);
+
+    /**
+     * Registro para un operando fuente (recarga el valor si hace falta)
+     */
+    String getReg(String variable);
+
+    /**
+     * Registro para el destino de una instrucción
+     */
+    String getRegForResult(String variable);
+
+    /**
+     * El registro fue escrito por la última instrucción emitida
+     */
+    void markDirty(String register);
+
+    /**
+     * Libera un registro (guardándolo si hace falta)
+     */
+    void freeRegister(String register);
+
+    /**
+     * Libera registros cuyos valores ya no se necesitan
+     */
+    void releaseDeadRegisters();
+
+    /**
+     * Antes de un salto: deja en memoria los valores vivos modificados
+     */
+    void endBlock();
+
+    /**
+     * En una etiqueta: el estado de los registros no depende del camino
+     * por el que se llegó
+     */
+    void beginBlock();
+
+    /**
+     * Guarda los registros $t vivos a través de una llamada; se recargan
+     * en su próximo uso
+     */
+    void saveTemporaries();
+
+    /**
+     * Sincroniza con memoria los registros modificados
+     */
+    void flushAll();
+
+    /**
+     * Avanza a la siguiente instrucción TAC
+     */
+    void advanceLine();
+
+    /**
+     * Reinicia el estado (para nueva función)
+     */
+    void reset();
+
+    /**
+     * Empieza a usar los slots de spill de la función (null: código global)
+     */
+    void beginFrame(String function);
+
+    /**
+     * Bytes de slots de spill del frame actual
+     */
+    int getFrameSize();
+
+    /**
+     * Registros $s usados desde el último reset (el prólogo los guarda)
+     */
+    List<String> getUsedSavedRegisters();
+
+    /**
+     * Instrucciones pendientes, sin consumirlas
+     */
+    List<MIPSInstruction> getInstructions();
+
+    /**
+     * Entrega y limpia las instrucciones pendientes
+     */
+    List<MIPSInstruction> drainInstructions();
+
+    /**
+     * Debug: imprime el estado de los registros
+     */
+    void printState();
+}
@@ -1,7 +1,7 @@
 package com.fmd;
 
-import com.fmd.modules.Symbol;
 import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.TACInstruction;
 import java.util.*;
 
 /**
@@ -12,8 +12,11 @@ import java.util.*;
  * - Mantener descriptores de registros (qué contiene cada uno)
  * - Implementar spilling cuando no hay registros disponibles
  * - Tracking de dirty bits para optimizar stores
+ * - Descartar valores muertos (según LivenessAnalysis) sin guardarlos
+ * - Poner en registros $s los valores que viven a través de llamadas o
+ *   de lazos (el prólogo guarda solo los $s que la función usa)
  */
-public class RegisterAllocator {
+public class RegisterAllocator implements RegisterAllocationStrategy {
 
     // ============================================
     // REGISTROS DISPONIBLES
@@ -26,24 +29,42 @@ public class RegisterAllocator {
             "$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7"
     };
 
+    // Un $s cuesta guardarlo en el prólogo y restaurarlo en el epílogo
+    private static final int CALLEE_SAVE_COST = 2;
+
     // ============================================
     // ESTADO DEL ALLOCATOR
     // ============================================
     private Map<String, RegisterDescriptor> registerState;      // registro -> descriptor
     private Map<String, String> variableToRegister;             // variable -> registro actual
     private Stack<String> freeRegisters;                        // registros disponibles
+    private Stack<String> freeSavedRegisters;                   // registros $s disponibles
+    private Set<String> usedSavedRegisters;                     // $s usados en la función actual
+    private Set<String> longLived;                              // variables candidatas a $s
     private Map<String, Integer> lastUse;                       // variable -> última línea usada
     private int currentLine;                                    // línea TAC actual
 
     // Referencia a tabla de símbolos (para offsets)
     private TACGenerator tacGenerator;
 
+    // Offsets en el frame (variables del programa y temporales)
+    private SpillSlots spillSlots;
+
     // Instrucciones MIPS generadas
     private List<MIPSInstruction> instructions;
 
-    // Offsets dinámicos para temporales (t1, t2, ...)
-    private Map<String, Integer> tempOffsets;
-    private int nextTempOffset;
+    // Información de variables vivas (null = sin análisis, todo se considera vivo)
+    private LivenessAnalysis liveness;
+
+    // Tabla de próximo uso (null = desalojo por uso menos reciente)
+    private NextUseTable nextUse;
+
+    // Variables desalojadas que siguen vivas: se recargan en su próximo uso
+    private Set<String> evictedLive;
+
+    // Temporales constantes: se recalculan con li en vez de desalojarse
+    private Map<String, Integer> constants;
+    private int rematerialized;
 
     // ============================================
     // CONSTRUCTOR
@@ -53,11 +74,15 @@ public class RegisterAllocator {
         this.registerState = new HashMap<>();
         this.variableToRegister = new HashMap<>();
         this.freeRegisters = new Stack<>();
+        this.freeSavedRegisters = new Stack<>();
+        this.usedSavedRegisters = new TreeSet<>();
+        this.longLived = new HashSet<>();
         this.lastUse = new HashMap<>();
         this.currentLine = 0;
         this.instructions = new ArrayList<>();
-        this.tempOffsets = new HashMap<>();
-        this.nextTempOffset = 1000; // Empezar en offset 1000 para temporales
+        this.spillSlots = new SpillSlots(tacGenerator);
+        this.evictedLive = new HashSet<>();
+        this.constants = Collections.emptyMap();
 
         // Inicializar registros temporales como libres
         for (int i = TEMP_REGISTERS.length - 1; i >= 0; i--) {
@@ -66,8 +91,9 @@ public class RegisterAllocator {
         }
 
         // Inicializar registros saved (para variables persistentes)
-        for (String reg : SAVED_REGISTERS) {
-            registerState.put(reg, new RegisterDescriptor(reg));
+        for (int i = SAVED_REGISTERS.length - 1; i >= 0; i--) {
+            freeSavedRegisters.push(SAVED_REGISTERS[i]);
+            registerState.put(SAVED_REGISTERS[i], new RegisterDescriptor(SAVED_REGISTERS[i]));
         }
     }
 
@@ -78,10 +104,37 @@ public class RegisterAllocator {
      * ALGORITMO getReg() - NÚCLEO DEL PROYECTO
      * Asigna un registro para una variable/temporal según el algoritmo del Dragon Book
      *
+     * Se usa para operandos fuente: si el valor fue desalojado estando vivo,
+     * o es una variable del programa que aún no está en registro, se carga
+     * desde memoria.
+     *
      * @param variable Nombre de la variable o temporal (ej: "t1", "x", "arr")
      * @return Registro MIPS asignado (ej: "$t0", "$s1")
      */
     public String getReg(String variable) {
+        boolean wasInRegister = variableToRegister.containsKey(variable);
+        String reg = allocate(variable);
+
+        if (!wasInRegister && (evictedLive.remove(variable) || isInMemory(variable))) {
+            if (constants.containsKey(variable)) {
+                rematerialize(variable, reg);
+            } else {
+                loadVariable(variable, reg);
+            }
+        }
+        return reg;
+    }
+
+    /**
+     * Asigna un registro para el destino de una instrucción.
+     * El valor anterior se sobrescribe, así que nunca se recarga.
+     */
+    public String getRegForResult(String variable) {
+        evictedLive.remove(variable);
+        return allocate(variable);
+    }
+
+    private String allocate(String variable) {
         // PASO 1: Si ya tiene registro asignado, reutilizarlo
         if (variableToRegister.containsKey(variable)) {
             String reg = variableToRegister.get(variable);
@@ -89,14 +142,22 @@ public class RegisterAllocator {
             return reg;
         }
 
-        // PASO 2: Si hay registros libres, tomar uno
+        // PASO 2: Valores de larga vida van a $s (se preservan en llamadas)
+        if (longLived.contains(variable) && !freeSavedRegisters.isEmpty()) {
+            String reg = freeSavedRegisters.pop();
+            usedSavedRegisters.add(reg);
+            assignRegister(variable, reg);
+            return reg;
+        }
+
+        // PASO 3: Si hay registros libres, tomar uno
         if (!freeRegisters.isEmpty()) {
             String reg = freeRegisters.pop();
             assignRegister(variable, reg);
             return reg;
         }
 
-        // PASO 3: ALGORITMO DE DESALOJO (spilling)
+        // PASO 4: ALGORITMO DE DESALOJO (spilling)
         // No hay registros libres, hay que desalojar uno
         String victim = selectVictim();
         spillRegister(victim);
@@ -113,6 +174,7 @@ public class RegisterAllocator {
     private void assignRegister(String variable, String register) {
         RegisterDescriptor desc = registerState.get(register);
         desc.assign(variable);
+        desc.setConstant(constants.get(variable));
         variableToRegister.put(variable, register);
         lastUse.put(variable, currentLine);
     }
@@ -125,12 +187,12 @@ public class RegisterAllocator {
         if (desc != null && desc.getVariable() != null) {
             // Si está dirty, hacer spill antes de liberar
             if (desc.isDirty()) {
-                spillRegister(register);
+                evictRegister(register);
             } else {
                 // Solo limpiar sin spill
                 variableToRegister.remove(desc.getVariable());
                 desc.free();
-                freeRegisters.push(register);
+                pushFree(register);
             }
         }
     }
@@ -140,25 +202,32 @@ public class RegisterAllocator {
     // ============================================
     /**
      * Guarda un registro en memoria (stack o frame)
-     * Solo guarda si el registro está "dirty" (modificado)
+     * Solo guarda si el registro está "dirty" (modificado) y su valor no es
+     * una constante: esa se recalcula con li en el siguiente uso
      */
     private void spillRegister(String register) {
         RegisterDescriptor desc = registerState.get(register);
+        boolean needed = isNeeded(desc.getVariable());
+
+        if (needed && desc.getVariable() != null && liveness != null) {
+            evictedLive.add(desc.getVariable());
+        }
 
-        if (desc.isDirty()) {
+        if (desc.isDirty() && needed && !desc.isRematerializable()) {
             String variable = desc.getVariable();
-            int offset = getVariableOffset(variable);
+            String address = getVariableAddress(variable);
 
-            // Generar instrucción MIPS: sw $reg, offset($sp)
+            // Generar instrucción MIPS: sw $reg, offset($fp)
             MIPSInstruction store = MIPSInstruction.loadStore(
                     MIPSInstruction.OpCode.SW,
                     register,
-                    offset + "($sp)"
+                    address
             );
+            store.setComment("spill " + variable);
 
             instructions.add(store);
 
-            System.out.println("  [SPILL] " + variable + " -> memoria (offset " + offset + ")");
+            System.out.println("  [SPILL] " + variable + " -> memoria (" + address + ")");
         }
 
         // Liberar el registro
@@ -166,43 +235,83 @@ public class RegisterAllocator {
         desc.free();
     }
 
+    /**
+     * Desaloja un registro y lo devuelve a la pila de libres
+     */
+    private void evictRegister(String register) {
+        spillRegister(register);
+        pushFree(register);
+    }
+
+    /**
+     * Devuelve un registro a la pila de libres que le corresponde
+     */
+    private void pushFree(String register) {
+        if (isTempRegister(register)) {
+            if (!freeRegisters.contains(register)) freeRegisters.push(register);
+        } else if (!freeSavedRegisters.contains(register)) {
+            freeSavedRegisters.push(register);
+        }
+    }
+
+    private boolean isTempRegister(String register) {
+        for (String reg : TEMP_REGISTERS) {
+            if (reg.equals(register)) return true;
+        }
+        return false;
+    }
+
     /**
      * Selecciona registro víctima para desalojar
-     * Estrategia: Furthest Use (el que se usa más lejos en el futuro)
+     * Estrategia: Belady / Furthest Use. Se desaloja el valor cuyo próximo
+     * uso está más lejos; un valor muerto se desaloja de inmediato.
+     * No se desalojan registros ya usados por la instrucción actual.
      */
     private String selectVictim() {
         String victim = null;
         int maxDistance = -1;
+        String fallback = null;
 
-        // Buscar el registro cuya variable se usa más lejos
         for (String reg : TEMP_REGISTERS) {
             RegisterDescriptor desc = registerState.get(reg);
-            if (desc.getVariable() != null) {
-                String var = desc.getVariable();
+            String var = desc.getVariable();
+            if (var == null || desc.isLocked()) {
+                continue;
+            }
+            if (fallback == null) {
+                fallback = reg;
+            }
 
-                // Si es temporal (t1, t2...), priorizar para spill
-                if (var.startsWith("t")) {
-                    return reg;
-                }
+            // Operando de la instrucción en curso
+            Integer last = lastUse.get(var);
+            if (last != null && last == currentLine) {
+                continue;
+            }
 
-                // Calcular distancia al próximo uso
-                int distance = getNextUse(var);
-                if (distance > maxDistance) {
-                    maxDistance = distance;
-                    victim = reg;
-                }
+            int distance = getNextUse(var);
+            if (distance == NextUseTable.DEAD) {
+                return reg;
+            }
+            if (distance > maxDistance) {
+                maxDistance = distance;
+                victim = reg;
             }
         }
 
-        // Si no encontró víctima, usar el primero disponible
-        return victim != null ? victim : TEMP_REGISTERS[0];
+        if (victim != null) return victim;
+        return fallback != null ? fallback : TEMP_REGISTERS[0];
     }
 
     /**
-     * Estima cuándo se usará una variable de nuevo
-     * (simplificado: usa lastUse como proxy)
+     * Distancia al próximo uso de una variable.
+     * Con tabla de próximo uso es exacta; sin ella se aproxima por el uso
+     * menos reciente (LRU).
      */
     private int getNextUse(String variable) {
+        int pos = currentPosition();
+        if (nextUse != null && pos >= 0 && pos < liveness.getCfg().getCode().size()) {
+            return nextUse.distance(variable, pos);
+        }
         Integer last = lastUse.get(variable);
         if (last == null) return Integer.MAX_VALUE;
         return currentLine - last; // distancia desde último uso
@@ -212,74 +321,20 @@ public class RegisterAllocator {
     // ACCESO A MEMORIA (LOAD/STORE)
     // ============================================
     /**
-     * Obtiene el offset en el frame para una variable
-     * Usa la tabla de símbolos del TAC que ya tiene los offsets calculados
+     * Obtiene la dirección en memoria de una variable
      */
-    private int getVariableOffset(String variable) {
-        // 1. Si es temporal (t1, t2...), asignar offset dinámico en el stack
-        if (variable.startsWith("t") && variable.length() > 1
-                && Character.isDigit(variable.charAt(1))) {
-
-            // Usar un mapa temporal para offsets dinámicos
-            if (!tempOffsets.containsKey(variable)) {
-                tempOffsets.put(variable, nextTempOffset);
-                nextTempOffset += 4; // siguiente offset (4 bytes por int)
-            }
-            return tempOffsets.get(variable);
-        }
-
-        // 2. Si es string literal, NO debería llegar aquí
-        if (variable.startsWith("\"")) {
-            System.err.println("ERROR: String literal '" + variable + "' no debe necesitar offset");
-            return -1;
-        }
-
-        // 3. Si es acceso a array (numbers[0], numbers[t54]), parsear base
-        if (variable.contains("[")) {
-            String baseName = variable.substring(0, variable.indexOf('['));
-            Symbol sym = tacGenerator.getSymbol(baseName);
-            if (sym != null && sym.getOffset() >= 0) {
-                return sym.getOffset();
-            }
-            // Si no encuentra la base, podría ser un temporal con array
-            System.err.println("WARNING: Array access '" + variable + "' sin offset de base");
-            return 0;
-        }
-
-        // 4. Si es acceso a miembro (this.name), parsear
-        if (variable.contains(".")) {
-            String[] parts = variable.split("\\.");
-            if (parts.length == 2) {
-                Symbol sym = tacGenerator.getSymbol(parts[1]); // nombre del miembro
-                if (sym != null && sym.getOffset() >= 0) {
-                    return sym.getOffset();
-                }
-            }
-            System.err.println("WARNING: Member access '" + variable + "' sin offset");
-            return 0;
-        }
-
-        // 5. Variable normal del programa
-        Symbol sym = tacGenerator.getSymbol(variable);
-        if (sym != null && sym.getOffset() >= 0) {
-            return sym.getOffset();
-        }
-
-        // 6. Si no se encuentra, advertencia
-        System.err.println("WARNING: Variable '" + variable + "' sin offset, usando 0");
-        return 0;
+    private String getVariableAddress(String variable) {
+        return spillSlots.addressOf(variable);
     }
 
     /**
      * Carga una variable de memoria a registro
      */
     public void loadVariable(String variable, String register) {
-        int offset = getVariableOffset(variable);
-
         MIPSInstruction load = MIPSInstruction.loadStore(
                 MIPSInstruction.OpCode.LW,
                 register,
-                offset + "($sp)"
+                getVariableAddress(variable)
         );
 
         instructions.add(load);
@@ -291,16 +346,29 @@ public class RegisterAllocator {
         variableToRegister.put(variable, register);
     }
 
+    /**
+     * Vuelve a cargar una constante desalojada: li en vez de lw
+     */
+    private void rematerialize(String variable, String register) {
+        MIPSInstruction load = MIPSInstruction.li(register, constants.get(variable));
+        load.setComment("remat " + variable);
+        instructions.add(load);
+        rematerialized++;
+
+        RegisterDescriptor desc = registerState.get(register);
+        desc.assign(variable);
+        desc.setConstant(constants.get(variable));
+        variableToRegister.put(variable, register);
+    }
+
     /**
      * Guarda un registro en memoria
      */
     public void storeVariable(String register, String variable) {
-        int offset = getVariableOffset(variable);
-
         MIPSInstruction store = MIPSInstruction.loadStore(
                 MIPSInstruction.OpCode.SW,
                 register,
-                offset + "($sp)"
+                getVariableAddress(variable)
         );
         instructions.add(store);
 
@@ -330,7 +398,247 @@ public class RegisterAllocator {
         for (String reg : registerState.keySet()) {
             RegisterDescriptor desc = registerState.get(reg);
             if (desc.isDirty()) {
-                spillRegister(reg);
+                evictRegister(reg);
+            }
+        }
+    }
+
+    // ============================================
+    // LÍMITES DE BLOQUE
+    // ============================================
+    /**
+     * Antes de un salto: los valores modificados que siguen vivos vuelven a
+     * memoria, así valen en el destino. En el camino que no salta los
+     * registros siguen siendo válidos.
+     */
+    @Override
+    public void endBlock() {
+        for (String reg : registerState.keySet()) {
+            RegisterDescriptor desc = registerState.get(reg);
+            String var = desc.getVariable();
+            if (var == null || !desc.isDirty() || desc.isRematerializable()) {
+                continue;
+            }
+            if (liveness == null || (liveness.tracks(var) && isLive(var))) {
+                storeVariable(reg, var);
+            }
+        }
+    }
+
+    /**
+     * En una etiqueta a la que se puede llegar saltando: cada camino dejó
+     * sus valores vivos en memoria (endBlock), así que se guarda lo del
+     * camino que cae y se olvidan los registros. Los temporales vivos se
+     * recargan (o recalculan) en su siguiente uso.
+     */
+    @Override
+    public void beginBlock() {
+        if (liveness != null && onlyFallsThrough()) {
+            return;
+        }
+        endBlock();
+        for (String reg : registerState.keySet()) {
+            RegisterDescriptor desc = registerState.get(reg);
+            if (desc.getVariable() != null) {
+                variableToRegister.remove(desc.getVariable());
+                lastUse.remove(desc.getVariable());
+                desc.free();
+                pushFree(reg);
+            }
+        }
+        evictedLive.clear();
+        if (liveness != null && currentPosition() >= 0) {
+            for (String var : liveness.namesOf(liveness.getLiveOut(currentPosition()))) {
+                if (TACUtils.isTemporary(var)) {
+                    evictedLive.add(var);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifica si al bloque de la línea actual solo se llega desde la
+     * instrucción anterior, sin saltos: el estado de los registros es el
+     * de ese único camino
+     */
+    private boolean onlyFallsThrough() {
+        int pos = currentPosition();
+        ControlFlowGraph cfg = liveness.getCfg();
+        if (pos <= 0 || pos >= cfg.getCode().size()) {
+            return false;
+        }
+        int[] preds = cfg.getPredecessors(cfg.getBlockOf(pos));
+        return preds.length == 1 && preds[0] == cfg.getBlockOf(pos - 1);
+    }
+
+    // ============================================
+    // LIVENESS
+    // ============================================
+    @Override
+    public void setFunctionParameters(Map<String, List<String>> parameters) {
+        spillSlots.setParameters(parameters);
+    }
+
+    /**
+     * Conecta liveness y próximo uso para el código a traducir
+     */
+    @Override
+    public void prepare(List<TACInstruction> code, LivenessAnalysis liveness) {
+        constants = TACUtils.constantTemporaries(code);
+        setLiveness(liveness);
+        setNextUseTable(new NextUseTable(liveness));
+        computeLongLived(liveness);
+    }
+
+    /**
+     * Variables de larga vida: vivas en la cabecera de un lazo (sobreviven
+     * a la arista de retroceso) o vivas a través de llamadas cuando un $s
+     * sale más barato que guardarlas y recargarlas en cada llamada
+     *
+     * El análisis de liveness considera vivas en cada llamada a todas las
+     * variables del programa (la función llamada puede leerlas); aquí solo
+     * cuentan las que el código vuelve a leer después.
+     */
+    private void computeLongLived(LivenessAnalysis liveness) {
+        ControlFlowGraph cfg = liveness.getCfg();
+        List<TACInstruction> code = cfg.getCode();
+        Map<String, Integer> callerSaveCost = new HashMap<>();
+
+        for (int i = 0; i < code.size(); i++) {
+            if (!TACUtils.isCall(code.get(i))) {
+                continue;
+            }
+            BitSet across = liveness.getLiveOut(i);
+            int def = liveness.getDefId(i);
+            if (def >= 0) across.clear(def);
+
+            int weight = loopWeight(cfg.getLoopDepth(cfg.getBlockOf(i)));
+            for (String variable : liveness.namesOf(across)) {
+                if (liveness.isReadFrom(i + 1, variable)) {
+                    callerSaveCost.merge(variable, weight * callerSaveCost(variable), Integer::sum);
+                }
+            }
+        }
+
+        longLived = new HashSet<>();
+        for (ControlFlowGraph.Loop loop : cfg.getLoops()) {
+            int header = cfg.getBlockStart(loop.getHeader());
+            for (String variable : liveness.namesOf(liveness.getBlockLiveIn(loop.getHeader()))) {
+                if (liveness.isReadFrom(header, variable)) {
+                    longLived.add(variable);
+                }
+            }
+        }
+        for (Map.Entry<String, Integer> entry : callerSaveCost.entrySet()) {
+            if (entry.getValue() >= CALLEE_SAVE_COST) {
+                longLived.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Instrucciones por llamada para conservar un valor en $t: sw antes y
+     * lw después, o solo li si es una constante (no se guarda)
+     */
+    private int callerSaveCost(String variable) {
+        return constants.containsKey(variable) ? 1 : 2;
+    }
+
+    /**
+     * Peso de una llamada según la profundidad de lazos (10 por nivel)
+     */
+    private static int loopWeight(int depth) {
+        int weight = 1;
+        for (int d = 0; d < Math.min(depth, 4); d++) {
+            weight *= 10;
+        }
+        return weight;
+    }
+
+    /**
+     * Verifica si la variable tiene registro $s reservado por ser de larga vida
+     */
+    public boolean isLongLived(String variable) {
+        return longLived.contains(variable);
+    }
+
+    /**
+     * Variable del programa que no está en registro: su valor está en memoria
+     */
+    private boolean isInMemory(String variable) {
+        return liveness != null && liveness.tracks(variable) && !TACUtils.isTemporary(variable);
+    }
+
+    /**
+     * Conecta el resultado del análisis de variables vivas.
+     * La posición actual es la línea TAC que se está traduciendo.
+     */
+    public void setLiveness(LivenessAnalysis liveness) {
+        this.liveness = liveness;
+        spillSlots.setLiveness(liveness);
+    }
+
+    /**
+     * Conecta la tabla de próximo uso (requiere setLiveness con el mismo análisis)
+     */
+    public void setNextUseTable(NextUseTable nextUse) {
+        this.nextUse = nextUse;
+        this.liveness = nextUse.getLiveness();
+    }
+
+    /**
+     * Índice TAC de la instrucción actual
+     */
+    private int currentPosition() {
+        return currentLine - 1;
+    }
+
+    /**
+     * Verifica si la variable sigue viva después de la instrucción actual.
+     * Sin análisis (o fuera de rango) se asume viva.
+     */
+    private boolean isLive(String variable) {
+        if (liveness == null || variable == null) {
+            return true;
+        }
+        int pos = currentPosition();
+        if (pos < 0 || pos >= liveness.getCfg().getCode().size()) {
+            return true;
+        }
+        return liveness.isLiveOut(pos, variable);
+    }
+
+    /**
+     * Verifica si el valor hace falta: lo lee la instrucción actual o sigue vivo
+     */
+    private boolean isNeeded(String variable) {
+        if (isLive(variable)) {
+            return true;
+        }
+        return liveness.isLiveIn(currentPosition(), variable);
+    }
+
+    /**
+     * Libera sin guardar los registros cuyo valor ya está muerto.
+     * Se llama después de traducir cada instrucción TAC.
+     */
+    public void releaseDeadRegisters() {
+        if (liveness == null) {
+            return;
+        }
+        releaseDead(TEMP_REGISTERS);
+        releaseDead(SAVED_REGISTERS);
+    }
+
+    private void releaseDead(String[] registers) {
+        for (String reg : registers) {
+            RegisterDescriptor desc = registerState.get(reg);
+            String var = desc.getVariable();
+            if (var != null && liveness.tracks(var) && !isLive(var)) {
+                variableToRegister.remove(var);
+                lastUse.remove(var);
+                desc.free();
+                pushFree(reg);
             }
         }
     }
@@ -339,17 +647,58 @@ public class RegisterAllocator {
     // CONTEXT MANAGEMENT (para llamadas a función)
     // ============================================
     /**
-     * Guarda todos los registros $t antes de una llamada
+     * Prepara los registros $t para una llamada: la función llamada puede
+     * sobrescribirlos, así que todos quedan libres.
+     *
+     * - Solo se guardan los valores modificados que siguen vivos después de
+     *   la llamada o que ella puede leer (variables del programa); los
+     *   argumentos que mueren en la llamada no se guardan.
+     * - Los valores vivos se recargan en su próximo uso, no al regresar.
+     * - Los $s se preservan en la llamada: solo se escriben a memoria las
+     *   variables del programa modificadas (la función llamada puede leerlas).
      */
     public void saveTemporaries() {
         for (String reg : TEMP_REGISTERS) {
             RegisterDescriptor desc = registerState.get(reg);
-            if (desc.getVariable() != null && desc.isDirty()) {
-                spillRegister(reg);
+            String var = desc.getVariable();
+            if (var == null) {
+                continue;
+            }
+            // Los auxiliares del generador (constantes, direcciones) no son
+            // valores del TAC: se liberan sin guardarlos ni recargarlos
+            boolean tracked = liveness == null || liveness.tracks(var);
+            boolean live = tracked && isLive(var);
+            // La función llamada puede leer las variables globales
+            boolean stored = live || (tracked && isGlobal(var) && isNeeded(var));
+            if (stored && desc.isDirty() && !desc.isRematerializable()) {
+                storeVariable(reg, var);
+                instructions.get(instructions.size() - 1).setComment("save " + var);
+            }
+            if (live) {
+                evictedLive.add(var);
+            }
+            variableToRegister.remove(var);
+            lastUse.remove(var);
+            desc.free();
+            pushFree(reg);
+        }
+        for (String reg : SAVED_REGISTERS) {
+            RegisterDescriptor desc = registerState.get(reg);
+            String var = desc.getVariable();
+            if (var != null && desc.isDirty() && isGlobal(var)) {
+                storeVariable(reg, var);
             }
         }
     }
 
+    /**
+     * Variable del programa con dirección fija en $gp: la función llamada
+     * puede leerla
+     */
+    private boolean isGlobal(String variable) {
+        return !TACUtils.isTemporary(variable) && !spillSlots.isLocal(variable);
+    }
+
     /**
      * Guarda todos los registros $s (caller-saved en convención MIPS)
      */
@@ -380,22 +729,63 @@ public class RegisterAllocator {
     }
 
     /**
-     * Reinicia el estado del allocator (para nueva función)
+     * Entrega las instrucciones pendientes (spills, loads) y las limpia,
+     * para que el generador las intercale en el punto correcto
+     */
+    public List<MIPSInstruction> drainInstructions() {
+        List<MIPSInstruction> pending = new ArrayList<>(instructions);
+        instructions.clear();
+        return pending;
+    }
+
+    /**
+     * Reinicia el estado del allocator (para nueva función).
+     * La línea TAC es global al programa y los valores desalojados siguen
+     * en memoria, así que no se reinician.
      */
     public void reset() {
         variableToRegister.clear();
         lastUse.clear();
+        evictedLive.clear();
         freeRegisters.clear();
+        freeSavedRegisters.clear();
+        usedSavedRegisters.clear();
         instructions.clear();
-        tempOffsets.clear();
-        currentLine = 0;
-        nextTempOffset = 1000;
 
         // Reinicializar registros
         for (int i = TEMP_REGISTERS.length - 1; i >= 0; i--) {
             freeRegisters.push(TEMP_REGISTERS[i]);
             registerState.get(TEMP_REGISTERS[i]).free();
         }
+        for (int i = SAVED_REGISTERS.length - 1; i >= 0; i--) {
+            freeSavedRegisters.push(SAVED_REGISTERS[i]);
+            registerState.get(SAVED_REGISTERS[i]).free();
+        }
+    }
+
+    @Override
+    public void beginFrame(String function) {
+        spillSlots.beginFrame(function);
+    }
+
+    @Override
+    public int getFrameSize() {
+        return spillSlots.frameSize();
+    }
+
+    /**
+     * Registros $s usados desde el último reset (en orden)
+     */
+    @Override
+    public List<String> getUsedSavedRegisters() {
+        return new ArrayList<>(usedSavedRegisters);
+    }
+
+    /**
+     * Valores recalculados con li en vez de recargarse de memoria
+     */
+    public int getRematerializedCount() {
+        return rematerialized;
     }
 
     /**
@@ -407,6 +797,9 @@ public class RegisterAllocator {
             RegisterDescriptor desc = registerState.get(reg);
             System.out.println(reg + ": " + desc);
         }
+        for (String reg : usedSavedRegisters) {
+            System.out.println(reg + ": " + registerState.get(reg));
+        }
         System.out.println("Variables asignadas: " + variableToRegister);
         System.out.println("Registros libres: " + freeRegisters.size());
     }
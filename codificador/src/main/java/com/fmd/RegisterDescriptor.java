@@ -7,6 +7,7 @@ package com.fmd;
  * - ¿Qué variable/temporal contiene?
  * - ¿Está "dirty" (modificado sin guardar en memoria)?
  * - ¿Está libre o en uso?
+ * - ¿Su valor es una constante que se recalcula en vez de desalojarse?
  *
  * BASADO EN: Dragon Book, Section 8.6 - Register Descriptors
  */
@@ -16,6 +17,7 @@ public class RegisterDescriptor {
     private String variable;            // Variable actualmente almacenada (null si libre)
     private boolean dirty;              // true si modificado y no guardado en memoria
     private boolean locked;             // true si no puede ser desalojado (ej: en uso en instrucción)
+    private Integer constant;           // valor recalculable con li (null si no lo es)
 
     // ============================================
     // CONSTRUCTOR
@@ -38,6 +40,7 @@ public class RegisterDescriptor {
         this.variable = variable;
         this.dirty = false; // recién asignado, no modificado aún
         this.locked = false;
+        this.constant = null;
     }
 
     /**
@@ -47,6 +50,7 @@ public class RegisterDescriptor {
         this.variable = null;
         this.dirty = false;
         this.locked = false;
+        this.constant = null;
     }
 
     /**
@@ -89,6 +93,29 @@ public class RegisterDescriptor {
         return dirty;
     }
 
+    // ============================================
+    // REMATERIALIZACIÓN
+    // ============================================
+
+    /**
+     * Registra que el valor es una constante: al desalojarlo no se guarda
+     * y en el siguiente uso se vuelve a cargar con li
+     */
+    public void setConstant(Integer constant) {
+        this.constant = constant;
+    }
+
+    /**
+     * Constante que guarda el registro (null si el valor no es recalculable)
+     */
+    public Integer getConstant() {
+        return constant;
+    }
+
+    public boolean isRematerializable() {
+        return constant != null;
+    }
+
     // ============================================
     // LOCKING (prevenir desalojo)
     // ============================================
@@ -151,6 +178,7 @@ public class RegisterDescriptor {
         this.variable = other.variable;
         this.dirty = other.dirty;
         this.locked = other.locked;
+        this.constant = other.constant;
     }
 
     /**
@@ -178,6 +206,10 @@ public class RegisterDescriptor {
             sb.append(" [LOCKED]");
         }
 
+        if (constant != null) {
+            sb.append(" [=").append(constant).append("]");
+        }
+
         return sb.toString();
     }
 
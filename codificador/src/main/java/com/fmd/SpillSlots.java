@@ -0,0 +1,381 @@
+package com.fmd;
+
+import com.fmd.modules.Symbol;
+import com.fmd.modules.TACInstruction;
+import java.util.*;
+
+/**
+ * Direcciones de memoria para variables y temporales desalojados
+ *
+ * - Las variables globales usan el offset de la tabla de símbolos,
+ *   relativo a $gp: la dirección no depende del frame en que se use.
+ * - Los temporales (t1, t2, ...) y las variables locales y parámetros de
+ *   una función reciben un slot del frame actual la primera vez que se
+ *   guardan, relativo a $fp: -4($fp), -8($fp), ... Cada activación tiene
+ *   su copia, así una llamada recursiva no pisa los valores del llamador.
+ *
+ * La tabla de símbolos no distingue locales de globales, así que se
+ * clasifican sobre el TAC: una variable es local si no aparece en el código
+ * global, ni como base de un arreglo o miembro, ni en dos funciones
+ * anidadas, y en cada función que la usa se asigna (o es parámetro) antes
+ * de cada lectura en todos los caminos. Lo demás se trata como global. Sin
+ * análisis de liveness todas las variables simples se tratan como locales.
+ *
+ * Dos temporales cuyos rangos de vida no se cruzan comparten slot (coloreo
+ * de slots), así el frame crece con los temporales vivos al mismo tiempo y
+ * no con el total. Sin análisis de liveness cada temporal tiene su slot, y
+ * cada variable local tiene siempre el suyo.
+ *
+ * Cada función tiene su frame; el código global tiene el suyo y lo conserva
+ * aunque haya funciones en medio. Compartido por todas las estrategias.
+ */
+public class SpillSlots {
+
+    private static final String FRAME_BASE = "$fp";
+    private static final String STATIC_BASE = "$gp";
+
+    // Referencia a tabla de símbolos (para offsets)
+    private final TACGenerator tacGenerator;
+
+    // Líneas TAC donde cada temporal está vivo (null: sin análisis)
+    private Map<String, BitSet> ranges;
+
+    // Parámetros de cada función y variables con slot en el frame
+    // (null: sin análisis, toda variable simple es local)
+    private Map<String, List<String>> parameters;
+    private Set<String> locals;
+
+    // Frames por función (null = código global)
+    private final Map<String, Frame> frames;
+    private Frame frame;
+
+    /**
+     * Slots de un frame y los temporales que ocupan cada uno
+     */
+    private static final class Frame {
+        final Map<String, Integer> slotOf = new HashMap<>();
+        final List<BitSet> occupied = new ArrayList<>();   // slot -> unión de rangos
+    }
+
+    public SpillSlots(TACGenerator tacGenerator) {
+        this.tacGenerator = tacGenerator;
+        this.frames = new HashMap<>();
+        this.frame = new Frame();
+        this.parameters = Collections.emptyMap();
+        frames.put(null, frame);
+    }
+
+    /**
+     * Parámetros de cada función, en orden (antes de setLiveness)
+     */
+    public void setParameters(Map<String, List<String>> parameters) {
+        this.parameters = parameters;
+    }
+
+    // ============================================
+    // RANGOS DE VIDA
+    // ============================================
+    /**
+     * Calcula dónde está vivo cada temporal: entra, sale o se define en la
+     * línea. El valor guardado solo se lee dentro de ese rango.
+     */
+    public void setLiveness(LivenessAnalysis liveness) {
+        ranges = new HashMap<>();
+        int lines = liveness.getCfg().getCode().size();
+        for (int i = 0; i < lines; i++) {
+            BitSet touched = liveness.getLiveIn(i);
+            touched.or(liveness.getLiveOut(i));
+            int def = liveness.getDefId(i);
+            if (def >= 0) {
+                touched.set(def);
+            }
+            for (int id = touched.nextSetBit(0); id >= 0; id = touched.nextSetBit(id + 1)) {
+                String variable = liveness.getVariable(id);
+                if (TACUtils.isTemporary(variable)) {
+                    ranges.computeIfAbsent(variable, k -> new BitSet()).set(i);
+                }
+            }
+        }
+        locals = findLocals(liveness.getCfg());
+    }
+
+    // ============================================
+    // VARIABLES LOCALES
+    // ============================================
+    /**
+     * Variables del programa que pueden vivir en el frame de su función
+     */
+    private Set<String> findLocals(ControlFlowGraph cfg) {
+        List<TACInstruction> code = cfg.getCode();
+        Set<String> global = new HashSet<>();
+        Map<String, Set<String>> functionsOf = new HashMap<>();
+        Map<String, int[]> spans = new HashMap<>();
+
+        for (int i = 0; i < code.size(); i++) {
+            TACInstruction tac = code.get(i);
+            String function = cfg.getFunctionOf(cfg.getBlockOf(i));
+            if (function != null) {
+                spans.putIfAbsent(function, new int[]{i, i});
+                spans.get(function)[1] = i;
+            }
+            for (String operand : new String[]{tac.getArg1(), tac.getArg2(), tac.getResult()}) {
+                addAccessBase(operand, global);
+            }
+            if (tac.getParams() != null) {
+                for (String param : tac.getParams()) {
+                    addAccessBase(param, global);
+                }
+            }
+            for (String variable : referencedVariables(tac)) {
+                if (function == null) {
+                    global.add(variable);
+                } else {
+                    functionsOf.computeIfAbsent(variable, k -> new HashSet<>()).add(function);
+                }
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : parameters.entrySet()) {
+            if (spans.containsKey(entry.getKey())) {
+                for (String param : entry.getValue()) {
+                    functionsOf.computeIfAbsent(param, k -> new HashSet<>()).add(entry.getKey());
+                }
+            }
+        }
+
+        // Una función anidada puede leer o escribir las locales de la que la contiene
+        for (Map.Entry<String, Set<String>> entry : functionsOf.entrySet()) {
+            for (String f : entry.getValue()) {
+                for (String g : entry.getValue()) {
+                    int[] outer = spans.get(f);
+                    int[] inner = spans.get(g);
+                    if (!f.equals(g) && outer[0] <= inner[0] && inner[1] <= outer[1]) {
+                        global.add(entry.getKey());
+                    }
+                }
+            }
+        }
+
+        for (int b = 0; b < cfg.getBlockCount(); b++) {
+            String function = cfg.getFunctionOf(b);
+            if (function != null) {
+                global.addAll(readBeforeAssigned(cfg, function));
+            }
+        }
+
+        Set<String> result = new HashSet<>(functionsOf.keySet());
+        result.removeAll(global);
+        result.removeIf(TACUtils::isTemporary);
+        return result;
+    }
+
+    /**
+     * Variables que la función puede leer antes de asignarlas en algún
+     * camino desde su entrada (análisis hacia adelante de asignación segura)
+     */
+    private Set<String> readBeforeAssigned(ControlFlowGraph cfg, String function) {
+        List<TACInstruction> code = cfg.getCode();
+        int[] order = cfg.getReversePostOrder();
+        Map<Integer, Set<String>> out = new HashMap<>();   // sin entrada: todas
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int b : order) {
+                if (!function.equals(cfg.getFunctionOf(b))) continue;
+                Set<String> assigned = assignedOnEntry(cfg, function, b, out);
+                if (assigned == null) continue;
+                for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                    String def = TACUtils.getDefinition(code.get(i));
+                    if (def != null) assigned.add(def);
+                }
+                if (!assigned.equals(out.get(b))) {
+                    out.put(b, assigned);
+                    changed = true;
+                }
+            }
+        }
+
+        Set<String> unassigned = new HashSet<>();
+        for (int b : order) {
+            if (!function.equals(cfg.getFunctionOf(b))) continue;
+            Set<String> assigned = assignedOnEntry(cfg, function, b, out);
+            if (assigned == null) continue;
+            for (int i = cfg.getBlockStart(b); i < cfg.getBlockEnd(b); i++) {
+                for (String use : TACUtils.getUses(code.get(i))) {
+                    if (!assigned.contains(use)) unassigned.add(use);
+                }
+                String def = TACUtils.getDefinition(code.get(i));
+                if (def != null) assigned.add(def);
+            }
+        }
+        return unassigned;
+    }
+
+    /**
+     * Asignadas al entrar al bloque: los parámetros en la entrada de la
+     * función, la intersección de los predecesores en el resto (null si
+     * ningún predecesor se calculó todavía)
+     */
+    private Set<String> assignedOnEntry(ControlFlowGraph cfg, String function, int block,
+                                        Map<Integer, Set<String>> out) {
+        TACInstruction first = cfg.getCode().get(cfg.getBlockStart(block));
+        if (first.getOp() == TACInstruction.OpType.LABEL && function.equals(first.getLabel())) {
+            return new HashSet<>(parameters.getOrDefault(function, Collections.emptyList()));
+        }
+        Set<String> assigned = null;
+        for (int p : cfg.getPredecessors(block)) {
+            Set<String> pred = out.get(p);
+            if (pred == null || !function.equals(cfg.getFunctionOf(p))) continue;
+            if (assigned == null) {
+                assigned = new HashSet<>(pred);
+            } else {
+                assigned.retainAll(pred);
+            }
+        }
+        return assigned;
+    }
+
+    private static Set<String> referencedVariables(TACInstruction tac) {
+        Set<String> variables = new HashSet<>(TACUtils.getUses(tac));
+        String def = TACUtils.getDefinition(tac);
+        if (def != null) variables.add(def);
+        return variables;
+    }
+
+    /**
+     * Base de un acceso a arreglo o miembro: su dirección sale de la tabla
+     * de símbolos, así que la variable queda global
+     */
+    private static void addAccessBase(String operand, Set<String> out) {
+        if (operand == null || operand.startsWith("\"")) {
+            return;
+        }
+        int bracket = operand.indexOf('[');
+        int dot = operand.indexOf('.');
+        if (bracket > 0) {
+            out.add(operand.substring(0, bracket));
+        } else if (dot > 0) {
+            out.add(operand.substring(0, dot));
+            out.add(operand.substring(dot + 1));
+        }
+    }
+
+    // ============================================
+    // FRAMES
+    // ============================================
+    /**
+     * Cambia al frame de la función (null: código global)
+     */
+    public void beginFrame(String function) {
+        frame = frames.computeIfAbsent(function, k -> new Frame());
+    }
+
+    /**
+     * Bytes que ocupan los slots del frame actual
+     */
+    public int frameSize() {
+        return 4 * frame.occupied.size();
+    }
+
+    // ============================================
+    // DIRECCIONES
+    // ============================================
+    /**
+     * Dirección de memoria de una variable: offset(base)
+     */
+    public String addressOf(String variable) {
+        if (TACUtils.isTemporary(variable) || isLocal(variable)) {
+            return (-4 * (slotOf(variable) + 1)) + "(" + FRAME_BASE + ")";
+        }
+        return staticOffset(variable) + "(" + STATIC_BASE + ")";
+    }
+
+    /**
+     * Verifica si la variable del programa tiene slot en el frame
+     */
+    public boolean isLocal(String variable) {
+        if (locals != null) {
+            return locals.contains(variable);
+        }
+        return TACUtils.isVariable(variable);
+    }
+
+    /**
+     * Slot del valor en el frame actual: el primero cuyos ocupantes no
+     * se cruzan con su rango de vida, o uno nuevo
+     */
+    private int slotOf(String variable) {
+        Integer slot = frame.slotOf.get(variable);
+        if (slot != null) {
+            return slot;
+        }
+
+        BitSet range = ranges != null ? ranges.get(variable) : null;
+        int chosen = -1;
+        if (range != null) {
+            for (int s = 0; s < frame.occupied.size(); s++) {
+                BitSet occupied = frame.occupied.get(s);
+                if (occupied != null && !occupied.intersects(range)) {
+                    chosen = s;
+                    break;
+                }
+            }
+        }
+        if (chosen < 0) {
+            chosen = frame.occupied.size();
+            frame.occupied.add(range != null ? new BitSet() : null);
+        }
+        if (range != null) {
+            frame.occupied.get(chosen).or(range);
+        }
+        frame.slotOf.put(variable, chosen);
+        return chosen;
+    }
+
+    /**
+     * Offset estático de una variable del programa
+     * Usa la tabla de símbolos del TAC que ya tiene los offsets calculados
+     */
+    private int staticOffset(String variable) {
+        // 1. Si es string literal, NO debería llegar aquí
+        if (variable.startsWith("\"")) {
+            System.err.println("ERROR: String literal '" + variable + "' no debe necesitar offset");
+            return -1;
+        }
+
+        // 2. Si es acceso a array (numbers[0], numbers[t54]), parsear base
+        if (variable.contains("[")) {
+            String baseName = variable.substring(0, variable.indexOf('['));
+            Symbol sym = tacGenerator.getSymbol(baseName);
+            if (sym != null && sym.getOffset() >= 0) {
+                return sym.getOffset();
+            }
+            // Si no encuentra la base, podría ser un temporal con array
+            System.err.println("WARNING: Array access '" + variable + "' sin offset de base");
+            return 0;
+        }
+
+        // 3. Si es acceso a miembro (this.name), parsear
+        if (variable.contains(".")) {
+            String[] parts = variable.split("\\.");
+            if (parts.length == 2) {
+                Symbol sym = tacGenerator.getSymbol(parts[1]); // nombre del miembro
+                if (sym != null && sym.getOffset() >= 0) {
+                    return sym.getOffset();
+                }
+            }
+            System.err.println("WARNING: Member access '" + variable + "' sin offset");
+            return 0;
+        }
+
+        // 4. Variable normal del programa
+        Symbol sym = tacGenerator.getSymbol(variable);
+        if (sym != null && sym.getOffset() >= 0) {
+            return sym.getOffset();
+        }
+
+        // 5. Si no se encuentra, advertencia
+        System.err.println("WARNING: Variable '" + variable + "' sin offset, usando 0");
+        return 0;
+    }
+}
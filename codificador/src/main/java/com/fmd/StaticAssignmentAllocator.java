@@ -0,0 +1,437 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.TACInstruction;
+
+import java.util.*;
+
+/**
+ * Base para estrategias que deciden la ubicación de cada variable antes
+ * de generar código (linear scan, coloreo de grafos)
+ *
+ * Durante la generación solo se consulta la ubicación ya decidida:
+ * - Variable en registro: se usa el registro
+ * - Variable en memoria: se carga/guarda con los registros scratch $t8/$t9
+ *
+ * Las subclases indican dónde vive cada variable en cada posición TAC.
+ * Las variables del programa que reciben registro se cargan al entrar a
+ * la función (o al programa) y se guardan en el epílogo con flushAll().
+ *
+ * Los valores que el código vuelve a leer después de una llamada van a
+ * registros $s (la función llamada los preserva y el prólogo guarda los
+ * usados). Las globales leídas después de una llamada quedan en memoria:
+ * la función llamada puede modificarlas.
+ */
+public abstract class StaticAssignmentAllocator implements RegisterAllocationStrategy {
+
+    // ============================================
+    // REGISTROS DISPONIBLES
+    // ============================================
+    protected static final String[] REGISTERS = {
+            "$t0", "$t1", "$t2", "$t3", "$t4", "$t5", "$t6", "$t7"
+    };
+
+    protected static final String[] SAVED_REGISTERS = {
+            "$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7"
+    };
+
+    protected static final String[] SCRATCH = {"$t8", "$t9"};
+
+    // ============================================
+    // ESTADO DE GENERACIÓN
+    // ============================================
+    protected final SpillSlots spillSlots;
+    protected LivenessAnalysis liveness;
+    private List<TACInstruction> code;
+    private BitSet entryStarts;                      // posiciones de entrada a función
+    private Map<String, List<String>> parameters;    // función -> parámetros (los liga el generador)
+    private final List<MIPSInstruction> instructions;
+    private int currentLine;                         // línea TAC actual
+    private int scratchNext;                         // siguiente scratch a usar
+    private final Map<String, String> holder;        // registro -> variable en la instrucción actual
+    private final Map<String, String> dirty;         // registro -> variable modificada
+    private Map<String, Integer> constants;          // temporales que se recalculan con li
+    private final Set<String> usedSaved;             // $s usados desde el último reset
+    private int rematerialized;
+
+    protected StaticAssignmentAllocator(TACGenerator tacGenerator) {
+        this.spillSlots = new SpillSlots(tacGenerator);
+        this.instructions = new ArrayList<>();
+        this.holder = new HashMap<>();
+        this.dirty = new HashMap<>();
+        this.usedSaved = new TreeSet<>();
+        this.constants = Collections.emptyMap();
+        this.parameters = Collections.emptyMap();
+        this.currentLine = 0;
+    }
+
+    // ============================================
+    // ANÁLISIS PREVIO
+    // ============================================
+    @Override
+    public void setFunctionParameters(Map<String, List<String>> parameters) {
+        this.parameters = parameters;
+        spillSlots.setParameters(parameters);
+    }
+
+    /**
+     * La ubicación se decide sobre un liveness en el que las llamadas no
+     * leen las variables del programa: las globales modificadas se guardan
+     * antes de cada llamada (saveTemporaries) y las locales no son visibles
+     * para la función llamada
+     */
+    @Override
+    public void prepare(List<TACInstruction> code, LivenessAnalysis liveness) {
+        ControlFlowGraph cfg = liveness.getCfg();
+        this.code = code;
+        this.liveness = new LivenessAnalysis(cfg, false);
+        this.constants = TACUtils.constantTemporaries(code);
+        spillSlots.setLiveness(liveness);
+
+        entryStarts = new BitSet();
+        for (int b : cfg.getEntryBlocks()) {
+            entryStarts.set(cfg.getBlockStart(b));
+        }
+
+        assign(code, this.liveness);
+    }
+
+    /**
+     * Decide la ubicación de cada variable
+     */
+    protected abstract void assign(List<TACInstruction> code, LivenessAnalysis liveness);
+
+    /**
+     * IDs de los valores que el código vuelve a leer después de alguna
+     * llamada (no basta con estar vivos: las variables del programa siguen
+     * vivas hasta la salida aunque nadie las lea)
+     */
+    protected BitSet readAfterCalls(List<TACInstruction> code, LivenessAnalysis liveness) {
+        BitSet result = new BitSet();
+        for (int i = 0; i < code.size(); i++) {
+            if (!TACUtils.isCall(code.get(i))) {
+                continue;
+            }
+            BitSet across = liveness.getLiveOut(i);
+            int def = liveness.getDefId(i);
+            if (def >= 0) across.clear(def);
+            across.andNot(result);
+            for (int id = across.nextSetBit(0); id >= 0; id = across.nextSetBit(id + 1)) {
+                if (liveness.isReadFrom(i + 1, liveness.getVariable(id))) {
+                    result.set(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Variable del programa con dirección fija en $gp: la función llamada
+     * puede leerla y modificarla
+     */
+    protected boolean isGlobal(String variable) {
+        return !TACUtils.isTemporary(variable) && !spillSlots.isLocal(variable);
+    }
+
+    // ============================================
+    // UBICACIÓN (definida por la subclase)
+    // ============================================
+    /**
+     * Verifica si la estrategia asignó ubicación a la variable
+     */
+    protected abstract boolean isAllocated(String variable);
+
+    /**
+     * Registro de la variable en la posición TAC dada (null = en memoria)
+     */
+    protected abstract String registerOf(String variable, int position);
+
+    /**
+     * Verifica si cada definición debe escribirse también a memoria
+     */
+    protected abstract boolean storesOnDefinition(String variable);
+
+    // ============================================
+    // CONSULTA DURANTE LA GENERACIÓN
+    // ============================================
+    protected int currentPosition() {
+        return currentLine - 1;
+    }
+
+    private String nextScratch() {
+        String reg = SCRATCH[scratchNext % SCRATCH.length];
+        scratchNext++;
+        return reg;
+    }
+
+    @Override
+    public String getReg(String variable) {
+        if (!isAllocated(variable)) {
+            // Nombre sin ubicación (temporal interno del generador)
+            String reg = nextScratch();
+            holder.put(reg, variable);
+            return reg;
+        }
+
+        String reg = registerOf(variable, currentPosition());
+        if (reg != null) {
+            holder.put(reg, variable);
+            noteSaved(reg);
+            return reg;
+        }
+
+        String scratch = nextScratch();
+        MIPSInstruction load;
+        if (constants.containsKey(variable)) {
+            // Constante: se recalcula, nunca se guardó
+            load = MIPSInstruction.li(scratch, constants.get(variable));
+            load.setComment("remat " + variable);
+            rematerialized++;
+        } else {
+            load = MIPSInstruction.loadStore(
+                    MIPSInstruction.OpCode.LW,
+                    scratch,
+                    spillSlots.addressOf(variable)
+            );
+            load.setComment("reload " + variable);
+        }
+        instructions.add(load);
+        holder.put(scratch, variable);
+        return scratch;
+    }
+
+    @Override
+    public String getRegForResult(String variable) {
+        if (!isAllocated(variable)) {
+            String reg = nextScratch();
+            holder.put(reg, variable);
+            return reg;
+        }
+
+        String reg = registerOf(variable, currentPosition());
+        if (reg == null) {
+            // El resultado se escribe después de leer las fuentes
+            reg = SCRATCH[0];
+        }
+        holder.put(reg, variable);
+        noteSaved(reg);
+        return reg;
+    }
+
+    private void noteSaved(String register) {
+        if (Arrays.asList(SAVED_REGISTERS).contains(register)) {
+            usedSaved.add(register);
+        }
+    }
+
+    /**
+     * Los valores en memoria se escriben a memoria en cada definición,
+     * salvo las constantes que se recalculan en cada uso
+     */
+    @Override
+    public void markDirty(String register) {
+        String variable = holder.get(register);
+        if (variable == null || !isAllocated(variable) || constants.containsKey(variable)) {
+            return;
+        }
+
+        if (registerOf(variable, currentPosition()) == null || storesOnDefinition(variable)) {
+            MIPSInstruction store = MIPSInstruction.loadStore(
+                    MIPSInstruction.OpCode.SW,
+                    register,
+                    spillSlots.addressOf(variable)
+            );
+            store.setComment("spill " + variable);
+            instructions.add(store);
+        } else {
+            dirty.put(register, variable);
+        }
+    }
+
+    @Override
+    public void freeRegister(String register) {
+        holder.remove(register);
+    }
+
+    /**
+     * La asignación es estática: no hay nada que liberar. Solo se cargan
+     * las variables del programa después de la etiqueta de una función.
+     */
+    @Override
+    public void releaseDeadRegisters() {
+        int position = currentPosition();
+        if (isEntry(position) && code.get(position).getOp() == TACInstruction.OpType.LABEL) {
+            loadLiveIn(position);
+        }
+    }
+
+    /**
+     * La ubicación de cada valor depende solo de la línea y los desalojados
+     * se guardan en cada definición: no hay estado que reconciliar
+     */
+    @Override
+    public void endBlock() {
+    }
+
+    @Override
+    public void beginBlock() {
+    }
+
+    /**
+     * Antes de una llamada: la función llamada puede leer las globales, así
+     * que las modificadas en registro se guardan. Lo que queda en $t no se
+     * vuelve a leer después de la llamada (lo que sí se lee está en $s o en
+     * memoria), así que deja de estar pendiente de guardar.
+     */
+    @Override
+    public void saveTemporaries() {
+        int position = Math.max(currentPosition(), 0);
+        Iterator<Map.Entry<String, String>> it = dirty.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            String variable = entry.getValue();
+            if (!entry.getKey().equals(registerOf(variable, position))) {
+                continue;
+            }
+            if (isGlobal(variable)) {
+                MIPSInstruction store = MIPSInstruction.loadStore(
+                        MIPSInstruction.OpCode.SW,
+                        entry.getKey(),
+                        spillSlots.addressOf(variable)
+                );
+                store.setComment("save " + variable);
+                instructions.add(store);
+            }
+            if (!Arrays.asList(SAVED_REGISTERS).contains(entry.getKey())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Guarda las variables del programa que quedaron modificadas en registro
+     * y que siguen en ese registro en la posición actual
+     */
+    @Override
+    public void flushAll() {
+        int position = Math.max(currentPosition(), 0);
+        for (Map.Entry<String, String> entry : dirty.entrySet()) {
+            String variable = entry.getValue();
+            if (TACUtils.isTemporary(variable)
+                    || !entry.getKey().equals(registerOf(variable, position))) {
+                continue;
+            }
+            MIPSInstruction store = MIPSInstruction.loadStore(
+                    MIPSInstruction.OpCode.SW,
+                    entry.getKey(),
+                    spillSlots.addressOf(variable)
+            );
+            store.setComment("spill " + variable);
+            instructions.add(store);
+        }
+        dirty.clear();
+    }
+
+    @Override
+    public void advanceLine() {
+        currentLine++;
+        scratchNext = 0;
+        holder.clear();
+
+        int position = currentPosition();
+        if (isEntry(position)) {
+            // Nueva función: lo modificado en la anterior ya se guardó
+            dirty.clear();
+            if (code.get(position).getOp() != TACInstruction.OpType.LABEL) {
+                loadLiveIn(position);
+            }
+        }
+    }
+
+    // ============================================
+    // ENTRADA A FUNCIONES
+    // ============================================
+    private boolean isEntry(int position) {
+        return entryStarts != null && position >= 0 && entryStarts.get(position);
+    }
+
+    /**
+     * Carga en su registro cada variable del programa que la función lee
+     * antes de asignarla (los parámetros los liga el generador desde $a)
+     */
+    private void loadLiveIn(int position) {
+        TACInstruction first = code.get(position);
+        List<String> bound = first.getOp() == TACInstruction.OpType.LABEL
+                ? parameters.getOrDefault(first.getLabel(), Collections.emptyList())
+                : Collections.emptyList();
+        BitSet live = liveness.getLiveIn(position);
+        for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+            String variable = liveness.getVariable(id);
+            if (TACUtils.isTemporary(variable) || !isAllocated(variable)
+                    || bound.contains(variable) || !liveness.isReadFrom(position, variable)) {
+                continue;
+            }
+            String reg = registerOf(variable, position);
+            if (reg == null) {
+                continue;
+            }
+            noteSaved(reg);
+            MIPSInstruction load = MIPSInstruction.loadStore(
+                    MIPSInstruction.OpCode.LW,
+                    reg,
+                    spillSlots.addressOf(variable)
+            );
+            load.setComment("load " + variable);
+            instructions.add(load);
+        }
+    }
+
+    /**
+     * La posición TAC es global al programa: no se reinicia por función
+     */
+    @Override
+    public void reset() {
+        instructions.clear();
+        holder.clear();
+        dirty.clear();
+        usedSaved.clear();
+        scratchNext = 0;
+    }
+
+    @Override
+    public void beginFrame(String function) {
+        spillSlots.beginFrame(function);
+    }
+
+    @Override
+    public int getFrameSize() {
+        return spillSlots.frameSize();
+    }
+
+    /**
+     * Valores recalculados con li en vez de recargarse de memoria
+     */
+    public int getRematerializedCount() {
+        return rematerialized;
+    }
+
+    /**
+     * Registros $s usados desde el último reset (el prólogo los guarda)
+     */
+    @Override
+    public List<String> getUsedSavedRegisters() {
+        return new ArrayList<>(usedSaved);
+    }
+
+    @Override
+    public List<MIPSInstruction> getInstructions() {
+        return instructions;
+    }
+
+    @Override
+    public List<MIPSInstruction> drainInstructions() {
+        List<MIPSInstruction> pending = new ArrayList<>(instructions);
+        instructions.clear();
+        return pending;
+    }
+}
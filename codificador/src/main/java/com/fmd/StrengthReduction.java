@@ -0,0 +1,162 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+import com.fmd.modules.Register;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Reducción de Fuerza para multiplicación y división por constantes
+ *
+ * mul y div usan HI/LO y toman varios ciclos; con constantes se reemplazan
+ * por desplazamientos y sumas de un ciclo:
+ *
+ *   x * 2^k               ->  sll
+ *   x * (2^j ± 1) * 2^k   ->  sll ; add/sub ; sll
+ *   x / 2^k  (con signo)  ->  sra ; srl ; add ; sra
+ *
+ * La división con signo redondea hacia cero, así que a los negativos se
+ * les suma 2^k - 1 antes del desplazamiento aritmético.
+ *
+ * Cada secuencia usa a lo sumo un registro temporal. Si la constante no
+ * tiene una forma conveniente se devuelve null y se emite mul/div.
+ *
+ * BASADO EN: Warren, "Hacker's Delight", Sections 8-4 y 10-1
+ */
+public final class StrengthReduction {
+
+    private static final String ZERO = Register.ZERO.getName();
+
+    private StrengthReduction() {
+    }
+
+    // ============================================
+    // MULTIPLICACIÓN
+    // ============================================
+    /**
+     * Instrucciones para rd = rs * c
+     *
+     * @param temp entrega un registro temporal solo si la secuencia lo necesita
+     * @return null si conviene mantener mul
+     */
+    public static List<MIPSInstruction> multiply(String rd, String rs, int c, Supplier<String> temp) {
+        List<MIPSInstruction> code = new ArrayList<>();
+        if (c == 0) {
+            code.add(MIPSInstruction.li(rd, 0));
+            return code;
+        }
+        if (c == Integer.MIN_VALUE) {
+            code.add(MIPSInstruction.shift(OpCode.SLL, rd, rs, 31));
+            return code;
+        }
+
+        boolean negative = c < 0;
+        int m = Math.abs(c);
+        int k = Integer.numberOfTrailingZeros(m);
+        m >>>= k;
+
+        if (m == 1) {
+            // 2^k
+            if (k == 0) {
+                code.add(MIPSInstruction.move(rd, rs));
+            } else {
+                code.add(MIPSInstruction.shift(OpCode.SLL, rd, rs, k));
+            }
+        } else {
+            // (2^j ± 1) * 2^k
+            OpCode combine;
+            int j;
+            if (isPowerOfTwo(m - 1)) {
+                combine = OpCode.ADD;
+                j = log2(m - 1);
+            } else if (isPowerOfTwo(m + 1)) {
+                combine = OpCode.SUB;
+                j = log2(m + 1);
+            } else {
+                return null;
+            }
+            String t = temp.get();
+            code.add(MIPSInstruction.shift(OpCode.SLL, t, rs, j));
+            if (k == 0) {
+                code.add(MIPSInstruction.typeR(combine, rd, t, rs));
+            } else {
+                code.add(MIPSInstruction.typeR(combine, t, t, rs));
+                code.add(MIPSInstruction.shift(OpCode.SLL, rd, t, k));
+            }
+        }
+
+        if (negative) {
+            code.add(MIPSInstruction.typeR(OpCode.SUB, rd, ZERO, rd));
+        }
+        return code;
+    }
+
+    // ============================================
+    // DIVISIÓN
+    // ============================================
+    /**
+     * Instrucciones para rd = rs / c con división entera con signo
+     *
+     * @param temp entrega un registro temporal solo si la secuencia lo necesita
+     * @return null si conviene mantener div
+     */
+    public static List<MIPSInstruction> divide(String rd, String rs, int c, Supplier<String> temp) {
+        if (!canDivide(c)) {
+            return null;
+        }
+        int m = Math.abs(c);
+
+        List<MIPSInstruction> code = new ArrayList<>();
+        int k = log2(m);
+        if (k == 0) {
+            code.add(MIPSInstruction.move(rd, rs));
+        } else {
+            // Sesgo 2^k - 1 solo para negativos: redondeo hacia cero
+            String t = temp.get();
+            if (k == 1) {
+                code.add(MIPSInstruction.shift(OpCode.SRL, t, rs, 31));
+            } else {
+                code.add(MIPSInstruction.shift(OpCode.SRA, t, rs, 31));
+                code.add(MIPSInstruction.shift(OpCode.SRL, t, t, 32 - k));
+            }
+            code.add(MIPSInstruction.typeR(OpCode.ADD, t, rs, t));
+            code.add(MIPSInstruction.shift(OpCode.SRA, rd, t, k));
+        }
+
+        if (c < 0) {
+            code.add(MIPSInstruction.typeR(OpCode.SUB, rd, ZERO, rd));
+        }
+        return code;
+    }
+
+    // ============================================
+    // UTILIDADES
+    // ============================================
+    /**
+     * Verifica si multiply() tiene secuencia para la constante
+     */
+    public static boolean canMultiply(int c) {
+        if (c == 0 || c == Integer.MIN_VALUE) {
+            return true;
+        }
+        int m = Math.abs(c) >>> Integer.numberOfTrailingZeros(Math.abs(c));
+        return m == 1 || isPowerOfTwo(m - 1) || isPowerOfTwo(m + 1);
+    }
+
+    /**
+     * Verifica si divide() tiene secuencia para la constante
+     */
+    public static boolean canDivide(int c) {
+        return c != 0 && c != Integer.MIN_VALUE && isPowerOfTwo(Math.abs(c));
+    }
+
+    static boolean isPowerOfTwo(int n) {
+        return n > 0 && (n & (n - 1)) == 0;
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+}
@@ -0,0 +1,161 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import java.util.*;
+
+/**
+ * Despacho de un switch reconocido en el TAC
+ *
+ * El TAC de un switch es una cadena de comparaciones seguida de un goto
+ * al default, y después los cuerpos de los casos:
+ *
+ *     if x == 7 goto L10          (o t1 = 7; if x == t1 goto L10)
+ *     if x == 6 goto L11
+ *     goto L12
+ *
+ * Solo se reemplaza la cadena: los cuerpos y sus saltos (o la falta de
+ * ellos, fall-through) quedan igual.
+ *
+ * - Densa (los valores cubren al menos el 40% de su rango): tabla de saltos
+ *   en .data, lw y jr. Costo constante.
+ * - Dispersa: árbol binario de comparaciones sobre los valores ordenados.
+ *   Costo logarítmico.
+ * - Con menos de 4 casos la cadena ya es lo más barato y no se toca.
+ */
+public class SwitchDispatch {
+
+    static final int MIN_CASES = 4;
+    static final int MAX_TABLE_SIZE = 1024;
+
+    private final String scrutinee;
+    private final TreeMap<Integer, String> cases;   // valor -> etiqueta del caso
+    private final String defaultLabel;
+    private final int length;                       // instrucciones TAC de la cadena
+
+    private SwitchDispatch(String scrutinee, TreeMap<Integer, String> cases,
+                           String defaultLabel, int length) {
+        this.scrutinee = scrutinee;
+        this.cases = cases;
+        this.defaultLabel = defaultLabel;
+        this.length = length;
+    }
+
+    // ============================================
+    // RECONOCIMIENTO
+    // ============================================
+    /**
+     * Reconoce la cadena de un switch que empieza en la línea indicada
+     *
+     * @param uses usos de cada variable en todo el código: los temporales
+     *             con el valor de un caso solo pueden usarse en la cadena
+     * @return el despacho, o null si no hay cadena o tiene pocos casos
+     */
+    public static SwitchDispatch match(List<TACInstruction> code, int start, Map<String, Integer> uses) {
+        String scrutinee = null;
+        TreeMap<Integer, String> cases = new TreeMap<>();
+        int i = start;
+
+        while (i < code.size()) {
+            TACInstruction tac = code.get(i);
+            String caseTemp = null;
+            Integer caseValue = null;
+
+            // t = c; if x == t goto L
+            if (tac.getOp() == TACInstruction.OpType.ASSIGN && i + 1 < code.size()
+                    && TACUtils.isTemporary(tac.getResult()) && TACUtils.isImmediate(tac.getArg1())
+                    && uses.getOrDefault(tac.getResult(), 0) == 1) {
+                caseTemp = tac.getResult();
+                caseValue = Integer.parseInt(tac.getArg1());
+                tac = code.get(i + 1);
+            }
+            if (tac.getOp() != TACInstruction.OpType.IF_GOTO || !"==".equals(tac.getRelop())) {
+                break;
+            }
+
+            String other;
+            if (caseTemp != null) {
+                if (caseTemp.equals(tac.getArg2())) {
+                    other = tac.getArg1();
+                } else if (caseTemp.equals(tac.getArg1())) {
+                    other = tac.getArg2();
+                } else {
+                    break;
+                }
+            } else if (TACUtils.isImmediate(tac.getArg2())) {
+                other = tac.getArg1();
+                caseValue = Integer.parseInt(tac.getArg2());
+            } else if (TACUtils.isImmediate(tac.getArg1())) {
+                other = tac.getArg2();
+                caseValue = Integer.parseInt(tac.getArg1());
+            } else {
+                break;
+            }
+            if (TACUtils.isImmediate(other) || (scrutinee != null && !scrutinee.equals(other))) {
+                break;
+            }
+            scrutinee = other;
+
+            // Un valor repetido nunca llega a su segunda comparación
+            cases.putIfAbsent(caseValue, tac.getLabel());
+            i += caseTemp != null ? 2 : 1;
+        }
+
+        // La cadena termina con el goto al default
+        if (scrutinee == null || cases.size() < MIN_CASES || i >= code.size()
+                || code.get(i).getOp() != TACInstruction.OpType.GOTO) {
+            return null;
+        }
+        return new SwitchDispatch(scrutinee, cases, code.get(i).getLabel(), i + 1 - start);
+    }
+
+    // ============================================
+    // HEURÍSTICA DE DENSIDAD
+    // ============================================
+    /**
+     * Cantidad de entradas de la tabla: del menor al mayor valor
+     */
+    public long range() {
+        return (long) cases.lastKey() - cases.firstKey() + 1;
+    }
+
+    /**
+     * Tabla de saltos si los casos ocupan al menos el 40% de la tabla
+     */
+    public boolean isDense() {
+        return range() <= MAX_TABLE_SIZE && 5 * (long) cases.size() >= 2 * range();
+    }
+
+    // ============================================
+    // GETTERS
+    // ============================================
+    public String getScrutinee() {
+        return scrutinee;
+    }
+
+    /**
+     * Casos ordenados por valor
+     */
+    public NavigableMap<Integer, String> getCases() {
+        return Collections.unmodifiableNavigableMap(cases);
+    }
+
+    public String getDefaultLabel() {
+        return defaultLabel;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Etiquetas de la tabla de saltos: una por valor del rango, el default
+     * en los huecos
+     */
+    public List<String> tableLabels() {
+        List<String> labels = new ArrayList<>();
+        for (long v = cases.firstKey(); v <= cases.lastKey(); v++) {
+            labels.add(cases.getOrDefault((int) v, defaultLabel));
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,24 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+
+import java.util.List;
+
+/**
+ * Pasada de optimización sobre el código de tres direcciones
+ *
+ * Recibe la lista TAC y devuelve una lista nueva; la original no se
+ * modifica.
+ */
+public interface TACPass {
+
+    /**
+     * Nombre de la pasada (para reportes)
+     */
+    String getName();
+
+    /**
+     * Aplica la pasada
+     */
+    List<TACInstruction> apply(List<TACInstruction> code);
+}
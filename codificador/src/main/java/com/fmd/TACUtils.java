@@ -0,0 +1,467 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Utilidades para inspeccionar y construir instrucciones TAC
+ *
+ * Centraliza la creación de TACInstruction para que los análisis y
+ * optimizaciones no dependan de los detalles del módulo TAC.
+ */
+public final class TACUtils {
+
+    private TACUtils() {
+    }
+
+    // ============================================
+    // CLASIFICACIÓN DE INSTRUCCIONES
+    // ============================================
+
+    /**
+     * Verifica si la instrucción termina un bloque básico
+     */
+    public static boolean endsBlock(TACInstruction tac) {
+        switch (tac.getOp()) {
+            case GOTO:
+            case IF_GOTO:
+            case CALL:
+            case ASSIGN_CALL:
+            case RETURN:
+            case END:
+            case TRY_BEGIN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Verifica si la instrucción es una llamada (call, x = call, new)
+     */
+    public static boolean isCall(TACInstruction tac) {
+        OpType op = tac.getOp();
+        return op == OpType.CALL || op == OpType.ASSIGN_CALL || op == OpType.NEW;
+    }
+
+    // ============================================
+    // OPERANDOS
+    // ============================================
+
+    /**
+     * Determina si un valor es inmediato (constante numérica)
+     */
+    public static boolean isImmediate(String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        try {
+            Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Verifica si un nombre es un temporal generado por el TAC (t1, t2, ...)
+     */
+    public static boolean isTemporary(String name) {
+        if (name == null || name.length() < 2 || name.charAt(0) != 't') {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verifica si un operando es una variable simple (no constante,
+     * no literal de string, no acceso a arreglo ni a miembro)
+     */
+    public static boolean isVariable(String operand) {
+        if (operand == null || operand.isEmpty() || isImmediate(operand)) {
+            return false;
+        }
+        if (operand.equals("true") || operand.equals("false") || operand.equals("null")) {
+            return false;
+        }
+        char first = operand.charAt(0);
+        if (!Character.isLetter(first) && first != '_') {
+            return false;
+        }
+        for (int i = 1; i < operand.length(); i++) {
+            char c = operand.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Agrega las variables leídas por un operando.
+     * numbers[t5] lee numbers y t5; this.name lee this.
+     */
+    public static void collectOperandVariables(String operand, Collection<String> out) {
+        if (operand == null || operand.isEmpty() || operand.startsWith("\"")) {
+            return;
+        }
+        if (isVariable(operand)) {
+            out.add(operand);
+            return;
+        }
+        int bracket = operand.indexOf('[');
+        if (bracket > 0 && operand.endsWith("]")) {
+            collectOperandVariables(operand.substring(0, bracket), out);
+            collectOperandVariables(operand.substring(bracket + 1, operand.length() - 1), out);
+            return;
+        }
+        int dot = operand.indexOf('.');
+        if (dot > 0) {
+            collectOperandVariables(operand.substring(0, dot), out);
+        }
+    }
+
+    /**
+     * Variable definida por la instrucción (null si no define una variable simple)
+     */
+    public static String getDefinition(TACInstruction tac) {
+        switch (tac.getOp()) {
+            case ASSIGN:
+            case BINARY_OP:
+            case UNARY_OP:
+            case ASSIGN_CALL:
+            case NEW:
+                return isVariable(tac.getResult()) ? tac.getResult() : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Variables leídas por la instrucción
+     */
+    public static List<String> getUses(TACInstruction tac) {
+        List<String> uses = new ArrayList<>(2);
+        switch (tac.getOp()) {
+            case ASSIGN:
+            case UNARY_OP:
+                collectOperandVariables(tac.getArg1(), uses);
+                break;
+            case BINARY_OP:
+            case IF_GOTO:
+                collectOperandVariables(tac.getArg1(), uses);
+                collectOperandVariables(tac.getArg2(), uses);
+                break;
+            case CALL:
+            case ASSIGN_CALL:
+            case NEW:
+                if (tac.getParams() != null) {
+                    for (String param : tac.getParams()) {
+                        collectOperandVariables(param, uses);
+                    }
+                }
+                break;
+            case RETURN:
+                collectOperandVariables(tac.getArg1(), uses);
+                break;
+            default:
+                break;
+        }
+
+        // Escritura a arreglo o miembro: a[i] = x lee a e i
+        String result = tac.getResult();
+        if (result != null && !isVariable(result) && tac.getOp() != OpType.IF_GOTO) {
+            collectOperandVariables(result, uses);
+        }
+        return uses;
+    }
+
+    /**
+     * Reescribe las variables leídas por un operando.
+     * La base de un acceso a arreglo o miembro solo se reemplaza por otra
+     * variable; el índice acepta también constantes.
+     */
+    public static String renameOperand(String operand, Function<String, String> rename) {
+        if (operand == null || operand.isEmpty() || operand.startsWith("\"")) {
+            return operand;
+        }
+        if (isVariable(operand)) {
+            String renamed = rename.apply(operand);
+            return renamed != null ? renamed : operand;
+        }
+        int bracket = operand.indexOf('[');
+        if (bracket > 0 && operand.endsWith("]")) {
+            String base = renameBase(operand.substring(0, bracket), rename);
+            String index = renameOperand(operand.substring(bracket + 1, operand.length() - 1), rename);
+            return base + "[" + index + "]";
+        }
+        int dot = operand.indexOf('.');
+        if (dot > 0) {
+            return renameBase(operand.substring(0, dot), rename) + operand.substring(dot);
+        }
+        return operand;
+    }
+
+    private static String renameBase(String base, Function<String, String> rename) {
+        String renamed = renameOperand(base, rename);
+        return isVariable(renamed) ? renamed : base;
+    }
+
+    /**
+     * Reescribe en el lugar las variables que lee la instrucción
+     * (mismos operandos que getUses)
+     *
+     * @return true si cambió algún operando
+     */
+    public static boolean renameUses(TACInstruction tac, Function<String, String> rename) {
+        boolean changed = false;
+        switch (tac.getOp()) {
+            case ASSIGN:
+            case UNARY_OP:
+            case RETURN:
+                changed = setArg1(tac, renameOperand(tac.getArg1(), rename));
+                break;
+            case BINARY_OP:
+            case IF_GOTO:
+                changed = setArg1(tac, renameOperand(tac.getArg1(), rename));
+                String arg2 = renameOperand(tac.getArg2(), rename);
+                if (!Objects.equals(arg2, tac.getArg2())) {
+                    tac.setArg2(arg2);
+                    changed = true;
+                }
+                break;
+            case CALL:
+            case ASSIGN_CALL:
+            case NEW:
+                if (tac.getParams() != null) {
+                    List<String> params = new ArrayList<>(tac.getParams().size());
+                    for (String param : tac.getParams()) {
+                        params.add(renameOperand(param, rename));
+                    }
+                    if (!params.equals(tac.getParams())) {
+                        tac.setParams(params);
+                        changed = true;
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+
+        String result = tac.getResult();
+        if (result != null && !isVariable(result) && tac.getOp() != OpType.IF_GOTO) {
+            String renamed = renameOperand(result, rename);
+            if (!renamed.equals(result)) {
+                tac.setResult(renamed);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static boolean setArg1(TACInstruction tac, String arg1) {
+        if (Objects.equals(arg1, tac.getArg1())) {
+            return false;
+        }
+        tac.setArg1(arg1);
+        return true;
+    }
+
+    /**
+     * Primer número de temporal (tN) que no aparece en el código
+     */
+    public static int firstFreeTemporary(List<TACInstruction> code) {
+        int max = 0;
+        for (TACInstruction tac : code) {
+            List<String> names = getUses(tac);
+            names.add(getDefinition(tac));
+            for (String name : names) {
+                if (isTemporary(name)) {
+                    max = Math.max(max, Integer.parseInt(name.substring(1)));
+                }
+            }
+        }
+        return max + 1;
+    }
+
+    /**
+     * Temporales con una sola definición y que es una constante (t = 5):
+     * su valor se puede recalcular con li en cualquier uso
+     */
+    public static Map<String, Integer> constantTemporaries(List<TACInstruction> code) {
+        Map<String, Integer> constants = new HashMap<>();
+        Set<String> defined = new HashSet<>();
+        for (TACInstruction tac : code) {
+            String def = getDefinition(tac);
+            if (!isTemporary(def)) {
+                continue;
+            }
+            if (!defined.add(def)) {
+                constants.remove(def);
+                continue;
+            }
+            String value = tac.getArg1();
+            if (tac.getOp() == OpType.ASSIGN && isImmediate(value)) {
+                constants.put(def, Integer.parseInt(value));
+            } else if (tac.getOp() == OpType.ASSIGN && ("true".equals(value) || "false".equals(value))) {
+                constants.put(def, "true".equals(value) ? 1 : 0);
+            }
+        }
+        return constants;
+    }
+
+    /**
+     * Cantidad de veces que se lee cada variable en el código
+     */
+    public static Map<String, Integer> useCounts(List<TACInstruction> code) {
+        Map<String, Integer> uses = new HashMap<>();
+        for (TACInstruction tac : code) {
+            for (String use : getUses(tac)) {
+                uses.merge(use, 1, Integer::sum);
+            }
+        }
+        return uses;
+    }
+
+    /**
+     * Copia superficial de cada instrucción de la lista
+     */
+    public static List<TACInstruction> copyAll(List<TACInstruction> code) {
+        List<TACInstruction> copy = new ArrayList<>(code.size());
+        for (TACInstruction tac : code) {
+            copy.add(copy(tac));
+        }
+        return copy;
+    }
+
+    // ============================================
+    // CONSTRUCCIÓN
+    // ============================================
+
+    /**
+     * label:
+     */
+    public static TACInstruction label(String name) {
+        TACInstruction tac = new TACInstruction(OpType.LABEL);
+        tac.setLabel(name);
+        return tac;
+    }
+
+    /**
+     * goto label
+     */
+    public static TACInstruction gotoLabel(String label) {
+        TACInstruction tac = new TACInstruction(OpType.GOTO);
+        tac.setLabel(label);
+        return tac;
+    }
+
+    /**
+     * if arg1 relop arg2 goto label
+     */
+    public static TACInstruction ifGoto(String arg1, String relop, String arg2, String label) {
+        TACInstruction tac = new TACInstruction(OpType.IF_GOTO);
+        tac.setArg1(arg1);
+        tac.setRelop(relop);
+        tac.setArg2(arg2);
+        tac.setLabel(label);
+        return tac;
+    }
+
+    /**
+     * result = arg1
+     */
+    public static TACInstruction assign(String result, String arg1) {
+        TACInstruction tac = new TACInstruction(OpType.ASSIGN);
+        tac.setResult(result);
+        tac.setArg1(arg1);
+        return tac;
+    }
+
+    /**
+     * result = arg1 op arg2
+     */
+    public static TACInstruction binary(String result, String arg1, String operator, String arg2) {
+        TACInstruction tac = new TACInstruction(OpType.BINARY_OP);
+        tac.setResult(result);
+        tac.setArg1(arg1);
+        tac.setOperator(operator);
+        tac.setArg2(arg2);
+        return tac;
+    }
+
+    /**
+     * result = op arg1
+     */
+    public static TACInstruction unary(String result, String operator, String arg1) {
+        TACInstruction tac = new TACInstruction(OpType.UNARY_OP);
+        tac.setResult(result);
+        tac.setOperator(operator);
+        tac.setArg1(arg1);
+        return tac;
+    }
+
+    /**
+     * call f(params)
+     */
+    public static TACInstruction call(String function, List<String> params) {
+        TACInstruction tac = new TACInstruction(OpType.CALL);
+        tac.setArg1(function);
+        tac.setParams(new ArrayList<>(params));
+        return tac;
+    }
+
+    /**
+     * result = call f(params)
+     */
+    public static TACInstruction assignCall(String result, String function, List<String> params) {
+        TACInstruction tac = new TACInstruction(OpType.ASSIGN_CALL);
+        tac.setResult(result);
+        tac.setArg1(function);
+        tac.setParams(new ArrayList<>(params));
+        return tac;
+    }
+
+    /**
+     * return value (value puede ser null)
+     */
+    public static TACInstruction ret(String value) {
+        TACInstruction tac = new TACInstruction(OpType.RETURN);
+        tac.setArg1(value);
+        return tac;
+    }
+
+    /**
+     * end function
+     */
+    public static TACInstruction end(String function) {
+        TACInstruction tac = new TACInstruction(OpType.END);
+        tac.setLabel(function);
+        return tac;
+    }
+
+    /**
+     * Copia superficial de una instrucción TAC
+     */
+    public static TACInstruction copy(TACInstruction src) {
+        TACInstruction tac = new TACInstruction(src.getOp());
+        tac.setResult(src.getResult());
+        tac.setArg1(src.getArg1());
+        tac.setArg2(src.getArg2());
+        tac.setOperator(src.getOperator());
+        tac.setRelop(src.getRelop());
+        tac.setLabel(src.getLabel());
+        if (src.getParams() != null) {
+            tac.setParams(new ArrayList<>(src.getParams()));
+        }
+        return tac;
+    }
+}
@@ -30,14 +30,21 @@ public class MIPSInstruction {
         OR,     // or $rd, $rs, $rt
         ORI,    // ori $rt, $rs, imm
         XOR,    // xor $rd, $rs, $rt
+        XORI,   // xori $rt, $rs, imm
         NOR,    // nor $rd, $rs, $rt
         NOT,    // not $rd, $rs (pseudo: nor $rd, $rs, $zero)
 
+        // Desplazamientos
+        SLL,    // sll $rd, $rt, shamt (shift left logical)
+        SRL,    // srl $rd, $rt, shamt (shift right logical)
+        SRA,    // sra $rd, $rt, shamt (shift right arithmetic)
+
         // Memoria
         LW,     // lw $rt, offset($rs)
         SW,     // sw $rt, offset($rs)
         LA,     // la $rt, label (pseudo: load address)
         LI,     // li $rt, immediate (pseudo: load immediate)
+        LUI,    // lui $rt, imm (carga los 16 bits altos)
 
         // Movimiento
         MOVE,   // move $rd, $rs (pseudo: add $rd, $rs, $zero)
@@ -123,6 +130,17 @@ public class MIPSInstruction {
         return instr;
     }
 
+    /**
+     * Desplazamiento: sll $rd, $rt, shamt (shamt entre 0 y 31)
+     */
+    public static MIPSInstruction shift(OpCode opcode, String rd, String rt, int shamt) {
+        MIPSInstruction instr = new MIPSInstruction(opcode);
+        instr.rd = rd;
+        instr.rt = rt;
+        instr.immediate = String.valueOf(shamt);
+        return instr;
+    }
+
     /**
      * Load/Store: lw $rt, offset($base)
      */
@@ -284,17 +302,22 @@ public class MIPSInstruction {
                 break;
 
             // Tipo I con inmediato: addi $rt, $rs, imm
-            case ADDI: case SUBI: case ANDI: case ORI: case SLTI:
+            case ADDI: case SUBI: case ANDI: case ORI: case XORI: case SLTI:
                 sb.append(rd).append(", ").append(rs).append(", ").append(immediate);
                 break;
 
+            // Desplazamiento: sll $rd, $rt, shamt
+            case SLL: case SRL: case SRA:
+                sb.append(rd).append(", ").append(rt).append(", ").append(immediate);
+                break;
+
             // Load/Store: lw $rt, offset($base)
             case LW: case SW:
                 sb.append(rt).append(", ").append(immediate);
                 break;
 
-            // Load immediate: li $rt, value
-            case LI:
+            // Load immediate: li $rt, value / lui $rt, value
+            case LI: case LUI:
                 sb.append(rd).append(", ").append(immediate);
                 break;
 
@@ -309,10 +332,15 @@ public class MIPSInstruction {
                 break;
 
             // Unario: not $rd, $rs
-            case NOT: case MFHI: case MFLO:
+            case NOT:
                 sb.append(rd).append(", ").append(rs);
                 break;
 
+            // Desde HI/LO: mflo $rd
+            case MFHI: case MFLO:
+                sb.append(rd);
+                break;
+
             // Division: div $rs, $rt
             case DIV:
                 sb.append(rs).append(", ").append(rt);
@@ -0,0 +1,110 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para BranchOptimizer")
+public class BranchOptimizerTests {
+
+    private List<String> optimize(MIPSInstruction... code) {
+        return new BranchOptimizer().optimize(Arrays.asList(code)).stream()
+                .map(MIPSInstruction::toString)
+                .map(String::trim)
+                .map(s -> s.replaceAll("\\s+", " "))
+                .collect(Collectors.toList());
+    }
+
+    // ============================================
+    // TESTS DE TRANSFORMACIONES
+    // ============================================
+
+    @Test
+    @DisplayName("beq/bne contra $zero se vuelven beqz/bnez")
+    void testZeroCompareBranches() {
+        List<String> out = optimize(
+                MIPSInstruction.branch(OpCode.BEQ, "$t0", "$zero", "L1"),
+                MIPSInstruction.branch(OpCode.BNE, "$zero", "$t1", "L1"),
+                MIPSInstruction.li("$t2", 1),
+                MIPSInstruction.label("L1"));
+
+        assertEquals(List.of("beqz $t0, L1", "bnez $t1, L1", "li $t2, 1", "L1:"), out);
+    }
+
+    @Test
+    @DisplayName("Salto a una etiqueta que vuelve a saltar se redirige")
+    void testJumpThreading() {
+        BranchOptimizer optimizer = new BranchOptimizer();
+        List<MIPSInstruction> out = optimizer.optimize(List.of(
+                MIPSInstruction.branch(OpCode.BLT, "$t0", "$t1", "L1"),
+                MIPSInstruction.li("$t2", 1),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.jump(OpCode.J, "L2"),
+                MIPSInstruction.label("L3"),
+                MIPSInstruction.li("$t2", 2),
+                MIPSInstruction.label("L2"),
+                MIPSInstruction.jump(OpCode.J, "L4"),
+                MIPSInstruction.label("L4"),
+                MIPSInstruction.li("$t3", 3)));
+
+        assertEquals("L4", out.get(0).getLabel(), "blt sigue la cadena L1 -> L2 -> L4");
+        assertTrue(optimizer.getThreadedCount() >= 2);
+    }
+
+    @Test
+    @DisplayName("Ciclo de saltos no se sigue indefinidamente")
+    void testJumpCycleLeftAlone() {
+        List<String> out = optimize(
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.jump(OpCode.J, "L2"),
+                MIPSInstruction.label("L2"),
+                MIPSInstruction.jump(OpCode.J, "L1"));
+
+        // Solo se elimina el j L2 que cae en L2; el lazo infinito se conserva
+        assertEquals(List.of("L1:", "L2:", "j L1"), out);
+    }
+
+    @Test
+    @DisplayName("Branch sobre un j se invierte")
+    void testBranchInversion() {
+        BranchOptimizer optimizer = new BranchOptimizer();
+        List<MIPSInstruction> out = optimizer.optimize(List.of(
+                MIPSInstruction.branch(OpCode.BLT, "$t0", "$t1", "L1"),
+                MIPSInstruction.jump(OpCode.J, "L2"),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.li("$t2", 1),
+                MIPSInstruction.label("L2")));
+
+        assertEquals(OpCode.BGE, out.get(0).getOpcode());
+        assertEquals("L2", out.get(0).getLabel());
+        assertEquals(OpCode.LABEL, out.get(1).getOpcode());
+        assertEquals(1, optimizer.getInvertedCount());
+    }
+
+    @Test
+    @DisplayName("Branch a la instrucción siguiente se elimina")
+    void testBranchToNextRemoved() {
+        List<String> out = optimize(
+                MIPSInstruction.branch(OpCode.BNE, "$t0", "$t1", "L2"),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.label("L2"),
+                MIPSInstruction.li("$t2", 1));
+
+        assertEquals(List.of("L1:", "L2:", "li $t2, 1"), out);
+    }
+
+    @Test
+    @DisplayName("Inversión de cada branch condicional")
+    void testInverseTable() {
+        assertEquals(OpCode.BNE, BranchOptimizer.inverse(OpCode.BEQ));
+        assertEquals(OpCode.BLE, BranchOptimizer.inverse(OpCode.BGT));
+        assertEquals(OpCode.BNEZ, BranchOptimizer.inverse(OpCode.BEQZ));
+        assertNull(BranchOptimizer.inverse(OpCode.J));
+    }
+}
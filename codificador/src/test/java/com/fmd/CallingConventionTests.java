@@ -0,0 +1,171 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para el convenio de llamadas")
+public class CallingConventionTests {
+
+    private TACGenerator tacGen;
+
+    @BeforeEach
+    void setUp() {
+        tacGen = RegisterAllocatorTests.createMockTACGenerator("a", "b", "c", "d", "e", "x", "r");
+    }
+
+    private String generate(OptimizationOptions options, Map<String, List<String>> parameters,
+                            List<TACInstruction> code) {
+        MIPSGenerator generator = new MIPSGenerator(tacGen, RegisterAllocationStrategy.Kind.LOCAL, options);
+        generator.setFunctionParameters(parameters);
+        return generator.generate(code);
+    }
+
+    /**
+     * Código MIPS de una función: desde su etiqueta hasta su jr $ra
+     */
+    private static String function(String mips, String name) {
+        int start = mips.indexOf(name + ":");
+        int end = mips.indexOf("jr      $ra", start);
+        return mips.substring(start, end);
+    }
+
+    // ============================================
+    // TESTS DE ARGUMENTOS Y RETORNO
+    // ============================================
+
+    @Test
+    @DisplayName("El argumento se calcula directamente en $a0")
+    void testArgumentComputedIntoRegister() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.call("print", List.of("t1")));
+
+        String mips = generate(OptimizationOptions.defaults(), Collections.emptyMap(), code);
+        assertTrue(mips.contains("addi    $a0,"), mips);
+        assertFalse(mips.contains("move    $a0"), mips);
+
+        OptimizationOptions off = OptimizationOptions.defaults();
+        off.setRegisterHints(false);
+        assertTrue(generate(off, Collections.emptyMap(), code).contains("move    $a0"));
+    }
+
+    @Test
+    @DisplayName("El valor de retorno se calcula directamente en $v0")
+    void testReturnComputedIntoV0() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.binary("t1", "a", "-", "x"),
+                TACUtils.ret("t1"),
+                TACUtils.end("f"),
+                TACUtils.assignCall("r", "f", List.of("5")));
+
+        String f = function(generate(OptimizationOptions.defaults(), Map.of("f", List.of("a")), code), "f");
+        assertTrue(f.contains("sub     $v0, $a0,"), f);
+        assertFalse(f.contains("move    $v0"), f);
+    }
+
+    @Test
+    @DisplayName("Un valor usado dos veces no se calcula en el registro del argumento")
+    void testSharedValueNotHinted() {
+        String mips = generate(OptimizationOptions.defaults(), Collections.emptyMap(), List.of(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.call("print", List.of("t1")),
+                TACUtils.call("print", List.of("t1"))));
+
+        assertFalse(mips.contains("addi    $a0,"), mips);
+        assertEquals(2, mips.split("move    \\$a0").length - 1, mips);
+    }
+
+    // ============================================
+    // TESTS DE PARÁMETROS
+    // ============================================
+
+    @Test
+    @DisplayName("Los parámetros se leen desde el $a en que llegan")
+    void testParametersReadFromArgumentRegisters() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.binary("t1", "a", "+", "b"),
+                TACUtils.ret("t1"),
+                TACUtils.end("f"),
+                TACUtils.assignCall("r", "f", List.of("1", "2")));
+
+        String f = function(generate(OptimizationOptions.defaults(), Map.of("f", List.of("a", "b")), code), "f");
+        assertTrue(f.contains("add     $v0, $a0, $a1"), f);
+        assertFalse(f.contains("($gp)"), "Los parámetros no se leen de memoria: " + f);
+    }
+
+    @Test
+    @DisplayName("Un parámetro que sigue vivo después de una llamada pasa a un registro del allocator")
+    void testParameterMovedBeforeCall() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.call("print", List.of("7")),
+                TACUtils.binary("t1", "a", "+", "1"),
+                TACUtils.ret("t1"),
+                TACUtils.end("f"),
+                TACUtils.assignCall("r", "f", List.of("1")));
+
+        String f = function(generate(OptimizationOptions.defaults(), Map.of("f", List.of("a")), code), "f");
+        int save = f.indexOf("move    $s0, $a0");
+        assertTrue(save >= 0, f);
+        assertTrue(save < f.indexOf("li      $a0, 7"), "Se copia antes de pisar $a0: " + f);
+        assertTrue(f.contains("addi    $v0, $s0, 1"), f);
+    }
+
+    @Test
+    @DisplayName("El quinto parámetro se lee del área de argumentos del llamador")
+    void testStackParameter() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.binary("t1", "e", "+", "1"),
+                TACUtils.ret("t1"),
+                TACUtils.end("f"),
+                TACUtils.assignCall("r", "f", List.of("1", "2", "3", "4", "x")));
+
+        String mips = generate(OptimizationOptions.defaults(),
+                Map.of("f", List.of("a", "b", "c", "d", "e")), code);
+        String f = function(mips, "f");
+
+        // Hoja con stack: frame de 4 bytes, el argumento queda en 4($fp)
+        assertTrue(f.contains("addi    $sp, $sp, -4"), f);
+        assertTrue(f.contains("4($fp)"), f);
+        assertTrue(mips.contains("0($sp)"), mips);
+    }
+
+    // ============================================
+    // TESTS DEL ÁREA DE ARGUMENTOS
+    // ============================================
+
+    @Test
+    @DisplayName("El frame reserva el área de argumentos de la llamada más grande")
+    void testOutgoingArgumentArea() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.call("g", List.of("1", "2", "3", "4", "5")),
+                TACUtils.call("g", List.of("1", "2", "3", "4", "5", "6", "7")),
+                TACUtils.end("f"),
+                TACUtils.call("f", List.of()));
+
+        String f = function(generate(OptimizationOptions.defaults(), Collections.emptyMap(), code), "f");
+        assertTrue(f.contains("addi    $sp, $sp, -12"), "Tres argumentos en el stack: " + f);
+        assertTrue(f.contains("8($sp)"), f);
+    }
+
+    @Test
+    @DisplayName("El código global también reserva su área de argumentos")
+    void testMainOutgoingArea() {
+        String mips = generate(OptimizationOptions.defaults(), Collections.emptyMap(), List.of(
+                TACUtils.call("g", List.of("1", "2", "3", "4", "5"))));
+
+        int reserve = mips.indexOf("addi    $sp, $sp, -4");
+        assertTrue(reserve >= 0, mips);
+        assertTrue(reserve < mips.indexOf("0($sp)"), mips);
+    }
+}
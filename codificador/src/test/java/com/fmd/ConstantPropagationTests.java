@@ -0,0 +1,135 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para ConstantPropagation")
+public class ConstantPropagationTests {
+
+    // ============================================
+    // TESTS DE PLEGADO
+    // ============================================
+
+    @Test
+    @DisplayName("Operación con constantes se pliega a ASSIGN")
+    void testBinaryFolded() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "314"),
+                TACUtils.binary("t2", "t1", "*", "2"),
+                TACUtils.unary("t3", "-", "t2"),
+                TACUtils.assign("area", "t3")
+        );
+
+        ConstantPropagation pass = new ConstantPropagation();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertEquals(OpType.ASSIGN, out.get(1).getOp());
+        assertEquals("628", out.get(1).getArg1());
+        assertEquals("-628", out.get(2).getArg1());
+        assertEquals("-628", out.get(3).getArg1(), "El valor llega a la variable del programa");
+        assertEquals(2, pass.getFoldedCount());
+    }
+
+    @Test
+    @DisplayName("División entre cero no se pliega")
+    void testDivisionByZeroNotFolded() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "5", "/", "0"),
+                TACUtils.assign("x", "t1")
+        );
+
+        List<TACInstruction> out = new ConstantPropagation().apply(code);
+
+        assertEquals(OpType.BINARY_OP, out.get(0).getOp());
+    }
+
+    // ============================================
+    // TESTS DE PROPAGACIÓN EN EL CFG
+    // ============================================
+
+    @Test
+    @DisplayName("Valores distintos en cada camino no son constantes")
+    void testMeetOfDifferentValuesIsNotConstant() {
+        List<TACInstruction> code = List.of(
+                TACUtils.ifGoto("c", "==", "0", "L1"),   // 0
+                TACUtils.assign("t1", "1"),              // 1
+                TACUtils.gotoLabel("L2"),                // 2
+                TACUtils.label("L1"),                    // 3
+                TACUtils.assign("t1", "2"),              // 4
+                TACUtils.label("L2"),                    // 5
+                TACUtils.binary("y", "t1", "+", "1")     // 6
+        );
+
+        List<TACInstruction> out = new ConstantPropagation().apply(code);
+
+        assertEquals("t1", out.get(6).getArg1());
+    }
+
+    @Test
+    @DisplayName("Variable del programa no es constante después de una llamada")
+    void testCallInvalidatesProgramVariables() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("x", "5"),
+                TACUtils.call("update", List.of()),
+                TACUtils.binary("y", "x", "+", "1")
+        );
+
+        List<TACInstruction> out = new ConstantPropagation().apply(code);
+
+        assertEquals(OpType.BINARY_OP, out.get(2).getOp());
+        assertEquals("x", out.get(2).getArg1());
+    }
+
+    @Test
+    @DisplayName("Contador de lazo no es constante")
+    void testLoopCounterNotConstant() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("i", "0"),
+                TACUtils.label("L1"),
+                TACUtils.ifGoto("i", ">=", "10", "L2"),
+                TACUtils.binary("i", "i", "+", "1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L2")
+        );
+
+        List<TACInstruction> out = new ConstantPropagation().apply(code);
+
+        assertEquals(OpType.IF_GOTO, out.get(2).getOp());
+        assertEquals("i", out.get(2).getArg1());
+    }
+
+    // ============================================
+    // TESTS DE SALTOS CONSTANTES
+    // ============================================
+
+    @Test
+    @DisplayName("IF_GOTO con condición constante se resuelve")
+    void testConstantBranchResolved() {
+        List<TACInstruction> taken = List.of(
+                TACUtils.assign("t1", "3"),
+                TACUtils.ifGoto("t1", "<", "5", "L1"),
+                TACUtils.assign("x", "1"),
+                TACUtils.label("L1")
+        );
+        List<TACInstruction> out = new ConstantPropagation().apply(taken);
+        assertEquals(OpType.GOTO, out.get(1).getOp());
+        assertEquals("L1", out.get(1).getLabel());
+
+        List<TACInstruction> notTaken = List.of(
+                TACUtils.assign("t1", "7"),
+                TACUtils.ifGoto("t1", "<", "5", "L1"),
+                TACUtils.assign("x", "1"),
+                TACUtils.label("L1")
+        );
+        ConstantPropagation pass = new ConstantPropagation();
+        out = pass.apply(notTaken);
+        assertEquals(3, out.size(), "El salto nunca se toma: se elimina");
+        assertEquals(1, pass.getBranchesResolvedCount());
+    }
+}
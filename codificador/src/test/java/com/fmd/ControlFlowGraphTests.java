@@ -0,0 +1,153 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para ControlFlowGraph")
+public class ControlFlowGraphTests {
+
+    // ============================================
+    // TESTS DE BLOQUES BÁSICOS
+    // ============================================
+
+    @Test
+    @DisplayName("Código lineal forma un solo bloque")
+    void testStraightLineSingleBlock() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("a", "5"),
+                TACUtils.binary("t1", "a", "+", "1"),
+                TACUtils.assign("b", "t1")
+        );
+
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+
+        assertEquals(1, cfg.getBlockCount(), "Debe haber un solo bloque");
+        assertEquals(0, cfg.successorCount(0), "Sin sucesores al final del programa");
+    }
+
+    @Test
+    @DisplayName("If-else genera diamante de bloques")
+    void testIfElseDiamond() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("a", "10"),                 // B0
+                TACUtils.ifGoto("a", "<", "5", "L1"),
+                TACUtils.assign("b", "1"),                  // B1
+                TACUtils.gotoLabel("L2"),
+                TACUtils.label("L1"),                       // B2
+                TACUtils.assign("b", "2"),
+                TACUtils.label("L2"),                       // B3
+                TACUtils.assign("c", "b")
+        );
+
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+
+        assertEquals(4, cfg.getBlockCount());
+        assertEquals(2, cfg.successorCount(0), "El if tiene dos sucesores");
+        assertEquals(2, cfg.predecessorCount(3), "La unión tiene dos predecesores");
+        assertEquals(0, cfg.getIdom(3), "B0 domina inmediatamente la unión");
+        assertTrue(cfg.dominates(0, 2));
+        assertFalse(cfg.dominates(1, 3), "Una rama no domina la unión");
+    }
+
+    // ============================================
+    // TESTS DE LAZOS
+    // ============================================
+
+    @Test
+    @DisplayName("While anidado detecta dos lazos con profundidad")
+    void testNestedLoops() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("i", "0"),                  // B0
+                TACUtils.label("L1"),                       // B1 (cabecera externa)
+                TACUtils.ifGoto("i", ">=", "10", "L4"),
+                TACUtils.assign("j", "0"),                  // B2
+                TACUtils.label("L2"),                       // B3 (cabecera interna)
+                TACUtils.ifGoto("j", ">=", "10", "L3"),
+                TACUtils.binary("j", "j", "+", "1"),        // B4
+                TACUtils.gotoLabel("L2"),
+                TACUtils.label("L3"),                       // B5
+                TACUtils.binary("i", "i", "+", "1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L4"),                       // B6
+                TACUtils.assign("x", "i")
+        );
+
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+
+        assertEquals(2, cfg.getLoops().size(), "Debe detectar dos lazos");
+        assertEquals(0, cfg.getLoopDepth(0));
+        assertEquals(1, cfg.getLoopDepth(1), "Cabecera externa a profundidad 1");
+        assertEquals(2, cfg.getLoopDepth(4), "Cuerpo interno a profundidad 2");
+        assertEquals(1, cfg.getLoopDepth(5));
+        assertEquals(0, cfg.getLoopDepth(6));
+
+        ControlFlowGraph.Loop inner = cfg.getInnermostLoop(4);
+        assertEquals(3, inner.getHeader());
+        assertEquals(1, inner.getParent().getHeader(), "El lazo interno está dentro del externo");
+    }
+
+    // ============================================
+    // TESTS DE FUNCIONES
+    // ============================================
+
+    @Test
+    @DisplayName("El código global salta por encima de las funciones")
+    void testFunctionIsSkippedByFallThrough() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("a", "1"),                  // B0
+                TACUtils.label("f"),                        // B1
+                TACUtils.ret("x"),
+                TACUtils.end("f"),                          // B2
+                TACUtils.assign("b", "2")                   // B3
+        );
+
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+
+        assertEquals(4, cfg.getBlockCount());
+        assertArrayEquals(new int[]{3}, cfg.getSuccessors(0), "B0 debe caer en B3");
+        assertArrayEquals(new int[]{2}, cfg.getSuccessors(1), "return fluye al epílogo");
+        assertEquals("f", cfg.getFunctionOf(1));
+        assertNull(cfg.getFunctionOf(3));
+        assertTrue(cfg.isReachable(1), "La función es una entrada");
+    }
+
+    @Test
+    @DisplayName("Programa que empieza con una función entra al código global después del END")
+    void testGlobalEntryAfterLeadingFunction() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),                        // B0
+                TACUtils.ret("x"),
+                TACUtils.assign("y", "1"),                  // B1 (después del return)
+                TACUtils.end("f"),                          // B2
+                TACUtils.assign("b", "2")                   // B3
+        );
+
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+
+        assertEquals(4, cfg.getBlockCount());
+        assertTrue(cfg.isReachable(3), "El código global es una entrada");
+        assertFalse(cfg.isReachable(1), "Lo que sigue al return no se ejecuta");
+        assertTrue(cfg.isReachable(2));
+    }
+
+    @Test
+    @DisplayName("Código después de un goto es inalcanzable")
+    void testUnreachableAfterGoto() {
+        List<TACInstruction> code = List.of(
+                TACUtils.gotoLabel("L1"),
+                TACUtils.assign("a", "1"),
+                TACUtils.label("L1"),
+                TACUtils.assign("b", "2")
+        );
+
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+
+        assertFalse(cfg.isReachable(1), "El bloque muerto no debe ser alcanzable");
+        assertEquals(-1, cfg.getIdom(1));
+    }
+}
@@ -0,0 +1,120 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para CopyPropagation")
+public class CopyPropagationTests {
+
+    // ============================================
+    // TESTS DE PROPAGACIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("Cadena tN = x; y = tN se reescribe y la copia desaparece")
+    void testCopyChainPropagated() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "x"),
+                TACUtils.assign("y", "t1"),
+                TACUtils.binary("t2", "t1", "+", "1"),
+                TACUtils.assign("z", "t2")
+        );
+
+        CopyPropagation pass = new CopyPropagation();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertEquals(2, out.size(), "t1 = x queda muerta y t2 se coalesce con z");
+        assertEquals("y", out.get(0).getResult());
+        assertEquals("x", out.get(0).getArg1());
+        assertEquals("z", out.get(1).getResult());
+        assertEquals("x", out.get(1).getArg1(), "t1 se reemplaza por x");
+        assertTrue(pass.getPropagatedCount() >= 2);
+    }
+
+    @Test
+    @DisplayName("La redefinición de la fuente mata la copia")
+    void testRedefinitionKillsCopy() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "x"),
+                TACUtils.assign("x", "5"),
+                TACUtils.binary("y", "t1", "+", "1")
+        );
+
+        List<TACInstruction> out = new CopyPropagation().apply(code);
+
+        assertEquals("t1", out.get(2).getArg1(), "x cambió: t1 no se puede reemplazar");
+    }
+
+    @Test
+    @DisplayName("La copia solo se propaga si está disponible en todos los caminos")
+    void testCopyMustBeAvailableOnAllPaths() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "a"),               // 0
+                TACUtils.ifGoto("c", "==", "0", "L1"),    // 1
+                TACUtils.assign("t1", "b"),               // 2
+                TACUtils.label("L1"),                     // 3
+                TACUtils.binary("y", "t1", "+", "1")      // 4
+        );
+
+        List<TACInstruction> out = new CopyPropagation().apply(code);
+
+        TACInstruction use = out.get(out.size() - 1);
+        assertEquals("t1", use.getArg1(), "t1 puede venir de a o de b");
+    }
+
+    @Test
+    @DisplayName("Una llamada mata las copias de variables del programa")
+    void testCallKillsMemoryCopies() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "x"),
+                TACUtils.call("update", List.of()),
+                TACUtils.binary("y", "t1", "+", "1")
+        );
+
+        List<TACInstruction> out = new CopyPropagation().apply(code);
+
+        assertEquals("t1", out.get(2).getArg1(), "update puede cambiar x");
+    }
+
+    @Test
+    @DisplayName("Acceso a arreglo: el índice también se propaga")
+    void testArrayIndexPropagated() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "i"),
+                TACUtils.assign("numbers[t1]", "v")
+        );
+
+        List<TACInstruction> out = new CopyPropagation().apply(code);
+
+        assertEquals(1, out.size());
+        assertEquals("numbers[i]", out.get(0).getResult());
+    }
+
+    // ============================================
+    // TESTS DE COALESCING
+    // ============================================
+
+    @Test
+    @DisplayName("t = a + b; x = t se vuelve x = a + b")
+    void testDefinitionCoalescedIntoCopy() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "b"),
+                TACUtils.assign("x", "t1")
+        );
+
+        CopyPropagation pass = new CopyPropagation();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertEquals(1, out.size());
+        assertEquals(OpType.BINARY_OP, out.get(0).getOp());
+        assertEquals("x", out.get(0).getResult());
+        assertEquals(1, pass.getCoalescedCount());
+        assertEquals("t1", code.get(0).getResult(), "La lista original no se modifica");
+    }
+}
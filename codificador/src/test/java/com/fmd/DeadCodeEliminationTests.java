@@ -0,0 +1,158 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para DeadCodeElimination y MIPSDeadCodeElimination")
+public class DeadCodeEliminationTests {
+
+    private List<String> optimizeMIPS(MIPSInstruction... code) {
+        return new MIPSDeadCodeElimination().optimize(Arrays.asList(code)).stream()
+                .map(MIPSInstruction::toShortString)
+                .collect(Collectors.toList());
+    }
+
+    // ============================================
+    // TESTS SOBRE TAC
+    // ============================================
+
+    @Test
+    @DisplayName("Temporal que nunca se lee se elimina en cadena")
+    void testDeadTemporariesRemoved() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "1"),
+                TACUtils.binary("t2", "t1", "*", "2"),    // t2 nunca se lee
+                TACUtils.assign("x", "a")
+        );
+
+        DeadCodeElimination pass = new DeadCodeElimination();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertEquals(1, out.size());
+        assertEquals("x", out.get(0).getResult());
+        assertEquals(2, pass.getDeadRemovedCount());
+    }
+
+    @Test
+    @DisplayName("Escritura a variable sobrescrita antes de leerse se elimina")
+    void testOverwrittenStoreRemoved() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("x", "1"),
+                TACUtils.assign("x", "2"),
+                TACUtils.call("print", List.of("x")),
+                TACUtils.assign("x", "3")                  // viva a la salida
+        );
+
+        List<TACInstruction> out = new DeadCodeElimination().apply(code);
+
+        assertEquals(3, out.size());
+        assertEquals("2", out.get(0).getArg1());
+        assertEquals("3", out.get(2).getArg1());
+    }
+
+    @Test
+    @DisplayName("Código después de return y bloques sin predecesores se eliminan")
+    void testUnreachableBlocksRemoved() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.ret("a"),
+                TACUtils.assign("b", "5"),                 // después del return
+                TACUtils.end("f"),
+                TACUtils.gotoLabel("L2"),
+                TACUtils.label("L1"),
+                TACUtils.assign("y", "1"),                 // nadie salta a L1
+                TACUtils.label("L2"),
+                TACUtils.call("f", List.of())
+        );
+
+        DeadCodeElimination pass = new DeadCodeElimination();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertTrue(out.stream().noneMatch(t -> "b".equals(t.getResult()) || "y".equals(t.getResult())));
+        assertTrue(out.stream().anyMatch(t -> t.getOp() == OpType.END), "El END delimita la función");
+        assertEquals(3, pass.getUnreachableRemovedCount());
+    }
+
+    @Test
+    @DisplayName("Llamada con resultado muerto conserva la llamada")
+    void testDeadCallResultKeepsCall() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assignCall("t1", "f", List.of("1"))
+        );
+
+        List<TACInstruction> out = new DeadCodeElimination().apply(code);
+
+        assertEquals(1, out.size());
+        assertEquals(OpType.CALL, out.get(0).getOp());
+        assertEquals("f", out.get(0).getArg1());
+    }
+
+    // ============================================
+    // TESTS SOBRE MIPS
+    // ============================================
+
+    @Test
+    @DisplayName("Instrucciones después de j y jr hasta la próxima etiqueta se eliminan")
+    void testCodeAfterJumpRemoved() {
+        List<String> out = optimizeMIPS(
+                MIPSInstruction.jumpReg("$ra"),
+                MIPSInstruction.li("$t2", 5),
+                MIPSInstruction.label("f"),
+                MIPSInstruction.jump(OpCode.J, "L1"),
+                MIPSInstruction.move("$t0", "$t1"),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.move("$a0", "$t0"));
+
+        assertEquals(List.of("jr null", "f:", "j L1", "L1:", "move $a0, $t0"), out);
+    }
+
+    @Test
+    @DisplayName("Registro sobrescrito antes de leerse dentro del bloque")
+    void testDeadWriteInBlock() {
+        List<String> out = optimizeMIPS(
+                MIPSInstruction.typeR(OpCode.ADD, "$t0", "$t1", "$t2"),   // muerta
+                MIPSInstruction.li("$t3", 1),
+                MIPSInstruction.li("$t0", 4),
+                MIPSInstruction.move("$a0", "$t0"),
+                MIPSInstruction.jump(OpCode.JAL, "print"));
+
+        assertEquals(List.of("li $t3", "li $t0", "move $a0, $t0", "jal print"), out);
+
+        // Al final del bloque todo está vivo
+        List<String> kept = optimizeMIPS(
+                MIPSInstruction.li("$t0", 1),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.li("$t0", 2));
+        assertEquals(3, kept.size());
+    }
+
+    @Test
+    @DisplayName("sw sobrescrito antes de cualquier lw se elimina")
+    void testDeadStoreRemoved() {
+        MIPSDeadCodeElimination dce = new MIPSDeadCodeElimination();
+        List<MIPSInstruction> out = dce.optimize(List.of(
+                MIPSInstruction.loadStore(OpCode.SW, "$t0", "-4($fp)"),
+                MIPSInstruction.li("$t1", 3),
+                MIPSInstruction.loadStore(OpCode.SW, "$t1", "-4($fp)"),
+                MIPSInstruction.jumpReg("$ra")));
+        assertEquals(3, out.size());
+        assertEquals(1, dce.getDeadStoresRemovedCount());
+
+        // Un lw intermedio puede leer la misma dirección
+        List<MIPSInstruction> kept = dce.optimize(List.of(
+                MIPSInstruction.loadStore(OpCode.SW, "$t0", "-4($fp)"),
+                MIPSInstruction.loadStore(OpCode.LW, "$t2", "0($t3)"),
+                MIPSInstruction.loadStore(OpCode.SW, "$t2", "-4($fp)"),
+                MIPSInstruction.jumpReg("$ra")));
+        assertEquals(4, kept.size());
+    }
+}
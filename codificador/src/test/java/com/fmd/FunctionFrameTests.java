@@ -0,0 +1,295 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para el frame de las funciones")
+public class FunctionFrameTests {
+
+    private TACGenerator tacGen;
+
+    @BeforeEach
+    void setUp() {
+        tacGen = RegisterAllocatorTests.createMockTACGenerator("x", "r");
+    }
+
+    /**
+     * Código MIPS de la función f: desde su etiqueta hasta el jr $ra
+     */
+    private String generateFunction(OptimizationOptions options, TACInstruction... body) {
+        List<TACInstruction> code = new ArrayList<>();
+        code.add(TACUtils.label("f"));
+        code.addAll(Arrays.asList(body));
+        code.add(TACUtils.end("f"));
+        code.add(TACUtils.assignCall("r", "f", List.of()));
+
+        MIPSGenerator generator = new MIPSGenerator(tacGen, RegisterAllocationStrategy.Kind.LOCAL, options);
+        String mips = generator.generate(code);
+        int start = mips.indexOf("f:");
+        int end = mips.indexOf("jr      $ra", start);
+        return mips.substring(start, end);
+    }
+
+    // ============================================
+    // TESTS DE FUNCIONES HOJA
+    // ============================================
+
+    @Test
+    @DisplayName("Hoja sin stack: sin frame")
+    void testLeafWithoutFrame() {
+        String f = generateFunction(OptimizationOptions.defaults(),
+                TACUtils.binary("t1", "7", "*", "3"),
+                TACUtils.ret("t1"));
+
+        assertFalse(f.contains("$sp"), f);
+        assertFalse(f.contains("$fp"), f);
+        assertFalse(f.contains("$ra"), f);
+        assertTrue(f.contains("$v0"), f);
+    }
+
+    @Test
+    @DisplayName("El scheduling no mueve los guardados del prólogo antes de reservar el frame")
+    void testScheduledProlog() {
+        OptimizationOptions options = OptimizationOptions.defaults();
+        options.setScheduling(true);
+        String f = generateFunction(options,
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.call("print", List.of("x")),
+                TACUtils.binary("t2", "t1", "+", "1"),
+                TACUtils.ret("t2"));
+
+        int frame = f.indexOf("addi    $sp, $sp, -8");
+        int link = f.indexOf("move    $fp, $sp");
+        int reserve = f.indexOf("addi    $sp, $sp, -", frame + 1);
+        int save = f.indexOf("sw      $s0");
+        assertTrue(frame >= 0 && link >= 0 && reserve >= 0 && save >= 0, f);
+        assertTrue(frame < f.indexOf("sw      $ra") && frame < f.indexOf("sw      $fp"), f);
+        assertTrue(link < reserve && reserve < save, "$s0 se guarda dentro del frame reservado: " + f);
+    }
+
+    @Test
+    @DisplayName("Hoja que usa el stack guarda solo $fp")
+    void testLeafWithSlots() {
+        String f = generateFunction(OptimizationOptions.defaults(), manyLiveTemporaries(14));
+
+        assertTrue(f.contains("sw      $fp"), f);
+        assertFalse(f.contains("$ra"), "Una hoja no guarda $ra: " + f);
+        assertTrue(f.contains("addi    $sp, $sp, -4"), f);
+    }
+
+    @Test
+    @DisplayName("Las variables globales no ocupan slots del frame")
+    void testGlobalsOutsideFrame() {
+        String f = generateFunction(OptimizationOptions.defaults(),
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.assign("x", "t1"),
+                TACUtils.ret("x"));
+
+        assertTrue(f.contains("0($gp)"), f);
+        assertFalse(f.contains("($fp)"), "x se lee antes de asignarse: es global: " + f);
+    }
+
+    @Test
+    @DisplayName("Función con llamadas conserva el frame completo")
+    void testNonLeafKeepsFrame() {
+        String f = generateFunction(OptimizationOptions.defaults(),
+                TACUtils.call("print", List.of("1")),
+                TACUtils.ret("0"));
+
+        assertTrue(f.contains("sw      $ra"), f);
+        assertTrue(f.contains("sw      $fp"), f);
+        assertTrue(f.contains("lw      $ra"), f);
+    }
+
+    @Test
+    @DisplayName("Sin la optimización toda función lleva frame completo")
+    void testDisabled() {
+        OptimizationOptions options = OptimizationOptions.defaults();
+        options.setFrameElimination(false);
+        String f = generateFunction(options,
+                TACUtils.binary("t1", "7", "*", "3"),
+                TACUtils.ret("t1"));
+
+        assertTrue(f.contains("sw      $ra"), f);
+        assertTrue(f.contains("addi    $sp, $sp, -8"), f);
+        assertFalse(f.contains("-64"), "Sin slots no se reserva espacio de locales: " + f);
+    }
+
+    // ============================================
+    // TESTS DE SLOTS DE SPILL
+    // ============================================
+
+    @Test
+    @DisplayName("El frame reserva exactamente los slots usados")
+    void testExactFrameSize() {
+        String f = generateFunction(OptimizationOptions.defaults(), manyLiveTemporaries(14));
+
+        Matcher reserve = Pattern.compile("addi    \\$sp, \\$sp, -(\\d+)").matcher(f);
+        assertTrue(reserve.find(), f);
+        assertTrue(reserve.find(), "Falta la reserva de slots: " + f);
+        int reserved = Integer.parseInt(reserve.group(1));
+
+        int deepest = 0;
+        Matcher slot = Pattern.compile("-(\\d+)\\(\\$fp\\)").matcher(f);
+        while (slot.find()) {
+            deepest = Math.max(deepest, Integer.parseInt(slot.group(1)));
+        }
+        assertEquals(reserved, deepest, f);
+        assertTrue(reserved < 64, f);
+    }
+
+    @Test
+    @DisplayName("Temporales con rangos disjuntos comparten slot")
+    void testDisjointTemporariesShareSlot() {
+        SpillSlots slots = slotsFor(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.assign("r", "t1"),
+                TACUtils.binary("t2", "x", "+", "2"),
+                TACUtils.assign("r", "t2"));
+
+        assertEquals("-4($fp)", slots.addressOf("t1"));
+        assertEquals("-4($fp)", slots.addressOf("t2"));
+        assertEquals(4, slots.frameSize());
+    }
+
+    @Test
+    @DisplayName("Temporales vivos al mismo tiempo usan slots distintos")
+    void testOverlappingTemporariesSeparate() {
+        SpillSlots slots = slotsFor(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.binary("t2", "x", "+", "2"),
+                TACUtils.binary("r", "t1", "+", "t2"));
+
+        assertEquals("-4($fp)", slots.addressOf("t1"));
+        assertEquals("-8($fp)", slots.addressOf("t2"));
+        assertEquals(8, slots.frameSize());
+    }
+
+    @Test
+    @DisplayName("Cada función tiene su frame y el global se conserva")
+    void testFramePerFunction() {
+        SpillSlots slots = new SpillSlots(tacGen);
+        assertEquals("-4($fp)", slots.addressOf("t1"));
+
+        slots.beginFrame("f");
+        assertEquals(0, slots.frameSize());
+        assertEquals("-4($fp)", slots.addressOf("t7"));
+        assertEquals("-8($fp)", slots.addressOf("t8"));
+
+        slots.beginFrame(null);
+        assertEquals(4, slots.frameSize());
+        assertEquals("-4($fp)", slots.addressOf("t1"));
+    }
+
+    @Test
+    @DisplayName("Locales y parámetros van al frame; globales, arreglos y variables compartidas a $gp")
+    void testLocalClassification() {
+        SpillSlots slots = new SpillSlots(tacGen);
+        slots.setParameters(Map.of("f", List.of("n")));
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.assign("y", "n"),
+                TACUtils.binary("t1", "y", "+", "x"),
+                TACUtils.assign("r", "t1"),
+                TACUtils.assign("a[0]", "y"),
+                TACUtils.ret("r"),
+                TACUtils.end("f"),
+                TACUtils.assign("x", "1"),
+                TACUtils.assignCall("r", "f", List.of("x")));
+        slots.setLiveness(new LivenessAnalysis(new ControlFlowGraph(code)));
+        slots.beginFrame("f");
+
+        assertTrue(slots.isLocal("n"), "Parámetro");
+        assertTrue(slots.isLocal("y"), "Se asigna antes de leerse");
+        assertFalse(slots.isLocal("x"), "Se usa en el código global");
+        assertFalse(slots.isLocal("r"), "Se usa en el código global");
+        assertFalse(slots.isLocal("a"), "Base de un arreglo");
+        assertEquals("-4($fp)", slots.addressOf("n"));
+        assertEquals("-8($fp)", slots.addressOf("y"));
+        assertEquals("0($gp)", slots.addressOf("x"));
+    }
+
+    @Test
+    @DisplayName("Una local leída antes de asignarse en algún camino es global")
+    void testConditionallyAssignedIsGlobal() {
+        SpillSlots slots = slotsFor(
+                TACUtils.label("f"),
+                TACUtils.ifGoto("x", ">", "0", "L1"),
+                TACUtils.assign("y", "1"),
+                TACUtils.label("L1"),
+                TACUtils.ret("y"),
+                TACUtils.end("f"),
+                TACUtils.call("f", List.of()));
+
+        assertFalse(slots.isLocal("y"));
+    }
+
+    @Test
+    @DisplayName("Recursión: el parámetro vive en un $s que cada activación guarda en su frame")
+    void testRecursiveParameterInSavedRegister() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("fact"),
+                TACUtils.ifGoto("n", ">", "1", "L1"),
+                TACUtils.ret("1"),
+                TACUtils.label("L1"),
+                TACUtils.binary("t1", "n", "-", "1"),
+                TACUtils.assignCall("t2", "fact", List.of("t1")),
+                TACUtils.binary("t3", "n", "*", "t2"),
+                TACUtils.ret("t3"),
+                TACUtils.end("fact"),
+                TACUtils.assignCall("r", "fact", List.of("5")));
+        for (RegisterAllocationStrategy.Kind kind : List.of(RegisterAllocationStrategy.Kind.LINEAR_SCAN,
+                RegisterAllocationStrategy.Kind.GRAPH_COLORING)) {
+            MIPSGenerator generator = new MIPSGenerator(tacGen, kind, OptimizationOptions.defaults());
+            generator.setFunctionParameters(Map.of("fact", List.of("n")));
+            String mips = generator.generate(code);
+            String f = mips.substring(mips.indexOf("fact:"), mips.indexOf("jr      $ra", mips.indexOf("fact:")));
+
+            Matcher bind = Pattern.compile("move    (\\$s\\d), \\$a0").matcher(f);
+            assertTrue(bind.find(), kind + ": " + f);
+            String reg = bind.group(1);
+            Matcher save = Pattern.compile("sw      " + Pattern.quote(reg) + ", (-\\d+\\(\\$fp\\))").matcher(f);
+            assertTrue(save.find(), kind + ": el prólogo guarda " + reg + ": " + f);
+            int call = f.indexOf("jal     fact");
+            assertTrue(save.start() < call, kind + ": " + f);
+            assertTrue(f.indexOf("lw      " + reg + ", " + save.group(1), call) > call,
+                    kind + ": el epílogo restaura " + reg + ": " + f);
+            assertTrue(Pattern.compile("mul\\s+\\$\\w+, " + Pattern.quote(reg) + ",").matcher(f.substring(call)).find(),
+                    kind + ": n se lee de " + reg + " después del jal: " + f);
+            assertFalse(f.contains("reload n"), kind + ": " + f);
+            assertFalse(f.contains("($gp)"), kind + ": " + f);
+        }
+    }
+
+    private SpillSlots slotsFor(TACInstruction... code) {
+        SpillSlots slots = new SpillSlots(tacGen);
+        slots.setLiveness(new LivenessAnalysis(new ControlFlowGraph(Arrays.asList(code))));
+        return slots;
+    }
+
+    /**
+     * n temporales vivos a la vez (más que registros $t) sumados al final
+     */
+    private TACInstruction[] manyLiveTemporaries(int n) {
+        List<TACInstruction> body = new ArrayList<>();
+        for (int k = 1; k <= n; k++) {
+            body.add(TACUtils.binary("t" + k, "x", "+", String.valueOf(k)));
+        }
+        String sum = "t1";
+        for (int k = 2; k <= n; k++) {
+            String next = "t" + (n + k);
+            body.add(TACUtils.binary(next, sum, "+", "t" + k));
+            sum = next;
+        }
+        body.add(TACUtils.ret(sum));
+        return body.toArray(new TACInstruction[0]);
+    }
+}
@@ -0,0 +1,243 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para GraphColoringAllocator")
+public class GraphColoringAllocatorTests {
+
+    private TACGenerator tacGen;
+
+    @BeforeEach
+    void setUp() {
+        tacGen = RegisterAllocatorTests.createMockTACGenerator("a", "b", "x", "y", "z", "result");
+    }
+
+    private GraphColoringAllocator prepare(List<TACInstruction> code) {
+        GraphColoringAllocator alloc = new GraphColoringAllocator(tacGen);
+        alloc.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+        return alloc;
+    }
+
+    // ============================================
+    // TESTS DEL GRAFO DE INTERFERENCIA
+    // ============================================
+
+    @Test
+    @DisplayName("Matriz de bits y adyacencia coinciden")
+    void testInterferenceGraphRepresentation() {
+        InterferenceGraph graph = new InterferenceGraph(5);
+        assertTrue(graph.addEdge(0, 3));
+        assertFalse(graph.addEdge(3, 0), "La arista ya existe");
+        assertFalse(graph.addEdge(2, 2), "Sin aristas a sí mismo");
+        graph.addEdge(3, 4);
+
+        assertTrue(graph.interferes(3, 0));
+        assertFalse(graph.interferes(0, 4));
+        assertEquals(2, graph.degree(3));
+        assertArrayEquals(new int[]{0, 4}, graph.neighbors(3), "Vecinos de 3");
+        assertEquals(2, graph.getEdgeCount());
+    }
+
+    @Test
+    @DisplayName("Variables que interfieren reciben registros distintos")
+    void testInterferingNodesGetDifferentColors() {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "+", String.valueOf(i)));
+        }
+        for (int i = 1; i <= 6; i++) {
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+        }
+
+        GraphColoringAllocator alloc = prepare(code);
+        LivenessAnalysis liveness = new LivenessAnalysis(new ControlFlowGraph(code));
+        InterferenceGraph graph = alloc.getInterferenceGraph();
+
+        for (int u = 0; u < graph.size(); u++) {
+            for (int v : graph.neighbors(u)) {
+                String ru = alloc.getRegister(liveness.getVariable(u));
+                String rv = alloc.getRegister(liveness.getVariable(v));
+                if (ru != null && rv != null) {
+                    assertNotEquals(ru, rv, liveness.getVariable(u) + " / " + liveness.getVariable(v));
+                }
+            }
+        }
+        assertTrue(alloc.getSpilledVariables().isEmpty(), "Seis temporales caben en ocho registros");
+    }
+
+    // ============================================
+    // TESTS DE COALESCING
+    // ============================================
+
+    @Test
+    @DisplayName("Cadena de copias se coalesce en un solo registro")
+    void testMoveChainIsCoalesced() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "1"),
+                TACUtils.assign("t2", "t1"),
+                TACUtils.assign("t3", "t2"),
+                TACUtils.binary("t4", "t3", "*", "2"),
+                TACUtils.assign("result", "t4")
+        );
+
+        GraphColoringAllocator alloc = prepare(code);
+
+        String reg = alloc.getRegister("t1");
+        assertNotNull(reg);
+        assertEquals(reg, alloc.getRegister("t2"));
+        assertEquals(reg, alloc.getRegister("t3"));
+        assertEquals(alloc.getRegister("t4"), alloc.getRegister("result"));
+        assertEquals(3, alloc.getCoalescedMoveCount());
+    }
+
+    @Test
+    @DisplayName("Copias entre variables que interfieren no se coalescen")
+    void testInterferingCopyIsNotCoalesced() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "1"),
+                TACUtils.assign("t2", "t1"),
+                TACUtils.binary("t2", "t2", "+", "1"),
+                TACUtils.binary("t3", "t1", "+", "t2"),
+                TACUtils.assign("result", "t3")
+        );
+
+        GraphColoringAllocator alloc = prepare(code);
+
+        assertNotEquals(alloc.getRegister("t1"), alloc.getRegister("t2"),
+                "t1 sigue vivo cuando t2 cambia");
+    }
+
+    // ============================================
+    // TESTS DE SPILLING
+    // ============================================
+
+    @Test
+    @DisplayName("Con más de 8 valores vivos se desaloja el de menor costo")
+    void testSpillsLowestCost() {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "+", String.valueOf(i)));
+        }
+        // t1 se usa muchas veces
+        for (int k = 0; k < 5; k++) {
+            code.add(TACUtils.binary("b", "b", "+", "t1"));
+        }
+        for (int i = 2; i <= 10; i++) {
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+        }
+
+        GraphColoringAllocator alloc = prepare(code);
+
+        assertFalse(alloc.getSpilledVariables().isEmpty(), "Debe desalojar al menos una variable");
+        assertNotNull(alloc.getRegister("t1"), "El valor más usado no debe ir a memoria");
+    }
+
+    // ============================================
+    // TESTS DE LLAMADAS
+    // ============================================
+
+    @Test
+    @DisplayName("Valores leídos después de una llamada van a un $s")
+    void testValuesAcrossCallsGetSavedRegisters() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "1"),
+                TACUtils.call("print", List.of("a")),
+                TACUtils.binary("t2", "t1", "+", "1"),
+                TACUtils.assign("b", "t2")
+        );
+
+        GraphColoringAllocator alloc = prepare(code);
+
+        assertTrue(alloc.getRegister("t1").startsWith("$s"), alloc.getRegister("t1"));
+        assertTrue(alloc.getRegister("t2").startsWith("$t"), alloc.getRegister("t2"));
+    }
+
+    @Test
+    @DisplayName("En una función con llamadas, solo lo que se lee después usa $s")
+    void testLocalsInFunctionWithCall() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.assign("y", "5"),
+                TACUtils.assign("z", "3"),
+                TACUtils.binary("t1", "z", "+", "1"),
+                TACUtils.call("print", List.of("t1")),
+                TACUtils.binary("t2", "y", "+", "2"),
+                TACUtils.ret("t2"),
+                TACUtils.end("f"),
+                TACUtils.call("f", List.of())
+        );
+
+        GraphColoringAllocator alloc = prepare(code);
+
+        assertTrue(alloc.getSpilledVariables().isEmpty(), alloc.getSpilledVariables().toString());
+        assertTrue(alloc.getRegister("y").startsWith("$s"), "y se lee después de la llamada");
+        assertTrue(alloc.getRegister("z").startsWith("$t"), "z muere antes de la llamada");
+        assertEquals(List.of(alloc.getRegister("y")), usedSavedRegisters(alloc, code));
+    }
+
+    @Test
+    @DisplayName("Global leída después de una llamada queda en memoria")
+    void testGlobalReadAfterCallStaysInMemory() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("x", "a", "+", "1"),
+                TACUtils.call("print", List.of("a")),
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.assign("b", "t1")
+        );
+
+        GraphColoringAllocator alloc = prepare(code);
+
+        assertNull(alloc.getRegister("x"), "La función llamada puede modificar x");
+        assertNotNull(alloc.getRegister("a"), "a no se lee después de la llamada");
+    }
+
+    @Test
+    @DisplayName("Global modificada en registro se guarda antes de la llamada, no después")
+    void testDirtyGlobalSavedBeforeCall() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("x", "1"),
+                TACUtils.call("print", List.of("5"))
+        );
+        GraphColoringAllocator alloc = prepare(code);
+        assertNotNull(alloc.getRegister("x"));
+
+        alloc.advanceLine();
+        alloc.markDirty(alloc.getRegForResult("x"));
+        alloc.advanceLine();
+        alloc.saveTemporaries();
+        int saved = alloc.getInstructions().size();
+        alloc.flushAll();
+
+        List<MIPSInstruction> out = alloc.getInstructions();
+        assertEquals(1, saved);
+        assertEquals(MIPSInstruction.OpCode.SW, out.get(0).getOpcode());
+        assertEquals("save x", out.get(0).getComment());
+        assertEquals(saved, out.size(), "El epílogo no pisa lo que escribió la función llamada");
+    }
+
+    /**
+     * Recorre el código como el generador y devuelve los $s que pediría el prólogo
+     */
+    private List<String> usedSavedRegisters(GraphColoringAllocator alloc, List<TACInstruction> code) {
+        for (TACInstruction tac : code) {
+            alloc.advanceLine();
+            for (String use : TACUtils.getUses(tac)) {
+                alloc.getReg(use);
+            }
+            String def = TACUtils.getDefinition(tac);
+            if (def != null) {
+                alloc.markDirty(alloc.getRegForResult(def));
+            }
+            alloc.releaseDeadRegisters();
+        }
+        return alloc.getUsedSavedRegisters();
+    }
+}
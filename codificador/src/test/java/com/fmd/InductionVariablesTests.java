@@ -0,0 +1,181 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para InductionVariables")
+public class InductionVariablesTests {
+
+    /**
+     * Ejecuta el TAC de un solo lazo (asignaciones, +, -, *, <, if, goto)
+     * y devuelve las variables al final
+     */
+    private Map<String, Integer> run(List<TACInstruction> code, Map<String, Integer> initial) {
+        Map<String, Integer> env = new HashMap<>(initial);
+        Map<String, Integer> labels = new HashMap<>();
+        for (int i = 0; i < code.size(); i++) {
+            if (code.get(i).getOp() == OpType.LABEL) labels.put(code.get(i).getLabel(), i);
+        }
+        int pc = 0;
+        for (int steps = 0; pc < code.size() && steps < 10_000; steps++) {
+            TACInstruction tac = code.get(pc++);
+            switch (tac.getOp()) {
+                case ASSIGN:
+                    env.put(tac.getResult(), value(env, tac.getArg1()));
+                    break;
+                case BINARY_OP: {
+                    int a = value(env, tac.getArg1());
+                    int b = value(env, tac.getArg2());
+                    switch (tac.getOperator()) {
+                        case "+": env.put(tac.getResult(), a + b); break;
+                        case "-": env.put(tac.getResult(), a - b); break;
+                        case "*": env.put(tac.getResult(), a * b); break;
+                        case "<": env.put(tac.getResult(), a < b ? 1 : 0); break;
+                        default: fail("Operador no soportado: " + tac.getOperator());
+                    }
+                    break;
+                }
+                case IF_GOTO: {
+                    int a = value(env, tac.getArg1());
+                    int b = value(env, tac.getArg2());
+                    boolean taken;
+                    switch (tac.getRelop()) {
+                        case ">=": taken = a >= b; break;
+                        case "<": taken = a < b; break;
+                        case "==": taken = a == b; break;
+                        default: taken = a != b; break;
+                    }
+                    if (taken) pc = labels.get(tac.getLabel());
+                    break;
+                }
+                case GOTO:
+                    pc = labels.get(tac.getLabel());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return env;
+    }
+
+    private int value(Map<String, Integer> env, String operand) {
+        return TACUtils.isImmediate(operand) ? Integer.parseInt(operand) : env.getOrDefault(operand, 0);
+    }
+
+    /**
+     * i = 0; while (i < n) { t1 = i * 4; t2 = t1 + base; s = s + t2; i = i + 1; }
+     */
+    private List<TACInstruction> sumLoop(String counter) {
+        return List.of(
+                TACUtils.assign(counter, "0"),
+                TACUtils.label("L1"),
+                TACUtils.ifGoto(counter, ">=", "n", "L2"),
+                TACUtils.binary("t1", counter, "*", "4"),
+                TACUtils.binary("t2", "t1", "+", "base"),
+                TACUtils.binary("s", "s", "+", "t2"),
+                TACUtils.binary(counter, counter, "+", "1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L2")
+        );
+    }
+
+    // ============================================
+    // TESTS DE REDUCCIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("i * 4 y base + i * 4 se vuelven incrementos")
+    void testDerivedReduced() {
+        InductionVariables pass = new InductionVariables();
+        List<TACInstruction> out = pass.apply(sumLoop("i"));
+
+        int header = -1;
+        for (int k = 0; k < out.size(); k++) {
+            if (out.get(k).getOp() == OpType.LABEL && "L1".equals(out.get(k).getLabel())) header = k;
+        }
+        for (int k = header; k < out.size(); k++) {
+            TACInstruction tac = out.get(k);
+            assertFalse(tac.getOp() == OpType.BINARY_OP && "*".equals(tac.getOperator()),
+                    "No debe quedar multiplicación dentro del lazo: " + k);
+        }
+        assertEquals(2, pass.getReducedCount());
+    }
+
+    @Test
+    @DisplayName("El resultado del lazo no cambia")
+    void testSameResult() {
+        Map<String, Integer> initial = Map.of("n", 7, "base", 1000, "s", 3);
+        List<TACInstruction> original = sumLoop("i");
+        List<TACInstruction> out = new InductionVariables().apply(original);
+
+        assertEquals(run(original, initial).get("s"), run(out, initial).get("s"));
+        assertEquals(run(original, initial).get("i"), run(out, initial).get("i"),
+                "i sigue viva a la salida y conserva su valor");
+    }
+
+    @Test
+    @DisplayName("Variable básica con paso negativo")
+    void testNegativeStep() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("i", "10"),
+                TACUtils.label("L1"),
+                TACUtils.ifGoto("i", "==", "0", "L2"),
+                TACUtils.binary("t1", "i", "*", "8"),
+                TACUtils.binary("s", "s", "+", "t1"),
+                TACUtils.binary("i", "i", "-", "2"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L2")
+        );
+
+        List<TACInstruction> out = new InductionVariables().apply(code);
+
+        assertEquals(run(code, Map.of()).get("s"), run(out, Map.of()).get("s"));
+    }
+
+    // ============================================
+    // TESTS DE PRUEBA DE SALIDA
+    // ============================================
+
+    @Test
+    @DisplayName("Contador temporal muerto: la prueba usa el puntero y el incremento desaparece")
+    void testExitTestReplaced() {
+        InductionVariables pass = new InductionVariables();
+        List<TACInstruction> out = pass.apply(sumLoop("t9"));
+
+        assertEquals(1, pass.getTestsReplacedCount());
+        assertTrue(out.stream().noneMatch(t -> "t9".equals(t.getResult()) && t.getOp() == OpType.BINARY_OP
+                && "+".equals(t.getOperator())), "El incremento del contador se elimina");
+
+        Map<String, Integer> initial = Map.of("n", 5, "base", 200, "s", 0);
+        assertEquals(run(sumLoop("t9"), initial).get("s"), run(out, initial).get("s"));
+    }
+
+    @Test
+    @DisplayName("Contador vivo a la salida conserva su prueba")
+    void testLiveCounterKeepsTest() {
+        InductionVariables pass = new InductionVariables();
+        List<TACInstruction> out = pass.apply(sumLoop("i"));
+
+        assertEquals(0, pass.getTestsReplacedCount());
+        assertTrue(out.stream().anyMatch(t -> t.getOp() == OpType.IF_GOTO && "i".equals(t.getArg1())));
+    }
+
+    @Test
+    @DisplayName("Lazo con llamada no se modifica")
+    void testLoopWithCallUnchanged() {
+        List<TACInstruction> code = new ArrayList<>(sumLoop("i"));
+        code.add(5, TACUtils.call("print", List.of("s")));
+
+        InductionVariables pass = new InductionVariables();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertEquals(0, pass.getReducedCount());
+        assertEquals(code.size(), out.size());
+    }
+}
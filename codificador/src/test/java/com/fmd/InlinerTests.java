@@ -0,0 +1,203 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para Inliner")
+public class InlinerTests {
+
+    private List<String> labels(List<TACInstruction> code) {
+        return code.stream()
+                .filter(t -> t.getOp() == OpType.LABEL)
+                .map(TACInstruction::getLabel)
+                .collect(Collectors.toList());
+    }
+
+    private boolean hasCallTo(List<TACInstruction> code, String function) {
+        return code.stream().anyMatch(t -> TACUtils.isCall(t) && function.equals(t.getArg1()));
+    }
+
+    /**
+     * function abs(x) { if (x >= 0) return x; return -x; }
+     */
+    private List<TACInstruction> absFunction() {
+        return List.of(
+                TACUtils.label("abs"),
+                TACUtils.ifGoto("x", ">=", "0", "L1"),
+                TACUtils.unary("t1", "-", "x"),
+                TACUtils.ret("t1"),
+                TACUtils.label("L1"),
+                TACUtils.ret("x"),
+                TACUtils.end("abs")
+        );
+    }
+
+    // ============================================
+    // TESTS DE EXPANSIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("makeAdder(5) se expande y se pliega a 10")
+    void testInlineThenFold() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("makeAdder"),
+                TACUtils.binary("t1", "x", "+", "5"),
+                TACUtils.ret("t1"),
+                TACUtils.end("makeAdder"),
+                TACUtils.assignCall("t2", "makeAdder", List.of("5")),
+                TACUtils.assign("addFive", "t2"),
+                TACUtils.call("print", List.of("addFive"))
+        );
+
+        Inliner inliner = new Inliner();
+        List<TACInstruction> out = inliner.apply(code);
+
+        assertFalse(hasCallTo(out, "makeAdder"));
+        assertFalse(labels(out).contains("makeAdder"), "La función sin llamadas se elimina");
+        assertEquals(1, inliner.getInlinedCount());
+        assertEquals(1, inliner.getFunctionsRemovedCount());
+
+        List<TACInstruction> folded = new ConstantPropagation().apply(out);
+        TACInstruction print = folded.get(folded.size() - 1);
+        assertEquals("10", print.getParams().get(0));
+    }
+
+    @Test
+    @DisplayName("Cada copia recibe etiquetas y temporales propios")
+    void testRenaming() {
+        List<TACInstruction> code = new ArrayList<>(absFunction());
+        code.add(TACUtils.assignCall("a", "abs", List.of("p")));
+        code.add(TACUtils.assignCall("b", "abs", List.of("q")));
+        code.add(TACUtils.call("print", List.of("a", "b")));
+
+        List<TACInstruction> out = new Inliner().apply(code);
+
+        List<String> names = labels(out);
+        assertEquals(new HashSet<>(names).size(), names.size(), "Etiquetas repetidas: " + names);
+        assertFalse(names.contains("L1"));
+
+        Set<String> temps = new HashSet<>();
+        for (TACInstruction tac : out) {
+            if (tac.getOp() == OpType.UNARY_OP) {
+                assertTrue(temps.add(tac.getResult()), "Temporal repetido: " + tac.getResult());
+                assertNotEquals("t1", tac.getResult());
+            }
+        }
+        assertEquals(2, temps.size());
+        assertFalse(out.stream().anyMatch(t -> "x".equals(t.getArg1())), "x se reemplaza por el argumento");
+    }
+
+    @Test
+    @DisplayName("Parámetros del mapa se asignan en orden")
+    void testExplicitParameters() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("sub"),
+                TACUtils.binary("t1", "b", "-", "a"),
+                TACUtils.ret("t1"),
+                TACUtils.end("sub"),
+                TACUtils.assignCall("r", "sub", List.of("10", "3"))
+        );
+
+        assertEquals(0, new Inliner().apply(code).stream()
+                .filter(t -> t.getOp() == OpType.BINARY_OP && "-".equals(t.getOperator())
+                        && !"t1".equals(t.getResult())).count(),
+                "Sin mapa el orden de dos parámetros no se infiere");
+
+        List<TACInstruction> out = new Inliner(Map.of("sub", List.of("a", "b")), 12, 50).apply(code);
+        TACInstruction bindA = out.get(0);
+        TACInstruction bindB = out.get(1);
+        assertEquals("10", bindA.getArg1());
+        assertEquals("3", bindB.getArg1());
+        TACInstruction sub = out.get(2);
+        assertEquals(bindB.getResult(), sub.getArg1());
+        assertEquals(bindA.getResult(), sub.getArg2());
+    }
+
+    // ============================================
+    // TESTS DE LÍMITES
+    // ============================================
+
+    @Test
+    @DisplayName("Funciones recursivas no se expanden")
+    void testRecursiveNotInlined() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.binary("t1", "n", "-", "1"),
+                TACUtils.assignCall("t2", "f", List.of("t1")),
+                TACUtils.ret("t2"),
+                TACUtils.end("f"),
+                TACUtils.assignCall("r", "f", List.of("3"))
+        );
+
+        Inliner inliner = new Inliner();
+        List<TACInstruction> out = inliner.apply(code);
+
+        assertEquals(0, inliner.getInlinedCount());
+        assertEquals(code.size(), out.size());
+    }
+
+    @Test
+    @DisplayName("Límite de tamaño: una sola llamada admite funciones más grandes")
+    void testSizeLimit() {
+        List<TACInstruction> body = new ArrayList<>();
+        body.add(TACUtils.label("big"));
+        body.add(TACUtils.assign("t1", "x"));
+        for (int k = 0; k < 8; k++) {
+            body.add(TACUtils.binary("t1", "t1", "+", String.valueOf(k)));
+        }
+        body.add(TACUtils.ret("t1"));
+        body.add(TACUtils.end("big"));
+
+        List<TACInstruction> once = new ArrayList<>(body);
+        once.add(TACUtils.assignCall("r", "big", List.of("1")));
+        Inliner inliner = new Inliner(Map.of(), 4, 50);
+        inliner.apply(once);
+        assertEquals(1, inliner.getInlinedCount());
+
+        List<TACInstruction> twice = new ArrayList<>(once);
+        twice.add(TACUtils.assignCall("s", "big", List.of("2")));
+        inliner.apply(twice);
+        assertEquals(0, inliner.getInlinedCount());
+    }
+
+    @Test
+    @DisplayName("El presupuesto de crecimiento limita las expansiones")
+    void testGrowthBudget() {
+        List<TACInstruction> code = new ArrayList<>(absFunction());
+        for (int k = 0; k < 6; k++) {
+            code.add(TACUtils.assignCall("r" + k, "abs", List.of("p" + k)));
+        }
+
+        // 13 instrucciones al 200%: 26 de crecimiento, 7 por expansión
+        Inliner inliner = new Inliner(Map.of(), 12, 200);
+        List<TACInstruction> out = inliner.apply(code);
+
+        assertEquals(3, inliner.getInlinedCount());
+        assertEquals(code.size() + 3 * 7, out.size());
+        assertTrue(hasCallTo(out, "abs"));
+        assertTrue(labels(out).contains("abs"), "La función sigue en uso");
+    }
+
+    @Test
+    @DisplayName("Un programa pequeño puede crecer hasta el límite de tamaño")
+    void testGrowthBudgetFloor() {
+        List<TACInstruction> code = new ArrayList<>(absFunction());
+        for (int k = 0; k < 6; k++) {
+            code.add(TACUtils.assignCall("r" + k, "abs", List.of("p" + k)));
+        }
+
+        // 0% de crecimiento, pero el piso de 12 instrucciones admite una expansión
+        Inliner inliner = new Inliner(Map.of(), 12, 0);
+        List<TACInstruction> out = inliner.apply(code);
+
+        assertEquals(1, inliner.getInlinedCount());
+        assertEquals(code.size() + 7, out.size());
+    }
+}
@@ -0,0 +1,169 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para InstructionScheduler")
+public class InstructionSchedulerTests {
+
+    private List<String> schedule(boolean noReorder, MIPSInstruction... code) {
+        return text(new InstructionScheduler(PipelineModel.fiveStage(), noReorder).schedule(Arrays.asList(code)));
+    }
+
+    private static List<String> text(List<MIPSInstruction> code) {
+        return code.stream()
+                .map(MIPSInstruction::toString)
+                .map(String::trim)
+                .map(s -> s.replaceAll("\\s+", " "))
+                .collect(Collectors.toList());
+    }
+
+    // ============================================
+    // TESTS DE LATENCIA
+    // ============================================
+
+    @Test
+    @DisplayName("Una instrucción independiente se mueve entre lw y su uso")
+    void testHidesLoadLatency() {
+        List<MIPSInstruction> code = List.of(
+                MIPSInstruction.loadStore(OpCode.LW, "$t0", "0($gp)"),
+                MIPSInstruction.typeR(OpCode.ADD, "$t1", "$t0", "$t0"),
+                MIPSInstruction.li("$t2", 5));
+        InstructionScheduler scheduler = new InstructionScheduler(PipelineModel.fiveStage(), false);
+        List<MIPSInstruction> out = scheduler.schedule(code);
+
+        assertEquals(List.of("lw $t0, 0($gp)", "li $t2, 5", "add $t1, $t0, $t0"), text(out));
+        assertEquals(1, InstructionScheduler.countStalls(code, PipelineModel.fiveStage()));
+        assertEquals(0, InstructionScheduler.countStalls(out, PipelineModel.fiveStage()));
+    }
+
+    @Test
+    @DisplayName("Las dependencias de registros conservan el orden")
+    void testRegisterDependencies() {
+        List<String> out = schedule(false,
+                MIPSInstruction.li("$t0", 1),
+                MIPSInstruction.typeI(OpCode.ADDI, "$t1", "$t0", 2),
+                MIPSInstruction.li("$t0", 3),
+                MIPSInstruction.typeR(OpCode.ADD, "$t2", "$t1", "$t0"));
+
+        assertEquals(List.of("li $t0, 1", "addi $t1, $t0, 2", "li $t0, 3", "add $t2, $t1, $t0"), out);
+    }
+
+    @Test
+    @DisplayName("Un desplazamiento lee su operando en rt")
+    void testShiftReadsRt() {
+        MIPSInstruction shift = MIPSInstruction.shift(OpCode.SLL, "$t1", "$t0", 2);
+        assertEquals("$t0", shift.getRt());
+        assertNull(shift.getRs());
+        assertEquals(Set.of("$t0"), InstructionScheduler.uses(shift));
+
+        List<String> out = schedule(false,
+                MIPSInstruction.loadStore(OpCode.LW, "$t0", "0($gp)"),
+                shift,
+                MIPSInstruction.li("$t2", 5));
+        assertEquals(List.of("lw $t0, 0($gp)", "li $t2, 5", "sll $t1, $t0, 2"), out);
+    }
+
+    @Test
+    @DisplayName("Un lw no pasa a un sw de la misma dirección")
+    void testMemoryDependencies() {
+        List<String> aliased = schedule(false,
+                MIPSInstruction.loadStore(OpCode.SW, "$t0", "-4($fp)"),
+                MIPSInstruction.loadStore(OpCode.LW, "$t1", "-4($fp)"));
+        assertEquals(List.of("sw $t0, -4($fp)", "lw $t1, -4($fp)"), aliased);
+
+        List<String> disjoint = schedule(false,
+                MIPSInstruction.loadStore(OpCode.SW, "$t0", "-4($fp)"),
+                MIPSInstruction.loadStore(OpCode.LW, "$t1", "0($gp)"));
+        assertEquals(List.of("lw $t1, 0($gp)", "sw $t0, -4($fp)"), disjoint);
+    }
+
+    @Test
+    @DisplayName("Nada cruza etiquetas ni syscalls")
+    void testBarriers() {
+        List<String> out = schedule(false,
+                MIPSInstruction.loadStore(OpCode.LW, "$t0", "0($gp)"),
+                MIPSInstruction.typeR(OpCode.ADD, "$t1", "$t0", "$t0"),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.li("$t2", 5),
+                MIPSInstruction.syscall());
+
+        assertEquals(List.of("lw $t0, 0($gp)", "add $t1, $t0, $t0", "L1:", "li $t2, 5", "syscall"), out);
+    }
+
+    // ============================================
+    // TESTS DE DELAY SLOTS
+    // ============================================
+
+    @Test
+    @DisplayName("noreorder: el delay slot se llena con una instrucción independiente")
+    void testFillsDelaySlot() {
+        InstructionScheduler scheduler = new InstructionScheduler(PipelineModel.fiveStage(), true);
+        List<String> out = text(scheduler.schedule(List.of(
+                MIPSInstruction.typeI(OpCode.ADDI, "$t1", "$t2", 3),
+                MIPSInstruction.li("$t0", 1),
+                MIPSInstruction.branchUnary(OpCode.BEQZ, "$t0", "L1"),
+                MIPSInstruction.label("L1"))));
+
+        assertEquals(List.of("li $t0, 1", "beqz $t0, L1", "addi $t1, $t2, 3", "L1:"), out);
+        assertEquals(1, scheduler.getFilledSlotsCount());
+        assertEquals(".set noreorder", scheduler.getDirective());
+    }
+
+    @Test
+    @DisplayName("noreorder: sin candidato el delay slot lleva nop")
+    void testNopWhenNoFiller() {
+        InstructionScheduler scheduler = new InstructionScheduler(PipelineModel.fiveStage(), true);
+        List<String> out = text(scheduler.schedule(List.of(
+                MIPSInstruction.li("$t0", 1),
+                MIPSInstruction.branchUnary(OpCode.BEQZ, "$t0", "L1"),
+                MIPSInstruction.move("$a0", "$t0"),
+                MIPSInstruction.jump(OpCode.JAL, "print"),
+                MIPSInstruction.label("L1"))));
+
+        assertEquals(List.of("li $t0, 1", "beqz $t0, L1", "nop", "jal print", "move $a0, $t0", "L1:"), out);
+        assertEquals(1, scheduler.getNopCount());
+    }
+
+    @Test
+    @DisplayName("jal no se llena con lo que lee $ra")
+    void testJalKeepsReturnAddress() {
+        List<String> out = schedule(true,
+                MIPSInstruction.move("$t0", "$ra"),
+                MIPSInstruction.jump(OpCode.JAL, "print"));
+
+        assertEquals(List.of("move $t0, $ra", "jal print", "nop"), out);
+    }
+
+    @Test
+    @DisplayName("reorder: los saltos quedan al final sin delay slot explícito")
+    void testReorderMode() {
+        InstructionScheduler scheduler = new InstructionScheduler(PipelineModel.fiveStage(), false);
+        List<String> out = text(scheduler.schedule(List.of(
+                MIPSInstruction.typeI(OpCode.ADDI, "$t1", "$t2", 3),
+                MIPSInstruction.jump(OpCode.J, "L1"),
+                MIPSInstruction.label("L1"))));
+
+        assertEquals(List.of("addi $t1, $t2, 3", "j L1", "L1:"), out);
+        assertEquals(".set reorder", scheduler.getDirective());
+    }
+
+    // ============================================
+    // TESTS DE CONFIGURACIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("Latencias inválidas se rechazan")
+    void testInvalidModel() {
+        assertThrows(IllegalArgumentException.class, () -> new PipelineModel(0, 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> OptimizationOptions.defaults().setPipelineModel(null));
+    }
+}
@@ -0,0 +1,130 @@
+package com.fmd;
+
+import com.fmd.modules.Symbol;
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para la selección de instrucciones con inmediatos")
+public class InstructionSelectionTests {
+
+    private TACGenerator tacGen;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, SemanticVisitor.Entorno> scopeTable = new HashMap<>();
+        SemanticVisitor.Entorno root = new SemanticVisitor.Entorno(null, "0");
+        scopeTable.put("0", root);
+
+        String[] vars = {"a", "b", "x", "ok"};
+        for (int i = 0; i < vars.length; i++) {
+            Symbol sym = new Symbol(vars[i], Symbol.Kind.VARIABLE, "integer", null, 1, 1, true);
+            sym.setOffset(i * 4);
+            sym.setSize(4);
+            root.agregar(sym);
+        }
+
+        tacGen = new TACGenerator(scopeTable);
+        tacGen.setCurrentScopeLine("0");
+    }
+
+    private String generate(OptimizationOptions options, TACInstruction... code) {
+        MIPSGenerator generator = new MIPSGenerator(tacGen, RegisterAllocationStrategy.Kind.LOCAL, options);
+        return generator.generate(new ArrayList<>(Arrays.asList(code)));
+    }
+
+    // ============================================
+    // TESTS DE FORMAS INMEDIATAS
+    // ============================================
+
+    @Test
+    @DisplayName("Comparación con constante usa slti sin cargar la constante")
+    void testComparisonUsesSlti() {
+        String mips = generate(OptimizationOptions.defaults(),
+                TACUtils.binary("t1", "a", "<", "10"),
+                TACUtils.binary("t2", "b", ">", "3"),
+                TACUtils.assign("x", "t1"),
+                TACUtils.assign("ok", "t2"));
+
+        assertTrue(mips.contains("slti"), mips);
+        assertTrue(mips.contains("xori"), "x > c se invierte con xori");
+        assertFalse(mips.contains("li      $t"), "Las constantes no se cargan: " + mips);
+    }
+
+    @Test
+    @DisplayName("Operadores lógicos con constante usan andi y ori")
+    void testLogicalImmediates() {
+        String mips = generate(OptimizationOptions.defaults(),
+                TACUtils.binary("t1", "a", "&&", "true"),
+                TACUtils.binary("t2", "false", "||", "b"),
+                TACUtils.assign("x", "t1"),
+                TACUtils.assign("ok", "t2"));
+
+        assertTrue(mips.contains("andi"), mips);
+        assertTrue(mips.contains("ori"), mips);
+    }
+
+    @Test
+    @DisplayName("Comparaciones con cero usan $zero")
+    void testZeroComparisons() {
+        OptimizationOptions options = OptimizationOptions.defaults();
+        options.setBranchOptimization(false);
+        String mips = generate(options,
+                TACUtils.ifGoto("a", "==", "0", "L1"),
+                TACUtils.binary("t1", "b", "!=", "0"),
+                TACUtils.assign("x", "t1"),
+                TACUtils.label("L1"));
+
+        assertTrue(mips.contains("beq     $"), mips);
+        assertTrue(mips.contains(", $zero, L1"), mips);
+        assertTrue(mips.contains("sne"), mips);
+        assertFalse(mips.contains("li      $t"), mips);
+    }
+
+    @Test
+    @DisplayName("if x < c goto usa slti y branch contra $zero")
+    void testBranchAgainstConstant() {
+        String mips = generate(OptimizationOptions.defaults(),
+                TACUtils.ifGoto("a", ">=", "100", "L1"),
+                TACUtils.assign("x", "1"),
+                TACUtils.label("L1"));
+
+        assertTrue(mips.contains("slti"), mips);
+        assertTrue(mips.contains("beq"), "x >= c salta cuando slti da 0: " + mips);
+        assertFalse(mips.contains("bge"), mips);
+    }
+
+    // ============================================
+    // TESTS DE CONSTANTES GRANDES
+    // ============================================
+
+    @Test
+    @DisplayName("Constante de 32 bits se carga con lui/ori")
+    void testLargeConstantUsesLuiOri() {
+        String mips = generate(OptimizationOptions.defaults(),
+                TACUtils.assign("x", "305419896"),     // 0x12345678
+                TACUtils.binary("a", "b", "+", "65536"));
+
+        assertTrue(mips.contains("lui     $"), mips);
+        assertTrue(mips.contains(", 4660"), "Parte alta 0x1234: " + mips);
+        assertTrue(mips.contains(", 22136"), "Parte baja 0x5678: " + mips);
+        assertFalse(mips.contains("addi    $t0, $t0, 65536"), "65536 no cabe en addi");
+    }
+
+    @Test
+    @DisplayName("Sin la opción se mantiene li")
+    void testDisabledKeepsLi() {
+        String mips = generate(OptimizationOptions.none(),
+                TACUtils.binary("t1", "a", "<", "10"),
+                TACUtils.assign("x", "t1"));
+
+        assertFalse(mips.contains("slti"), mips);
+        assertTrue(mips.contains("slt"), mips);
+        assertTrue(mips.contains("li"), mips);
+    }
+}
@@ -0,0 +1,304 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para LinearScanAllocator")
+public class LinearScanAllocatorTests {
+
+    private TACGenerator tacGen;
+
+    @BeforeEach
+    void setUp() {
+        tacGen = RegisterAllocatorTests.createMockTACGenerator("a", "b", "x", "y", "z", "result");
+    }
+
+    private LinearScanAllocator prepare(List<TACInstruction> code) {
+        LinearScanAllocator alloc = new LinearScanAllocator(tacGen);
+        alloc.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+        return alloc;
+    }
+
+    // ============================================
+    // TESTS DE INTERVALOS
+    // ============================================
+
+    @Test
+    @DisplayName("Intervalos que se solapan tienen registros distintos")
+    void testOverlappingIntervalsGetDifferentRegisters() {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "+", String.valueOf(i)));
+        }
+        for (int i = 1; i <= 6; i++) {
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+        }
+
+        LinearScanAllocator alloc = prepare(code);
+
+        Set<String> registers = new HashSet<>();
+        for (int i = 1; i <= 6; i++) {
+            LinearScanAllocator.Interval iv = alloc.getInterval("t" + i);
+            assertNotNull(iv.getRegister(), "t" + i + " debe tener registro");
+            registers.add(iv.getRegister());
+        }
+        assertEquals(6, registers.size(), "Seis valores vivos a la vez: seis registros");
+        assertEquals(0, alloc.getSpillCount());
+    }
+
+    @Test
+    @DisplayName("Intervalos disjuntos reutilizan registros")
+    void testDisjointIntervalsShareRegisters() {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "*", String.valueOf(i)));
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+        }
+
+        LinearScanAllocator alloc = prepare(code);
+
+        assertEquals(0, alloc.getSpillCount(), "Nunca hay más de 8 valores vivos");
+    }
+
+    // ============================================
+    // TESTS DE SPILLING
+    // ============================================
+
+    @Test
+    @DisplayName("Con más de 8 valores vivos se desaloja el de menor peso")
+    void testSpillsLowestWeight() {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "+", String.valueOf(i)));
+        }
+        // t1 se usa muchas veces, t9 una sola vez al final
+        for (int k = 0; k < 5; k++) {
+            code.add(TACUtils.binary("b", "b", "+", "t1"));
+        }
+        for (int i = 2; i <= 9; i++) {
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+        }
+
+        LinearScanAllocator alloc = prepare(code);
+
+        assertTrue(alloc.getSpillCount() >= 1, "Debe desalojar al menos un intervalo");
+        LinearScanAllocator.Interval hot = alloc.getInterval("t1");
+        assertFalse(hot.isSpilled(), "El valor más usado no debe ir a memoria");
+        assertEquals(-1, hot.getSplitPosition());
+    }
+
+    @Test
+    @DisplayName("Valor en memoria se recarga en scratch y se guarda al definirse")
+    void testSpilledValueUsesScratch() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("x", "a", "+", "1"),
+                TACUtils.call("print", List.of("a")),
+                TACUtils.binary("t2", "x", "+", "1")
+        );
+        LinearScanAllocator alloc = prepare(code);
+
+        alloc.advanceLine();
+        alloc.getReg("a");
+        String r1 = alloc.getRegForResult("x");
+        alloc.markDirty(r1);
+        assertEquals("$t8", r1, "x vive en memoria: usa scratch");
+
+        alloc.advanceLine();
+        alloc.advanceLine();
+        String src = alloc.getReg("x");
+
+        List<String> comments = new ArrayList<>();
+        for (MIPSInstruction instr : alloc.getInstructions()) {
+            comments.add(instr.getOpcode() + " " + instr.getComment());
+        }
+        int store = comments.indexOf("SW spill x");
+        int load = comments.indexOf("LW reload x");
+        assertTrue(store >= 0, "Store al definir x");
+        assertTrue(load > store, "Load al usar x después del store");
+        assertTrue(src.equals("$t8") || src.equals("$t9"));
+    }
+
+    @Test
+    @DisplayName("Con más valores vivos que registros, la constante más barata se recalcula con li")
+    void testSpilledConstantIsRematerialized() {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 2; i <= 9; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "+", String.valueOf(i)));
+        }
+        code.add(TACUtils.assign("t1", "7"));
+        for (int k = 0; k < 3; k++) {
+            for (int i = 2; i <= 9; i++) {
+                code.add(TACUtils.binary("b", "b", "+", "t" + i));
+            }
+        }
+        code.add(TACUtils.binary("t10", "t1", "+", "a"));
+        LinearScanAllocator alloc = prepare(code);
+        assertTrue(alloc.getInterval("t1").isSpilled());
+
+        for (int i = 0; i <= 8; i++) {
+            alloc.advanceLine();
+        }
+        alloc.markDirty(alloc.getRegForResult("t1"));
+        for (int i = 9; i < code.size(); i++) {
+            alloc.advanceLine();
+        }
+        String src = alloc.getReg("t1");
+
+        List<MIPSInstruction> out = alloc.getInstructions();
+        assertTrue(out.stream().noneMatch(instr -> instr.getOpcode() == MIPSInstruction.OpCode.SW),
+                "Sin store al definir t1");
+        MIPSInstruction remat = out.get(out.size() - 1);
+        assertEquals(MIPSInstruction.OpCode.LI, remat.getOpcode());
+        assertEquals(src, remat.getRd());
+        assertEquals("7", remat.getImmediate());
+        assertEquals(1, alloc.getRematerializedCount());
+    }
+
+    // ============================================
+    // TESTS DE LLAMADAS
+    // ============================================
+
+    @Test
+    @DisplayName("Valores leídos después de una llamada van a un $s")
+    void testValuesAcrossCallsGetSavedRegisters() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "1"),
+                TACUtils.call("print", List.of("a")),
+                TACUtils.binary("t2", "t1", "+", "1"),
+                TACUtils.assign("b", "t2")
+        );
+
+        LinearScanAllocator alloc = prepare(code);
+
+        LinearScanAllocator.Interval across = alloc.getInterval("t1");
+        assertTrue(across.crossesCall());
+        assertFalse(across.isSpilled());
+        assertTrue(across.getRegister().startsWith("$s"), across.toString());
+        assertTrue(alloc.getInterval("t2").getRegister().startsWith("$t"));
+    }
+
+    @Test
+    @DisplayName("En una función con llamadas, las locales no se desalojan enteras")
+    void testLocalsInFunctionWithCall() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("f"),
+                TACUtils.assign("y", "5"),
+                TACUtils.assign("z", "3"),
+                TACUtils.binary("t1", "z", "+", "1"),
+                TACUtils.call("print", List.of("t1")),
+                TACUtils.binary("t2", "y", "+", "2"),
+                TACUtils.ret("t2"),
+                TACUtils.end("f"),
+                TACUtils.call("f", List.of())
+        );
+
+        LinearScanAllocator alloc = prepare(code);
+
+        assertEquals(0, alloc.getSpillCount());
+        assertTrue(alloc.getInterval("y").getRegister().startsWith("$s"), "y se lee después de la llamada");
+        assertFalse(alloc.getInterval("z").crossesCall(), "z muere antes de la llamada");
+        assertTrue(alloc.getInterval("z").getRegister().startsWith("$t"));
+    }
+
+    @Test
+    @DisplayName("Más valores a través de llamadas que $s: se desaloja el de menor peso")
+    void testSavedRegistersSpillLowestWeight() {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "+", String.valueOf(i)));
+        }
+        code.add(TACUtils.call("print", List.of("a")));
+        for (int k = 0; k < 5; k++) {
+            code.add(TACUtils.binary("b", "b", "+", "t1"));
+        }
+        for (int i = 2; i <= 9; i++) {
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+        }
+
+        LinearScanAllocator alloc = prepare(code);
+
+        int spilled = 0;
+        for (int i = 1; i <= 9; i++) {
+            LinearScanAllocator.Interval iv = alloc.getInterval("t" + i);
+            if (iv.isSpilled() || iv.getSplitPosition() >= 0) spilled++;
+        }
+        assertEquals(1, spilled, "Ocho $s para nueve valores");
+        assertTrue(alloc.getInterval("t1").getRegister().startsWith("$s"));
+        assertEquals(-1, alloc.getInterval("t1").getSplitPosition(), "El valor más usado no se parte");
+    }
+
+    @Test
+    @DisplayName("Global leída después de una llamada queda en memoria")
+    void testGlobalReadAfterCallIsSpilled() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("x", "a", "+", "1"),
+                TACUtils.call("print", List.of("a")),
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.assign("b", "t1")
+        );
+
+        LinearScanAllocator alloc = prepare(code);
+
+        assertTrue(alloc.getInterval("x").crossesCall());
+        assertTrue(alloc.getInterval("x").isSpilled(), "La función llamada puede modificar x");
+    }
+
+    // ============================================
+    // TESTS COMPARATIVOS
+    // ============================================
+
+    @Test
+    @DisplayName("Código lineal largo: linear scan no genera más tráfico que getReg")
+    void testLinearScanReducesSpillsOnStraightLineCode() {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 1; i <= 14; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "*", String.valueOf(i)));
+        }
+        for (int i = 1; i <= 14; i++) {
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+            code.add(TACUtils.binary("b", "b", "+", "t" + (15 - i)));
+        }
+        code.add(TACUtils.assign("result", "b"));
+
+        long local = countMemoryOps(RegisterAllocationStrategy.Kind.LOCAL, code);
+        long linear = countMemoryOps(RegisterAllocationStrategy.Kind.LINEAR_SCAN, code);
+
+        assertTrue(linear <= local, "linear scan (" + linear + ") <= getReg (" + local + ")");
+    }
+
+    /**
+     * Asigna registros como lo haría MIPSGenerator y cuenta LW/SW
+     */
+    private long countMemoryOps(RegisterAllocationStrategy.Kind kind, List<TACInstruction> code) {
+        RegisterAllocationStrategy alloc = RegisterAllocationStrategy.create(kind, tacGen);
+        alloc.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+
+        List<MIPSInstruction> out = new ArrayList<>();
+        for (TACInstruction tac : code) {
+            alloc.advanceLine();
+            for (String use : TACUtils.getUses(tac)) {
+                alloc.getReg(use);
+            }
+            String def = TACUtils.getDefinition(tac);
+            if (def != null) {
+                alloc.markDirty(alloc.getRegForResult(def));
+            }
+            alloc.releaseDeadRegisters();
+            out.addAll(alloc.drainInstructions());
+        }
+        alloc.flushAll();
+        out.addAll(alloc.drainInstructions());
+
+        return out.stream()
+                .filter(i -> i.getOpcode() == MIPSInstruction.OpCode.SW
+                        || i.getOpcode() == MIPSInstruction.OpCode.LW)
+                .count();
+    }
+}
@@ -0,0 +1,125 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para LivenessAnalysis")
+public class LivenessAnalysisTests {
+
+    private LivenessAnalysis analyze(List<TACInstruction> code) {
+        return new LivenessAnalysis(new ControlFlowGraph(code));
+    }
+
+    // ============================================
+    // TESTS DE CÓDIGO LINEAL
+    // ============================================
+
+    @Test
+    @DisplayName("Temporal muere después de su último uso")
+    void testTemporaryDiesAfterLastUse() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "1"),   // 0
+                TACUtils.binary("t2", "t1", "*", "2"),  // 1
+                TACUtils.assign("b", "t2")              // 2
+        );
+
+        LivenessAnalysis live = analyze(code);
+
+        assertTrue(live.isLiveOut(0, "t1"), "t1 vive hasta la instrucción 1");
+        assertFalse(live.isLiveOut(1, "t1"), "t1 muere después de la instrucción 1");
+        assertFalse(live.isLiveOut(2, "t2"), "t2 muere después de la asignación");
+    }
+
+    @Test
+    @DisplayName("Variables del programa viven a la salida")
+    void testProgramVariablesLiveAtExit() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("a", "5"),
+                TACUtils.assign("t1", "a")
+        );
+
+        LivenessAnalysis live = analyze(code);
+
+        assertTrue(live.isLiveOut(1, "a"), "a vive en memoria al final");
+        assertFalse(live.isLiveOut(1, "t1"), "t1 no se usa más");
+    }
+
+    @Test
+    @DisplayName("Temporal sin usos está muerto desde su definición")
+    void testUnusedTemporaryIsDead() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "b"),
+                TACUtils.assign("c", "a")
+        );
+
+        LivenessAnalysis live = analyze(code);
+
+        assertFalse(live.isLiveOut(0, "t1"));
+    }
+
+    // ============================================
+    // TESTS DE FLUJO DE CONTROL
+    // ============================================
+
+    @Test
+    @DisplayName("Temporal usado en la cabecera vive a través del lazo")
+    void testLiveAroundLoop() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "0"),             // 0
+                TACUtils.label("L1"),                   // 1
+                TACUtils.ifGoto("t1", ">=", "10", "L2"),// 2
+                TACUtils.binary("t1", "t1", "+", "1"),  // 3
+                TACUtils.gotoLabel("L1"),               // 4
+                TACUtils.label("L2"),                   // 5
+                TACUtils.assign("x", "1")               // 6
+        );
+
+        LivenessAnalysis live = analyze(code);
+
+        assertTrue(live.isLiveOut(3, "t1"), "t1 vive por la arista de retroceso");
+        assertTrue(live.isLiveOut(4, "t1"));
+        assertFalse(live.isLiveIn(5, "t1"), "t1 está muerto a la salida del lazo");
+
+        ControlFlowGraph cfg = live.getCfg();
+        int header = cfg.getBlockByLabel("L1");
+        assertTrue(live.namesOf(live.getBlockLiveIn(header)).contains("t1"));
+    }
+
+    @Test
+    @DisplayName("Sin lectura de memoria en llamadas, una variable pisada después muere")
+    void testCallsWithoutMemoryReads() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("x", "1"),                  // 0
+                TACUtils.call("print", List.of("5")),       // 1
+                TACUtils.assign("x", "2")                   // 2
+        );
+        ControlFlowGraph cfg = new ControlFlowGraph(code);
+
+        LivenessAnalysis conservative = new LivenessAnalysis(cfg);
+        LivenessAnalysis precise = new LivenessAnalysis(cfg, false);
+
+        assertTrue(conservative.isLiveOut(0, "x"), "La llamada puede leer x");
+        assertFalse(precise.isLiveOut(0, "x"), "Nadie lee x antes de pisarla");
+        assertTrue(precise.isLiveOut(2, "x"), "x sigue viva a la salida");
+        assertFalse(precise.isReadFrom(1, "x"));
+    }
+
+    @Test
+    @DisplayName("Los accesos a arreglo leen la base y el índice")
+    void testArrayAccessUses() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "2"),
+                TACUtils.assign("numbers[t1]", "7")
+        );
+
+        LivenessAnalysis live = analyze(code);
+
+        assertTrue(live.isLiveOut(0, "t1"), "El índice t1 se lee en la escritura");
+        assertTrue(live.isLiveIn(1, "numbers"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para LocalValueNumbering")
+public class LocalValueNumberingTests {
+
+    // ============================================
+    // TESTS DE REUTILIZACIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("Expresión repetida se vuelve copia del primer resultado")
+    void testRedundantExpressionReused() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "b"),
+                TACUtils.binary("t2", "a", "+", "b"),
+                TACUtils.unary("t3", "-", "t1"),
+                TACUtils.unary("t4", "-", "t2")
+        );
+
+        LocalValueNumbering pass = new LocalValueNumbering();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertEquals(OpType.ASSIGN, out.get(1).getOp());
+        assertEquals("t1", out.get(1).getArg1());
+        assertEquals(OpType.ASSIGN, out.get(3).getOp(), "-t2 tiene el mismo valor que -t1");
+        assertEquals("t3", out.get(3).getArg1());
+        assertEquals(2, pass.getReusedCount());
+    }
+
+    @Test
+    @DisplayName("Operadores conmutativos y comparaciones espejo")
+    void testCommutativity() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "*", "b"),
+                TACUtils.binary("t2", "b", "*", "a"),
+                TACUtils.binary("t3", "a", "<", "b"),
+                TACUtils.binary("t4", "b", ">", "a"),
+                TACUtils.binary("t5", "a", "-", "b"),
+                TACUtils.binary("t6", "b", "-", "a")
+        );
+
+        List<TACInstruction> out = new LocalValueNumbering().apply(code);
+
+        assertEquals("t1", out.get(1).getArg1());
+        assertEquals("t3", out.get(3).getArg1());
+        assertEquals(OpType.BINARY_OP, out.get(5).getOp(), "La resta no es conmutativa");
+    }
+
+    @Test
+    @DisplayName("Lectura de miembro repetida se reutiliza")
+    void testRepeatedLoadReused() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "this.name"),
+                TACUtils.assign("t2", "this.name"),
+                TACUtils.assign("this.name", "t3"),
+                TACUtils.assign("t4", "this.name")
+        );
+
+        List<TACInstruction> out = new LocalValueNumbering().apply(code);
+
+        assertEquals("t1", out.get(1).getArg1());
+        assertEquals("this.name", out.get(3).getArg1(), "La escritura invalida la lectura");
+    }
+
+    // ============================================
+    // TESTS DE INVALIDACIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("Asignar un operando invalida la expresión")
+    void testAssignmentKillsExpression() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "1"),
+                TACUtils.assign("a", "5"),
+                TACUtils.binary("t2", "a", "+", "1")
+        );
+
+        List<TACInstruction> out = new LocalValueNumbering().apply(code);
+
+        assertEquals(OpType.BINARY_OP, out.get(2).getOp());
+    }
+
+    @Test
+    @DisplayName("Sobrescribir el resultado guardado impide reutilizarlo")
+    void testOverwrittenHolderNotReused() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("x", "a", "+", "b"),
+                TACUtils.assign("y", "x"),
+                TACUtils.assign("x", "0"),
+                TACUtils.binary("t1", "a", "+", "b")
+        );
+
+        List<TACInstruction> out = new LocalValueNumbering().apply(code);
+
+        assertEquals(OpType.ASSIGN, out.get(3).getOp());
+        assertEquals("y", out.get(3).getArg1(), "y todavía guarda a + b");
+    }
+
+    @Test
+    @DisplayName("Una llamada invalida las variables del programa")
+    void testCallKillsProgramVariables() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "a", "+", "b"),
+                TACUtils.call("update", List.of()),
+                TACUtils.binary("t2", "a", "+", "b")
+        );
+
+        List<TACInstruction> out = new LocalValueNumbering().apply(code);
+
+        assertEquals(OpType.BINARY_OP, out.get(2).getOp());
+    }
+}
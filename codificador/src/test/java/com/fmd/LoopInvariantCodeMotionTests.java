@@ -0,0 +1,168 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import com.fmd.modules.TACInstruction.OpType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para LoopInvariantCodeMotion")
+public class LoopInvariantCodeMotionTests {
+
+    /**
+     * Posición de la instrucción que define la variable (-1 si no existe)
+     */
+    private int indexOfDefinition(List<TACInstruction> code, String variable) {
+        for (int i = 0; i < code.size(); i++) {
+            if (variable.equals(code.get(i).getResult())) return i;
+        }
+        return -1;
+    }
+
+    private int indexOfLabel(List<TACInstruction> code, String label) {
+        for (int i = 0; i < code.size(); i++) {
+            if (code.get(i).getOp() == OpType.LABEL && label.equals(code.get(i).getLabel())) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * while (i < n) { x = a * b + i; i = i + 1; } print(x)
+     */
+    private List<TACInstruction> whileLoop(TACInstruction body) {
+        return List.of(
+                TACUtils.assign("i", "0"),
+                TACUtils.label("L1"),
+                TACUtils.ifGoto("i", ">=", "n", "L2"),
+                body,
+                TACUtils.binary("x", "t1", "+", "i"),
+                TACUtils.binary("i", "i", "+", "1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L2"),
+                TACUtils.call("print", List.of("x"))
+        );
+    }
+
+    // ============================================
+    // TESTS DE MOVIMIENTO
+    // ============================================
+
+    @Test
+    @DisplayName("Expresión invariante se mueve al preheader")
+    void testInvariantHoisted() {
+        LoopInvariantCodeMotion pass = new LoopInvariantCodeMotion();
+        List<TACInstruction> out = pass.apply(whileLoop(TACUtils.binary("t1", "a", "*", "b")));
+
+        int preheader = indexOfLabel(out, "L1_pre");
+        assertTrue(preheader >= 0);
+        assertEquals(preheader + 1, indexOfDefinition(out, "t1"));
+        assertEquals(preheader + 2, indexOfLabel(out, "L1"));
+        assertEquals(1, pass.getHoistedCount());
+        assertEquals(1, pass.getPreheaderCount());
+    }
+
+    @Test
+    @DisplayName("Los saltos desde fuera del lazo entran por el preheader")
+    void testOutsideJumpRedirected() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("i", "0"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L1"),
+                TACUtils.ifGoto("i", ">=", "n", "L2"),
+                TACUtils.binary("t1", "a", "-", "b"),
+                TACUtils.binary("i", "i", "+", "t1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L2")
+        );
+
+        List<TACInstruction> out = new LoopInvariantCodeMotion().apply(code);
+
+        assertEquals("L1_pre", out.get(1).getLabel());
+        assertEquals("L1", out.get(out.size() - 2).getLabel(), "El salto de retroceso no cambia");
+    }
+
+    @Test
+    @DisplayName("Lazos anidados: la invariante sale de ambos")
+    void testNestedLoops() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("i", "0"),
+                TACUtils.label("L1"),
+                TACUtils.ifGoto("i", ">=", "n", "L4"),
+                TACUtils.assign("j", "0"),
+                TACUtils.label("L2"),
+                TACUtils.ifGoto("j", ">=", "n", "L3"),
+                TACUtils.binary("t1", "a", "*", "b"),
+                TACUtils.binary("s", "s", "+", "t1"),
+                TACUtils.binary("j", "j", "+", "1"),
+                TACUtils.gotoLabel("L2"),
+                TACUtils.label("L3"),
+                TACUtils.binary("i", "i", "+", "1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L4"),
+                TACUtils.call("print", List.of("s"))
+        );
+
+        LoopInvariantCodeMotion pass = new LoopInvariantCodeMotion();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertTrue(indexOfDefinition(out, "t1") < indexOfLabel(out, "L1"));
+        assertEquals(2, pass.getHoistedCount());
+    }
+
+    // ============================================
+    // TESTS DE CONDICIONES
+    // ============================================
+
+    @Test
+    @DisplayName("Resultado vivo a la salida de un bloque que no domina la salida se queda")
+    void testLiveAtExitNotHoisted() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("L1"),
+                TACUtils.ifGoto("i", ">=", "n", "L2"),
+                TACUtils.binary("x", "a", "*", "b"),     // x se lee después del lazo
+                TACUtils.binary("i", "i", "+", "1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L2"),
+                TACUtils.call("print", List.of("x"))
+        );
+
+        LoopInvariantCodeMotion pass = new LoopInvariantCodeMotion();
+        List<TACInstruction> out = pass.apply(code);
+
+        assertEquals(0, pass.getHoistedCount());
+        assertEquals(code.size(), out.size());
+    }
+
+    @Test
+    @DisplayName("Una llamada en el lazo impide mover expresiones sobre variables del programa")
+    void testCallBlocksProgramVariables() {
+        List<TACInstruction> code = List.of(
+                TACUtils.label("L1"),
+                TACUtils.ifGoto("i", ">=", "n", "L2"),
+                TACUtils.call("update", List.of()),
+                TACUtils.binary("t1", "a", "*", "b"),
+                TACUtils.binary("i", "i", "+", "t1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L2")
+        );
+
+        LoopInvariantCodeMotion pass = new LoopInvariantCodeMotion();
+        pass.apply(code);
+
+        assertEquals(0, pass.getHoistedCount());
+    }
+
+    @Test
+    @DisplayName("División por una variable no se mueve")
+    void testDivisionNotHoisted() {
+        LoopInvariantCodeMotion pass = new LoopInvariantCodeMotion();
+        pass.apply(whileLoop(TACUtils.binary("t1", "a", "/", "b")));
+        assertEquals(0, pass.getHoistedCount());
+
+        pass.apply(whileLoop(TACUtils.binary("t1", "a", "/", "4")));
+        assertEquals(1, pass.getHoistedCount());
+    }
+}
@@ -0,0 +1,121 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para PeepholeOptimizer")
+public class PeepholeOptimizerTests {
+
+    private List<String> optimize(int window, MIPSInstruction... code) {
+        return new PeepholeOptimizer(window).optimize(Arrays.asList(code)).stream()
+                .map(MIPSInstruction::toShortString)
+                .collect(Collectors.toList());
+    }
+
+    // ============================================
+    // TESTS DE REGLAS
+    // ============================================
+
+    @Test
+    @DisplayName("move $r, $r se elimina")
+    void testSelfMoveRemoved() {
+        List<String> out = optimize(3,
+                MIPSInstruction.move("$t2", "$t2"),
+                MIPSInstruction.move("$t3", "$t2"));
+
+        assertEquals(List.of("move $t3, $t2"), out);
+    }
+
+    @Test
+    @DisplayName("li sobrescrito por move se elimina")
+    void testLiOverwrittenByMove() {
+        List<String> out = optimize(3,
+                MIPSInstruction.li("$t0", 5),
+                MIPSInstruction.move("$t0", "$t1"));
+        assertEquals(List.of("move $t0, $t1"), out);
+
+        // move que lee el mismo registro: el li sí se usa
+        List<String> kept = optimize(3,
+                MIPSInstruction.li("$t0", 5),
+                MIPSInstruction.typeR(OpCode.ADD, "$t0", "$t0", "$t1"));
+        assertEquals(2, kept.size());
+    }
+
+    @Test
+    @DisplayName("Salto a la etiqueta siguiente se elimina")
+    void testJumpToNextLabel() {
+        List<String> out = optimize(3,
+                MIPSInstruction.jump(OpCode.J, "L2"),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.label("L2"),
+                MIPSInstruction.li("$t0", 1));
+
+        assertEquals(List.of("L1:", "L2:", "li $t0"), out);
+    }
+
+    @Test
+    @DisplayName("Store seguido de load del mismo slot")
+    void testStoreLoadSameSlot() {
+        List<String> same = optimize(3,
+                MIPSInstruction.loadStore(OpCode.SW, "$t0", "8($sp)"),
+                MIPSInstruction.loadStore(OpCode.LW, "$t0", "8($sp)"));
+        assertEquals(1, same.size(), "El load es redundante");
+
+        List<String> other = optimize(3,
+                MIPSInstruction.loadStore(OpCode.SW, "$t0", "8($sp)"),
+                MIPSInstruction.loadStore(OpCode.LW, "$t4", "8($sp)"));
+        assertEquals("move $t4, $t0", other.get(1), "El load se vuelve move");
+    }
+
+    @Test
+    @DisplayName("Una etiqueta entre store y load impide la regla")
+    void testLabelBlocksStoreLoad() {
+        List<String> out = optimize(3,
+                MIPSInstruction.loadStore(OpCode.SW, "$t0", "8($sp)"),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.loadStore(OpCode.LW, "$t0", "8($sp)"));
+
+        assertEquals(3, out.size());
+    }
+
+    // ============================================
+    // TESTS DE PUNTO FIJO Y VENTANA
+    // ============================================
+
+    @Test
+    @DisplayName("Las reglas se aplican hasta el punto fijo")
+    void testFixpoint() {
+        // Quitar el self-move deja li ; li juntos, y luego sobra el primero
+        PeepholeOptimizer optimizer = new PeepholeOptimizer(3);
+        List<MIPSInstruction> out = optimizer.optimize(List.of(
+                MIPSInstruction.li("$t0", 1),
+                MIPSInstruction.move("$t1", "$t1"),
+                MIPSInstruction.li("$t0", 2)));
+
+        assertEquals(1, out.size());
+        assertEquals("2", out.get(0).getImmediate());
+        assertTrue(optimizer.getPasses() >= 2);
+        assertEquals(Integer.valueOf(1), optimizer.getAppliedCounts().get("self-move"));
+    }
+
+    @Test
+    @DisplayName("La ventana limita cuántas instrucciones examina una regla")
+    void testWindowLimitsMatches() {
+        MIPSInstruction[] code = {
+                MIPSInstruction.jump(OpCode.J, "L3"),
+                MIPSInstruction.label("L1"),
+                MIPSInstruction.label("L2"),
+                MIPSInstruction.label("L3")
+        };
+
+        assertEquals(4, optimize(2, code).size(), "Con ventana 2 no ve L3");
+        assertEquals(3, optimize(4, code).size(), "Con ventana 4 elimina el salto");
+    }
+}
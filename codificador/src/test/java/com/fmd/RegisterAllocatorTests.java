@@ -2,11 +2,14 @@ package com.fmd;
 
 import com.fmd.modules.MIPSInstruction;
 import com.fmd.modules.Symbol;
+import com.fmd.modules.TACInstruction;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -175,7 +178,7 @@ public class RegisterAllocatorTests {
 
         MIPSInstruction lw = instrs.get(0);
         assertEquals(MIPSInstruction.OpCode.LW, lw.getOpcode());
-        assertTrue(lw.getImmediate().contains("$sp"), "Debe usar stack pointer");
+        assertTrue(lw.getImmediate().contains("$fp"), "Debe usar frame pointer");
     }
 
     @Test
@@ -192,18 +195,32 @@ public class RegisterAllocatorTests {
     }
 
     @Test
-    @DisplayName("Offset correcto para variables en memoria")
+    @DisplayName("Sin análisis las variables del programa usan slots relativos a $fp")
     void testVariableOffsets() {
-        allocator.loadVariable("x", "$t0");  // offset 0
-        allocator.loadVariable("y", "$t1");  // offset 4
-        allocator.loadVariable("z", "$t2");  // offset 8
+        allocator.loadVariable("x", "$t0");
+        allocator.loadVariable("y", "$t1");
+        allocator.loadVariable("z", "$t2");
 
         List<MIPSInstruction> instrs = allocator.getInstructions();
         assertEquals(3, instrs.size());
 
-        assertTrue(instrs.get(0).getImmediate().contains("0($sp)"));
-        assertTrue(instrs.get(1).getImmediate().contains("4($sp)"));
-        assertTrue(instrs.get(2).getImmediate().contains("8($sp)"));
+        assertEquals("-4($fp)", instrs.get(0).getImmediate());
+        assertEquals("-8($fp)", instrs.get(1).getImmediate());
+        assertEquals("-12($fp)", instrs.get(2).getImmediate());
+    }
+
+    @Test
+    @DisplayName("Temporales desalojados van a slots relativos a $fp")
+    void testTemporarySlots() {
+        allocator.loadVariable("t1", "$t0");
+        allocator.loadVariable("t2", "$t1");
+        allocator.loadVariable("t1", "$t2");
+
+        List<MIPSInstruction> instrs = allocator.getInstructions();
+        assertEquals("-4($fp)", instrs.get(0).getImmediate());
+        assertEquals("-8($fp)", instrs.get(1).getImmediate());
+        assertEquals("-4($fp)", instrs.get(2).getImmediate());
+        assertEquals(8, allocator.getFrameSize());
     }
 
     // ============================================
@@ -296,6 +313,465 @@ public class RegisterAllocatorTests {
         assertTrue(swCount >= 3, "Debe hacer flush de todas las variables");
     }
 
+    // ============================================
+    // TESTS DE LIVENESS
+    // ============================================
+
+    @Test
+    @DisplayName("Valor muerto se descarta sin SW")
+    void testDeadValueDroppedWithoutStore() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.assign("y", "t1")
+        );
+        allocator.setLiveness(new LivenessAnalysis(new ControlFlowGraph(code)));
+
+        // t1 = x + 1
+        allocator.advanceLine();
+        String rt1 = allocator.getReg("t1");
+        allocator.getReg("x");
+        allocator.markDirty(rt1);
+        allocator.releaseDeadRegisters();
+
+        // y = t1
+        allocator.advanceLine();
+        String ry = allocator.getReg("y");
+        allocator.getReg("t1");
+        allocator.markDirty(ry);
+        allocator.releaseDeadRegisters();
+
+        allocator.flushAll();
+
+        List<String> stored = allocator.getInstructions().stream()
+                .filter(i -> i.getOpcode() == MIPSInstruction.OpCode.SW)
+                .map(MIPSInstruction::getComment)
+                .collect(Collectors.toList());
+
+        assertFalse(stored.contains("spill t1"), "t1 está muerto: no debe guardarse");
+        assertTrue(stored.contains("spill y"), "y vive en memoria: debe guardarse");
+    }
+
+    @Test
+    @DisplayName("Registro de un valor muerto vuelve a estar libre")
+    void testDeadRegisterIsReused() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.binary("t2", "x", "+", "2")
+        );
+        allocator.setLiveness(new LivenessAnalysis(new ControlFlowGraph(code)));
+
+        allocator.advanceLine();
+        String rt1 = allocator.getReg("t1");
+        allocator.markDirty(rt1);
+        allocator.releaseDeadRegisters();
+
+        allocator.advanceLine();
+        String rt2 = allocator.getReg("t2");
+
+        assertEquals(rt1, rt2, "El registro de t1 debe reutilizarse");
+    }
+
+    // ============================================
+    // TESTS DE PRÓXIMO USO (BELADY)
+    // ============================================
+
+    @Test
+    @DisplayName("selectVictim no trata variables del usuario como temporales")
+    void testUserVariableStartingWithTIsNotTemporary() {
+        assertFalse(TACUtils.isTemporary("total"), "total no es un temporal");
+        assertTrue(TACUtils.isTemporary("t12"));
+    }
+
+    @Test
+    @DisplayName("Se desaloja el valor con el próximo uso más lejano")
+    void testEvictsFurthestNextUse() {
+        // t1..t8 ocupan los registros; t9 necesita uno.
+        // t1 se usa al final, el resto de inmediato: la víctima debe ser t1.
+        List<TACInstruction> code = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            code.add(TACUtils.binary("t" + i, "x", "+", String.valueOf(i)));
+        }
+        code.add(TACUtils.binary("t9", "x", "+", "9"));
+        for (int i = 2; i <= 9; i++) {
+            code.add(TACUtils.binary("x", "x", "+", "t" + i));
+        }
+        code.add(TACUtils.binary("x", "x", "+", "t1"));
+
+        List<MIPSInstruction> out = simulate(code, true);
+
+        List<String> spilled = out.stream()
+                .filter(i -> i.getOpcode() == MIPSInstruction.OpCode.SW)
+                .map(MIPSInstruction::getComment)
+                .collect(Collectors.toList());
+        assertTrue(spilled.contains("spill t1"), "t1 tiene el próximo uso más lejano");
+    }
+
+    @Test
+    @DisplayName("Corpus: Belady no genera más tráfico de memoria que LRU")
+    void testBeladyBeatsLruOnCorpus() {
+        int lru = 0;
+        int belady = 0;
+        for (List<TACInstruction> program : spillCorpus()) {
+            lru += countMemoryOps(simulate(program, false));
+            belady += countMemoryOps(simulate(program, true));
+        }
+
+        assertTrue(belady <= lru, "Belady (" + belady + ") debe ser <= LRU (" + lru + ")");
+        assertTrue(belady < lru, "En el corpus Belady debe reducir spills");
+    }
+
+    @Test
+    @DisplayName("Constante desalojada no se guarda y se recalcula con li")
+    void testEvictedConstantIsRematerialized() {
+        List<TACInstruction> code = new ArrayList<>();
+        code.add(TACUtils.assign("t20", "7"));
+        for (int i = 1; i <= 12; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "*", String.valueOf(i)));
+        }
+        for (int i = 1; i <= 12; i++) {
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+        }
+        code.add(TACUtils.binary("c", "b", "+", "t20"));
+
+        RegisterAllocator alloc = new RegisterAllocator(tacGen);
+        List<MIPSInstruction> out = translate(alloc, code);
+
+        assertFalse(out.stream().anyMatch(i -> "spill t20".equals(i.getComment())), "t20 no se guarda");
+        assertTrue(out.stream().anyMatch(i -> i.getOpcode() == MIPSInstruction.OpCode.LI
+                && "remat t20".equals(i.getComment()) && "7".equals(i.getImmediate())));
+        assertEquals(1, alloc.getRematerializedCount());
+    }
+
+    @Test
+    @DisplayName("Temporal con dos definiciones no se recalcula")
+    void testRedefinedTemporaryIsSpilled() {
+        List<TACInstruction> code = new ArrayList<>();
+        code.add(TACUtils.assign("t20", "7"));
+        code.add(TACUtils.ifGoto("a", "<", "0", "L1"));
+        code.add(TACUtils.assign("t20", "8"));
+        code.add(TACUtils.label("L1"));
+        for (int i = 1; i <= 12; i++) {
+            code.add(TACUtils.binary("t" + i, "a", "*", String.valueOf(i)));
+        }
+        for (int i = 1; i <= 12; i++) {
+            code.add(TACUtils.binary("b", "b", "+", "t" + i));
+        }
+        code.add(TACUtils.binary("c", "b", "+", "t20"));
+
+        RegisterAllocator alloc = new RegisterAllocator(tacGen);
+        translate(alloc, code);
+
+        assertEquals(0, alloc.getRematerializedCount());
+        assertTrue(TACUtils.constantTemporaries(code).isEmpty());
+    }
+
+    /**
+     * Traduce como MIPSGenerator (con prepare) y devuelve lo que emite el allocator
+     */
+    private List<MIPSInstruction> translate(RegisterAllocator alloc, List<TACInstruction> code) {
+        alloc.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+        for (TACInstruction tac : code) {
+            alloc.advanceLine();
+            for (String use : TACUtils.getUses(tac)) {
+                alloc.getReg(use);
+            }
+            String def = TACUtils.getDefinition(tac);
+            if (def != null) {
+                alloc.markDirty(alloc.getRegForResult(def));
+            }
+            alloc.releaseDeadRegisters();
+        }
+        alloc.flushAll();
+        return alloc.getInstructions();
+    }
+
+    /**
+     * Programas con más de 8 temporales vivos a la vez
+     */
+    private List<List<TACInstruction>> spillCorpus() {
+        List<List<TACInstruction>> corpus = new ArrayList<>();
+
+        // Suma en orden inverso a la definición
+        List<TACInstruction> reverseSum = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            reverseSum.add(TACUtils.binary("t" + i, "a", "*", String.valueOf(i)));
+        }
+        reverseSum.add(TACUtils.assign("t13", "0"));
+        for (int i = 12; i >= 1; i--) {
+            reverseSum.add(TACUtils.binary("t13", "t13", "+", "t" + i));
+        }
+        reverseSum.add(TACUtils.assign("result", "t13"));
+        corpus.add(reverseSum);
+
+        // Un valor reutilizado a lo largo de una cadena larga
+        List<TACInstruction> hotValue = new ArrayList<>();
+        hotValue.add(TACUtils.binary("t1", "a", "+", "b"));
+        for (int i = 2; i <= 16; i++) {
+            hotValue.add(TACUtils.binary("t" + i, "t1", "+", String.valueOf(i)));
+            if (i % 3 == 0) {
+                hotValue.add(TACUtils.binary("c", "c", "+", "t" + (i - 1)));
+            }
+        }
+        for (int i = 16; i >= 2; i--) {
+            hotValue.add(TACUtils.binary("d", "d", "+", "t" + i));
+        }
+        corpus.add(hotValue);
+
+        // Dos grupos intercalados
+        List<TACInstruction> interleaved = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            interleaved.add(TACUtils.binary("t" + i, "x", "-", String.valueOf(i)));
+        }
+        for (int i = 1; i <= 10; i += 2) {
+            interleaved.add(TACUtils.binary("y", "y", "+", "t" + i));
+        }
+        for (int i = 2; i <= 10; i += 2) {
+            interleaved.add(TACUtils.binary("z", "z", "+", "t" + i));
+        }
+        corpus.add(interleaved);
+
+        return corpus;
+    }
+
+    /**
+     * Asigna registros como lo haría MIPSGenerator: fuentes, luego destino
+     */
+    private List<MIPSInstruction> simulate(List<TACInstruction> code, boolean withNextUse) {
+        RegisterAllocator alloc = new RegisterAllocator(tacGen);
+        LivenessAnalysis liveness = new LivenessAnalysis(new ControlFlowGraph(code));
+        alloc.setLiveness(liveness);
+        if (withNextUse) {
+            alloc.setNextUseTable(new NextUseTable(liveness));
+        }
+
+        for (TACInstruction tac : code) {
+            alloc.advanceLine();
+            for (String use : TACUtils.getUses(tac)) {
+                alloc.getReg(use);
+            }
+            String def = TACUtils.getDefinition(tac);
+            if (def != null) {
+                alloc.markDirty(alloc.getRegForResult(def));
+            }
+            alloc.releaseDeadRegisters();
+        }
+        alloc.flushAll();
+        return alloc.getInstructions();
+    }
+
+    private long countMemoryOps(List<MIPSInstruction> instrs) {
+        return instrs.stream()
+                .filter(i -> i.getOpcode() == MIPSInstruction.OpCode.SW
+                        || i.getOpcode() == MIPSInstruction.OpCode.LW)
+                .count();
+    }
+
+    // ============================================
+    // TESTS DE REGISTROS $s
+    // ============================================
+
+    @Test
+    @DisplayName("Valor vivo a través de una llamada va a $s y no se guarda")
+    void testValueAcrossCallUsesSavedRegister() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.call("print", List.of("x")),
+                TACUtils.binary("t2", "t1", "+", "1"),
+                TACUtils.assign("y", "t2")
+        );
+        allocator.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+
+        allocator.advanceLine();
+        allocator.getReg("x");
+        String rt1 = allocator.getRegForResult("t1");
+        allocator.markDirty(rt1);
+        allocator.releaseDeadRegisters();
+
+        allocator.advanceLine();
+        allocator.saveTemporaries();
+
+        assertTrue(rt1.startsWith("$s"), "t1 sobrevive a la llamada: " + rt1);
+        assertTrue(allocator.getUsedSavedRegisters().contains(rt1), "El prólogo debe guardar " + rt1);
+        boolean storedT1 = allocator.getInstructions().stream()
+                .anyMatch(i -> "spill t1".equals(i.getComment()));
+        assertFalse(storedT1, "Un $s no se guarda antes de la llamada");
+    }
+
+    @Test
+    @DisplayName("Sin liveness: lo guardado antes de la llamada se recarga en su próximo uso")
+    void testValueReloadedAfterCall() {
+        String before = allocator.getRegForResult("t1");
+        allocator.markDirty(before);
+        allocator.saveTemporaries();
+
+        allocator.advanceLine();
+        String after = allocator.getReg("t1");
+
+        List<MIPSInstruction> instrs = allocator.getInstructions();
+        assertEquals(2, instrs.size());
+        assertEquals(MIPSInstruction.OpCode.SW, instrs.get(0).getOpcode());
+        assertEquals(MIPSInstruction.OpCode.LW, instrs.get(1).getOpcode());
+        assertEquals(after, instrs.get(1).getRt());
+    }
+
+    @Test
+    @DisplayName("Argumento que muere en la llamada no se guarda")
+    void testDeadArgumentNotSaved() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.call("print", List.of("t1")),
+                TACUtils.assign("y", "x")
+        );
+        allocator.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+
+        allocator.advanceLine();
+        allocator.getReg("x");
+        allocator.markDirty(allocator.getRegForResult("t1"));
+        allocator.releaseDeadRegisters();
+
+        allocator.advanceLine();
+        allocator.getReg("t1");
+        allocator.saveTemporaries();
+
+        assertFalse(allocator.getInstructions().stream()
+                .anyMatch(i -> i.getOpcode() == MIPSInstruction.OpCode.SW), "t1 muere en la llamada");
+    }
+
+    @Test
+    @DisplayName("Llamada en un solo brazo del if: cada camino deja el valor en memoria")
+    void testCallInOneBranch() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.ifGoto("y", ">", "0", "L"),
+                TACUtils.call("print", List.of("5")),
+                TACUtils.gotoLabel("J"),
+                TACUtils.label("L"),
+                TACUtils.binary("t2", "t1", "+", "2"),
+                TACUtils.assign("y", "t2"),
+                TACUtils.label("J"),
+                TACUtils.binary("t3", "t1", "+", "3"),
+                TACUtils.assign("z", "t3"));
+        String mips = new MIPSGenerator(tacGen, RegisterAllocationStrategy.Kind.LOCAL,
+                OptimizationOptions.defaults()).generate(code);
+
+        // t1 se guarda antes del branch, no solo en el camino de la llamada
+        Matcher reload = Pattern.compile("L:\\n    lw      (\\$\\w+), (-\\d+\\(\\$fp\\))").matcher(mips);
+        assertTrue(reload.find(), "t1 se recarga al llegar a L: " + mips);
+        int store = mips.indexOf("sw      " + reload.group(1) + ", " + reload.group(2));
+        assertTrue(store >= 0 && store < mips.indexOf("bgt"), "El slot se escribe antes de saltar: " + mips);
+
+        // En J no se supone que t1 o y siguen en el registro de un solo camino
+        String join = mips.substring(mips.indexOf("J:"));
+        assertTrue(join.startsWith("J:\n    lw      "), "t1 se recarga en la unión: " + mips);
+        String armL = mips.substring(mips.indexOf("L:"), mips.indexOf("J:"));
+        assertTrue(armL.contains("4($gp)"), "y se guarda antes de la unión: " + mips);
+    }
+
+    @Test
+    @DisplayName("Los auxiliares de constantes no se guardan ni se recargan después de la llamada")
+    void testScratchNotReloadedAfterCall() {
+        List<TACInstruction> code = List.of(
+                TACUtils.call("g", List.of("1", "2", "3", "4", "5")),
+                TACUtils.call("g", List.of("1", "2", "3", "4", "6"))
+        );
+        allocator.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+
+        // El quinto argumento pasa por un registro auxiliar antes de cada jal
+        allocator.advanceLine();
+        allocator.markDirty(allocator.getReg("imm_0"));
+        allocator.saveTemporaries();
+
+        allocator.advanceLine();
+        allocator.getReg("imm_0");
+        allocator.saveTemporaries();
+
+        assertTrue(allocator.getInstructions().isEmpty(),
+                "Sin sw ni lw para el auxiliar: " + allocator.getInstructions());
+    }
+
+    @Test
+    @DisplayName("Constante viva a través de una llamada queda en $t y se recalcula después")
+    void testConstantAcrossCallRematerialized() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("t1", "5"),
+                TACUtils.call("print", List.of("x")),
+                TACUtils.binary("t2", "t1", "+", "x"),
+                TACUtils.assign("y", "t2")
+        );
+        allocator.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+        assertFalse(allocator.isLongLived("t1"), "li después de la llamada es más barato que un $s");
+
+        allocator.advanceLine();
+        String rt1 = allocator.getRegForResult("t1");
+        allocator.markDirty(rt1);
+        allocator.releaseDeadRegisters();
+
+        allocator.advanceLine();
+        allocator.getReg("x");
+        allocator.saveTemporaries();
+        allocator.releaseDeadRegisters();
+
+        allocator.advanceLine();
+        allocator.getReg("t1");
+
+        List<MIPSInstruction> instrs = allocator.getInstructions();
+        assertTrue(rt1.startsWith("$t"));
+        assertFalse(instrs.stream().anyMatch(i -> i.getOpcode() == MIPSInstruction.OpCode.SW
+                && "save t1".equals(i.getComment())));
+        assertTrue(instrs.stream().anyMatch(i -> "remat t1".equals(i.getComment())));
+    }
+
+    @Test
+    @DisplayName("Variable viva en la cabecera de un lazo va a $s; temporal local va a $t")
+    void testLoopCarriedValueUsesSavedRegister() {
+        List<TACInstruction> code = List.of(
+                TACUtils.assign("i", "0"),
+                TACUtils.label("L1"),
+                TACUtils.ifGoto("i", ">=", "10", "L2"),
+                TACUtils.binary("t1", "i", "+", "1"),
+                TACUtils.assign("i", "t1"),
+                TACUtils.gotoLabel("L1"),
+                TACUtils.label("L2")
+        );
+        allocator.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+
+        assertTrue(allocator.isLongLived("i"));
+        assertFalse(allocator.isLongLived("t1"));
+
+        allocator.advanceLine();
+        String ri = allocator.getRegForResult("i");
+        assertTrue(ri.startsWith("$s"), "i cruza la arista de retroceso: " + ri);
+
+        allocator.advanceLine();
+        allocator.advanceLine();
+        allocator.advanceLine();
+        String rt1 = allocator.getRegForResult("t1");
+        assertTrue(rt1.startsWith("$t"), "t1 no sale de la iteración: " + rt1);
+
+        allocator.reset();
+        assertTrue(allocator.getUsedSavedRegisters().isEmpty(), "reset inicia una nueva función");
+    }
+
+    @Test
+    @DisplayName("Solo son de larga vida los valores que se leen después de la llamada")
+    void testOnlyValuesReadAfterCallAreLongLived() {
+        List<TACInstruction> code = List.of(
+                TACUtils.binary("t1", "x", "+", "1"),
+                TACUtils.assign("a", "t1"),
+                TACUtils.call("print", List.of("b")),
+                TACUtils.binary("t2", "a", "+", "1"),
+                TACUtils.assign("c", "t2"),
+                TACUtils.call("print", List.of("c"))
+        );
+        allocator.prepare(code, new LivenessAnalysis(new ControlFlowGraph(code)));
+
+        // Todas las variables del programa están vivas en las llamadas
+        assertTrue(allocator.isLongLived("a"), "a se lee después de la llamada");
+        assertFalse(allocator.isLongLived("b"), "b solo es argumento");
+        assertFalse(allocator.isLongLived("x"), "x no se vuelve a leer");
+        assertFalse(allocator.isLongLived("c"), "c no se lee después de la segunda llamada");
+    }
+
     // ============================================
     // TESTS DE RESET
     // ============================================
@@ -323,29 +799,38 @@ public class RegisterAllocatorTests {
     // ============================================
 
     private TACGenerator createMockTACGenerator() {
+        // Variables comunes
+        List<String> vars = new ArrayList<>(List.of("x", "y", "z", "a", "b", "c", "d", "e", "result"));
+
+        // Temporales
+        for (int i = 1; i <= 20; i++) {
+            vars.add("t" + i);
+            vars.add("var" + i);
+        }
+        return createMockTACGenerator(vars.toArray(new String[0]));
+    }
+
+    /**
+     * TACGenerator con las variables enteras indicadas en el scope global,
+     * a offsets consecutivos de 4 bytes. Lo comparten los tests del
+     * generador y de los allocators.
+     */
+    static TACGenerator createMockTACGenerator(String... vars) {
         Map<String, SemanticVisitor.Entorno> scopeTable = new HashMap<>();
         SemanticVisitor.Entorno root = new SemanticVisitor.Entorno(null, "0");
         scopeTable.put("0", root);
 
-        // Variables comunes
-        String[] vars = {"x", "y", "z", "a", "b", "c", "d", "e", "result"};
         for (int i = 0; i < vars.length; i++) {
             addMockSymbol(root, vars[i], "integer", i * 4);
         }
 
-        // Temporales
-        for (int i = 1; i <= 20; i++) {
-            addMockSymbol(root, "t" + i, "integer", (vars.length + i) * 4);
-            addMockSymbol(root, "var" + i, "integer", (vars.length + 20 + i) * 4);
-        }
-
         TACGenerator tacGen = new TACGenerator(scopeTable);
         tacGen.setCurrentScopeLine("0");
         return tacGen;
     }
 
-    private void addMockSymbol(SemanticVisitor.Entorno entorno,
-                               String name, String type, int offset) {
+    private static void addMockSymbol(SemanticVisitor.Entorno entorno,
+                                      String name, String type, int offset) {
         Symbol sym = new Symbol(name, Symbol.Kind.VARIABLE, type, null, 1, 1, true);
         sym.setOffset(offset);
         sym.setSize(4);
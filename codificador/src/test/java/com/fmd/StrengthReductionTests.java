@@ -0,0 +1,129 @@
+package com.fmd;
+
+import com.fmd.modules.MIPSInstruction;
+import com.fmd.modules.MIPSInstruction.OpCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para StrengthReduction")
+public class StrengthReductionTests {
+
+    private static final int[] SAMPLES = {0, 1, -1, 7, -7, 8, -8, 100, -100, 12345, -12345,
+            Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    /**
+     * Ejecuta la secuencia con $t1 = x y devuelve $t0
+     */
+    private int run(List<MIPSInstruction> code, int x) {
+        Map<String, Integer> regs = new HashMap<>();
+        regs.put("$zero", 0);
+        regs.put("$t1", x);
+        for (MIPSInstruction instr : code) {
+            int rs = instr.getRs() != null ? regs.getOrDefault(instr.getRs(), 0) : 0;
+            int rt = instr.getRt() != null ? regs.getOrDefault(instr.getRt(), 0) : 0;
+            int imm = instr.getImmediate() != null ? Integer.parseInt(instr.getImmediate()) : 0;
+            int value;
+            switch (instr.getOpcode()) {
+                case SLL: value = rt << imm; break;
+                case SRL: value = rt >>> imm; break;
+                case SRA: value = rt >> imm; break;
+                case ADD: value = rs + rt; break;
+                case SUB: value = rs - rt; break;
+                case MOVE: value = rs; break;
+                case LI: value = imm; break;
+                default: throw new AssertionError("Instrucción inesperada: " + instr.toShortString());
+            }
+            regs.put(instr.getRd(), value);
+        }
+        return regs.get("$t0");
+    }
+
+    private static List<String> opcodes(List<MIPSInstruction> code) {
+        return code.stream().map(i -> i.getOpcode().toString()).collect(Collectors.toList());
+    }
+
+    // ============================================
+    // TESTS DE MULTIPLICACIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("Multiplicación por potencia de dos es un sll")
+    void testMultiplyByPowerOfTwo() {
+        List<MIPSInstruction> code = StrengthReduction.multiply("$t0", "$t1", 4, () -> "$t2");
+
+        assertEquals(List.of("SLL"), opcodes(code));
+        assertEquals("2", code.get(0).getImmediate());
+    }
+
+    @Test
+    @DisplayName("Multiplicaciones con desplazamiento y suma dan el mismo resultado que mul")
+    void testMultiplySequencesAreExact() {
+        for (int c : new int[]{0, 1, -1, 2, 3, 5, 6, 7, 9, 10, 12, 15, 24, 31, 1024, -4, -6}) {
+            List<MIPSInstruction> code = StrengthReduction.multiply("$t0", "$t1", c, () -> "$t2");
+            assertNotNull(code, "Constante " + c);
+            for (int x : SAMPLES) {
+                assertEquals(x * c, run(code, x), x + " * " + c);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Constante sin forma conveniente mantiene mul")
+    void testMultiplyFallsBack() {
+        assertNull(StrengthReduction.multiply("$t0", "$t1", 11, () -> "$t2"));
+        assertNull(StrengthReduction.multiply("$t0", "$t1", 45, () -> "$t2"));
+    }
+
+    @Test
+    @DisplayName("Solo se pide temporal cuando la secuencia lo usa")
+    void testTemporaryRequestedOnlyWhenNeeded() {
+        int[] requests = {0};
+        StrengthReduction.multiply("$t0", "$t1", 8, () -> { requests[0]++; return "$t2"; });
+        assertEquals(0, requests[0]);
+
+        StrengthReduction.multiply("$t0", "$t1", 12, () -> { requests[0]++; return "$t2"; });
+        assertEquals(1, requests[0]);
+    }
+
+    // ============================================
+    // TESTS DE DIVISIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("División con signo por potencia de dos redondea hacia cero")
+    void testDivideRoundsTowardZero() {
+        for (int c : new int[]{1, -1, 2, 4, 8, 256, 1 << 30, -2, -16}) {
+            List<MIPSInstruction> code = StrengthReduction.divide("$t0", "$t1", c, () -> "$t2");
+            assertNotNull(code, "Constante " + c);
+            for (int x : SAMPLES) {
+                assertEquals(x / c, run(code, x), x + " / " + c);
+            }
+        }
+
+        List<MIPSInstruction> code = StrengthReduction.divide("$t0", "$t1", 4, () -> "$t2");
+        assertEquals(List.of("SRA", "SRL", "ADD", "SRA"), opcodes(code));
+    }
+
+    @Test
+    @DisplayName("Divisor que no es potencia de dos o cero mantiene div")
+    void testDivideFallsBack() {
+        assertNull(StrengthReduction.divide("$t0", "$t1", 3, () -> "$t2"));
+        assertNull(StrengthReduction.divide("$t0", "$t1", 0, () -> "$t2"));
+    }
+
+    @Test
+    @DisplayName("El destino puede coincidir con la fuente")
+    void testDestinationEqualsSource() {
+        List<MIPSInstruction> code = StrengthReduction.divide("$t1", "$t1", -8, () -> "$t2");
+        code = new ArrayList<>(code);
+        code.add(MIPSInstruction.move("$t0", "$t1"));
+
+        assertEquals(-100 / -8, run(code, -100));
+        assertEquals(OpCode.MOVE, code.get(code.size() - 1).getOpcode());
+    }
+}
@@ -0,0 +1,165 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para tablas de saltos y árboles de decisión en switch")
+public class SwitchLoweringTests {
+
+    private TACGenerator tacGen;
+
+    @BeforeEach
+    void setUp() {
+        tacGen = RegisterAllocatorTests.createMockTACGenerator("x");
+    }
+
+    /**
+     * switch (x) con un caso por valor (etiquetas C0, C1, ...) y default D,
+     * como lo genera el TAC: t = c; if x == t goto Ck; ...; goto D.
+     * Los casos no terminan en break: cada uno sigue al siguiente.
+     */
+    private static List<TACInstruction> switchCode(int... values) {
+        List<TACInstruction> code = new ArrayList<>();
+        for (int k = 0; k < values.length; k++) {
+            code.add(TACUtils.assign("t" + (k + 1), String.valueOf(values[k])));
+            code.add(TACUtils.ifGoto("x", "==", "t" + (k + 1), "C" + k));
+        }
+        code.add(TACUtils.gotoLabel("D"));
+        for (int k = 0; k < values.length; k++) {
+            code.add(TACUtils.label("C" + k));
+            code.add(TACUtils.call("print", List.of(String.valueOf(k))));
+        }
+        code.add(TACUtils.label("D"));
+        code.add(TACUtils.call("print", List.of("99")));
+        return code;
+    }
+
+    private String generate(OptimizationOptions options, List<TACInstruction> code) {
+        return generate(RegisterAllocationStrategy.Kind.LOCAL, options, code);
+    }
+
+    private String generate(RegisterAllocationStrategy.Kind kind, OptimizationOptions options,
+                            List<TACInstruction> code) {
+        return new MIPSGenerator(tacGen, kind, options).generate(code);
+    }
+
+    private static int count(String text, String part) {
+        return text.split(java.util.regex.Pattern.quote(part), -1).length - 1;
+    }
+
+    // ============================================
+    // TESTS DE RECONOCIMIENTO
+    // ============================================
+
+    @Test
+    @DisplayName("Reconoce la cadena de comparaciones y su default")
+    void testMatchChain() {
+        List<TACInstruction> code = switchCode(3, 1, 2, 5);
+        SwitchDispatch dispatch = SwitchDispatch.match(code, 0, TACUtils.useCounts(code));
+
+        assertNotNull(dispatch);
+        assertEquals("x", dispatch.getScrutinee());
+        assertEquals("D", dispatch.getDefaultLabel());
+        assertEquals(9, dispatch.getLength());
+        assertEquals(List.of(1, 2, 3, 5), new ArrayList<>(dispatch.getCases().keySet()));
+        assertEquals(List.of("C1", "C2", "C0", "D", "C3"), dispatch.tableLabels());
+    }
+
+    @Test
+    @DisplayName("Pocos casos o un temporal usado fuera de la cadena no se reconocen")
+    void testNoMatch() {
+        List<TACInstruction> few = switchCode(1, 2, 3);
+        assertNull(SwitchDispatch.match(few, 0, TACUtils.useCounts(few)));
+
+        List<TACInstruction> shared = switchCode(1, 2, 3, 4);
+        shared.add(TACUtils.call("print", List.of("t1")));
+        assertNull(SwitchDispatch.match(shared, 0, TACUtils.useCounts(shared)));
+    }
+
+    @Test
+    @DisplayName("Densidad: tabla si los casos cubren al menos el 40% del rango")
+    void testDensity() {
+        List<TACInstruction> dense = switchCode(0, 2, 4, 6, 9);
+        assertTrue(SwitchDispatch.match(dense, 0, TACUtils.useCounts(dense)).isDense());
+
+        List<TACInstruction> sparse = switchCode(0, 10, 20, 30, 40);
+        assertFalse(SwitchDispatch.match(sparse, 0, TACUtils.useCounts(sparse)).isDense());
+    }
+
+    // ============================================
+    // TESTS DE GENERACIÓN
+    // ============================================
+
+    @Test
+    @DisplayName("Casos densos: tabla de saltos en .data, lw y jr")
+    void testJumpTable() {
+        String mips = generate(OptimizationOptions.defaults(), switchCode(1, 2, 3, 5, 6));
+
+        assertTrue(mips.contains("switch_table_0: .word C0, C1, C2, D, C3, C4"), mips);
+        assertTrue(mips.contains("switch_table_0($"), mips);
+        assertTrue(mips.contains("jr      $"), mips);
+        assertTrue(mips.contains("slti"), "Valores fuera de rango van al default: " + mips);
+        assertEquals(0, count(mips, "beq     "), "Sin cadena de comparaciones: " + mips);
+    }
+
+    @Test
+    @DisplayName("Tabla desde 0 con el valor en un scratch: la comparación no pisa el índice")
+    void testZeroBasedTableWithScratchScrutinee() {
+        for (RegisterAllocationStrategy.Kind kind : List.of(
+                RegisterAllocationStrategy.Kind.LINEAR_SCAN, RegisterAllocationStrategy.Kind.GRAPH_COLORING)) {
+            String mips = generate(kind, OptimizationOptions.defaults(), switchCode(0, 1, 2, 4, 5));
+
+            Matcher load = Pattern.compile("lw      (\\$t\\d), 0\\(\\$gp\\)").matcher(mips);
+            assertTrue(load.find(), "x se carga en un scratch: " + mips);
+            String value = load.group(1);
+            Matcher check = Pattern.compile("slti    (\\$\\w+), " + Pattern.quote(value) + ", 6").matcher(mips);
+            assertTrue(check.find(), kind + ": " + mips);
+            assertNotEquals(value, check.group(1), kind + ": el rango no se calcula sobre el índice: " + mips);
+            assertTrue(mips.contains(", " + value + ", 2\n"), kind + ": el desplazamiento lee el valor: " + mips);
+        }
+    }
+
+    @Test
+    @DisplayName("Casos dispersos: árbol binario de comparaciones")
+    void testDecisionTree() {
+        String mips = generate(OptimizationOptions.defaults(), switchCode(1, 10, 100, 1000, 5000, 9000));
+
+        assertFalse(mips.contains("switch_table"), mips);
+        assertTrue(mips.contains("switch_0_0:"), mips);
+        assertTrue(mips.matches("(?s).*slti    \\$t\\d, \\$[ts]\\d, 1000\n.*"), "Divide por el caso del medio: " + mips);
+        for (int k = 0; k < 6; k++) {
+            assertEquals(1, count(mips, ", C" + k + "\n"), "Cada caso se compara una vez: " + mips);
+        }
+        assertEquals(2, count(mips, "j       D"), "Cada hoja termina en el default: " + mips);
+    }
+
+    @Test
+    @DisplayName("Los cuerpos de los casos no cambian: el fall-through se conserva")
+    void testFallThroughPreserved() {
+        String mips = generate(OptimizationOptions.defaults(), switchCode(1, 2, 3, 4));
+        String bodies = mips.substring(mips.indexOf("C0:"));
+
+        assertTrue(bodies.indexOf("C0:") < bodies.indexOf("C1:"));
+        String first = bodies.substring(0, bodies.indexOf("C1:"));
+        assertFalse(first.contains("j       "), "C0 sigue a C1 sin salto: " + first);
+    }
+
+    @Test
+    @DisplayName("Sin la optimización se conserva la cadena de comparaciones")
+    void testDisabled() {
+        OptimizationOptions options = OptimizationOptions.defaults();
+        options.setSwitchLowering(false);
+        String mips = generate(options, switchCode(1, 2, 3, 5, 6));
+
+        assertFalse(mips.contains("switch_table"), mips);
+        assertEquals(5, count(mips, "beq     "), mips);
+    }
+}
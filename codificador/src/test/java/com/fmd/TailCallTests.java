@@ -0,0 +1,126 @@
+package com.fmd;
+
+import com.fmd.modules.TACInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Tests para llamadas en posición de cola")
+public class TailCallTests {
+
+    private TACGenerator tacGen;
+
+    @BeforeEach
+    void setUp() {
+        tacGen = RegisterAllocatorTests.createMockTACGenerator("n", "r");
+    }
+
+    /**
+     * Código MIPS de la función f: desde su etiqueta hasta su jr $ra
+     */
+    private String generateFunction(OptimizationOptions options, TACInstruction... body) {
+        List<TACInstruction> code = new ArrayList<>();
+        code.add(TACUtils.label("f"));
+        code.addAll(Arrays.asList(body));
+        code.add(TACUtils.end("f"));
+        code.add(TACUtils.assignCall("r", "f", List.of("5")));
+
+        MIPSGenerator generator = new MIPSGenerator(tacGen, RegisterAllocationStrategy.Kind.LOCAL, options);
+        String mips = generator.generate(code);
+        int start = mips.indexOf("f:");
+        int end = mips.indexOf("jr      $ra", start);
+        return mips.substring(start, end);
+    }
+
+    // ============================================
+    // TESTS DE RECURSIÓN EN COLA
+    // ============================================
+
+    @Test
+    @DisplayName("Recursión propia en cola se convierte en lazo")
+    void testSelfRecursionBecomesLoop() {
+        String f = generateFunction(OptimizationOptions.defaults(),
+                TACUtils.ifGoto("n", "==", "0", "done"),
+                TACUtils.binary("t1", "n", "-", "1"),
+                TACUtils.assignCall("t2", "f", List.of("t1")),
+                TACUtils.ret("t2"),
+                TACUtils.label("done"),
+                TACUtils.ret("0"));
+
+        assertTrue(f.contains("f_body:"), f);
+        assertTrue(f.contains("j       f_body"), f);
+        assertFalse(f.contains("jal"), f);
+        assertFalse(f.contains("$ra"), "Sin jal la función es hoja: " + f);
+    }
+
+    @Test
+    @DisplayName("El lazo de la recursión queda después del prólogo")
+    void testBodyLabelAfterProlog() {
+        String f = generateFunction(OptimizationOptions.defaults(),
+                TACUtils.call("print", List.of("n")),
+                TACUtils.binary("t1", "n", "-", "1"),
+                TACUtils.assignCall("t2", "f", List.of("t1")),
+                TACUtils.ret("t2"));
+
+        assertTrue(f.indexOf("sw      $ra") < f.indexOf("f_body:"), f);
+        assertTrue(f.indexOf("f_body:") < f.indexOf("jal     print"), f);
+    }
+
+    // ============================================
+    // TESTS DE LLAMADAS A OTRAS FUNCIONES
+    // ============================================
+
+    @Test
+    @DisplayName("Llamada en cola a otra función usa j")
+    void testTailCallUsesJump() {
+        String f = generateFunction(OptimizationOptions.defaults(),
+                TACUtils.assignCall("t1", "g", List.of("n")),
+                TACUtils.ret("t1"));
+
+        assertTrue(f.contains("j       g"), f);
+        assertFalse(f.contains("jal"), f);
+        assertFalse(f.contains("$v0"), "El resultado de g ya está en $v0: " + f);
+    }
+
+    @Test
+    @DisplayName("El frame se libera antes del salto")
+    void testFrameReleasedBeforeJump() {
+        String f = generateFunction(OptimizationOptions.defaults(),
+                TACUtils.call("print", List.of("n")),
+                TACUtils.assignCall("t1", "g", List.of("n")),
+                TACUtils.ret("t1"));
+
+        int jump = f.indexOf("j       g");
+        assertTrue(jump > 0, f);
+        assertTrue(f.lastIndexOf("lw      $ra", jump) > f.indexOf("jal     print"), f);
+        assertTrue(f.lastIndexOf("addi    $sp, $sp, 8", jump) > 0, f);
+    }
+
+    @Test
+    @DisplayName("Resultado usado después de la llamada: jal normal")
+    void testNotTailPosition() {
+        String f = generateFunction(OptimizationOptions.defaults(),
+                TACUtils.assignCall("t1", "g", List.of("n")),
+                TACUtils.binary("t2", "t1", "+", "1"),
+                TACUtils.ret("t2"));
+
+        assertTrue(f.contains("jal     g"), f);
+    }
+
+    @Test
+    @DisplayName("Sin la optimización se mantiene jal")
+    void testDisabled() {
+        OptimizationOptions options = OptimizationOptions.defaults();
+        options.setTailCalls(false);
+        String f = generateFunction(options,
+                TACUtils.assignCall("t1", "f", List.of("n")),
+                TACUtils.ret("t1"));
+
+        assertTrue(f.contains("jal     f"), f);
+        assertFalse(f.contains("f_body"), f);
+    }
+}